@@ -0,0 +1,76 @@
+package com.urbaneyes.benchmark;
+
+import com.urbaneyes.UrbanEyesApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sobe a aplicação sem servidor web sobre um H2 em memória exclusivo e popula a tabela issue via JDBC em lote.
+ */
+final class BenchmarkApplication {
+
+    private static final int INSERT_BATCH = 5_000;
+    private static final String[] STATUSES = {"OPEN", "PENDING", "IN_PROGRESS", "RESOLVED", "CLOSED"};
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                "spring.jpa.show-sql=false",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        all.addAll(List.of(properties));
+        // Como argumentos de linha de comando, para prevalecer sobre o application.yaml
+        return new SpringApplicationBuilder(UrbanEyesApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(all.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    /** Cria categorias extras até existirem {@code total}, para espalhar as issues semeadas depois. */
+    static void seedCategories(ConfigurableApplicationContext context, int total) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Integer existing = jdbc.queryForObject("SELECT COUNT(*) FROM category", Integer.class);
+        for (int i = existing == null ? 0 : existing; i < total; i++) {
+            jdbc.update("INSERT INTO category (name) VALUES (?)", "Category " + i);
+        }
+    }
+
+    /** Texto único por chamada, para que a checagem de duplicatas do createIssue não funda os relatos. */
+    static String uniqueText(String prefix) {
+        return prefix + " " + UUID.randomUUID();
+    }
+
+    /** Insere {@code rows} issues distribuídas entre as categorias existentes, uma por segundo a partir de {@code start}. */
+    static void seedIssues(ConfigurableApplicationContext context, int rows, LocalDateTime start) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        List<Long> categories = jdbc.queryForList("SELECT id FROM category ORDER BY id", Long.class);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < rows; i++) {
+            Timestamp createdAt = Timestamp.valueOf(start.plusSeconds(i));
+            batch.add(new Object[]{"Issue " + i, "Synthetic issue number " + i, STATUSES[i % STATUSES.length],
+                    createdAt, createdAt, categories.get(i % categories.size())});
+            if (batch.size() == INSERT_BATCH) {
+                insert(jdbc, batch);
+            }
+        }
+        insert(jdbc, batch);
+    }
+
+    private static void insert(JdbcTemplate jdbc, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO issue (title, description, status, created_at, updated_at, category_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", batch);
+            batch.clear();
+        }
+    }
+}
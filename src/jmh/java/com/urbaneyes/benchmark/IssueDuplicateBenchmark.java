@@ -0,0 +1,98 @@
+package com.urbaneyes.benchmark;
+
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueDuplicateIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Custo da checagem de duplicata feita no createIssue com um milhão de issues abertas no índice LSH, tanto para
+ * um relato novo quanto para um relato quase igual a uma issue existente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class IssueDuplicateBenchmark {
+
+    private static final String[] WORDS = {
+            "buraco", "rua", "avenida", "semáforo", "quebrado", "poste", "luz", "apagado", "calçada", "árvore",
+            "caída", "lixo", "acumulado", "esgoto", "vazando", "praça", "escola", "ponto", "ônibus", "esquina",
+            "enorme", "perigoso", "pista", "faixa", "pedestre", "bueiro", "entupido", "alagamento", "vazamento",
+            "água", "fiação", "exposta", "muro", "pichado", "terreno", "abandonado", "sinalização", "placa",
+            "derrubada", "mato", "alto", "iluminação", "noite", "trânsito", "ciclovia", "obstruída", "entulho"};
+    private static final int CATEGORIES = 10;
+
+    @Param({"1000000"})
+    private int issues;
+
+    private IssueDuplicateIndex duplicateIndex;
+    private Issue[] freshReports;
+    private Issue[] repeatedReports;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        duplicateIndex = new IssueDuplicateIndex(null, 8, 5, 0.7, 150);
+        LongStream.rangeClosed(1, issues).parallel().forEach(id -> {
+            Random random = new Random(id);
+            duplicateIndex.put(new IssueSnapshot(id, sentence(random, 4), sentence(random, 10), IssueStatus.OPEN,
+                    1L + id % CATEGORIES, latitude(id), longitude(id), null, null));
+        });
+
+        Random random = new Random(-1);
+        freshReports = new Issue[256];
+        repeatedReports = new Issue[256];
+        for (int i = 0; i < freshReports.length; i++) {
+            freshReports[i] = report(sentence(random, 4), sentence(random, 10), 1L + random.nextInt(CATEGORIES));
+            long id = 1 + random.nextInt(issues);
+            Random original = new Random(id);
+            repeatedReports[i] = report(sentence(original, 4).toUpperCase(), sentence(original, 10) + "!",
+                    1L + id % CATEGORIES);
+            repeatedReports[i].setLatitude(latitude(id));
+            repeatedReports[i].setLongitude(longitude(id));
+            freshReports[i].setLatitude(latitude(id));
+            freshReports[i].setLongitude(longitude(id));
+        }
+    }
+
+    @Benchmark
+    public Optional<Long> freshReport() {
+        return duplicateIndex.findDuplicate(freshReports[next++ & 255]);
+    }
+
+    @Benchmark
+    public Optional<Long> repeatedReport() {
+        return duplicateIndex.findDuplicate(repeatedReports[next++ & 255]);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            sentence.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+
+    // Espalhadas por uns 10 km: sem coordenadas nenhum relato é comparado
+    private static double latitude(long id) {
+        return -23.60 + (id % 1000) * 1e-4;
+    }
+
+    private static double longitude(long id) {
+        return -46.70 + (id / 1000 % 1000) * 1e-4;
+    }
+
+    private static Issue report(String title, String description, Long categoryId) {
+        return new Issue(null, title, description, IssueStatus.OPEN, new Category(categoryId, null));
+    }
+}
@@ -0,0 +1,68 @@
+package com.urbaneyes.benchmark;
+
+import com.urbaneyes.dto.IssueBatchResponse;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueBatchService;
+import com.urbaneyes.service.IssueService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linhas inseridas por segundo: POST /api/issues/batch (inserts em lote via JDBC) contra o caminho
+ * atual de um save() por issue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@OperationsPerInvocation(IssueIngestionBenchmark.ISSUES_PER_REQUEST)
+public class IssueIngestionBenchmark {
+
+    static final int ISSUES_PER_REQUEST = 500;
+
+    private ConfigurableApplicationContext context;
+    private IssueService issueService;
+    private IssueBatchService issueBatchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        issueService = context.getBean(IssueService.class);
+        issueBatchService = context.getBean(IssueBatchService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static List<Issue> newIssues() {
+        List<Issue> issues = new ArrayList<>(ISSUES_PER_REQUEST);
+        for (int i = 0; i < ISSUES_PER_REQUEST; i++) {
+            issues.add(new Issue(null, BenchmarkApplication.uniqueText("Synced report"), "Reported by a field crew.",
+                    IssueStatus.OPEN, new Category((long) (i % 2 + 1), null)));
+        }
+        return issues;
+    }
+
+    @Benchmark
+    public IssueBatchResponse batch() {
+        return issueBatchService.createIssues(newIssues());
+    }
+
+    @Benchmark
+    public void oneAtATime(Blackhole blackhole) {
+        for (Issue issue : newIssues()) {
+            blackhole.consume(issueService.createIssue(issue));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.urbaneyes.benchmark;
+
+import com.urbaneyes.dto.IssuePage;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.service.IssueCursor;
+import com.urbaneyes.service.IssueService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de uma página de GET /api/issues conforme a tabela cresce. A busca por keyset deve ficar estável
+ * tanto na primeira página quanto no meio da tabela; a paginação por offset serve de referência.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class IssuePaginationBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private IssueService issueService;
+    private IssueRepository issueRepository;
+    private String middleCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        BenchmarkApplication.seedIssues(context, rows, start);
+        issueService = context.getBean(IssueService.class);
+        issueRepository = context.getBean(IssueRepository.class);
+
+        Issue middle = issueRepository.findAll(PageRequest.of(rows / 2, 1, Sort.by("id"))).getContent().get(0);
+        middleCursor = IssueCursor.of(middle).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public IssuePage keysetFirstPage() {
+        return issueService.getIssuesPage(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public IssuePage keysetMiddlePage() {
+        return issueService.getIssuesPage(middleCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Issue> offsetMiddlePage() {
+        Sort order = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+        return issueRepository.findAll(PageRequest.of(rows / 2 / PAGE_SIZE, PAGE_SIZE, order)).getContent();
+    }
+}
@@ -0,0 +1,68 @@
+package com.urbaneyes.benchmark;
+
+import com.urbaneyes.dto.IssueSummary;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.repository.IssueRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findByCategoryId (entidades com a categoria no mesmo SELECT) contra a projeção findSummariesByCategoryId
+ * usada por GET /api/issues/category/{id}, em tabelas de tamanhos diferentes. As issues são espalhadas entre
+ * {@link #CATEGORIES} categorias.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class IssueRepositoryBenchmark {
+
+    private static final int CATEGORIES = 10;
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private IssueRepository issueRepository;
+    private TransactionTemplate readOnly;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seedCategories(context, CATEGORIES);
+        BenchmarkApplication.seedIssues(context, rows, LocalDateTime.of(2020, 1, 1, 0, 0));
+        issueRepository = context.getBean(IssueRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long nextCategory() {
+        return next++ % CATEGORIES + 1;
+    }
+
+    @Benchmark
+    public List<Issue> findByCategoryId() {
+        long categoryId = nextCategory();
+        return readOnly.execute(status -> issueRepository.findByCategoryId(categoryId));
+    }
+
+    @Benchmark
+    public List<IssueSummary> findSummariesByCategoryId() {
+        long categoryId = nextCategory();
+        return readOnly.execute(status -> issueRepository.findSummariesByCategoryId(categoryId));
+    }
+}
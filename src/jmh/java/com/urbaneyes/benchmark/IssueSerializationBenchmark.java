@@ -0,0 +1,97 @@
+package com.urbaneyes.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson com a mesma configuração base do Spring MVC (jsr310, datas ISO-8601) serializando e lendo uma
+ * issue e listas de issues, como nas respostas de GET /api/issues e no corpo de POST /api/issues/batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssueSerializationBenchmark {
+
+    private static final TypeReference<List<Issue>> ISSUE_LIST = new TypeReference<>() {
+    };
+
+    @State(Scope.Benchmark)
+    public static class SingleIssue {
+
+        ObjectMapper objectMapper;
+        Issue issue;
+        byte[] json;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            issue = issue(1);
+            json = objectMapper.writeValueAsBytes(issue);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IssueList {
+
+        @Param({"20", "100", "1000"})
+        int size;
+
+        ObjectMapper objectMapper;
+        List<Issue> issues;
+        byte[] json;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            issues = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                issues.add(issue(i));
+            }
+            json = objectMapper.writeValueAsBytes(issues);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeIssue(SingleIssue state) throws IOException {
+        return state.objectMapper.writeValueAsBytes(state.issue);
+    }
+
+    @Benchmark
+    public Issue deserializeIssue(SingleIssue state) throws IOException {
+        return state.objectMapper.readValue(state.json, Issue.class);
+    }
+
+    @Benchmark
+    public byte[] serializeIssueList(IssueList state) throws IOException {
+        return state.objectMapper.writeValueAsBytes(state.issues);
+    }
+
+    @Benchmark
+    public List<Issue> deserializeIssueList(IssueList state) throws IOException {
+        return state.objectMapper.readValue(state.json, ISSUE_LIST);
+    }
+
+    private static Issue issue(int index) {
+        Issue issue = new Issue((long) index + 1, "Semáforo quebrado " + index,
+                "Semáforo não funciona no cruzamento da Avenida Paulista com a Rua Augusta", IssueStatus.OPEN,
+                new Category((long) index % 5 + 1, "Iluminação pública"));
+        issue.setLatitude(-23.5614 + index * 0.0001);
+        issue.setLongitude(-46.6559);
+        issue.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0).plusMinutes(index));
+        issue.setUpdatedAt(issue.getCreatedAt());
+        return issue;
+    }
+}
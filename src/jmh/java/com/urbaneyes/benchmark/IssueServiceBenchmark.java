@@ -0,0 +1,63 @@
+package com.urbaneyes.benchmark;
+
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de IssueService.createIssue e updateIssue contra o H2 embarcado, incluindo transação, flush, checagem
+ * de duplicatas e publicação do evento de alteração.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IssueServiceBenchmark {
+
+    private static final int SEEDED_ISSUES = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private IssueService issueService;
+    private long[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seedIssues(context, SEEDED_ISSUES, LocalDateTime.of(2020, 1, 1, 0, 0));
+        issueService = context.getBean(IssueService.class);
+        List<Long> seeded = context.getBean(JdbcTemplate.class)
+                .queryForList("SELECT id FROM issue WHERE status IN ('OPEN', 'IN_PROGRESS') ORDER BY id", Long.class);
+        ids = seeded.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Issue createIssue() {
+        return issueService.createIssue(new Issue(null, BenchmarkApplication.uniqueText("Buraco na rua"),
+                "Buraco grande perto do ponto de ônibus", IssueStatus.OPEN, new Category(1L, null)));
+    }
+
+    @Benchmark
+    public Issue updateIssue() {
+        int index = next++;
+        long id = ids[index % ids.length];
+        Issue update = new Issue(null, "Issue " + id, "Updated description " + index,
+                index % 2 == 0 ? IssueStatus.IN_PROGRESS : IssueStatus.OPEN, new Category(id % 2 + 1, null));
+        return issueService.updateIssue(id, update);
+    }
+}
@@ -0,0 +1,82 @@
+package com.urbaneyes.benchmark;
+
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.NearbyIssue;
+import com.urbaneyes.geo.GeoBox;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueSpatialIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas por raio e por retângulo no índice espacial em memória com um milhão de pontos sintéticos
+ * espalhados uniformemente sobre a área da cidade de São Paulo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class IssueSpatialIndexBenchmark {
+
+    private static final double MIN_LATITUDE = -23.80;
+    private static final double MIN_LONGITUDE = -46.80;
+    private static final double SPAN = 0.40;
+    private static final IssueStatus[] STATUSES = IssueSpatialIndex.INDEXED_STATUSES.toArray(IssueStatus[]::new);
+    private static final Set<IssueStatus> ANY = EnumSet.noneOf(IssueStatus.class);
+
+    @Param({"1000000"})
+    private int points;
+
+    @Param({"0.002"})
+    private double cellDegrees;
+
+    private IssueSpatialIndex spatialIndex;
+    private double[][] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        spatialIndex = new IssueSpatialIndex(null, cellDegrees);
+        for (long id = 1; id <= points; id++) {
+            spatialIndex.put(new IssueLocation(id, MIN_LATITUDE + random.nextDouble() * SPAN,
+                    MIN_LONGITUDE + random.nextDouble() * SPAN, STATUSES[random.nextInt(STATUSES.length)],
+                    1L + random.nextInt(10)));
+        }
+        probes = new double[1024][];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = new double[]{MIN_LATITUDE + random.nextDouble() * SPAN,
+                    MIN_LONGITUDE + random.nextDouble() * SPAN};
+        }
+    }
+
+    private double[] nextProbe() {
+        return probes[next++ & (probes.length - 1)];
+    }
+
+    @Benchmark
+    public List<NearbyIssue> nearby200m() {
+        double[] probe = nextProbe();
+        return spatialIndex.findNearby(probe[0], probe[1], 200, ANY, null, 500);
+    }
+
+    @Benchmark
+    public List<NearbyIssue> nearby200mOpenInCategory() {
+        double[] probe = nextProbe();
+        return spatialIndex.findNearby(probe[0], probe[1], 200, EnumSet.of(IssueStatus.OPEN), 3L, 500);
+    }
+
+    @Benchmark
+    public List<IssueLocation> boundingBox1km() {
+        double[] probe = nextProbe();
+        return spatialIndex.findWithin(new GeoBox(probe[0], probe[1], probe[0] + 0.009, probe[1] + 0.009),
+                ANY, null, 500);
+    }
+}
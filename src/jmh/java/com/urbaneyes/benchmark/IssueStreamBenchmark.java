@@ -0,0 +1,90 @@
+package com.urbaneyes.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueEventBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Vazão do fan-out do stream SSE: cada invocação publica um lote de eventos de issues distintas e espera até que
+ * todos os assinantes tenham recebido todos eles. O resultado principal é em eventos por segundo completamente
+ * distribuídos; o contador {@code deliveries} dá as entregas individuais por segundo (eventos × assinantes).
+ *
+ * <p>Os assinantes são sinks em memória, então o número mede o custo do despacho (filas, coalescência, pool) e
+ * não o da escrita em sockets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IssueStreamBenchmark {
+
+    // Menor que o buffer de cada assinante, para que ninguém seja desconectado durante a medição
+    private static final int BATCH = 64;
+
+    @Param({"100", "1000", "10000"})
+    private int subscribers;
+
+    @Param({"4"})
+    private int dispatchThreads;
+
+    private final LongAdder delivered = new LongAdder();
+    private IssueEventBroadcaster broadcaster;
+    private IssueChangedEvent[] events;
+    private long expected;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Deliveries {
+
+        public long deliveries;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        broadcaster = new IssueEventBroadcaster(objectMapper, new SimpleMeterRegistry(), 256, dispatchThreads,
+                subscribers, Duration.ofSeconds(10));
+        for (int i = 0; i < subscribers; i++) {
+            broadcaster.subscribe(null, frame -> delivered.increment());
+        }
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 10, 0);
+        events = new IssueChangedEvent[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            IssueSnapshot before = new IssueSnapshot((long) i, "Buraco na rua " + i, "Buraco grande perto do ponto",
+                    IssueStatus.OPEN, 1L + i % 10, -23.55, -46.63, now, now);
+            events[i] = IssueChangedEvent.statusChanged(before, before.withStatus(IssueStatus.IN_PROGRESS, now));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long publish(Deliveries deliveries) {
+        expected += (long) BATCH * subscribers;
+        for (IssueChangedEvent event : events) {
+            broadcaster.onIssueChanged(event);
+        }
+        while (delivered.sum() < expected) {
+            LockSupport.parkNanos(20_000);
+        }
+        deliveries.deliveries += (long) BATCH * subscribers;
+        return expected;
+    }
+}
@@ -0,0 +1,97 @@
+package com.urbaneyes.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.web.SparseFieldsetAdvice;
+import com.urbaneyes.web.WireFormatConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON, CBOR e Smile com os mesmos mappers das respostas de /api/issues, serializando e lendo uma lista de issues,
+ * com todos os campos e com {@code ?fields=id,status,updatedAt}. O tamanho de cada payload, cru e com gzip, é
+ * impresso no início de cada trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IssueWireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"", "id,status,updatedAt"})
+    String fields;
+
+    @Param({"1000"})
+    int size;
+
+    ObjectMapper objectMapper;
+    SparseFieldsetAdvice.Fieldset fieldset;
+    List<Issue> issues;
+    byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        WireFormatConfig config = new WireFormatConfig();
+        objectMapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> config.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            case "smile" -> config.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        fieldset = SparseFieldsetAdvice.Fieldset.parse(fields);
+        issues = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            issues.add(issue(i));
+        }
+        payload = serialize();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload);
+        }
+        System.out.printf("%n%s fields=[%s] size=%d: %d bytes, %d bytes com gzip%n",
+                format, fields, size, payload.length, compressed.size());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        if (fieldset.isEmpty()) {
+            return objectMapper.writeValueAsBytes(issues);
+        }
+        JsonNode tree = objectMapper.valueToTree(issues);
+        fieldset.retain(tree);
+        return objectMapper.writeValueAsBytes(tree);
+    }
+
+    @Benchmark
+    public JsonNode deserialize() throws IOException {
+        return objectMapper.readTree(payload);
+    }
+
+    private static Issue issue(int index) {
+        Issue issue = new Issue((long) index + 1, "Semáforo quebrado " + index,
+                "Semáforo não funciona no cruzamento da Avenida Paulista com a Rua Augusta", IssueStatus.OPEN,
+                new Category((long) index % 5 + 1, "Iluminação pública"));
+        issue.setLatitude(-23.5614 + index * 0.0001);
+        issue.setLongitude(-46.6559);
+        issue.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0).plusMinutes(index));
+        issue.setUpdatedAt(issue.getCreatedAt());
+        return issue;
+    }
+}
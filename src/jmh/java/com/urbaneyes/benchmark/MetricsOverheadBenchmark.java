@@ -0,0 +1,67 @@
+package com.urbaneyes.benchmark;
+
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.service.CategoryService;
+import com.urbaneyes.service.IssueService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da instrumentação: o mesmo caminho com e sem o {@code @Timed} dos services e as estatísticas do Hibernate.
+ * A leitura de categoria vem do cache (mostra o custo fixo do timer); a de issue vai ao H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Aquecimento longo: a diferença esperada é menor que o ruído de uma JIT ainda compilando
+@Warmup(iterations = 8, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private static final int SEEDED_ISSUES = 10_000;
+
+    @Param({"true", "false"})
+    private boolean instrumented;
+
+    private ConfigurableApplicationContext context;
+    private CategoryService categoryService;
+    private IssueService issueService;
+    private long[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "urbaneyes.metrics.service-timers.enabled=" + instrumented,
+                "spring.jpa.properties.hibernate.generate_statistics=" + instrumented);
+        BenchmarkApplication.seedIssues(context, SEEDED_ISSUES, LocalDateTime.of(2020, 1, 1, 0, 0));
+        categoryService = context.getBean(CategoryService.class);
+        issueService = context.getBean(IssueService.class);
+        List<Long> seeded = context.getBean(JdbcTemplate.class)
+                .queryForList("SELECT id FROM issue ORDER BY id", Long.class);
+        ids = seeded.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Category> cachedCategory() {
+        return categoryService.getCategoryById(1L);
+    }
+
+    @Benchmark
+    public Optional<Issue> issueById() {
+        return issueService.getIssueById(ids[next++ % ids.length]);
+    }
+}
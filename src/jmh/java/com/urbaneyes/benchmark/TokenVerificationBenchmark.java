@@ -0,0 +1,55 @@
+package com.urbaneyes.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.security.AuthenticatedUser;
+import com.urbaneyes.security.InvalidTokenException;
+import com.urbaneyes.security.TokenService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão da verificação de tokens feita pelo filtro de autenticação (HMAC + leitura das claims), sem banco.
+ * Rode com {@code -t <n>} para medir a escala entre threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    private TokenService tokenService;
+    private String validToken;
+    private String forgedToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tokenService = new TokenService("benchmark-secret-benchmark-secret-0123", Duration.ofHours(1),
+                new ObjectMapper());
+        validToken = tokenService.issue(42L, "cidadao@example.com");
+        forgedToken = validToken.substring(0, validToken.length() - 4) + "AAAA";
+    }
+
+    @Benchmark
+    public AuthenticatedUser verifyValidToken() {
+        return tokenService.verify(validToken);
+    }
+
+    @Benchmark
+    public boolean rejectForgedToken() {
+        try {
+            tokenService.verify(forgedToken);
+            return true;
+        } catch (InvalidTokenException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return tokenService.issue(42L, "cidadao@example.com");
+    }
+}
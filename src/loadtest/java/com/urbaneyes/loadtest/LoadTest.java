@@ -0,0 +1,173 @@
+package com.urbaneyes.loadtest;
+
+import com.urbaneyes.UrbanEyesApplication;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.model.User;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.service.IssueBatchService;
+import com.urbaneyes.service.UserService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sobe a aplicação numa porta aleatória sobre um H2 em memória, semeia a massa de dados e dispara ao mesmo tempo
+ * os cenários de {@code /api/issues}, {@code /api/categories} e {@code /api/users/login} em modelo aberto.
+ * Imprime os percentis, grava os histogramas em {@code output-dir} e termina com código 1 se algum SLO for violado.
+ *
+ * <pre>mvn -Ploadtest test-compile exec:exec -Dloadtest.args="duration-seconds=60 issues.rate=300"</pre>
+ */
+public final class LoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final int SEED_BATCH = 1_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestSettings settings = new LoadTestSettings(args);
+        List<ScenarioResult> results;
+        try (ConfigurableApplicationContext context = start()) {
+            Dataset dataset = seed(context, settings);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            results = run(scenarios(URI.create("http://localhost:" + port), settings, dataset), settings);
+        }
+
+        Path outputDir = Path.of(settings.get("output-dir"));
+        report(results, outputDir, System.out);
+        List<String> violations = results.stream().flatMap(result -> result.violations().stream()).toList();
+        if (!violations.isEmpty()) {
+            System.out.println();
+            violations.forEach(violation -> System.out.println("SLO VIOLATED " + violation));
+            System.exit(1);
+        }
+        System.out.println();
+        System.out.println("All SLOs met");
+    }
+
+    private static ConfigurableApplicationContext start() {
+        // O restart do DevTools reexecutaria o main com os argumentos do Spring no lugar dos do teste de carga
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Como argumentos de linha de comando, para prevalecer sobre o application.yaml
+        return new SpringApplicationBuilder(UrbanEyesApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID(),
+                "--spring.jpa.show-sql=false",
+                // Toda a carga sai de um único IP, que o controle de admissão limitaria como um cliente só
+                "--urbaneyes.admission.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+    }
+
+    private record Dataset(List<String> emails) {
+    }
+
+    private static Dataset seed(ConfigurableApplicationContext context, LoadTestSettings settings) {
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        List<Category> categories = new ArrayList<>(categoryRepository.findAll());
+        for (int i = categories.size(); i < settings.getInt("seed.categories"); i++) {
+            categories.add(categoryRepository.save(new Category(null, "Category " + i)));
+        }
+
+        // Pelo IssueBatchService para que os índices em memória (busca, mapa, estatísticas) recebam as issues
+        IssueBatchService batchService = context.getBean(IssueBatchService.class);
+        int total = settings.getInt("seed.issues");
+        IssueStatus[] statuses = IssueStatus.values();
+        for (int from = 0; from < total; from += SEED_BATCH) {
+            List<Issue> batch = new ArrayList<>(SEED_BATCH);
+            for (int i = from; i < Math.min(total, from + SEED_BATCH); i++) {
+                batch.add(new Issue(null, "Load test issue " + i, "Synthetic issue number " + i,
+                        statuses[i % statuses.length], categories.get(i % categories.size())));
+            }
+            batchService.createIssues(batch);
+        }
+
+        UserService userService = context.getBean(UserService.class);
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < settings.getInt("seed.users"); i++) {
+            String email = "load-test-" + i + "@urbaneyes.com";
+            userService.registerUser(new User(null, "load-test-" + i, email, PASSWORD)).join();
+            emails.add(email);
+        }
+        return new Dataset(emails);
+    }
+
+    private static List<Scenario> scenarios(URI base, LoadTestSettings settings, Dataset dataset) {
+        Duration timeout = Duration.ofMillis(settings.getInt("request-timeout-ms"));
+        HttpRequest issues = HttpRequest.newBuilder(base.resolve("/api/issues?size=20")).timeout(timeout).build();
+        HttpRequest categories = HttpRequest.newBuilder(base.resolve("/api/categories")).timeout(timeout).build();
+        List<HttpRequest> logins = dataset.emails().stream()
+                .map(email -> HttpRequest.newBuilder(base.resolve("/api/users/login"))
+                        .timeout(timeout)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"))
+                        .build())
+                .toList();
+        return List.of(
+                new Scenario("issues", settings.getDouble("issues.rate"), n -> issues, settings.slo("issues")),
+                new Scenario("categories", settings.getDouble("categories.rate"), n -> categories,
+                        settings.slo("categories")),
+                new Scenario("login", settings.getDouble("login.rate"),
+                        n -> logins.get((int) (n % logins.size())), settings.slo("login")));
+    }
+
+    private static List<ScenarioResult> run(List<Scenario> scenarios, LoadTestSettings settings) {
+        Duration warmup = Duration.ofSeconds(settings.getInt("warmup-seconds"));
+        Duration duration = Duration.ofSeconds(settings.getInt("duration-seconds"));
+        // Um despachante por cenário; as respostas são tratadas no pool do HttpClient
+        ExecutorService dispatchers = Executors.newFixedThreadPool(scenarios.size());
+        ExecutorService responses = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            OpenLoadGenerator generator = new OpenLoadGenerator(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(responses)
+                    .build());
+            List<CompletableFuture<ScenarioResult>> running = scenarios.stream()
+                    .map(scenario -> CompletableFuture.supplyAsync(
+                            () -> generator.run(scenario, warmup, duration), dispatchers))
+                    .toList();
+            return running.stream().map(CompletableFuture::join).toList();
+        } finally {
+            dispatchers.shutdownNow();
+            responses.shutdownNow();
+        }
+    }
+
+    private static void report(List<ScenarioResult> results, Path outputDir, PrintStream out) throws IOException {
+        Files.createDirectories(outputDir);
+        out.println();
+        out.printf("%-12s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "scenario", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (ScenarioResult result : results) {
+            out.printf("%-12s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.name(), result.requests(), result.throughput(), result.errors(),
+                    result.percentileMillis(50), result.percentileMillis(90), result.percentileMillis(99),
+                    result.percentileMillis(99.9), result.maxMillis());
+            // Distribuição completa em milissegundos, no formato .hgrm do HdrHistogram
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(outputDir.resolve(result.name() + ".hgrm")))) {
+                result.latencies().outputPercentileDistribution(hgrm, 1_000_000d);
+            }
+        }
+        out.println();
+        out.println("Latency distributions written to " + outputDir.toAbsolutePath());
+    }
+}
@@ -0,0 +1,57 @@
+package com.urbaneyes.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Configuração do teste de carga: {@code loadtest.properties} do classpath, sobrescrito por argumentos
+ * {@code chave=valor} da linha de comando.
+ */
+final class LoadTestSettings {
+
+    private final Properties properties = new Properties();
+
+    LoadTestSettings(String... overrides) {
+        try (InputStream defaults = LoadTestSettings.class.getResourceAsStream("/loadtest.properties")) {
+            if (defaults != null) {
+                properties.load(defaults);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String override : overrides) {
+            int separator = override.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + override);
+            }
+            properties.setProperty(override.substring(0, separator).trim(), override.substring(separator + 1).trim());
+        }
+    }
+
+    String get(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing load test setting: " + key);
+        }
+        return value;
+    }
+
+    int getInt(String key) {
+        return Integer.parseInt(get(key));
+    }
+
+    double getDouble(String key) {
+        return Double.parseDouble(get(key));
+    }
+
+    /** SLO do cenário {@code name}, lido de {@code <name>.slo.*}. */
+    Slo slo(String name) {
+        return new Slo(getInt(name + ".slo.p50-ms"), getInt(name + ".slo.p99-ms"), getInt(name + ".slo.p999-ms"),
+                getDouble(name + ".slo.max-error-rate"));
+    }
+
+    record Slo(int p50Millis, int p99Millis, int p999Millis, double maxErrorRate) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.urbaneyes.loadtest;
+
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador em modelo aberto: as requisições partem em instantes fixos ({@code i / taxa}), sem esperar a resposta
+ * anterior, e a latência é medida a partir do instante em que a requisição <em>deveria</em> ter partido. Assim,
+ * se o servidor ou o próprio gerador atrasarem, a fila aparece nos percentis em vez de reduzir a carga
+ * (coordinated omission).
+ */
+final class OpenLoadGenerator {
+
+    private final HttpClient client;
+
+    OpenLoadGenerator(HttpClient client) {
+        this.client = client;
+    }
+
+    /** Roda o cenário por {@code warmup + duration}; só as chegadas previstas dentro de {@code duration} entram no resultado. */
+    ScenarioResult run(Scenario scenario, Duration warmup, Duration duration) {
+        Recorder recorder = new Recorder(3);
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+
+        long interval = Math.max(1, Math.round(1_000_000_000d / scenario.ratePerSecond()));
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            pending.add(client.sendAsync(scenario.requests().apply(i), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (measured) {
+                            recorder.recordValue(System.nanoTime() - intended);
+                            requests.increment();
+                            if (failure != null || response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        }
+                    }));
+        }
+        // Toda requisição tem timeout, então a espera pelas pendentes é limitada
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(failure -> null).join();
+        return new ScenarioResult(scenario.name(), scenario.slo(), recorder.getIntervalHistogram(),
+                requests.sum(), errors.sum(), duration);
+    }
+}
@@ -0,0 +1,17 @@
+package com.urbaneyes.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.function.LongFunction;
+
+/**
+ * Um endpoint sob carga: chegadas a {@code ratePerSecond} fixo e a requisição de número {@code n} montada por
+ * {@code requests}, o que permite variar ids, páginas ou credenciais entre as chamadas.
+ */
+record Scenario(String name, double ratePerSecond, LongFunction<HttpRequest> requests, LoadTestSettings.Slo slo) {
+
+    Scenario {
+        if (!(ratePerSecond > 0)) {
+            throw new IllegalArgumentException("The arrival rate of " + name + " must be positive");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.urbaneyes.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Latências (em nanossegundos) e erros de um cenário na janela medida. */
+record ScenarioResult(String name, LoadTestSettings.Slo slo, Histogram latencies, long requests, long errors,
+                      Duration duration) {
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / NANOS_PER_MILLI;
+    }
+
+    double throughput() {
+        return requests / (duration.toMillis() / 1000d);
+    }
+
+    double errorRate() {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    /** Descrição de cada SLO violado; vazia quando o cenário passou. */
+    List<String> violations() {
+        List<String> violations = new ArrayList<>();
+        if (requests == 0) {
+            violations.add(name + ": no requests completed");
+            return violations;
+        }
+        check(violations, "p50", 50, slo.p50Millis());
+        check(violations, "p99", 99, slo.p99Millis());
+        check(violations, "p99.9", 99.9, slo.p999Millis());
+        if (errorRate() > slo.maxErrorRate()) {
+            violations.add(String.format("%s: error rate %.4f > %.4f", name, errorRate(), slo.maxErrorRate()));
+        }
+        return violations;
+    }
+
+    private void check(List<String> violations, String label, double percentile, int limitMillis) {
+        double actual = percentileMillis(percentile);
+        if (actual > limitMillis) {
+            violations.add(String.format("%s: %s %.1f ms > %d ms", name, label, actual, limitMillis));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.urbaneyes.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de requisições simultâneas ajustado por AIMD sobre a latência observada: uma resposta acima de
+ * {@code targetLatencyNanos} multiplica o limite por {@link #BACKOFF}; cada resposta dentro da meta com o limite
+ * pelo menos meio ocupado soma 1. Assim o limite encolhe assim que as requisições começam a esperar por threads ou
+ * conexões do pool, antes que elas se esgotem, e volta a crescer devagar quando a latência normaliza.
+ *
+ * <p>A redução vale uma vez por janela: só conta a resposta lenta que começou depois da última redução. As que já
+ * estavam em andamento mediram o limite antigo, e contá-las derrubaria o limite ao mínimo num único pico.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastDecrease;
+
+    AdaptiveConcurrencyLimit(int minLimit, int maxLimit, long targetLatencyNanos, LongSupplier nanoTime) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.nanoTime = nanoTime;
+        this.limit = new AtomicInteger(maxLimit);
+        this.lastDecrease = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos) {
+        int wasInFlight = inFlight.getAndDecrement();
+        if (latencyNanos > targetLatencyNanos) {
+            long now = nanoTime.getAsLong();
+            long last = lastDecrease.get();
+            if (now - latencyNanos - last >= 0 && lastDecrease.compareAndSet(last, now)) {
+                limit.updateAndGet(current -> Math.max(minLimit, (int) (current * BACKOFF)));
+            }
+        } else if (wasInFlight * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    int limit() {
+        return limit.get();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
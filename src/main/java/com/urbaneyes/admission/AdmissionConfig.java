@@ -0,0 +1,26 @@
+package com.urbaneyes.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+
+    // Depois do TokenAuthenticationFilter, para identificar o cliente pelo usuário do token
+    @Bean
+    @ConditionalOnProperty(name = "urbaneyes.admission.enabled", matchIfMissing = true)
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionProperties properties,
+                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdmissionFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionFilter(properties, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,209 @@
+package com.urbaneyes.admission;
+
+import com.urbaneyes.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Admissão das requisições da API, antes dos controllers: primeiro o limite por cliente do grupo (o usuário do
+ * token ou, sem token, o IP), que responde 429 com {@code Retry-After}; depois o limite adaptativo de concorrência
+ * do grupo, que responde 503 quando a aplicação já está no limite. Recusar aqui libera a thread do Tomcat em
+ * microssegundos, sem tocar no pool do Hikari.
+ *
+ * <p>Requisições assíncronas (login, exportação) só devolvem a vaga de concorrência quando terminam de fato.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    static final String DECISIONS = "urbaneyes.admission.decisions";
+
+    private final List<Group> groups = new ArrayList<>();
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final LongSupplier nanoTime;
+
+    public AdmissionFilter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    AdmissionFilter(AdmissionProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        for (Map.Entry<String, AdmissionProperties.Group> entry : properties.groups().entrySet()) {
+            groups.add(new Group(entry.getKey(), entry.getValue(), properties, meterRegistry, nanoTime));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Group group = groupOf(request);
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (group.rateLimiter != null) {
+            long wait = group.rateLimiter.tryAcquire(clientOf(request));
+            if (wait > 0) {
+                group.rateLimited.increment();
+                reject(response, 429, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999)),
+                        "Too many requests");
+                return;
+            }
+        }
+        AdaptiveConcurrencyLimit concurrency = group.concurrency;
+        if (concurrency != null && !concurrency.tryAcquire()) {
+            group.overloaded.increment();
+            reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, 1, "Server overloaded");
+            return;
+        }
+        group.admitted.increment();
+        if (concurrency == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = nanoTime.getAsLong();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Release(concurrency, start));
+            } else {
+                concurrency.release(nanoTime.getAsLong() - start);
+            }
+        }
+    }
+
+    private Group groupOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        for (Group group : groups) {
+            if ((group.methods.isEmpty() || group.methods.contains(method))
+                    && group.paths.stream().anyMatch(pattern -> matcher.match(pattern, path))) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    // Roda depois do TokenAuthenticationFilter: com token válido, o limite é do usuário, não do IP
+    private static String clientOf(HttpServletRequest request) {
+        if (request.getAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE) instanceof AuthenticatedUser user) {
+            return "user:" + user.id();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, int status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    private static final class Group {
+
+        private final Set<String> methods;
+        private final List<String> paths;
+        private final ClientRateLimiter rateLimiter;
+        private final AdaptiveConcurrencyLimit concurrency;
+        private final Counter admitted;
+        private final Counter rateLimited;
+        private final Counter overloaded;
+
+        private Group(String name, AdmissionProperties.Group config, AdmissionProperties properties,
+                      MeterRegistry meterRegistry, LongSupplier nanoTime) {
+            this.methods = config.methods().stream()
+                    .map(method -> method.trim().toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            this.paths = List.copyOf(config.paths());
+            this.rateLimiter = config.rate() > 0
+                    ? new ClientRateLimiter(config.rate(), config.burst(), properties.maxClients(),
+                    properties.stripes(), properties.sweepInterval().toNanos(), nanoTime)
+                    : null;
+            this.concurrency = config.maxConcurrency() > 0
+                    ? new AdaptiveConcurrencyLimit(config.minConcurrency(), config.maxConcurrency(),
+                    config.targetLatency().toNanos(), nanoTime)
+                    : null;
+
+            this.admitted = meterRegistry.counter(DECISIONS, "group", name, "outcome", "admitted");
+            this.rateLimited = meterRegistry.counter(DECISIONS, "group", name, "outcome", "rate_limited");
+            this.overloaded = meterRegistry.counter(DECISIONS, "group", name, "outcome", "overloaded");
+            if (rateLimiter != null) {
+                Gauge.builder("urbaneyes.admission.clients", rateLimiter, ClientRateLimiter::clients)
+                        .description("Clientes com balde próprio no limite por cliente")
+                        .tag("group", name)
+                        .register(meterRegistry);
+            }
+            if (concurrency != null) {
+                Gauge.builder("urbaneyes.admission.concurrency.limit", concurrency, AdaptiveConcurrencyLimit::limit)
+                        .description("Limite adaptativo de requisições simultâneas")
+                        .tag("group", name)
+                        .register(meterRegistry);
+                Gauge.builder("urbaneyes.admission.concurrency.in-flight", concurrency,
+                                AdaptiveConcurrencyLimit::inFlight)
+                        .tag("group", name)
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    private final class Release implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit concurrency;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Release(AdaptiveConcurrencyLimit concurrency, long start) {
+            this.concurrency = concurrency;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Um novo ciclo assíncrono remove os listeners; este se registra de novo para continuar valendo
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                concurrency.release(nanoTime.getAsLong() - start);
+            }
+        }
+    }
+}
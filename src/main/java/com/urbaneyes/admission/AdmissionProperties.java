@@ -0,0 +1,42 @@
+package com.urbaneyes.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controle de admissão em {@code urbaneyes.admission}. Os grupos são testados na ordem do arquivo e a requisição
+ * cai no primeiro que casa (método e caminho); a que não casa com nenhum passa direto.
+ */
+@ConfigurationProperties("urbaneyes.admission")
+public record AdmissionProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("100000") int maxClients,
+                                  @DefaultValue("64") int stripes,
+                                  @DefaultValue("PT1M") Duration sweepInterval,
+                                  Map<String, Group> groups) {
+
+    public AdmissionProperties {
+        groups = groups == null ? Map.of() : groups;
+    }
+
+    /**
+     * {@code rate} é por segundo e por cliente, com rajadas de até {@code burst}; com 0, o grupo não tem limite por
+     * cliente. Com {@code maxConcurrency} 0, não tem limite de concorrência. {@code methods} vazio casa com todos.
+     */
+    public record Group(List<String> paths,
+                        @DefaultValue List<String> methods,
+                        @DefaultValue("0") double rate,
+                        @DefaultValue("1") int burst,
+                        @DefaultValue("1") int minConcurrency,
+                        @DefaultValue("0") int maxConcurrency,
+                        @DefaultValue("PT1S") Duration targetLatency) {
+
+        public Group {
+            paths = paths == null ? List.of("/**") : paths;
+            methods = methods == null ? List.of() : methods;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.urbaneyes.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket por cliente na forma de GCRA: cada balde é um único {@link AtomicLong} com o instante teórico da
+ * próxima chegada (TAT), atualizado por CAS, sem lock. Um balde cujo TAT já passou está cheio e é igual a um novo,
+ * então pode ser descartado sem perder nada: é o que a varredura de ociosos faz.
+ *
+ * <p>Os clientes ficam em {@code stripes} mapas independentes, cada um com no máximo {@code maxClients / stripes}
+ * baldes. Quando uma faixa enche e não há ociosos para descartar, os clientes novos dela dividem um balde de
+ * transbordo: a memória fica limitada e, sob uma enxurrada de clientes distintos, são os novos que esperam.
+ */
+final class ClientRateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final long sweepIntervalNanos;
+    private final int stripeCapacity;
+    private final Stripe[] stripes;
+    private final LongSupplier nanoTime;
+
+    ClientRateLimiter(double permitsPerSecond, int burst, int maxClients, int stripes, long sweepIntervalNanos,
+                      LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        if (stripes < 1 || Integer.bitCount(stripes) != 1 || maxClients < stripes) {
+            throw new IllegalArgumentException("Stripes must be a power of two not above max-clients");
+        }
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000 / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.sweepIntervalNanos = sweepIntervalNanos;
+        this.stripeCapacity = maxClients / stripes;
+        this.nanoTime = nanoTime;
+        this.stripes = new Stripe[stripes];
+        long now = nanoTime.getAsLong();
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(now);
+        }
+    }
+
+    /** Consome uma permissão do cliente: 0 se admitido, senão quantos nanossegundos até a próxima. */
+    long tryAcquire(String client) {
+        long now = nanoTime.getAsLong();
+        AtomicLong bucket = stripeOf(client).bucket(client, now);
+        while (true) {
+            long tat = bucket.get();
+            long base = tat - now > 0 ? tat : now;
+            long wait = base - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    int clients() {
+        int clients = 0;
+        for (Stripe stripe : stripes) {
+            clients += stripe.buckets.size();
+        }
+        return clients;
+    }
+
+    private Stripe stripeOf(String client) {
+        int hash = client.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow;
+        private final AtomicLong lastSweep;
+
+        private Stripe(long now) {
+            this.overflow = new AtomicLong(now);
+            this.lastSweep = new AtomicLong(now);
+        }
+
+        AtomicLong bucket(String client, long now) {
+            AtomicLong bucket = buckets.get(client);
+            if (bucket != null) {
+                return bucket;
+            }
+            // No máximo uma varredura por intervalo e faixa, para que clientes novos não paguem sempre por ela
+            long swept = lastSweep.get();
+            if (now - swept >= sweepIntervalNanos && lastSweep.compareAndSet(swept, now)) {
+                // Uma escrita concorrente num balde removido aqui se perde: no pior caso, uma permissão a mais
+                buckets.values().removeIf(idle -> idle.get() - now <= 0);
+            }
+            if (buckets.size() >= stripeCapacity) {
+                return overflow;
+            }
+            return buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.urbaneyes.archive;
+
+import com.urbaneyes.model.IssueStatus;
+
+import java.time.LocalDateTime;
+
+/** Uma issue como gravada no arquivo frio: as colunas da tabela {@code issue}, sem {@code geo_cell}. */
+public record ArchivedIssue(long id,
+                            String title,
+                            String description,
+                            IssueStatus status,
+                            Long categoryId,
+                            Double latitude,
+                            Double longitude,
+                            int reportCount,
+                            long version,
+                            LocalDateTime createdAt,
+                            LocalDateTime updatedAt) {
+}
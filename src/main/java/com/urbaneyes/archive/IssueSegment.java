@@ -0,0 +1,381 @@
+package com.urbaneyes.archive;
+
+import com.urbaneyes.model.IssueStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Segmento imutável do arquivo frio: issues ordenadas por id, divididas em grupos de linhas e, dentro de cada grupo,
+ * gravadas coluna a coluna com deflate. {@code category_id} e {@code status} são codificados por dicionário (cada
+ * linha guarda só o índice na lista de valores distintos do grupo), os ids e {@code created_at} como diferença para a
+ * linha anterior e {@code updated_at} como diferença para o {@code created_at} da própria linha.
+ *
+ * <p>Layout: os grupos em sequência, depois o rodapé (para cada grupo, o primeiro e o último id e a posição de cada
+ * coluna), o tamanho do rodapé e o número mágico. O arquivo é lido por memory-mapping: abrir lê só o rodapé, e uma
+ * busca por id descomprime apenas as colunas do grupo que pode conter a issue.
+ */
+public final class IssueSegment {
+
+    private static final int MAGIC = 0x55454153;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int ID = 0;
+    private static final int CREATED_AT = 1;
+    private static final int UPDATED_AT = 2;
+    private static final int CATEGORY = 3;
+    private static final int STATUS = 4;
+    private static final int TITLE = 5;
+    private static final int DESCRIPTION = 6;
+    private static final int LATITUDE = 7;
+    private static final int LONGITUDE = 8;
+    private static final int REPORT_COUNT = 9;
+    private static final int VERSION = 10;
+    private static final int COLUMNS = 11;
+
+    private static final IssueStatus[] STATUSES = IssueStatus.values();
+
+    private record RowGroup(long firstId, long lastId, int rows, long[] offsets, int[] lengths, int[] rawLengths) {
+    }
+
+    private final Path path;
+    private final MappedByteBuffer data;
+    private final List<RowGroup> groups;
+    private final int rowCount;
+
+    private IssueSegment(Path path, MappedByteBuffer data, List<RowGroup> groups) {
+        this.path = path;
+        this.data = data;
+        this.groups = groups;
+        this.rowCount = groups.stream().mapToInt(RowGroup::rows).sum();
+    }
+
+    /**
+     * Grava as issues num novo segmento em {@code path}. O arquivo é escrito ao lado, sincronizado com o disco e só
+     * então renomeado: um segmento visível está sempre completo.
+     */
+    public static void write(Path path, List<ArchivedIssue> issues, int rowGroupSize) throws IOException {
+        if (issues.isEmpty()) {
+            throw new IllegalArgumentException("An archive segment needs at least one issue");
+        }
+        List<ArchivedIssue> sorted = new ArrayList<>(issues);
+        sorted.sort(Comparator.comparingLong(ArchivedIssue::id));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).id() == sorted.get(i - 1).id()) {
+                throw new IllegalArgumentException("Issue " + sorted.get(i).id() + " appears twice in the segment");
+            }
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ColumnCodec.Writer footer = new ColumnCodec.Writer();
+            footer.varLong(FORMAT_VERSION);
+            int groupCount = (sorted.size() + rowGroupSize - 1) / rowGroupSize;
+            footer.varLong(groupCount);
+            long position = 0;
+            for (int from = 0; from < sorted.size(); from += rowGroupSize) {
+                List<ArchivedIssue> group = sorted.subList(from, Math.min(from + rowGroupSize, sorted.size()));
+                footer.varLong(group.get(0).id());
+                footer.varLong(group.get(group.size() - 1).id() - group.get(0).id());
+                footer.varLong(group.size());
+                for (byte[] raw : encode(group)) {
+                    byte[] compressed = ColumnCodec.deflate(raw);
+                    footer.varLong(position);
+                    footer.varLong(compressed.length);
+                    footer.varLong(raw.length);
+                    position += writeFully(out, ByteBuffer.wrap(compressed));
+                }
+            }
+            byte[] footerBytes = footer.toByteArray();
+            writeFully(out, ByteBuffer.wrap(footerBytes));
+            writeFully(out, ByteBuffer.allocate(8).putInt(footerBytes.length).putInt(MAGIC).flip());
+            out.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static IssueSegment open(Path path) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // O mapeamento continua válido depois de fechar o canal
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int size = data.capacity();
+        if (size < 8 || data.getInt(size - 4) != MAGIC) {
+            throw new IOException("Not an issue archive segment: " + path);
+        }
+        int footerLength = data.getInt(size - 8);
+        byte[] footerBytes = new byte[footerLength];
+        data.get(size - 8 - footerLength, footerBytes);
+        ColumnCodec.Reader footer = new ColumnCodec.Reader(footerBytes);
+        int version = footer.varInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported archive segment version " + version + ": " + path);
+        }
+        int groupCount = footer.varInt();
+        List<RowGroup> groups = new ArrayList<>(groupCount);
+        for (int i = 0; i < groupCount; i++) {
+            long firstId = footer.varLong();
+            long lastId = firstId + footer.varLong();
+            int rows = footer.varInt();
+            long[] offsets = new long[COLUMNS];
+            int[] lengths = new int[COLUMNS];
+            int[] rawLengths = new int[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                offsets[column] = footer.varLong();
+                lengths[column] = footer.varInt();
+                rawLengths[column] = footer.varInt();
+            }
+            groups.add(new RowGroup(firstId, lastId, rows, offsets, lengths, rawLengths));
+        }
+        return new IssueSegment(path, data, groups);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public boolean mayContain(long id) {
+        return !groups.isEmpty() && id >= groups.get(0).firstId() && id <= groups.get(groups.size() - 1).lastId();
+    }
+
+    public Optional<ArchivedIssue> find(long id) {
+        if (!mayContain(id)) {
+            return Optional.empty();
+        }
+        int low = 0;
+        int high = groups.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            RowGroup group = groups.get(middle);
+            if (id < group.firstId()) {
+                high = middle - 1;
+            } else if (id > group.lastId()) {
+                low = middle + 1;
+            } else {
+                return decode(group, null).stream().filter(issue -> issue.id() == id).findFirst();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Percorre o segmento em ordem de id; com {@code categoryId}, grupos sem a categoria nem são descomprimidos. */
+    public void scan(Long categoryId, Consumer<ArchivedIssue> action) {
+        for (RowGroup group : groups) {
+            decode(group, categoryId).forEach(action);
+        }
+    }
+
+    /** Percorre só os ids, em ordem; descomprime apenas a coluna de ids de cada grupo. */
+    public void forEachId(LongConsumer action) {
+        for (RowGroup group : groups) {
+            ColumnCodec.Reader ids = column(group, ID);
+            long id = 0;
+            for (int row = 0; row < group.rows(); row++) {
+                id += ids.varLong();
+                action.accept(id);
+            }
+        }
+    }
+
+    /** O que os buckets de tendência precisam de cada linha. */
+    @FunctionalInterface
+    public interface KeyConsumer {
+
+        void accept(LocalDateTime createdAt, Long categoryId, IssueStatus status);
+    }
+
+    /** Percorre {@code created_at}, categoria e status de cada linha; descomprime só essas três colunas. */
+    public void forEachKey(KeyConsumer action) {
+        for (RowGroup group : groups) {
+            ColumnCodec.Reader categoryColumn = column(group, CATEGORY);
+            Long[] categoryDictionary = new Long[categoryColumn.varInt()];
+            for (int i = 0; i < categoryDictionary.length; i++) {
+                long value = categoryColumn.varLong();
+                categoryDictionary[i] = value == 0 ? null : value - 1;
+            }
+            ColumnCodec.Reader statusColumn = column(group, STATUS);
+            IssueStatus[] statusDictionary = new IssueStatus[statusColumn.varInt()];
+            for (int i = 0; i < statusDictionary.length; i++) {
+                int value = statusColumn.varInt();
+                statusDictionary[i] = value == 0 ? null : STATUSES[value - 1];
+            }
+            ColumnCodec.Reader createdAts = column(group, CREATED_AT);
+            long previousCreatedAt = 0;
+            for (int row = 0; row < group.rows(); row++) {
+                long createdDelta = createdAts.varLong();
+                Long createdAt = null;
+                if (createdDelta != 0) {
+                    createdAt = previousCreatedAt + ColumnCodec.unzigzag(createdDelta - 1);
+                    previousCreatedAt = createdAt;
+                }
+                action.accept(dateTime(createdAt), categoryDictionary[categoryColumn.varInt()],
+                        statusDictionary[statusColumn.varInt()]);
+            }
+        }
+    }
+
+    private static List<byte[]> encode(List<ArchivedIssue> group) {
+        ColumnCodec.Writer[] columns = new ColumnCodec.Writer[COLUMNS];
+        for (int column = 0; column < COLUMNS; column++) {
+            columns[column] = new ColumnCodec.Writer();
+        }
+        Map<Long, Integer> categories = new LinkedHashMap<>();
+        Map<IssueStatus, Integer> statuses = new LinkedHashMap<>();
+        group.forEach(issue -> {
+            categories.putIfAbsent(issue.categoryId(), categories.size());
+            statuses.putIfAbsent(issue.status(), statuses.size());
+        });
+        columns[CATEGORY].varLong(categories.size());
+        categories.keySet().forEach(id -> columns[CATEGORY].varLong(id == null ? 0 : id + 1));
+        columns[STATUS].varLong(statuses.size());
+        statuses.keySet().forEach(status -> columns[STATUS].varLong(status == null ? 0 : status.ordinal() + 1));
+
+        long previousId = 0;
+        long previousCreatedAt = 0;
+        for (ArchivedIssue issue : group) {
+            columns[ID].varLong(issue.id() - previousId);
+            previousId = issue.id();
+            // Diferenças em zigzag + 1, com 0 para null
+            Long createdAt = micros(issue.createdAt());
+            if (createdAt == null) {
+                columns[CREATED_AT].varLong(0);
+            } else {
+                columns[CREATED_AT].varLong(ColumnCodec.zigzag(createdAt - previousCreatedAt) + 1);
+                previousCreatedAt = createdAt;
+            }
+            Long updatedAt = micros(issue.updatedAt());
+            columns[UPDATED_AT].varLong(updatedAt == null ? 0
+                    : ColumnCodec.zigzag(updatedAt - (createdAt == null ? 0 : createdAt)) + 1);
+            columns[CATEGORY].varLong(categories.get(issue.categoryId()));
+            columns[STATUS].varLong(statuses.get(issue.status()));
+            columns[TITLE].string(issue.title());
+            columns[DESCRIPTION].string(issue.description());
+            columns[LATITUDE].float64(issue.latitude() == null ? Double.NaN : issue.latitude());
+            columns[LONGITUDE].float64(issue.longitude() == null ? Double.NaN : issue.longitude());
+            columns[REPORT_COUNT].varLong(issue.reportCount());
+            columns[VERSION].varLong(issue.version());
+        }
+        List<byte[]> encoded = new ArrayList<>(COLUMNS);
+        for (ColumnCodec.Writer column : columns) {
+            encoded.add(column.toByteArray());
+        }
+        return encoded;
+    }
+
+    private List<ArchivedIssue> decode(RowGroup group, Long categoryId) {
+        int rows = group.rows();
+        ColumnCodec.Reader categoryColumn = column(group, CATEGORY);
+        Long[] categoryDictionary = new Long[categoryColumn.varInt()];
+        int wanted = -1;
+        for (int i = 0; i < categoryDictionary.length; i++) {
+            long value = categoryColumn.varLong();
+            categoryDictionary[i] = value == 0 ? null : value - 1;
+            if (categoryId != null && categoryId.equals(categoryDictionary[i])) {
+                wanted = i;
+            }
+        }
+        if (categoryId != null && wanted < 0) {
+            return List.of();
+        }
+        int[] categoryIndexes = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            categoryIndexes[row] = categoryColumn.varInt();
+        }
+
+        ColumnCodec.Reader ids = column(group, ID);
+        ColumnCodec.Reader createdAts = column(group, CREATED_AT);
+        ColumnCodec.Reader updatedAts = column(group, UPDATED_AT);
+        ColumnCodec.Reader statusColumn = column(group, STATUS);
+        ColumnCodec.Reader titles = column(group, TITLE);
+        ColumnCodec.Reader descriptions = column(group, DESCRIPTION);
+        ColumnCodec.Reader latitudes = column(group, LATITUDE);
+        ColumnCodec.Reader longitudes = column(group, LONGITUDE);
+        ColumnCodec.Reader reportCounts = column(group, REPORT_COUNT);
+        ColumnCodec.Reader versions = column(group, VERSION);
+
+        IssueStatus[] statusDictionary = new IssueStatus[statusColumn.varInt()];
+        for (int i = 0; i < statusDictionary.length; i++) {
+            int value = statusColumn.varInt();
+            statusDictionary[i] = value == 0 ? null : STATUSES[value - 1];
+        }
+
+        List<ArchivedIssue> issues = new ArrayList<>(categoryId == null ? rows : 16);
+        long id = 0;
+        long previousCreatedAt = 0;
+        for (int row = 0; row < rows; row++) {
+            id += ids.varLong();
+            long createdDelta = createdAts.varLong();
+            Long createdAt = null;
+            if (createdDelta != 0) {
+                createdAt = previousCreatedAt + ColumnCodec.unzigzag(createdDelta - 1);
+                previousCreatedAt = createdAt;
+            }
+            long updatedDelta = updatedAts.varLong();
+            Long updatedAt = updatedDelta == 0 ? null
+                    : (createdAt == null ? 0 : createdAt) + ColumnCodec.unzigzag(updatedDelta - 1);
+            IssueStatus status = statusDictionary[statusColumn.varInt()];
+            String title = titles.string();
+            String description = descriptions.string();
+            double latitude = latitudes.float64();
+            double longitude = longitudes.float64();
+            int reportCount = reportCounts.varInt();
+            long version = versions.varLong();
+            if (categoryId == null || categoryIndexes[row] == wanted) {
+                issues.add(new ArchivedIssue(id, title, description, status, categoryDictionary[categoryIndexes[row]],
+                        Double.isNaN(latitude) ? null : latitude, Double.isNaN(longitude) ? null : longitude,
+                        reportCount, version, dateTime(createdAt), dateTime(updatedAt)));
+            }
+        }
+        return issues;
+    }
+
+    private ColumnCodec.Reader column(RowGroup group, int column) {
+        ByteBuffer compressed = data.slice(Math.toIntExact(group.offsets()[column]), group.lengths()[column]);
+        return new ColumnCodec.Reader(ColumnCodec.inflate(compressed, group.rawLengths()[column]));
+    }
+
+    private static long writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        long written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        return written;
+    }
+
+    private static Long micros(LocalDateTime time) {
+        if (time == null) {
+            return null;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime dateTime(Long micros) {
+        if (micros == null) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -2,11 +2,10 @@ package com.urbaneyes.controller;
 
 import com.urbaneyes.model.Category;
 import com.urbaneyes.service.CategoryService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
@@ -18,8 +17,10 @@ public class CategoryController {
     }
 
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    public ResponseEntity<byte[]> getAllCategories() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(categoryService.getCategorySnapshot().json());
     }
 
     @PostMapping
@@ -0,0 +1,39 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueChanges;
+import com.urbaneyes.service.IssueChangeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/issues/changes")
+public class IssueChangesController {
+
+    private final IssueChangeService issueChangeService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public IssueChangesController(IssueChangeService issueChangeService,
+                                  @Value("${urbaneyes.issues.changes.default-size:200}") int defaultPageSize,
+                                  @Value("${urbaneyes.issues.changes.max-size:1000}") int maxPageSize) {
+        this.issueChangeService = issueChangeService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @GetMapping
+    public IssueChanges getChanges(@RequestParam(required = false) String since,
+                                   @RequestParam(required = false) Integer size) {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return issueChangeService.getChanges(since, Math.min(pageSize, maxPageSize));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
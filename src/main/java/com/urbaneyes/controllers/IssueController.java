@@ -1,42 +1,162 @@
 package com.urbaneyes.controller;
 
+import com.urbaneyes.dto.IssueBatchResponse;
+import com.urbaneyes.dto.IssuePage;
+import com.urbaneyes.dto.IssueSummary;
 import com.urbaneyes.model.Issue;
+import com.urbaneyes.service.InvalidStatusTransitionException;
+import com.urbaneyes.service.IssueArchive;
+import com.urbaneyes.service.IssueBatchService;
+import com.urbaneyes.service.IssueExportService;
 import com.urbaneyes.service.IssueService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/issues")
 public class IssueController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String DUPLICATE_OF_HEADER = "X-Duplicate-Of";
+
     private final IssueService issueService;
+    private final IssueExportService issueExportService;
+    private final IssueBatchService issueBatchService;
+    private final IssueArchive issueArchive;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public IssueController(IssueService issueService) {
+    public IssueController(IssueService issueService,
+                           IssueExportService issueExportService,
+                           IssueBatchService issueBatchService,
+                           IssueArchive issueArchive,
+                           @Value("${urbaneyes.issues.page.default-size:20}") int defaultPageSize,
+                           @Value("${urbaneyes.issues.page.max-size:100}") int maxPageSize) {
         this.issueService = issueService;
+        this.issueExportService = issueExportService;
+        this.issueBatchService = issueBatchService;
+        this.issueArchive = issueArchive;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @GetMapping
-    public List<Issue> getAllIssues() {
-        return issueService.getAllIssues();
+    public ResponseEntity<List<Issue>> getAllIssues(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                    String accept) {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        IssuePage page = issueService.getIssuesPage(cursor, Math.min(pageSize, maxPageSize));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.nextCursor())
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.eTag(IssueETags.forFormat(IssueETags.weakForIssues(page.items()), accept)).body(page.items());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportIssues(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                issueExportService.exportIssues(compressed);
+                compressed.finish();
+            } else {
+                issueExportService.exportIssues(out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
+    // Com If-None-Match, compara só a versão (uma consulta de uma coluna) e responde 304 sem carregar a issue.
+    // Fora da tabela, procura no arquivo frio
     @GetMapping("/{id}")
-    public ResponseEntity<Issue> getIssueById(@PathVariable Long id) {
+    public ResponseEntity<Issue> getIssueById(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                              String ifNoneMatch,
+                                              WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (ifNoneMatch != null) {
+            Optional<Long> version = issueService.getIssueVersion(id).or(() -> issueArchive.findVersion(id));
+            if (version.isPresent()
+                    && request.checkNotModified(IssueETags.forFormat(IssueETags.strong(version.get()), accept))) {
+                return null;
+            }
+        }
         return issueService.getIssueById(id)
-                .map(ResponseEntity::ok)
+                .or(() -> issueArchive.findIssue(id))
+                .map(issue -> withETag(ResponseEntity.ok(), issue, accept).body(issue))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/category/{categoryId}")
+    public ResponseEntity<List<IssueSummary>> getIssuesByCategory(@PathVariable Long categoryId,
+                                                                  @RequestParam(defaultValue = "false")
+                                                                  boolean includeArchived,
+                                                                  @RequestHeader(value = HttpHeaders.ACCEPT,
+                                                                          required = false) String accept) {
+        List<IssueSummary> summaries = issueService.getIssueSummariesByCategory(categoryId);
+        if (includeArchived) {
+            summaries = issueArchive.withArchivedSummaries(categoryId, summaries);
+        }
+        return ResponseEntity.ok()
+                .eTag(IssueETags.forFormat(IssueETags.weakForSummaries(summaries), accept))
+                .body(summaries);
+    }
+
     @PostMapping
-    public Issue createIssue(@RequestBody Issue issue) {
-        return issueService.createIssue(issue);
+    public ResponseEntity<Issue> createIssue(@RequestBody Issue issue) {
+        Issue savedIssue = issueService.createIssue(issue);
+        if (savedIssue.getReportCount() > 1) {
+            return ResponseEntity.ok().header(DUPLICATE_OF_HEADER, String.valueOf(savedIssue.getId())).body(savedIssue);
+        }
+        return ResponseEntity.ok(savedIssue);
+    }
+
+    @PostMapping("/batch")
+    public IssueBatchResponse createIssues(@RequestBody List<Issue> issues) {
+        return issueBatchService.createIssues(issues);
     }
 
+    // If-Match com a ETag lida antes: se a issue mudou nesse meio-tempo, 412 em vez de sobrescrever
     @PutMapping("/{id}")
-    public ResponseEntity<Issue> updateIssue(@PathVariable Long id, @RequestBody Issue updatedIssue) {
-        return ResponseEntity.ok(issueService.updateIssue(id, updatedIssue));
+    public ResponseEntity<Issue> updateIssue(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                             String ifMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                             String accept,
+                                             @RequestBody Issue updatedIssue) {
+        Issue savedIssue = issueService.updateIssue(id, updatedIssue, IssueETags.expectedVersion(ifMatch));
+        return withETag(ResponseEntity.ok(), savedIssue, accept).body(savedIssue);
     }
 
     @DeleteMapping("/{id}")
@@ -44,4 +164,25 @@ public class IssueController {
         issueService.deleteIssue(id);
         return ResponseEntity.noContent().build();
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("The issue was modified concurrently");
+    }
+
+    @ExceptionHandler(InvalidStatusTransitionException.class)
+    public ResponseEntity<String> handleInvalidTransition(InvalidStatusTransitionException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder response, Issue issue,
+                                                       String accept) {
+        String etag = IssueETags.forFormat(IssueETags.strong(issue), accept);
+        return etag == null ? response : response.eTag(etag);
+    }
 }
@@ -0,0 +1,133 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueSummary;
+import com.urbaneyes.model.Issue;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ETags das issues. A de uma issue é forte e vem do {@code @Version}; a de uma listagem é fraca e resume
+ * (id, versão) ou (id, updatedAt) dos itens, calculada sem serializar a resposta.
+ *
+ * <p>CBOR e Smile são outras representações do mesmo recurso: {@link #forFormat} marca a ETag com o formato que
+ * o {@code Accept} vai negociar ({@code "7+cbor"}), para que um cache nunca valide bytes de um formato com a ETag
+ * do outro. JSON fica sem marca.
+ */
+final class IssueETags {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private IssueETags() {
+    }
+
+    static String strong(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** ETag da issue, ou {@code null} se ela ainda não tem versão. */
+    static String strong(Issue issue) {
+        return issue.getVersion() == null ? null : strong(issue.getVersion());
+    }
+
+    static String weakForIssues(List<Issue> issues) {
+        long hash = mix(issues.size(), 0);
+        for (Issue issue : issues) {
+            hash = mix(hash, issue.getId());
+            hash = mix(hash, issue.getVersion() == null ? -1 : issue.getVersion());
+        }
+        return weak(hash);
+    }
+
+    static String weakForSummaries(List<IssueSummary> summaries) {
+        long hash = mix(summaries.size(), 0);
+        for (IssueSummary summary : summaries) {
+            hash = mix(hash, summary.id());
+            hash = mix(hash, epochMicros(summary.updatedAt()));
+        }
+        return weak(hash);
+    }
+
+    static String weakForTile(long generation, long version) {
+        return weak(mix(mix(generation, 0), version));
+    }
+
+    static String forFormat(String etag, String accept) {
+        String format = format(accept);
+        if (etag == null || format == null) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "+" + format + "\"";
+    }
+
+    // Mesma escolha do Spring MVC: o tipo aceito de maior qualidade, com o JSON à frente para curingas
+    private static String format(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        List<MediaType> types;
+        try {
+            types = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+            if (type.isCompatibleWith(SMILE)) {
+                return "smile";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Versão esperada pelo {@code If-Match}: {@code null} quando o cabeçalho falta ou é {@code *}. Só é aceita uma
+     * única ETag forte, como a devolvida pelo GET em qualquer formato; ETags fracas nunca casam com If-Match.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new IllegalArgumentException("If-Match must be a single strong ETag or *");
+        }
+        try {
+            String version = tag.substring(1, tag.length() - 1);
+            int format = version.indexOf('+');
+            return Long.parseLong(format < 0 ? version : version.substring(0, format));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be a single strong ETag or *");
+        }
+    }
+
+    private static String weak(long hash) {
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    private static long epochMicros(LocalDateTime time) {
+        if (time == null) {
+            return -1;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value * 0x9E3779B97F4A7C15L;
+        return Long.rotateLeft(hash, 31) * 0xBF58476D1CE4E5B9L;
+    }
+}
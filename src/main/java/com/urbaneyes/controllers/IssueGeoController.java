@@ -0,0 +1,55 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.NearbyIssue;
+import com.urbaneyes.geo.GeoBox;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueGeoService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/issues")
+public class IssueGeoController {
+
+    private final IssueGeoService issueGeoService;
+
+    public IssueGeoController(IssueGeoService issueGeoService) {
+        this.issueGeoService = issueGeoService;
+    }
+
+    @GetMapping("/nearby")
+    public List<NearbyIssue> getNearbyIssues(@RequestParam double lat,
+                                             @RequestParam double lon,
+                                             @RequestParam(defaultValue = "200") double radius,
+                                             @RequestParam(required = false) List<IssueStatus> status,
+                                             @RequestParam(required = false) Long categoryId,
+                                             @RequestParam(defaultValue = "100") int limit) {
+        return issueGeoService.findNearby(lat, lon, radius, statuses(status), categoryId, limit);
+    }
+
+    @GetMapping("/within")
+    public List<IssueLocation> getIssuesWithin(@RequestParam double minLat,
+                                               @RequestParam double minLon,
+                                               @RequestParam double maxLat,
+                                               @RequestParam double maxLon,
+                                               @RequestParam(required = false) List<IssueStatus> status,
+                                               @RequestParam(required = false) Long categoryId,
+                                               @RequestParam(defaultValue = "100") int limit) {
+        return issueGeoService.findWithin(new GeoBox(minLat, minLon, maxLat, maxLon), statuses(status), categoryId,
+                limit);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private static Set<IssueStatus> statuses(List<IssueStatus> status) {
+        return status == null || status.isEmpty() ? EnumSet.noneOf(IssueStatus.class) : EnumSet.copyOf(status);
+    }
+}
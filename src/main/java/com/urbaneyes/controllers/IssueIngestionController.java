@@ -0,0 +1,66 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueIngestionStatus;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.service.IngestionQueueFullException;
+import com.urbaneyes.service.IssueIngestionQueue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Criação assíncrona, ativa com {@code urbaneyes.issues.ingestion.enabled}: um POST /api/issues com
+ * {@code Prefer: respond-async} (RFC 7240) cai aqui em vez do IssueController e recebe 202 com o id de
+ * acompanhamento. Sem o cabeçalho, a criação continua síncrona.
+ */
+@RestController
+@RequestMapping("/api/issues")
+@ConditionalOnProperty(name = "urbaneyes.issues.ingestion.enabled", havingValue = "true")
+public class IssueIngestionController {
+
+    static final String RESPOND_ASYNC = "respond-async";
+
+    private final IssueIngestionQueue issueIngestionQueue;
+
+    public IssueIngestionController(IssueIngestionQueue issueIngestionQueue) {
+        this.issueIngestionQueue = issueIngestionQueue;
+    }
+
+    @PostMapping(headers = "Prefer=" + RESPOND_ASYNC)
+    public ResponseEntity<IssueIngestionStatus> submitIssue(@RequestBody Issue issue) {
+        UUID trackingId = issueIngestionQueue.submit(issue);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/ingestion/{trackingId}")
+                .buildAndExpand(trackingId)
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .header("Preference-Applied", RESPOND_ASYNC)
+                .body(IssueIngestionStatus.queued(trackingId));
+    }
+
+    @GetMapping("/ingestion/{trackingId}")
+    public ResponseEntity<IssueIngestionStatus> getIngestionStatus(@PathVariable UUID trackingId) {
+        return issueIngestionQueue.getStatus(trackingId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<String> handleQueueFull(IngestionQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+}
@@ -0,0 +1,29 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueLookupRequest;
+import com.urbaneyes.dto.IssueLookupResult;
+import com.urbaneyes.service.IssueLookupService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/issues")
+public class IssueLookupController {
+
+    private final IssueLookupService issueLookupService;
+
+    public IssueLookupController(IssueLookupService issueLookupService) {
+        this.issueLookupService = issueLookupService;
+    }
+
+    // POST porque a lista de ids e o mapa de versões não cabem bem numa query string
+    @PostMapping("/lookup")
+    public IssueLookupResult lookup(@RequestBody IssueLookupRequest request) {
+        return issueLookupService.lookup(request.ids(), request.versions());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
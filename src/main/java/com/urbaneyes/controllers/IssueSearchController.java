@@ -0,0 +1,47 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueSearchHit;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/issues/search")
+public class IssueSearchController {
+
+    private final IssueSearchIndex issueSearchIndex;
+    private final int maxResults;
+
+    public IssueSearchController(IssueSearchIndex issueSearchIndex,
+                                 @Value("${urbaneyes.issues.search.max-results:100}") int maxResults) {
+        this.issueSearchIndex = issueSearchIndex;
+        this.maxResults = maxResults;
+    }
+
+    @GetMapping
+    public List<IssueSearchHit> searchIssues(@RequestParam String q,
+                                             @RequestParam(required = false) List<IssueStatus> status,
+                                             @RequestParam(required = false) Long categoryId,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be blank");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        Set<IssueStatus> statuses = status == null || status.isEmpty()
+                ? EnumSet.noneOf(IssueStatus.class) : EnumSet.copyOf(status);
+        return issueSearchIndex.search(q, statuses, categoryId, Math.min(limit, maxResults));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
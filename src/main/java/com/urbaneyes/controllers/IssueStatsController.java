@@ -0,0 +1,23 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueStats;
+import com.urbaneyes.service.IssueStatistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/issues/stats")
+public class IssueStatsController {
+
+    private final IssueStatistics issueStatistics;
+
+    public IssueStatsController(IssueStatistics issueStatistics) {
+        this.issueStatistics = issueStatistics;
+    }
+
+    @GetMapping
+    public IssueStats getStats() {
+        return issueStatistics.snapshot();
+    }
+}
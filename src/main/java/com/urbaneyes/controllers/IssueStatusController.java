@@ -0,0 +1,51 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueStatusBulkRequest;
+import com.urbaneyes.dto.IssueStatusBulkResult;
+import com.urbaneyes.dto.IssueStatusChange;
+import com.urbaneyes.dto.IssueStatusUpdate;
+import com.urbaneyes.service.InvalidStatusTransitionException;
+import com.urbaneyes.service.IssueStatusService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/issues")
+public class IssueStatusController {
+
+    private final IssueStatusService issueStatusService;
+
+    public IssueStatusController(IssueStatusService issueStatusService) {
+        this.issueStatusService = issueStatusService;
+    }
+
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<IssueStatusChange> updateStatus(@PathVariable Long id, @RequestBody IssueStatusUpdate update) {
+        return issueStatusService.transition(id, update.status())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Por lista de ids ou por filtro, nunca os dois: evita que um filtro esquecido altere mais do que o pedido
+    @PostMapping("/status")
+    public IssueStatusBulkResult updateStatuses(@RequestBody IssueStatusBulkRequest request) {
+        if (request.hasIds() == request.hasFilter()) {
+            throw new IllegalArgumentException("Inform either the issue ids or a filter (categoryId, olderThan)");
+        }
+        if (request.hasIds()) {
+            return issueStatusService.transitionAll(request.ids(), request.status());
+        }
+        return issueStatusService.transitionMatching(request.categoryId(), request.olderThan(), request.status());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidStatusTransitionException.class)
+    public ResponseEntity<String> handleInvalidTransition(InvalidStatusTransitionException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+}
@@ -0,0 +1,55 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.service.IssueEventBroadcaster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// A requisição fica em modo assíncrono: a conexão aberta não prende nenhuma thread do Tomcat
+@RestController
+@RequestMapping("/api/issues/stream")
+public class IssueStreamController {
+
+    private final IssueEventBroadcaster broadcaster;
+    private final Duration timeout;
+
+    public IssueStreamController(IssueEventBroadcaster broadcaster,
+                                 @Value("${urbaneyes.issues.stream.timeout:PT30M}") Duration timeout) {
+        this.broadcaster = broadcaster;
+        this.timeout = timeout;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long categoryId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        IssueEventBroadcaster.Subscription subscription = broadcaster.subscribe(categoryId, new EmitterSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements IssueEventBroadcaster.Sink {
+
+        @Override
+        public void send(IssueEventBroadcaster.Frame frame) throws IOException {
+            if (frame.isHeartbeat()) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                emitter.send(SseEmitter.event().id(frame.id()).name(frame.name()).data(frame.data()));
+            }
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueTile;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueTileIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/issues/tiles")
+public class IssueTileController {
+
+    private final IssueTileIndex issueTileIndex;
+    private final CacheControl cacheControl;
+
+    public IssueTileController(IssueTileIndex issueTileIndex,
+                               @Value("${urbaneyes.issues.tiles.max-age:PT30S}") Duration maxAge) {
+        this.issueTileIndex = issueTileIndex;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    // A ETag vem da versão do tile (uma leitura em memória): com If-None-Match igual, 304 sem montar o tile
+    @GetMapping("/{z}/{x}/{y}")
+    public ResponseEntity<IssueTile> getTile(@PathVariable int z,
+                                             @PathVariable long x,
+                                             @PathVariable long y,
+                                             @RequestParam(required = false) Long categoryId,
+                                             @RequestParam(required = false) List<IssueStatus> status,
+                                             WebRequest request) {
+        String eTag = IssueETags.forFormat(
+                IssueETags.weakForTile(issueTileIndex.generation(), issueTileIndex.version(z, x, y)),
+                request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        IssueTile tile = issueTileIndex.tile(z, x, y, categoryId, statuses(status));
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(tile);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private static Set<IssueStatus> statuses(List<IssueStatus> status) {
+        return status == null || status.isEmpty() ? EnumSet.noneOf(IssueStatus.class) : EnumSet.copyOf(status);
+    }
+}
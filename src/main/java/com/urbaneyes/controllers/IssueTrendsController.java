@@ -0,0 +1,38 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueTrend;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueRollups;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/issues/trends")
+public class IssueTrendsController {
+
+    private final IssueRollups issueRollups;
+
+    public IssueTrendsController(IssueRollups issueRollups) {
+        this.issueRollups = issueRollups;
+    }
+
+    @GetMapping
+    public IssueTrend getTrend(@RequestParam(required = false)
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                               @RequestParam(required = false)
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                               @RequestParam(required = false) Long categoryId,
+                               @RequestParam(required = false) List<IssueStatus> status,
+                               @RequestParam(required = false) IssueTrend.Resolution resolution) {
+        return issueRollups.query(from, to, categoryId, status, resolution);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
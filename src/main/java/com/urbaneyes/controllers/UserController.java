@@ -1,11 +1,16 @@
 package com.urbaneyes.controller;
 
+import com.urbaneyes.dto.TokenResponse;
 import com.urbaneyes.model.User;
+import com.urbaneyes.security.AuthenticatedUser;
 import com.urbaneyes.service.UserService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/users")
@@ -18,13 +23,20 @@ public class UserController {
     }
 
     @PostMapping("/register")
-    public User registerUser(@RequestBody User user) {
+    public CompletableFuture<User> registerUser(@RequestBody User user) {
         return userService.registerUser(user);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<String> loginUser(@RequestBody User user) {
-        return ResponseEntity.ok(userService.loginUser(user));
+    public CompletableFuture<TokenResponse> loginUser(@RequestBody User user) {
+        return userService.loginUser(user);
+    }
+
+    // Identidade vinda só do token, sem consulta ao banco
+    @GetMapping("/me")
+    public AuthenticatedUser getAuthenticatedUser(@RequestAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE)
+                                                  AuthenticatedUser user) {
+        return user;
     }
 
     @GetMapping
@@ -40,8 +52,8 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User user) {
-        return ResponseEntity.ok(userService.updateUser(id, user));
+    public CompletableFuture<User> updateUser(@PathVariable Long id, @RequestBody User user) {
+        return userService.updateUser(id, user);
     }
 
     @DeleteMapping("/{id}")
@@ -49,4 +61,10 @@ public class UserController {
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleHashingOverload(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1")
+                .body("Too many concurrent logins, try again shortly");
+    }
 }
@@ -0,0 +1,9 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.Category;
+
+import java.util.List;
+
+// Lista imutável de categorias junto com o JSON já serializado, servido sem passar pelo Jackson a cada requisição
+public record CategorySnapshot(List<Category> categories, byte[] json) {
+}
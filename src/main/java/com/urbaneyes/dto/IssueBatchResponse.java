@@ -0,0 +1,11 @@
+package com.urbaneyes.dto;
+
+import java.util.List;
+
+public record IssueBatchResponse(long created, long rejected, List<IssueBatchResult> results) {
+
+    public static IssueBatchResponse of(List<IssueBatchResult> results) {
+        long created = results.stream().filter(r -> r.status() == IssueBatchResult.Status.CREATED).count();
+        return new IssueBatchResponse(created, results.size() - created, results);
+    }
+}
@@ -0,0 +1,30 @@
+package com.urbaneyes.dto;
+
+import java.util.List;
+
+public record IssueBatchResult(int index, Long id, Status status, List<String> errors) {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED,
+        // O banco não aceitou a gravação (fora do ar, sem conexão, timeout): a mesma issue pode ser reenviada depois
+        UNAVAILABLE
+    }
+
+    public static IssueBatchResult created(int index, Long id) {
+        return new IssueBatchResult(index, id, Status.CREATED, List.of());
+    }
+
+    public static IssueBatchResult invalid(int index, List<String> errors) {
+        return new IssueBatchResult(index, null, Status.INVALID, errors);
+    }
+
+    public static IssueBatchResult failed(int index, String error) {
+        return new IssueBatchResult(index, null, Status.FAILED, List.of(error));
+    }
+
+    public static IssueBatchResult unavailable(int index, String error) {
+        return new IssueBatchResult(index, null, Status.UNAVAILABLE, List.of(error));
+    }
+}
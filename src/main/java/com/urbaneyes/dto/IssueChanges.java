@@ -0,0 +1,13 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueTombstone;
+
+import java.util.List;
+
+/**
+ * Uma página da sincronização incremental: issues criadas ou alteradas e issues removidas desde o token enviado.
+ * {@code cursor} é o {@code since} da próxima chamada; com {@code hasMore}, ainda há mudanças a buscar agora.
+ */
+public record IssueChanges(List<Issue> issues, List<IssueTombstone> deleted, String cursor, boolean hasMore) {
+}
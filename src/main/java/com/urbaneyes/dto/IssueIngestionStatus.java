@@ -0,0 +1,26 @@
+package com.urbaneyes.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// Situação de uma issue aceita pela fila de ingestão; issueId só existe depois de gravada
+public record IssueIngestionStatus(UUID trackingId, State state, Long issueId, List<String> errors) {
+
+    public enum State {
+        QUEUED,
+        CREATED,
+        FAILED
+    }
+
+    public static IssueIngestionStatus queued(UUID trackingId) {
+        return new IssueIngestionStatus(trackingId, State.QUEUED, null, List.of());
+    }
+
+    public static IssueIngestionStatus created(UUID trackingId, Long issueId) {
+        return new IssueIngestionStatus(trackingId, State.CREATED, issueId, List.of());
+    }
+
+    public static IssueIngestionStatus failed(UUID trackingId, List<String> errors) {
+        return new IssueIngestionStatus(trackingId, State.FAILED, null, errors);
+    }
+}
@@ -0,0 +1,14 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+import java.util.Set;
+
+public record IssueLocation(Long id, Double latitude, Double longitude, IssueStatus status, Long categoryId) {
+
+    // Conjunto de status vazio significa qualquer status
+    public boolean matches(Set<IssueStatus> statuses, Long categoryId) {
+        return (statuses.isEmpty() || statuses.contains(status))
+                && (categoryId == null || categoryId.equals(this.categoryId));
+    }
+}
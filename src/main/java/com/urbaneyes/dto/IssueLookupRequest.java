@@ -0,0 +1,11 @@
+package com.urbaneyes.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura de várias issues de uma vez. {@code versions} é opcional e faz o papel de um {@code If-None-Match} por
+ * item: a issue cuja versão atual é a informada não volta no corpo, só em {@code notModified}.
+ */
+public record IssueLookupRequest(List<Long> ids, Map<Long, Long> versions) {
+}
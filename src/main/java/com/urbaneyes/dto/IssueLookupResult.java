@@ -0,0 +1,9 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.Issue;
+
+import java.util.List;
+
+// As três listas seguem a ordem dos ids pedidos, sem repetições
+public record IssueLookupResult(List<Issue> issues, List<Long> notModified, List<Long> missing) {
+}
@@ -0,0 +1,12 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.Issue;
+
+import java.util.List;
+
+public record IssuePage(List<Issue> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
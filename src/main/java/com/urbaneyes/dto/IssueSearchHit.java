@@ -0,0 +1,6 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+public record IssueSearchHit(Long id, String title, IssueStatus status, Long categoryId, double score) {
+}
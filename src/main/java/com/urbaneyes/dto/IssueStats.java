@@ -0,0 +1,12 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+import java.util.List;
+import java.util.Map;
+
+public record IssueStats(Map<IssueStatus, Long> totals, List<CategoryStats> categories) {
+
+    public record CategoryStats(Long categoryId, Map<IssueStatus, Long> counts, long total) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Transição em massa para {@code status}: ou por uma lista de {@code ids}, ou pelas issues que casam com o filtro
+ * ({@code categoryId} e/ou criadas há mais de {@code olderThan}). Só mudam as que estão num status de origem válido.
+ */
+public record IssueStatusBulkRequest(IssueStatus status, List<Long> ids, Long categoryId, Duration olderThan) {
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    public boolean hasFilter() {
+        return categoryId != null || olderThan != null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+import java.util.List;
+
+// skipped: ids pedidos que não mudaram (inexistentes, já no status ou numa origem inválida); vazio no modo filtro
+public record IssueStatusBulkResult(IssueStatus status, int updated, List<Long> skipped) {
+}
@@ -0,0 +1,9 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+import java.time.LocalDateTime;
+
+// Resultado de uma transição de status; from == to quando a issue já estava no status pedido
+public record IssueStatusChange(Long id, IssueStatus from, IssueStatus to, LocalDateTime updatedAt) {
+}
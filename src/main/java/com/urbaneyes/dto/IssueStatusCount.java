@@ -0,0 +1,6 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+public record IssueStatusCount(Long categoryId, IssueStatus status, long total) {
+}
@@ -0,0 +1,7 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+// Corpo do PATCH /api/issues/{id}/status
+public record IssueStatusUpdate(IssueStatus status) {
+}
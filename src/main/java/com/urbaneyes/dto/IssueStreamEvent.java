@@ -0,0 +1,13 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+
+// Dado de cada evento do stream: o estado da issue depois da mudança (em DELETED, o último estado conhecido)
+public record IssueStreamEvent(IssueChangedEvent.Type type, Long id, IssueSnapshot issue) {
+
+    public static IssueStreamEvent of(IssueChangedEvent event) {
+        return new IssueStreamEvent(event.type(), event.issueId(),
+                event.after() != null ? event.after() : event.before());
+    }
+}
@@ -0,0 +1,15 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+import java.time.LocalDateTime;
+
+// Projeção de leitura para listagens: evita carregar a entidade e o grafo da categoria
+public record IssueSummary(Long id,
+                           String title,
+                           IssueStatus status,
+                           Long categoryId,
+                           String categoryName,
+                           LocalDateTime createdAt,
+                           LocalDateTime updatedAt) {
+}
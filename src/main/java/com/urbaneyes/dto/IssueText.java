@@ -0,0 +1,6 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+public record IssueText(Long id, String title, String description, IssueStatus status, Long categoryId) {
+}
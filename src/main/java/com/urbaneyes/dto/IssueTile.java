@@ -0,0 +1,24 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conteúdo de um tile do mapa. Em {@code CLUSTERS}, {@code cells} traz as contagens por categoria e status de cada
+ * subdivisão ocupada do tile; em {@code POINTS}, {@code points} traz as issues, até o limite configurado.
+ */
+public record IssueTile(int z, long x, long y, Mode mode, List<Cell> cells, List<IssueLocation> points,
+                        boolean truncated) {
+
+    public enum Mode {
+        CLUSTERS,
+        POINTS
+    }
+
+    /** {@code latitude}/{@code longitude} são o centro da célula. */
+    public record Cell(String quadkey, double latitude, double longitude, long total,
+                       Map<Long, Map<IssueStatus, Long>> counts) {
+    }
+}
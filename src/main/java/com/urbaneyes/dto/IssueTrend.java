@@ -0,0 +1,39 @@
+package com.urbaneyes.dto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Série temporal de issues abertas: {@code counts} de cada série alinha posição a posição com {@code buckets}.
+ * Cada issue conta no bucket da sua criação, na categoria e no status atuais.
+ */
+public record IssueTrend(Resolution resolution, LocalDateTime from, LocalDateTime to,
+                         List<LocalDateTime> buckets, List<Series> series) {
+
+    public enum Resolution {
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public LocalDateTime bucketOf(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        public LocalDateTime next(LocalDateTime bucket) {
+            return bucket.plus(1, unit);
+        }
+
+        public long between(LocalDateTime start, LocalDateTime end) {
+            return unit.between(start, end);
+        }
+    }
+
+    public record Series(Long categoryId, long total, long[] counts) {
+    }
+}
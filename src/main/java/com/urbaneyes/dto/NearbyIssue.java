@@ -0,0 +1,16 @@
+package com.urbaneyes.dto;
+
+import com.urbaneyes.model.IssueStatus;
+
+public record NearbyIssue(Long id,
+                          Double latitude,
+                          Double longitude,
+                          IssueStatus status,
+                          Long categoryId,
+                          double distanceMeters) {
+
+    public static NearbyIssue of(IssueLocation location, double distanceMeters) {
+        return new NearbyIssue(location.id(), location.latitude(), location.longitude(), location.status(),
+                location.categoryId(), distanceMeters);
+    }
+}
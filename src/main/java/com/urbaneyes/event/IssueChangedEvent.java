@@ -0,0 +1,42 @@
+package com.urbaneyes.event;
+
+/**
+ * Publicado pelo IssueService dentro da transação de escrita. Os ouvintes usam
+ * {@code @TransactionalEventListener} para reagir somente depois do commit.
+ * {@code before} é nulo em CREATED e {@code after} é nulo em DELETED e ARCHIVED. ARCHIVED vem do
+ * {@code IssueArchive}: a issue saiu da tabela mas continua existindo no arquivo, então não gera tombstone.
+ */
+public record IssueChangedEvent(Type type, IssueSnapshot before, IssueSnapshot after) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        DELETED,
+        ARCHIVED
+    }
+
+    public static IssueChangedEvent created(IssueSnapshot after) {
+        return new IssueChangedEvent(Type.CREATED, null, after);
+    }
+
+    public static IssueChangedEvent updated(IssueSnapshot before, IssueSnapshot after) {
+        return new IssueChangedEvent(Type.UPDATED, before, after);
+    }
+
+    public static IssueChangedEvent statusChanged(IssueSnapshot before, IssueSnapshot after) {
+        return new IssueChangedEvent(Type.STATUS_CHANGED, before, after);
+    }
+
+    public static IssueChangedEvent deleted(IssueSnapshot before) {
+        return new IssueChangedEvent(Type.DELETED, before, null);
+    }
+
+    public static IssueChangedEvent archived(IssueSnapshot before) {
+        return new IssueChangedEvent(Type.ARCHIVED, before, null);
+    }
+
+    public Long issueId() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,13 @@
+package com.urbaneyes.event;
+
+/**
+ * Consumidor assíncrono das mudanças de issues (notificações, indexação externa, analytics). Basta registrar um bean:
+ * o relay do outbox chama cada handler fora da transação da escrita, em ordem de id, depois do commit.
+ *
+ * <p>Uma exceção faz o evento ser tentado de novo, para todos os handlers, com backoff exponencial; os handlers
+ * precisam ser idempotentes.
+ */
+public interface IssueEventHandler {
+
+    void handle(IssueOutboxMessage message) throws Exception;
+}
@@ -0,0 +1,10 @@
+package com.urbaneyes.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento entregue pelo relay do outbox. O {@code id} é estável entre as tentativas: como a entrega é pelo menos uma
+ * vez, um handler pode usá-lo para descartar repetições.
+ */
+public record IssueOutboxMessage(long id, LocalDateTime occurredAt, int attempt, IssueChangedEvent change) {
+}
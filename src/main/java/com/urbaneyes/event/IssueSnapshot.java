@@ -0,0 +1,33 @@
+package com.urbaneyes.event;
+
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+
+import java.time.LocalDateTime;
+
+// Cópia imutável do estado de uma issue no momento da alteração, segura para ser lida por outras threads
+public record IssueSnapshot(Long id,
+                            String title,
+                            String description,
+                            IssueStatus status,
+                            Long categoryId,
+                            Double latitude,
+                            Double longitude,
+                            LocalDateTime createdAt,
+                            LocalDateTime updatedAt) {
+
+    public static IssueSnapshot of(Issue issue) {
+        return new IssueSnapshot(issue.getId(), issue.getTitle(), issue.getDescription(), issue.getStatus(),
+                issue.getCategory() == null ? null : issue.getCategory().getId(),
+                issue.getLatitude(), issue.getLongitude(),
+                issue.getCreatedAt(), issue.getUpdatedAt());
+    }
+
+    public IssueSnapshot withStatus(IssueStatus status, LocalDateTime updatedAt) {
+        return new IssueSnapshot(id, title, description, status, categoryId, latitude, longitude, createdAt, updatedAt);
+    }
+
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+}
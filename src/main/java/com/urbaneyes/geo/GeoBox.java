@@ -0,0 +1,37 @@
+package com.urbaneyes.geo;
+
+public record GeoBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    public GeoBox {
+        GeoGrid.checkCoordinates(minLatitude, minLongitude);
+        GeoGrid.checkCoordinates(maxLatitude, maxLongitude);
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            throw new IllegalArgumentException("Bounding box minimum must not exceed its maximum");
+        }
+    }
+
+    // Menor caixa que contém o círculo; é cortada nos limites do globo em vez de dar a volta no antimeridiano
+    public static GeoBox around(double latitude, double longitude, double radiusMeters) {
+        GeoGrid.checkCoordinates(latitude, longitude);
+        double latitudeDelta = radiusMeters / METERS_PER_DEGREE;
+        double cosine = Math.max(Math.cos(Math.toRadians(latitude)), 1e-6);
+        double longitudeDelta = Math.min(radiusMeters / (METERS_PER_DEGREE * cosine), 180);
+        return new GeoBox(Math.max(latitude - latitudeDelta, -90), Math.max(longitude - longitudeDelta, -180),
+                Math.min(latitude + latitudeDelta, 90), Math.min(longitude + longitudeDelta, 180));
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLatitude && latitude <= maxLatitude
+                && longitude >= minLongitude && longitude <= maxLongitude;
+    }
+
+    public double latitudeSpan() {
+        return maxLatitude - minLatitude;
+    }
+
+    public double longitudeSpan() {
+        return maxLongitude - minLongitude;
+    }
+}
@@ -0,0 +1,75 @@
+package com.urbaneyes.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Grade uniforme de latitude/longitude com células quadradas de {@code cellDegrees}. Cada célula é
+ * identificada por um long (linha * colunas + coluna), o que serve tanto de chave em memória quanto de
+ * coluna indexada no banco.
+ */
+public final class GeoGrid {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private final double cellDegrees;
+    private final long columns;
+
+    public GeoGrid(double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 1)) {
+            throw new IllegalArgumentException("Grid cell size must be between 0 and 1 degree");
+        }
+        this.cellDegrees = cellDegrees;
+        this.columns = (long) Math.ceil(360 / cellDegrees) + 1;
+    }
+
+    public long cellOf(double latitude, double longitude) {
+        return row(latitude) * columns + column(longitude);
+    }
+
+    public long cellCount(GeoBox box) {
+        return (row(box.maxLatitude()) - row(box.minLatitude()) + 1)
+                * (column(box.maxLongitude()) - column(box.minLongitude()) + 1);
+    }
+
+    public void forEachCell(GeoBox box, LongConsumer action) {
+        long minColumn = column(box.minLongitude());
+        long maxColumn = column(box.maxLongitude());
+        for (long row = row(box.minLatitude()), maxRow = row(box.maxLatitude()); row <= maxRow; row++) {
+            for (long column = minColumn; column <= maxColumn; column++) {
+                action.accept(row * columns + column);
+            }
+        }
+    }
+
+    public List<Long> cellsCovering(GeoBox box) {
+        List<Long> cells = new ArrayList<>((int) cellCount(box));
+        forEachCell(box, cells::add);
+        return cells;
+    }
+
+    private long row(double latitude) {
+        return (long) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private long column(double longitude) {
+        return (long) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    // Haversine: distância em metros sobre a esfera, suficiente para raios urbanos
+    public static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeDelta = Math.toRadians(latitude2 - latitude1);
+        double longitudeDelta = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(latitudeDelta / 2) * Math.sin(latitudeDelta / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(longitudeDelta / 2) * Math.sin(longitudeDelta / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    static void checkCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+    }
+}
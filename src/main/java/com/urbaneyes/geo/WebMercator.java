@@ -0,0 +1,62 @@
+package com.urbaneyes.geo;
+
+/**
+ * Tiles do esquema XYZ (Web Mercator, o mesmo dos mapas web): no zoom {@code z} o mundo tem 2^z × 2^z tiles, com
+ * x crescendo para leste e y para o sul. O tile (x, y) do zoom z contém exatamente os tiles (2x..2x+1, 2y..2y+1) do
+ * zoom z + 1, então o ancestral de um tile é só um deslocamento de bits.
+ */
+public final class WebMercator {
+
+    public static final int MAX_ZOOM = 24;
+    public static final double MAX_LATITUDE = 85.05112878;
+
+    private WebMercator() {
+    }
+
+    public static long tileX(double longitude, int zoom) {
+        long tiles = 1L << zoom;
+        return clamp((long) Math.floor((longitude + 180) / 360 * tiles), tiles);
+    }
+
+    // Latitudes além de ±MAX_LATITUDE ficam no primeiro ou no último tile da coluna
+    public static long tileY(double latitude, int zoom) {
+        long tiles = 1L << zoom;
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        double y = (1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2;
+        return clamp((long) Math.floor(y * tiles), tiles);
+    }
+
+    /** Longitude da borda oeste de {@code x}; aceita frações para pontos dentro do tile. */
+    public static double longitude(double x, int zoom) {
+        return x / (1L << zoom) * 360 - 180;
+    }
+
+    /** Latitude da borda norte de {@code y}; aceita frações para pontos dentro do tile. */
+    public static double latitude(double y, int zoom) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y / (1L << zoom)))));
+    }
+
+    /** Quadkey (um dígito 0–3 por nível, do mais grosso ao mais fino), o nome do tile nos mapas da Bing. */
+    public static String quadkey(long x, long y, int zoom) {
+        char[] digits = new char[zoom];
+        for (int level = zoom; level > 0; level--) {
+            long mask = 1L << (level - 1);
+            digits[zoom - level] = (char) ('0' + ((x & mask) != 0 ? 1 : 0) + ((y & mask) != 0 ? 2 : 0));
+        }
+        return new String(digits);
+    }
+
+    public static void checkTile(int zoom, long x, long y) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom must be between 0 and " + MAX_ZOOM);
+        }
+        long tiles = 1L << zoom;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException("Tile " + x + "/" + y + " does not exist at zoom " + zoom);
+        }
+    }
+
+    private static long clamp(long tile, long tiles) {
+        return Math.max(0, Math.min(tiles - 1, tile));
+    }
+}
@@ -0,0 +1,23 @@
+package com.urbaneyes.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ativa o {@code @Timed} dos services ({@link #SERVICE_TIMER}, com tags class e method). As requisições HTTP, o
+ * pool do Hikari e as estatísticas do Hibernate são medidos pela autoconfiguração do Actuator.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "urbaneyes.service";
+
+    @Bean
+    @ConditionalOnProperty(name = "urbaneyes.metrics.service-timers.enabled", matchIfMissing = true)
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -1,16 +1,32 @@
 package com.urbaneyes.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.urbaneyes.geo.GeoGrid;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_issue_created_at_id", columnList = "createdAt DESC, id DESC"),
+        @Index(name = "idx_issue_geo_cell", columnList = "geoCell"),
+        @Index(name = "idx_issue_updated_at_id", columnList = "updatedAt, id")
+})
 public class Issue {
 
+    // Células de ~2 km usadas pela coluna geo_cell; buscas por proximidade no banco filtram por elas antes da distância
+    public static final GeoGrid GEO_CELLS = new GeoGrid(0.02);
+
+    // Sequência com otimizador pooled: o Hibernate reserva blocos de ids e consegue agrupar os inserts em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "issue_seq")
+    @SequenceGenerator(name = "issue_seq", sequenceName = "issue_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "The title cannot be null")
@@ -24,6 +40,27 @@ public class Issue {
     @Enumerated(EnumType.STRING)
     private IssueStatus status;
 
+    @DecimalMin(value = "-90.0", message = "The latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "The latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "The longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "The longitude must be between -180 and 180")
+    private Double longitude;
+
+    @JsonIgnore
+    private Long geoCell;
+
+    // Quantas vezes o mesmo problema foi reportado; relatos duplicados incrementam este contador
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private int reportCount = 1;
+
+    // Incrementada pelo Hibernate a cada UPDATE; base do ETag e da checagem de If-Match
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
@@ -61,11 +98,28 @@ public class Issue {
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = this.createdAt;
+        updateGeoCell();
     }
 
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
+        updateGeoCell();
+    }
+
+    private void updateGeoCell() {
+        this.geoCell = hasLocation() ? GEO_CELLS.cellOf(latitude, longitude) : null;
+    }
+
+    @JsonIgnore
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "The latitude and longitude must be informed together")
+    public boolean isLocationComplete() {
+        return (latitude == null) == (longitude == null);
     }
 
     // Getters e Setters
@@ -101,6 +155,42 @@ public class Issue {
         this.status = status;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Long getGeoCell() {
+        return geoCell;
+    }
+
+    public int getReportCount() {
+        return reportCount;
+    }
+
+    public void setReportCount(int reportCount) {
+        this.reportCount = reportCount;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,83 @@
+package com.urbaneyes.model;
+
+import com.urbaneyes.event.IssueChangedEvent;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de domínio de uma issue gravado na mesma transação da mudança (transactional outbox). O relay lê a tabela
+ * em ordem de id, entrega aos handlers e apaga a linha; {@code failedAt} marca as que esgotaram as tentativas.
+ */
+@Entity
+@Table(name = "issue_outbox")
+public class IssueOutboxEntry {
+
+    // Sequência própria, pooled como a das issues: os inserts de uma transação com várias mudanças saem num lote
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "issue_outbox_seq")
+    @SequenceGenerator(name = "issue_outbox_seq", sequenceName = "issue_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private IssueChangedEvent.Type eventType;
+
+    @Column(nullable = false)
+    private Long issueId;
+
+    @Column(nullable = false, length = 8000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime failedAt;
+
+    public IssueOutboxEntry() {
+    }
+
+    public IssueOutboxEntry(IssueChangedEvent.Type eventType, Long issueId, String payload, LocalDateTime createdAt) {
+        this.eventType = eventType;
+        this.issueId = issueId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public IssueChangedEvent.Type getEventType() {
+        return eventType;
+    }
+
+    public Long getIssueId() {
+        return issueId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+}
@@ -1,9 +1,54 @@
 package com.urbaneyes.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum IssueStatus {
     OPEN,
     CLOSED,
     PENDING,
     IN_PROGRESS,
-    RESOLVED
+    RESOLVED;
+
+    // Máquina de estados: para onde cada status pode ir. Fechadas e resolvidas só podem ser reabertas
+    private static final Map<IssueStatus, Set<IssueStatus>> TRANSITIONS = new EnumMap<>(IssueStatus.class);
+    private static final Map<IssueStatus, Set<IssueStatus>> SOURCES = new EnumMap<>(IssueStatus.class);
+
+    static {
+        TRANSITIONS.put(OPEN, EnumSet.of(PENDING, IN_PROGRESS, RESOLVED, CLOSED));
+        TRANSITIONS.put(PENDING, EnumSet.of(OPEN, IN_PROGRESS, CLOSED));
+        TRANSITIONS.put(IN_PROGRESS, EnumSet.of(OPEN, PENDING, RESOLVED, CLOSED));
+        TRANSITIONS.put(RESOLVED, EnumSet.of(OPEN, CLOSED));
+        TRANSITIONS.put(CLOSED, EnumSet.of(OPEN));
+        for (IssueStatus target : values()) {
+            EnumSet<IssueStatus> sources = EnumSet.noneOf(IssueStatus.class);
+            TRANSITIONS.forEach((source, targets) -> {
+                if (targets.contains(target)) {
+                    sources.add(source);
+                }
+            });
+            SOURCES.put(target, Collections.unmodifiableSet(sources));
+        }
+        TRANSITIONS.replaceAll((source, targets) -> Collections.unmodifiableSet(targets));
+    }
+
+    public boolean isTerminal() {
+        return this == CLOSED || this == RESOLVED;
+    }
+
+    public Set<IssueStatus> allowedTransitions() {
+        return TRANSITIONS.get(this);
+    }
+
+    public boolean canTransitionTo(IssueStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    /** Os status a partir dos quais se pode chegar em {@code target} (nunca inclui o próprio target). */
+    public static Set<IssueStatus> sourcesOf(IssueStatus target) {
+        return SOURCES.get(target);
+    }
 }
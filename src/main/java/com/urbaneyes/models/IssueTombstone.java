@@ -0,0 +1,43 @@
+package com.urbaneyes.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de uma issue removida, para que a sincronização incremental ({@code /api/issues/changes}) avise os clientes
+ * do que sumiu. O id é o da issue removida.
+ */
+@Entity
+@Table(name = "issue_tombstone", indexes = @Index(name = "idx_issue_tombstone_deleted_at_id", columnList = "deletedAt, id"))
+public class IssueTombstone {
+
+    @Id
+    private Long id;
+
+    private Long categoryId;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+
+    public IssueTombstone() {
+    }
+
+    public IssueTombstone(Long id, Long categoryId, LocalDateTime deletedAt) {
+        this.id = id;
+        this.categoryId = categoryId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -1,5 +1,6 @@
 package com.urbaneyes.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 @Entity
@@ -16,6 +17,8 @@ public class User {
     @Column(unique = true, nullable = false)
     private String email;
 
+    // Guarda o hash BCrypt; nunca é devolvido nas respostas
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
 
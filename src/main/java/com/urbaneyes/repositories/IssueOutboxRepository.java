@@ -0,0 +1,28 @@
+package com.urbaneyes.repository;
+
+import com.urbaneyes.model.IssueOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IssueOutboxRepository extends JpaRepository<IssueOutboxEntry, Long> {
+
+    // Keyset pela chave primária: cada página começa depois do último id lido, sem offset
+    @Query("select e from IssueOutboxEntry e where e.id > :after and e.failedAt is null order by e.id")
+    List<IssueOutboxEntry> findPendingAfter(@Param("after") long after, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update IssueOutboxEntry e set e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, "
+            + "e.failedAt = :failedAt where e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("attempts") int attempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("failedAt") LocalDateTime failedAt);
+}
@@ -1,12 +1,125 @@
 package com.urbaneyes.repository;
 
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.IssueStatusCount;
+import com.urbaneyes.dto.IssueSummary;
+import com.urbaneyes.dto.IssueText;
+import com.urbaneyes.event.IssueSnapshot;
 import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface IssueRepository extends JpaRepository<Issue, Long> {
+
+    int EXPORT_FETCH_SIZE = 500;
+
+    // A categoria vem no mesmo SELECT em todas as leituras de entidade (sem N+1)
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Issue> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Issue> findAll();
+
+    // Basta a versão para responder um GET condicional; evita carregar a entidade e a categoria
+    @Query("select i.version from Issue i where i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Relato duplicado: incremento atômico no banco, sem disputar o @Version da entidade com outras duplicatas.
+    // Só conta se a issue ainda está num dos statuses; devolve 0 se ela foi encerrada nesse meio tempo
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Issue i set i.reportCount = i.reportCount + 1, i.version = i.version + 1, i.updatedAt = :now "
+            + "where i.id = :id and i.status in :statuses")
+    int incrementReportCount(@Param("id") Long id, @Param("statuses") Collection<IssueStatus> statuses,
+                             @Param("now") LocalDateTime now);
+
+    // Leitura em lote para o multi-get; sem ordem, quem chama reordena pelos ids pedidos
+    @Query("select i from Issue i left join fetch i.category where i.id in :ids")
+    List<Issue> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "category")
     List<Issue> findByCategoryId(Long categoryId); 
+
+    @Query("select new com.urbaneyes.dto.IssueSummary(i.id, i.title, i.status, c.id, c.name, i.createdAt, i.updatedAt) "
+            + "from Issue i join i.category c where c.id = :categoryId order by i.createdAt desc, i.id desc")
+    List<IssueSummary> findSummariesByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Paginação por keyset sobre (createdAt, id): o custo de cada página independe da profundidade
+    @Query("select i from Issue i join fetch i.category order by i.createdAt desc, i.id desc")
+    List<Issue> findFirstPage(Pageable pageable);
+
+    @Query("select i from Issue i join fetch i.category "
+            + "where i.createdAt <= :createdAt and (i.createdAt < :createdAt or i.id < :id) "
+            + "order by i.createdAt desc, i.id desc")
+    List<Issue> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Sincronização incremental: keyset crescente sobre (updatedAt, id), limitado a until
+    @Query("select i from Issue i join fetch i.category where i.updatedAt < :until order by i.updatedAt, i.id")
+    List<Issue> findChangedBefore(@Param("until") LocalDateTime until, Pageable pageable);
+
+    @Query("select i from Issue i join fetch i.category "
+            + "where i.updatedAt >= :updatedAt and (i.updatedAt > :updatedAt or i.id > :id) and i.updatedAt < :until "
+            + "order by i.updatedAt, i.id")
+    List<Issue> findChangedAfter(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id,
+                                 @Param("until") LocalDateTime until, Pageable pageable);
+
+    @Query("select new com.urbaneyes.dto.IssueStatusCount(i.category.id, i.status, count(i)) "
+            + "from Issue i group by i.category.id, i.status")
+    List<IssueStatusCount> countByCategoryAndStatus();
+
+    @Query("select new com.urbaneyes.dto.IssueLocation(i.id, i.latitude, i.longitude, i.status, i.category.id) "
+            + "from Issue i where i.geoCell is not null and i.status in :statuses")
+    List<IssueLocation> findLocationsByStatusIn(@Param("statuses") Collection<IssueStatus> statuses);
+
+    // As células vêm de Issue.GEO_CELLS e usam o índice de geo_cell; a caixa corta o que sobra nas bordas
+    @Query("select new com.urbaneyes.dto.IssueLocation(i.id, i.latitude, i.longitude, i.status, i.category.id) "
+            + "from Issue i where i.geoCell in :cells "
+            + "and i.latitude between :minLatitude and :maxLatitude "
+            + "and i.longitude between :minLongitude and :maxLongitude "
+            + "and i.status in :statuses and (:categoryId is null or i.category.id = :categoryId)")
+    List<IssueLocation> findLocationsInCells(@Param("cells") Collection<Long> cells,
+                                             @Param("minLatitude") double minLatitude,
+                                             @Param("minLongitude") double minLongitude,
+                                             @Param("maxLatitude") double maxLatitude,
+                                             @Param("maxLongitude") double maxLongitude,
+                                             @Param("statuses") Collection<IssueStatus> statuses,
+                                             @Param("categoryId") Long categoryId);
+
+    @Query("select new com.urbaneyes.dto.IssueText(i.id, i.title, i.description, i.status, i.category.id) from Issue i")
+    List<IssueText> findAllTexts();
+
+    @Query("select new com.urbaneyes.event.IssueSnapshot(i.id, i.title, i.description, i.status, i.category.id, "
+            + "i.latitude, i.longitude, i.createdAt, i.updatedAt) from Issue i where i.status in :statuses")
+    List<IssueSnapshot> findSnapshotsByStatusIn(@Param("statuses") Collection<IssueStatus> statuses);
+
+    @Query("select new com.urbaneyes.event.IssueSnapshot(i.id, i.title, i.description, i.status, i.category.id, "
+            + "i.latitude, i.longitude, i.createdAt, i.updatedAt) from Issue i where i.id in :ids")
+    List<IssueSnapshot> findSnapshotsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Deve ser consumido dentro de uma transação; as linhas chegam do cursor JDBC em blocos de EXPORT_FETCH_SIZE
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select i from Issue i join fetch i.category order by i.id")
+    Stream<Issue> streamAllForExport();
 }
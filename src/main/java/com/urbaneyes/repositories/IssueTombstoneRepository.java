@@ -0,0 +1,27 @@
+package com.urbaneyes.repository;
+
+import com.urbaneyes.model.IssueTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IssueTombstoneRepository extends JpaRepository<IssueTombstone, Long> {
+
+    // Mesmo keyset de IssueRepository.findChangedAfter, sobre (deletedAt, id)
+    @Query("select t from IssueTombstone t "
+            + "where t.deletedAt >= :deletedAt and (t.deletedAt > :deletedAt or t.id > :id) and t.deletedAt < :until "
+            + "order by t.deletedAt, t.id")
+    List<IssueTombstone> findDeletedAfter(@Param("deletedAt") LocalDateTime deletedAt, @Param("id") Long id,
+                                          @Param("until") LocalDateTime until, Pageable pageable);
+
+    @Modifying
+    @Query("delete from IssueTombstone t where t.deletedAt < :horizon")
+    int deleteOlderThan(@Param("horizon") LocalDateTime horizon);
+}
@@ -0,0 +1,94 @@
+package com.urbaneyes.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Assinaturas MinHash sobre shingles de 4 caracteres do texto já normalizado pelo {@link PortugueseAnalyzer}.
+ * A fração de posições iguais entre duas assinaturas estima a similaridade de Jaccard dos shingles; as faixas
+ * ({@code bands} x {@code rows}) alimentam o LSH, que só compara textos que coincidem em alguma faixa inteira.
+ */
+public final class MinHash {
+
+    private static final int SHINGLE_LENGTH = 4;
+
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+
+    public MinHash(int bands, int rows) {
+        if (bands < 1 || rows < 1) {
+            throw new IllegalArgumentException("Bands and rows must be positive");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < seeds.length; i++) {
+            seed = mix(seed + i);
+            seeds[i] = seed;
+        }
+    }
+
+    public int bands() {
+        return bands;
+    }
+
+    /** Retorna {@code null} quando o texto não tem nenhum termo relevante. */
+    public int[] signature(String text) {
+        List<String> terms = PortugueseAnalyzer.analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        String normalized = String.join(" ", terms);
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int last = Math.max(0, normalized.length() - SHINGLE_LENGTH);
+        for (int start = 0; start <= last; start++) {
+            long shingle = hash(normalized, start, Math.min(normalized.length(), start + SHINGLE_LENGTH));
+            for (int i = 0; i < seeds.length; i++) {
+                int value = (int) (mix(shingle ^ seeds[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    public long bandHash(int[] signature, int band) {
+        long hash = band;
+        for (int i = band * rows, end = i + rows; i < end; i++) {
+            hash = mix(hash * 31 + signature[i]);
+        }
+        return hash;
+    }
+
+    public static double similarity(int[] first, int[] second) {
+        int equal = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / first.length;
+    }
+
+    private static long hash(String text, int start, int end) {
+        long hash = 1125899906842597L;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    // Finalizador do MurmurHash3 (fmix64)
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93e185ec3d3L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
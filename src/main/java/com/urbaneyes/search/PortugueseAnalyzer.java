@@ -0,0 +1,110 @@
+package com.urbaneyes.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tokenizador para textos em pt-BR: remove acentos, passa para minúsculas, quebra em letras/dígitos, descarta
+ * stopwords e aplica um stemmer leve (plural e algumas terminações femininas), para que "semáforos quebrados"
+ * e "semaforo quebrada" caiam nos mesmos termos.
+ */
+public final class PortugueseAnalyzer {
+
+    // Já sem acento; "sem" e "nao" ficam de fora porque mudam o sentido do relato
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "ao", "aos", "de", "da", "do", "das", "dos", "e", "em", "no", "na", "nos", "nas",
+            "num", "numa", "um", "uma", "uns", "umas", "para", "pra", "por", "pelo", "pela", "pelos", "pelas",
+            "com", "que", "se", "ou", "mas", "mais", "muito", "foi", "ser", "esta", "este", "isto", "essa",
+            "esse", "isso", "aquele", "aquela", "ja", "tem", "ha", "ate", "entre", "sobre", "seu", "sua",
+            "seus", "suas", "me", "meu", "minha", "lhe", "eu", "ele", "ela", "eles", "elas", "nem", "onde");
+
+    private static final int MIN_STEM_LENGTH = 4;
+
+    private PortugueseAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = folded.substring(start, i);
+                if (!STOPWORDS.contains(token)) {
+                    terms.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(Character.toLowerCase(c));
+            }
+        }
+        return folded.toString();
+    }
+
+    static String stem(String token) {
+        if (token.length() < MIN_STEM_LENGTH || !Character.isLetter(token.charAt(token.length() - 1))) {
+            return token;
+        }
+        String stem = removePlural(token);
+        return normalizeFeminine(stem);
+    }
+
+    private static String removePlural(String token) {
+        if (token.endsWith("oes") || token.endsWith("aes")) {
+            return replaceSuffix(token, 3, "ao");
+        }
+        if (token.endsWith("ais")) {
+            return replaceSuffix(token, 3, "al");
+        }
+        if (token.endsWith("eis")) {
+            return replaceSuffix(token, 3, "el");
+        }
+        if (token.endsWith("ois")) {
+            return replaceSuffix(token, 3, "ol");
+        }
+        if (token.endsWith("ns")) {
+            return replaceSuffix(token, 2, "m");
+        }
+        if (token.endsWith("res") || token.endsWith("zes") || token.endsWith("ses")) {
+            return token.substring(0, token.length() - 2);
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us") && !token.endsWith("is")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private static String normalizeFeminine(String token) {
+        if (token.length() < 5) {
+            return token;
+        }
+        for (String suffix : new String[]{"ada", "ida", "osa", "iva", "ica"}) {
+            if (token.endsWith(suffix)) {
+                return replaceSuffix(token, 1, "o");
+            }
+        }
+        return token;
+    }
+
+    private static String replaceSuffix(String token, int length, String replacement) {
+        return token.substring(0, token.length() - length) + replacement;
+    }
+}
@@ -0,0 +1,7 @@
+package com.urbaneyes.security;
+
+// Identidade extraída do token; fica num atributo da requisição para os controllers
+public record AuthenticatedUser(Long id, String email) {
+
+    public static final String REQUEST_ATTRIBUTE = "com.urbaneyes.security.AuthenticatedUser";
+}
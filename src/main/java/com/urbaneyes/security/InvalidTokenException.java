@@ -0,0 +1,9 @@
+package com.urbaneyes.security;
+
+// Sem stack trace: tokens inválidos são rejeitados no caminho quente do filtro
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message, null, false, false);
+    }
+}
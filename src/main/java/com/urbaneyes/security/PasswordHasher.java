@@ -0,0 +1,62 @@
+package com.urbaneyes.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt executado num pool próprio com fila limitada. Um pico de logins ocupa no máximo {@code threads}
+ * núcleos; quando a fila enche, a tarefa é rejeitada (503) em vez de prender threads do Tomcat.
+ */
+@Component
+public class PasswordHasher {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    // Hash de uma senha que ninguém tem, com o mesmo custo dos reais
+    private final String dummyHash;
+
+    public PasswordHasher(@Value("${urbaneyes.security.hashing.strength:10}") int strength,
+                          @Value("${urbaneyes.security.hashing.threads:0}") int threads,
+                          @Value("${urbaneyes.security.hashing.queue-capacity:200}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.dummyHash = encoder.encode(UUID.randomUUID().toString());
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> encoder.encode(rawPassword), executor);
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return CompletableFuture.supplyAsync(() -> encoder.matches(rawPassword, encodedPassword), executor);
+    }
+
+    /**
+     * Compara com um hash fixo e sempre dá falso: usado quando não há conta para o e-mail, para que a resposta leve
+     * o mesmo tempo de uma senha errada e não revele quais e-mails estão cadastrados.
+     */
+    public CompletableFuture<Boolean> matchesNothing(String rawPassword) {
+        return matches(rawPassword, dummyHash).thenApply(ignored -> false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,61 @@
+package com.urbaneyes.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Valida o cabeçalho {@code Authorization: Bearer} sem ir ao banco. Token inválido ou expirado responde 401;
+ * sem token, a requisição segue anônima, exceto nos caminhos protegidos.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+    private final List<String> protectedPaths;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public TokenAuthenticationFilter(TokenService tokenService, List<String> protectedPaths) {
+        this.tokenService = tokenService;
+        this.protectedPaths = protectedPaths;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            try {
+                AuthenticatedUser user = tokenService.verify(authorization.substring(BEARER.length()).trim());
+                request.setAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE, user);
+            } catch (InvalidTokenException e) {
+                unauthorized(response, e.getMessage());
+                return;
+            }
+        } else if (isProtected(request)) {
+            unauthorized(response, "Authentication required");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private boolean isProtected(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return protectedPaths.stream().anyMatch(pattern -> matcher.match(pattern, path));
+    }
+
+    private static void unauthorized(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+}
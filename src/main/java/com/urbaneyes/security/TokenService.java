@@ -0,0 +1,139 @@
+package com.urbaneyes.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Emite e verifica tokens JWT assinados com HMAC-SHA256. A verificação só usa a chave local: nenhuma requisição
+ * autenticada precisa consultar a tabela de usuários.
+ */
+@Component
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String HEADER = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration timeToLive;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    // Mac não é thread-safe; cada thread guarda a sua instância já inicializada com a chave
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public TokenService(@Value("${urbaneyes.security.token.secret:}") String secret,
+                        @Value("${urbaneyes.security.token.ttl:PT1H}") Duration timeToLive,
+                        ObjectMapper objectMapper) {
+        this(secret, timeToLive, objectMapper, Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration timeToLive, ObjectMapper objectMapper, Clock clock) {
+        this.key = new SecretKeySpec(keyBytes(secret), ALGORITHM);
+        this.timeToLive = timeToLive;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public Duration timeToLive() {
+        return timeToLive;
+    }
+
+    public String issue(Long userId, String email) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", String.valueOf(userId));
+        claims.put("email", email);
+        claims.put("exp", clock.instant().plus(timeToLive).getEpochSecond());
+        try {
+            String signed = HEADER + "." + encode(objectMapper.writeValueAsBytes(claims));
+            return signed + "." + encode(sign(signed));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize token claims", e);
+        }
+    }
+
+    public AuthenticatedUser verify(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        String signed = token.substring(0, lastDot);
+        byte[] signature;
+        JsonNode claims;
+        try {
+            signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(signed))) {
+                throw new InvalidTokenException("Invalid token signature");
+            }
+            claims = objectMapper.readTree(DECODER.decode(token.substring(firstDot + 1, lastDot)));
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        if (!token.startsWith(HEADER + ".") || !claims.path("exp").canConvertToLong()
+                || !claims.path("sub").isTextual()) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        if (claims.path("exp").asLong() <= clock.instant().getEpochSecond()) {
+            throw new InvalidTokenException("Token expired");
+        }
+        try {
+            return new AuthenticatedUser(Long.valueOf(claims.path("sub").asText()), claims.path("email").asText(null));
+        } catch (NumberFormatException e) {
+            throw new InvalidTokenException("Malformed token");
+        }
+    }
+
+    private byte[] sign(String value) {
+        return macs.get().doFinal(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static byte[] keyBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            // Sem chave configurada os tokens valem só até a aplicação reiniciar
+            log.warn("urbaneyes.security.token.secret is not set, using a random key for this run");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < 32) {
+            throw new IllegalArgumentException("urbaneyes.security.token.secret must have at least 32 bytes");
+        }
+        return bytes;
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,33 +1,66 @@
 package com.urbaneyes.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.dto.CategorySnapshot;
+import com.urbaneyes.metrics.MetricsConfig;
 import com.urbaneyes.model.Category;
 import com.urbaneyes.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class CategoryService {
 
+    public static final String CATEGORY_CACHE = "categories";
+    public static final String CATEGORY_LIST_CACHE = "categoryList";
+
     private final CategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ObjectMapper objectMapper) {
         this.categoryRepository = categoryRepository;
+        this.objectMapper = objectMapper;
     }
 
+    @Cacheable(cacheNames = CATEGORY_LIST_CACHE, key = "'list'")
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return List.copyOf(categoryRepository.findAll());
+    }
+
+    @Cacheable(cacheNames = CATEGORY_LIST_CACHE, key = "'snapshot'")
+    public CategorySnapshot getCategorySnapshot() {
+        List<Category> categories = List.copyOf(categoryRepository.findAll());
+        try {
+            return new CategorySnapshot(categories, objectMapper.writeValueAsBytes(categories));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize categories", e);
+        }
     }
 
+    @Cacheable(cacheNames = CATEGORY_CACHE, unless = "#result == null")
     public Optional<Category> getCategoryById(Long id) {
         return categoryRepository.findById(id);
     }
 
+    @Caching(
+            put = @CachePut(cacheNames = CATEGORY_CACHE, key = "#result.id"),
+            evict = @CacheEvict(cacheNames = CATEGORY_LIST_CACHE, allEntries = true))
     public Category createCategory(Category category) {
         return categoryRepository.save(category);
     }
 
+    @Caching(
+            put = @CachePut(cacheNames = CATEGORY_CACHE, key = "#id"),
+            evict = @CacheEvict(cacheNames = CATEGORY_LIST_CACHE, allEntries = true))
     public Category updateCategory(Long id, Category category) {
         Category existingCategory = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
@@ -35,6 +68,9 @@ public class CategoryService {
         return categoryRepository.save(existingCategory);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CATEGORY_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CATEGORY_LIST_CACHE, allEntries = true)})
     public void deleteCategory(Long id) {
         if (!categoryRepository.existsById(id)) {
             throw new RuntimeException("Category not found");
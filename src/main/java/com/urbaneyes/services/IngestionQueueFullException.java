@@ -0,0 +1,12 @@
+package com.urbaneyes.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IngestionQueueFullException extends RuntimeException {
+
+    public IngestionQueueFullException(int capacity) {
+        super("The ingestion queue is full (" + capacity + " issues pending), retry later");
+    }
+}
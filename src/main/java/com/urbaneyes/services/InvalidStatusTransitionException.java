@@ -0,0 +1,13 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.model.IssueStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    public InvalidStatusTransitionException(IssueStatus from, IssueStatus to) {
+        super("Cannot change status from " + from + " to " + to);
+    }
+}
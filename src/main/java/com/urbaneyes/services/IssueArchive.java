@@ -0,0 +1,400 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.archive.ArchivedIssue;
+import com.urbaneyes.archive.IssueSegment;
+import com.urbaneyes.dto.IssueSummary;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Arquivo frio das issues encerradas: {@link #archive()} move as {@code CLOSED}/{@code RESOLVED} sem alteração há
+ * mais de {@code archiveAfter} para segmentos colunares comprimidos em disco ({@link IssueSegment}) e as apaga da
+ * tabela, que fica só com o que ainda é consultado no dia a dia.
+ *
+ * <p>O segmento é gravado e aberto antes do DELETE, e cada linha só é apagada se a versão não mudou desde a
+ * leitura: uma issue reaberta no meio do caminho continua na tabela, e a tabela sempre tem precedência sobre o
+ * arquivo na leitura. Depois do DELETE, o segmento é regravado só com as linhas apagadas, para que a cópia velha de
+ * uma issue que ficou na tabela não reapareça se ela for apagada depois. Uma queda antes da regravação é acertada no
+ * primeiro uso depois da subida, tirando do segmento mais novo o que ainda está na tabela. Cada linha apagada publica
+ * {@link IssueChangedEvent#archived} na transação do DELETE, para que índices, estatísticas e tendências em memória
+ * a larguem no commit; o sync incremental não gera tombstone, porque a issue continua existindo, só que lida daqui.
+ */
+@Service
+public class IssueArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueArchive.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String SELECT_CANDIDATES =
+            "SELECT id, title, description, status, category_id, latitude, longitude, report_count, version, "
+                    + "created_at, updated_at FROM issue WHERE status IN ('CLOSED', 'RESOLVED') "
+                    + "AND updated_at < :cutoff AND id > :after ORDER BY id LIMIT :limit";
+
+    private static final RowMapper<ArchivedIssue> ARCHIVED_MAPPER = (rs, rowNum) -> new ArchivedIssue(
+            rs.getLong("id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            IssueStatus.valueOf(rs.getString("status")),
+            rs.getObject("category_id", Long.class),
+            rs.getObject("latitude", Double.class),
+            rs.getObject("longitude", Double.class),
+            rs.getInt("report_count"),
+            rs.getLong("version"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryService categoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path directory;
+    private final boolean enabled;
+    private final Duration archiveAfter;
+    private final int segmentSize;
+    private final int rowGroupSize;
+    private final int deleteChunkSize;
+    private final Clock clock;
+    private final Counter archived;
+    // Do mais antigo para o mais novo; a busca por id percorre de trás para frente
+    private final List<IssueSegment> segments = new CopyOnWriteArrayList<>();
+    private long nextSegment;
+    private boolean settled;
+
+    @Autowired
+    public IssueArchive(NamedParameterJdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        CategoryService categoryService,
+                        ApplicationEventPublisher eventPublisher,
+                        MeterRegistry meterRegistry,
+                        @Value("${urbaneyes.issues.archive.directory:data/archive}") Path directory,
+                        @Value("${urbaneyes.issues.archive.enabled:false}") boolean enabled,
+                        @Value("${urbaneyes.issues.archive.after:P365D}") Duration archiveAfter,
+                        @Value("${urbaneyes.issues.archive.segment-size:50000}") int segmentSize,
+                        @Value("${urbaneyes.issues.archive.row-group-size:4096}") int rowGroupSize,
+                        @Value("${urbaneyes.issues.archive.delete-chunk-size:500}") int deleteChunkSize,
+                        @Value(IssueChangeService.WRITE_TIMEOUT_SECONDS) int writeTimeoutSeconds)
+            throws IOException {
+        this(jdbcTemplate, transactionManager, categoryService, eventPublisher, meterRegistry, directory, enabled,
+                archiveAfter, segmentSize, rowGroupSize, deleteChunkSize, writeTimeoutSeconds,
+                Clock.systemDefaultZone());
+    }
+
+    IssueArchive(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                 CategoryService categoryService, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                 Path directory, boolean enabled, Duration archiveAfter, int segmentSize, int rowGroupSize,
+                 int deleteChunkSize, int writeTimeoutSeconds, Clock clock)
+            throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(writeTimeoutSeconds);
+        this.categoryService = categoryService;
+        this.eventPublisher = eventPublisher;
+        this.directory = directory;
+        this.enabled = enabled;
+        this.archiveAfter = archiveAfter;
+        this.segmentSize = segmentSize;
+        this.rowGroupSize = rowGroupSize;
+        this.deleteChunkSize = deleteChunkSize;
+        this.clock = clock;
+        this.archived = meterRegistry.counter("urbaneyes.archive.issues");
+        openSegments();
+    }
+
+    /** A issue arquivada, montada como entidade desanexada (com a categoria vinda do cache de categorias). */
+    public Optional<Issue> findIssue(Long id) {
+        return find(id).map(this::toIssue);
+    }
+
+    public Optional<Long> findVersion(Long id) {
+        return find(id).map(ArchivedIssue::version);
+    }
+
+    /**
+     * Junta às issues da tabela as arquivadas da categoria, em ordem de id; uma issue nos dois lugares (reaberta
+     * depois de arquivada) aparece só como está na tabela.
+     */
+    public List<IssueSummary> withArchivedSummaries(Long categoryId, List<IssueSummary> current) {
+        Map<Long, ArchivedIssue> latest = latestInCategory(categoryId);
+        if (latest.isEmpty()) {
+            return current;
+        }
+        Set<Long> live = new HashSet<>();
+        current.forEach(summary -> live.add(summary.id()));
+        String categoryName = categoryService.getCategoryById(categoryId).map(Category::getName).orElse(null);
+        List<IssueSummary> merged = new ArrayList<>(current);
+        latest.values().stream()
+                .filter(issue -> !live.contains(issue.id()))
+                .sorted(Comparator.comparingLong(ArchivedIssue::id))
+                .forEach(issue -> merged.add(new IssueSummary(issue.id(), issue.title(), issue.status(),
+                        issue.categoryId(), categoryName, issue.createdAt(), issue.updatedAt())));
+        return merged;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Percorre criação, categoria e status de todas as arquivadas sem arquivamento em andamento: {@code onStart} roda
+     * já com o lock, e os eventos {@code ARCHIVED} publicados até ali são exatamente os das issues que o percurso vê.
+     */
+    public synchronized void forEachArchivedKey(Runnable onStart, IssueSegment.KeyConsumer action) {
+        settleNewestSegment();
+        onStart.run();
+        segments.forEach(segment -> segment.forEachKey(action));
+    }
+
+    @Scheduled(fixedDelayString = "${urbaneyes.issues.archive.interval:PT1H}",
+            initialDelayString = "${urbaneyes.issues.archive.interval:PT1H}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /** Arquiva tudo o que já passou da idade, um segmento a cada {@code segmentSize} issues; devolve quantas saíram. */
+    public synchronized int archive() {
+        settleNewestSegment();
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(archiveAfter);
+        int total = 0;
+        long after = 0;
+        while (true) {
+            List<ArchivedIssue> batch = jdbcTemplate.query(SELECT_CANDIDATES, new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff)
+                    .addValue("after", after)
+                    .addValue("limit", segmentSize), ARCHIVED_MAPPER);
+            if (batch.isEmpty()) {
+                break;
+            }
+            Path path = directory.resolve(String.format("issues-%08d%s", nextSegment, SEGMENT_SUFFIX));
+            IssueSegment segment;
+            try {
+                Files.createDirectories(directory);
+                IssueSegment.write(path, batch, rowGroupSize);
+                segment = IssueSegment.open(path);
+                segments.add(segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the archive segment " + path, e);
+            }
+            nextSegment++;
+            List<ArchivedIssue> deleted = delete(batch);
+            if (deleted.size() < batch.size()) {
+                keepOnly(segment, deleted);
+            }
+            total += deleted.size();
+            archived.increment(deleted.size());
+            log.info("Archived {} issues to {} ({} changed meanwhile and stayed in the table)",
+                    deleted.size(), path.getFileName(), batch.size() - deleted.size());
+            if (batch.size() < segmentSize) {
+                break;
+            }
+            after = batch.get(batch.size() - 1).id();
+        }
+        return total;
+    }
+
+    private Optional<ArchivedIssue> find(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            IssueSegment segment = segments.get(i);
+            if (segment.mayContain(id)) {
+                Optional<ArchivedIssue> found = segment.find(id);
+                if (found.isPresent()) {
+                    return found;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Map<Long, ArchivedIssue> latestInCategory(Long categoryId) {
+        Map<Long, ArchivedIssue> latest = new HashMap<>();
+        Map<Long, Integer> segmentOf = new HashMap<>();
+        // Dos mais antigos para os mais novos: a última cópia vista de cada id é a que vale
+        for (int i = 0; i < segments.size(); i++) {
+            int index = i;
+            segments.get(i).scan(categoryId, issue -> {
+                latest.put(issue.id(), issue);
+                segmentOf.put(issue.id(), index);
+            });
+        }
+        if (latest.isEmpty()) {
+            return latest;
+        }
+        // Arquivada de novo depois de mudar de categoria: a cópia mais nova é que diz onde ela está. Uma passada
+        // pelas colunas de id, do segmento mais novo até o logo acima do mais antigo que tem uma candidata
+        int oldest = segmentOf.values().stream().mapToInt(Integer::intValue).min().orElseThrow();
+        for (int i = segments.size() - 1; i > oldest; i--) {
+            int index = i;
+            segments.get(i).forEachId(id -> {
+                Integer found = segmentOf.get(id);
+                if (found != null && found < index) {
+                    latest.remove(id);
+                    segmentOf.remove(id);
+                }
+            });
+        }
+        return latest;
+    }
+
+    // Só apaga a versão que foi para o segmento; o que mudou depois da leitura fica na tabela
+    private List<ArchivedIssue> delete(List<ArchivedIssue> batch) {
+        List<ArchivedIssue> deleted = new ArrayList<>(batch.size());
+        for (int from = 0; from < batch.size(); from += deleteChunkSize) {
+            List<ArchivedIssue> chunk = batch.subList(from, Math.min(from + deleteChunkSize, batch.size()));
+            SqlParameterSource[] params = chunk.stream()
+                    .map(issue -> new MapSqlParameterSource("id", issue.id()).addValue("version", issue.version()))
+                    .toArray(SqlParameterSource[]::new);
+            int[] counts = transactionTemplate.execute(status -> {
+                int[] rows = jdbcTemplate.batchUpdate("DELETE FROM issue WHERE id = :id AND version = :version",
+                        params);
+                for (int i = 0; i < rows.length; i++) {
+                    if (rows[i] > 0) {
+                        eventPublisher.publishEvent(IssueChangedEvent.archived(snapshot(chunk.get(i))));
+                    }
+                }
+                return rows;
+            });
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    deleted.add(chunk.get(i));
+                }
+            }
+        }
+        return deleted;
+    }
+
+    // Regrava o segmento só com as linhas apagadas da tabela; sem nenhuma, o segmento some
+    private void keepOnly(IssueSegment segment, List<ArchivedIssue> rows) {
+        Path path = segment.path();
+        try {
+            if (rows.isEmpty()) {
+                segments.remove(segment);
+                Files.delete(path);
+            } else {
+                IssueSegment.write(path, rows, rowGroupSize);
+                segments.set(segments.indexOf(segment), IssueSegment.open(path));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rewrite the archive segment " + path, e);
+        }
+    }
+
+    // Só o segmento mais novo pode ter ficado sem a regravação: o arquivamento grava um de cada vez
+    private void settleNewestSegment() {
+        if (settled) {
+            return;
+        }
+        settled = true;
+        if (segments.isEmpty()) {
+            return;
+        }
+        IssueSegment newest = segments.get(segments.size() - 1);
+        List<Long> ids = new ArrayList<>(newest.rowCount());
+        newest.forEachId(ids::add);
+        Set<Long> live = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += deleteChunkSize) {
+            live.addAll(jdbcTemplate.queryForList("SELECT id FROM issue WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", ids.subList(from, Math.min(from + deleteChunkSize, ids.size()))),
+                    Long.class));
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        List<ArchivedIssue> rows = new ArrayList<>(ids.size() - live.size());
+        newest.scan(null, issue -> {
+            if (!live.contains(issue.id())) {
+                rows.add(issue);
+            }
+        });
+        keepOnly(newest, rows);
+        log.info("Dropped {} issues that are still in the table from the archive segment {}", live.size(),
+                newest.path().getFileName());
+    }
+
+    private static IssueSnapshot snapshot(ArchivedIssue archived) {
+        return new IssueSnapshot(archived.id(), archived.title(), archived.description(), archived.status(),
+                archived.categoryId(), archived.latitude(), archived.longitude(), archived.createdAt(),
+                archived.updatedAt());
+    }
+
+    private Issue toIssue(ArchivedIssue archived) {
+        Issue issue = new Issue();
+        issue.setId(archived.id());
+        issue.setTitle(archived.title());
+        issue.setDescription(archived.description());
+        issue.setStatus(archived.status());
+        issue.setLatitude(archived.latitude());
+        issue.setLongitude(archived.longitude());
+        issue.setReportCount(archived.reportCount());
+        issue.setVersion(archived.version());
+        issue.setCreatedAt(archived.createdAt());
+        issue.setUpdatedAt(archived.updatedAt());
+        if (archived.categoryId() != null) {
+            issue.setCategory(categoryService.getCategoryById(archived.categoryId())
+                    .orElseGet(() -> new Category(archived.categoryId(), null)));
+        }
+        return issue;
+    }
+
+    private void openSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "issues-*" + SEGMENT_SUFFIX)) {
+            files.forEach(paths::add);
+        }
+        // O nome traz o número do segmento com zeros à esquerda: a ordem alfabética é a de criação
+        paths.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        for (Path path : paths) {
+            segments.add(IssueSegment.open(path));
+        }
+        if (!paths.isEmpty()) {
+            String last = paths.get(paths.size() - 1).getFileName().toString();
+            nextSegment = Long.parseLong(last.substring("issues-".length(), last.length() - SEGMENT_SUFFIX.length()))
+                    + 1;
+            log.info("Opened {} issue archive segments with {} issues from {}", segments.size(),
+                    segments.stream().mapToInt(IssueSegment::rowCount).sum(), directory);
+        }
+    }
+}
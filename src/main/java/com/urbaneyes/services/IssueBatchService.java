@@ -0,0 +1,148 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueBatchResponse;
+import com.urbaneyes.dto.IssueBatchResult;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.repository.IssueRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+public class IssueBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueBatchService.class);
+
+    private final IssueRepository issueRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxItems;
+    private final int chunkSize;
+
+    public IssueBatchService(IssueRepository issueRepository,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${urbaneyes.issues.batch.max-items:1000}") int maxItems,
+                             @Value("${urbaneyes.issues.batch.chunk-size:500}") int chunkSize,
+                             @Value(IssueChangeService.WRITE_TIMEOUT_SECONDS) int writeTimeoutSeconds) {
+        this.issueRepository = issueRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(writeTimeoutSeconds);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.maxItems = maxItems;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Valida cada item individualmente e persiste os válidos em blocos de {@code chunkSize}, cada bloco em sua
+     * própria transação. O resultado traz uma entrada por item, na mesma ordem da requisição.
+     */
+    public IssueBatchResponse createIssues(List<Issue> issues) {
+        if (issues.size() > maxItems) {
+            throw new IllegalArgumentException("A batch cannot contain more than " + maxItems + " issues");
+        }
+        IssueBatchResult[] results = new IssueBatchResult[issues.size()];
+        List<Integer> valid = new ArrayList<>(issues.size());
+        for (int i = 0; i < issues.size(); i++) {
+            List<String> errors = validate(issues.get(i));
+            if (errors.isEmpty()) {
+                resetForInsert(issues.get(i));
+                valid.add(i);
+            } else {
+                results[i] = IssueBatchResult.invalid(i, errors);
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            persistChunk(issues, valid.subList(from, Math.min(from + chunkSize, valid.size())), results);
+        }
+        return IssueBatchResponse.of(Arrays.asList(results));
+    }
+
+    List<String> validate(Issue issue) {
+        if (issue == null) {
+            return List.of("The issue cannot be null");
+        }
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<Issue> violation : validator.validate(issue)) {
+            errors.add(violation.getMessage());
+        }
+        if (issue.getCategory() == null || issue.getCategory().getId() == null) {
+            errors.add("The category cannot be null");
+        }
+        return errors;
+    }
+
+    private void persistChunk(List<Issue> issues, List<Integer> chunk, IssueBatchResult[] results) {
+        try {
+            persist(chunk.stream().map(issues::get).toList());
+            chunk.forEach(i -> results[i] = IssueBatchResult.created(i, issues.get(i).getId()));
+        } catch (RuntimeException e) {
+            // Um item inválido para o banco (ex.: categoria inexistente) derruba o bloco inteiro;
+            // refaz item a item para isolar a falha e não perder os demais
+            log.warn("Batch chunk of {} issues failed, retrying one by one", chunk.size(), e);
+            for (int i : chunk) {
+                Issue issue = issues.get(i);
+                resetForInsert(issue);
+                try {
+                    persist(List.of(issue));
+                    results[i] = IssueBatchResult.created(i, issue.getId());
+                } catch (RuntimeException itemFailure) {
+                    resetForInsert(issue);
+                    results[i] = isUnavailable(itemFailure)
+                            ? IssueBatchResult.unavailable(i, "The database is unavailable, try again later")
+                            : IssueBatchResult.failed(i, "The issue could not be persisted");
+                }
+            }
+        }
+    }
+
+    // Falhas do banco e não dos dados: repetir a mesma issue mais tarde pode dar certo
+    static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException
+                || e instanceof TransactionTimedOutException;
+    }
+
+    // O saveAll que falhou já deu id e versão às issues do bloco; com versão, um novo saveAll faria merge em vez
+    // de insert e devolveria a issue sem id
+    private static void resetForInsert(Issue issue) {
+        issue.setId(null);
+        issue.setVersion(null);
+    }
+
+    private void persist(List<Issue> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            issueRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+            chunk.forEach(issue -> eventPublisher.publishEvent(IssueChangedEvent.created(IssueSnapshot.of(issue))));
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.urbaneyes.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Posição na ordenação (updatedAt, id) da sincronização incremental; exposta ao cliente apenas como token opaco
+public record IssueChangeCursor(LocalDateTime changedAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public boolean isAfter(LocalDateTime otherChangedAt, Long otherId) {
+        int byTime = changedAt.compareTo(otherChangedAt);
+        return byTime > 0 || (byTime == 0 && id > otherId);
+    }
+
+    public String encode() {
+        String raw = changedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static IssueChangeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            return new IssueChangeCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token", e);
+        }
+    }
+}
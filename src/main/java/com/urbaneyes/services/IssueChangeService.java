@@ -0,0 +1,150 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueChanges;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueTombstone;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.repository.IssueTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sincronização incremental: issues com (updatedAt, id) depois do token e as remoções registradas no mesmo período.
+ *
+ * <p>O updatedAt é definido antes do commit, então uma transação lenta pode tornar visível uma linha "no passado".
+ * Por isso só entram mudanças anteriores a {@code agora - settleWindow}: tudo o que está abaixo desse limite já foi
+ * commitado e o token pode avançar até ele sem perder nada. Quem garante isso é o timeout das transações que escrevem
+ * issues ({@link #WRITE_TIMEOUT_SECONDS}), que precisa ficar abaixo da janela; a folga cobre o commit em si, que não
+ * tem prazo, e o relógio de instâncias diferentes precisa estar sincronizado dentro dela.
+ */
+@Service
+public class IssueChangeService {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueChangeService.class);
+
+    /**
+     * Timeout, em segundos, das transações que criam, alteram ou removem issues. O Hibernate arredonda o tempo que
+     * resta para baixo e recusa comandos com menos de um segundo: 1 já impediria qualquer escrita.
+     */
+    public static final String WRITE_TIMEOUT_SECONDS = "${urbaneyes.issues.changes.write-timeout-seconds:3}";
+
+    private final IssueRepository issueRepository;
+    private final IssueTombstoneRepository tombstoneRepository;
+    private final Duration settleWindow;
+    private final Duration tombstoneRetention;
+    private final Clock clock;
+
+    @Autowired
+    public IssueChangeService(IssueRepository issueRepository,
+                              IssueTombstoneRepository tombstoneRepository,
+                              @Value("${urbaneyes.issues.changes.settle-window:PT5S}") Duration settleWindow,
+                              @Value("${urbaneyes.issues.changes.tombstone-retention:P30D}") Duration retention,
+                              @Value(WRITE_TIMEOUT_SECONDS) int writeTimeoutSeconds) {
+        this(issueRepository, tombstoneRepository, settleWindow, retention, Clock.systemDefaultZone());
+        if (settleWindow.compareTo(Duration.ofSeconds(writeTimeoutSeconds)) <= 0) {
+            log.warn("The settle window ({}) is not longer than the issue write timeout ({}s): incremental syncs may "
+                    + "miss changes from slow transactions", settleWindow, writeTimeoutSeconds);
+        }
+    }
+
+    IssueChangeService(IssueRepository issueRepository, IssueTombstoneRepository tombstoneRepository,
+                       Duration settleWindow, Duration tombstoneRetention, Clock clock) {
+        this.issueRepository = issueRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.settleWindow = settleWindow;
+        this.tombstoneRetention = tombstoneRetention;
+        this.clock = clock;
+    }
+
+    /**
+     * Sem {@code since}, devolve todas as issues (a primeira sincronização não precisa de remoções). O token de cada
+     * página é a posição do último item; na última página, avança até o limite já estável.
+     */
+    @Transactional(readOnly = true)
+    public IssueChanges getChanges(String since, int size) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime until = now.minus(settleWindow);
+        // Busca um item a mais de cada lado para saber se existe próxima página sem precisar de count
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<Issue> issues;
+        List<IssueTombstone> tombstones;
+        if (since == null || since.isBlank()) {
+            issues = issueRepository.findChangedBefore(until, limit);
+            tombstones = List.of();
+        } else {
+            IssueChangeCursor position = IssueChangeCursor.decode(since);
+            if (position.changedAt().isBefore(now.minus(tombstoneRetention))) {
+                throw new SyncTokenExpiredException();
+            }
+            if (!position.changedAt().isBefore(until)) {
+                return new IssueChanges(List.of(), List.of(), since, false);
+            }
+            issues = issueRepository.findChangedAfter(position.changedAt(), position.id(), until, limit);
+            tombstones = tombstoneRepository.findDeletedAfter(position.changedAt(), position.id(), until, limit);
+        }
+        return merge(issues, tombstones, size, until);
+    }
+
+    // Intercala as duas listas na ordem (instante, id) e corta em size
+    private IssueChanges merge(List<Issue> issues, List<IssueTombstone> tombstones, int size, LocalDateTime until) {
+        List<Issue> changed = new ArrayList<>();
+        List<IssueTombstone> deleted = new ArrayList<>();
+        IssueChangeCursor last = null;
+        int i = 0;
+        int t = 0;
+        while (i + t < size && (i < issues.size() || t < tombstones.size())) {
+            boolean takeIssue = t == tombstones.size() || (i < issues.size()
+                    && !new IssueChangeCursor(issues.get(i).getUpdatedAt(), issues.get(i).getId())
+                    .isAfter(tombstones.get(t).getDeletedAt(), tombstones.get(t).getId()));
+            if (takeIssue) {
+                Issue issue = issues.get(i++);
+                changed.add(issue);
+                last = new IssueChangeCursor(issue.getUpdatedAt(), issue.getId());
+            } else {
+                IssueTombstone tombstone = tombstones.get(t++);
+                deleted.add(tombstone);
+                last = new IssueChangeCursor(tombstone.getDeletedAt(), tombstone.getId());
+            }
+        }
+        boolean hasMore = issues.size() + tombstones.size() > size;
+        // Na última página, tudo antes de until já foi entregue: o próximo token parte dali
+        IssueChangeCursor next = hasMore ? last : new IssueChangeCursor(until, 0L);
+        return new IssueChanges(changed, deleted, next.encode(), hasMore);
+    }
+
+    // Grava a marca na mesma transação da remoção
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onIssueChanged(IssueChangedEvent event) {
+        if (event.type() == IssueChangedEvent.Type.DELETED) {
+            tombstoneRepository.save(new IssueTombstone(event.issueId(), event.before().categoryId(),
+                    LocalDateTime.now(clock)));
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${urbaneyes.issues.changes.purge-interval:PT1H}",
+            initialDelayString = "${urbaneyes.issues.changes.purge-interval:PT1H}")
+    public void purgeTombstones() {
+        int purged = tombstoneRepository.deleteOlderThan(LocalDateTime.now(clock).minus(tombstoneRetention));
+        if (purged > 0) {
+            log.info("Purged {} issue tombstones older than {}", purged, tombstoneRetention);
+        }
+    }
+}
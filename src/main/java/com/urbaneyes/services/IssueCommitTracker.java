@@ -0,0 +1,70 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.event.IssueChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Commits de issues entre o BEFORE_COMMIT e o fim da transação, para quem recarrega contadores do banco e reaplica
+ * por cima os commits da janela da carga ({@link IssueStatistics}, {@link IssueRollups}).
+ *
+ * <p>O listener AFTER_COMMIT roda depois do commit no banco: um commit pode estar na leitura sem ter chegado a quem
+ * guarda os commits, e contar duas vezes se for reaplicado. Quem carrega lê, no mesmo snapshot da carga, o
+ * {@code updated_at} das issues com commits guardados ou em andamento e reaplica só o que a leitura não reflete
+ * ({@link #isReflected}). Um commit que começa depois dessa leitura é commitado depois do snapshot e sempre entra.
+ */
+@Component
+public class IssueCommitTracker {
+
+    private final Set<IssueChangedEvent> inFlight = ConcurrentHashMap.newKeySet();
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCommitting(IssueChangedEvent event) {
+        inFlight.add(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onCompleted(IssueChangedEvent event) {
+        inFlight.remove(event);
+    }
+
+    /** Commits que ainda não terminaram; podem ter sido commitados no banco ou ainda ser desfeitos. */
+    public List<IssueChangedEvent> inFlight() {
+        return List.copyOf(inFlight);
+    }
+
+    /**
+     * Se a leitura que viu a issue com {@code loadedUpdatedAt} (null: ausente) já inclui o commit. Ausente, ela foi
+     * removida antes da leitura, a não ser que tenha sido criada depois ({@code createdSince}: há um CREATED entre os
+     * commits guardados ou em andamento dela); presente, a remoção ainda não aconteceu e a escrita está na leitura se
+     * não é mais nova que ela.
+     */
+    public static boolean isReflected(IssueChangedEvent event, LocalDateTime loadedUpdatedAt, boolean createdSince) {
+        if (loadedUpdatedAt == null) {
+            return !createdSince;
+        }
+        // O banco guarda microssegundos
+        return event.after() != null && event.after().updatedAt() != null
+                && !event.after().updatedAt().truncatedTo(ChronoUnit.MICROS).isAfter(loadedUpdatedAt);
+    }
+
+    /** Ids com CREATED entre os commits dados. */
+    public static Set<Long> createdIn(Collection<IssueChangedEvent> events) {
+        Set<Long> created = new HashSet<>();
+        for (IssueChangedEvent event : events) {
+            if (event.type() == IssueChangedEvent.Type.CREATED) {
+                created.add(event.issueId());
+            }
+        }
+        return created;
+    }
+}
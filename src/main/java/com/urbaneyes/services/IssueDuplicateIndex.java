@@ -0,0 +1,183 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.geo.GeoGrid;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.search.MinHash;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice LSH em memória com as assinaturas MinHash (título + descrição) das issues abertas com coordenadas. Uma nova
+ * issue só é comparada com as da mesma categoria que caem em algum bucket em comum. É duplicata quando a similaridade
+ * estimada atinge o limiar e as duas estão a menos de {@code max-distance-meters}; sem coordenadas de um dos lados
+ * não há como saber se é o mesmo problema (o mesmo "poste apagado" pode estar em qualquer rua), e nada é fundido.
+ */
+@Component
+public class IssueDuplicateIndex {
+
+    private final IssueRepository issueRepository;
+    private final MinHash minHash;
+    private final double threshold;
+    private final double maxDistanceMeters;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> buckets = new ConcurrentHashMap<>();
+
+    public IssueDuplicateIndex(IssueRepository issueRepository,
+                               @Value("${urbaneyes.issues.dedup.bands:8}") int bands,
+                               @Value("${urbaneyes.issues.dedup.rows:5}") int rows,
+                               @Value("${urbaneyes.issues.dedup.threshold:0.7}") double threshold,
+                               @Value("${urbaneyes.issues.dedup.max-distance-meters:150}") double maxDistanceMeters) {
+        this.issueRepository = issueRepository;
+        this.minHash = new MinHash(bands, rows);
+        this.threshold = threshold;
+        this.maxDistanceMeters = maxDistanceMeters;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        issueRepository.findSnapshotsByStatusIn(IssueSpatialIndex.INDEXED_STATUSES).parallelStream()
+                .forEach(this::put);
+    }
+
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        IssueSnapshot after = event.after();
+        if (after == null || after.status() == null || after.status().isTerminal()) {
+            remove(event.issueId());
+        } else {
+            put(after);
+        }
+    }
+
+    public Optional<Long> findDuplicate(Issue issue) {
+        if (issue.getCategory() == null || issue.getCategory().getId() == null) {
+            return Optional.empty();
+        }
+        if (issue.getLatitude() == null || issue.getLongitude() == null) {
+            return Optional.empty();
+        }
+        Long categoryId = issue.getCategory().getId();
+        int[] signature = minHash.signature(text(issue.getTitle(), issue.getDescription()));
+        if (signature == null) {
+            return Optional.empty();
+        }
+        Set<Long> compared = new HashSet<>();
+        Long best = null;
+        double bestSimilarity = threshold;
+        for (int band = 0; band < minHash.bands(); band++) {
+            long[] ids = buckets.get(bucketKey(categoryId, minHash.bandHash(signature, band)));
+            if (ids == null) {
+                continue;
+            }
+            for (long id : ids) {
+                Entry candidate = entries.get(id);
+                if (candidate == null || !compared.add(id) || !categoryId.equals(candidate.categoryId())
+                        || !closeEnough(candidate, issue.getLatitude(), issue.getLongitude())) {
+                    continue;
+                }
+                double similarity = MinHash.similarity(signature, candidate.signature());
+                if (similarity >= bestSimilarity) {
+                    bestSimilarity = similarity;
+                    best = id;
+                }
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    public void put(IssueSnapshot snapshot) {
+        int[] signature = snapshot.categoryId() == null || !snapshot.hasLocation() ? null
+                : minHash.signature(text(snapshot.title(), snapshot.description()));
+        if (signature == null) {
+            remove(snapshot.id());
+            return;
+        }
+        Entry entry = new Entry(snapshot.categoryId(), signature, snapshot.latitude(), snapshot.longitude());
+        entries.compute(snapshot.id(), (id, previous) -> {
+            if (previous != null) {
+                unlink(id, previous);
+            }
+            for (int band = 0; band < minHash.bands(); band++) {
+                buckets.compute(bucketKey(entry.categoryId(), minHash.bandHash(signature, band)),
+                        (key, ids) -> append(ids, id));
+            }
+            return entry;
+        });
+    }
+
+    public void remove(Long id) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            unlink(key, previous);
+            return null;
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void unlink(Long id, Entry entry) {
+        for (int band = 0; band < minHash.bands(); band++) {
+            buckets.computeIfPresent(bucketKey(entry.categoryId(), minHash.bandHash(entry.signature(), band)),
+                    (key, ids) -> without(ids, id));
+        }
+    }
+
+    private boolean closeEnough(Entry candidate, double latitude, double longitude) {
+        return GeoGrid.distanceMeters(latitude, longitude, candidate.latitude(), candidate.longitude())
+                <= maxDistanceMeters;
+    }
+
+    private static long bucketKey(Long categoryId, long bandHash) {
+        return bandHash * 0x9E3779B97F4A7C15L + categoryId;
+    }
+
+    private static String text(String title, String description) {
+        return description == null ? title : title + " " + description;
+    }
+
+    // Buckets são arrays copiados a cada escrita: quase todos têm um ou dois ids e a leitura não precisa de lock
+    private static long[] append(long[] ids, long id) {
+        if (ids == null) {
+            return new long[]{id};
+        }
+        long[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = id;
+        return grown;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        int index = -1;
+        for (int i = 0; i < ids.length && index < 0; i++) {
+            if (ids[i] == id) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] shrunk = new long[ids.length - 1];
+        System.arraycopy(ids, 0, shrunk, 0, index);
+        System.arraycopy(ids, index + 1, shrunk, index, ids.length - index - 1);
+        return shrunk;
+    }
+
+    private record Entry(Long categoryId, int[] signature, double latitude, double longitude) {
+    }
+}
@@ -0,0 +1,382 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.dto.IssueStreamEvent;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Distribui as mudanças de issues (depois do commit) para os assinantes do stream SSE.
+ *
+ * <p>O evento é serializado uma única vez e entregue à fila de cada assinante; quem publica nunca escreve em socket.
+ * Um pool pequeno de threads esvazia as filas, cada assinante ocupando no máximo uma thread por vez. A fila é
+ * limitada a {@code bufferSize} issues distintas: um evento de uma issue que já está pendente substitui o anterior
+ * (o cliente só precisa do estado mais recente) e um assinante que ainda assim transborda é desconectado; ao
+ * reconectar, ele recupera o que perdeu por {@code /api/issues/changes}.
+ *
+ * <p>O envio ao cliente é uma escrita bloqueante: um cliente que parou de ler prende a thread até o timeout de escrita
+ * do container. Um envio em andamento há mais de {@code writeTimeout} desconecta o assinante e o pool ganha uma thread
+ * no lugar da presa, devolvida quando a escrita enfim retorna, para que os demais não fiquem esperando.
+ */
+@Service
+public class IssueEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueEventBroadcaster.class);
+
+    // Chave fixa dos heartbeats, que nunca colide com um id de issue
+    private static final Long HEARTBEAT_KEY = Long.MIN_VALUE;
+    private static final Frame HEARTBEAT = new Frame(null, null, null);
+    private static final long IDLE = Long.MIN_VALUE;
+
+    /** Evento já serializado; sem {@code name} é um heartbeat. */
+    public record Frame(String id, String name, String data) {
+
+        public boolean isHeartbeat() {
+            return name == null;
+        }
+    }
+
+    /** Destino de um assinante; chamado sempre por uma thread do despacho, nunca por quem publicou o evento. */
+    public interface Sink {
+
+        void send(Frame frame) throws IOException;
+
+        default void close() {
+        }
+    }
+
+    public interface Subscription {
+
+        void cancel();
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Executor dispatcher;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long writeTimeoutNanos;
+    private final Set<Subscriber> allCategories = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> byCategory = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Counter delivered;
+    private final Counter coalesced;
+    private final Counter dropped;
+
+    @Autowired
+    public IssueEventBroadcaster(ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${urbaneyes.issues.stream.buffer-size:256}") int bufferSize,
+                                 @Value("${urbaneyes.issues.stream.dispatch-threads:4}") int dispatchThreads,
+                                 @Value("${urbaneyes.issues.stream.max-subscribers:5000}") int maxSubscribers,
+                                 @Value("${urbaneyes.issues.stream.write-timeout:PT10S}") Duration writeTimeout) {
+        this(objectMapper, meterRegistry, bufferSize, maxSubscribers, writeTimeout, dispatcherPool(dispatchThreads));
+    }
+
+    IssueEventBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry, int bufferSize, int maxSubscribers,
+                          Duration writeTimeout, Executor dispatcher) {
+        this.objectMapper = objectMapper;
+        this.dispatcher = dispatcher;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        meterRegistry.gauge("urbaneyes.stream.subscribers", subscriberCount);
+        this.delivered = meterRegistry.counter("urbaneyes.stream.events", "outcome", "delivered");
+        this.coalesced = meterRegistry.counter("urbaneyes.stream.events", "outcome", "coalesced");
+        this.dropped = meterRegistry.counter("urbaneyes.stream.subscribers.dropped");
+    }
+
+    private static ExecutorService dispatcherPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "issue-stream-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Sem {@code categoryId} recebe todas as issues; com ele, as que entram, mudam ou saem da categoria. */
+    public Subscription subscribe(Long categoryId, Sink sink) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new StreamCapacityExceededException(maxSubscribers);
+        }
+        Subscriber subscriber = new Subscriber(categoryId, sink);
+        if (categoryId == null) {
+            allCategories.add(subscriber);
+        } else {
+            byCategory.compute(categoryId, (id, subscribers) -> {
+                Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                set.add(subscriber);
+                return set;
+            });
+        }
+        return subscriber;
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        Frame frame;
+        try {
+            frame = new Frame(Long.toString(sequence.incrementAndGet()), event.type().name(),
+                    objectMapper.writeValueAsString(IssueStreamEvent.of(event)));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize the change of issue {} for the stream", event.issueId(), e);
+            return;
+        }
+        Long issueId = event.issueId();
+        allCategories.forEach(subscriber -> subscriber.offer(issueId, frame));
+        Long before = categoryOf(event.before());
+        Long after = categoryOf(event.after());
+        offerToCategory(before, issueId, frame);
+        if (after != null && !after.equals(before)) {
+            offerToCategory(after, issueId, frame);
+        }
+    }
+
+    // Mantém proxies e balanceadores com a conexão aberta e revela clientes que já foram embora
+    @Scheduled(fixedDelayString = "${urbaneyes.issues.stream.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        allCategories.forEach(Subscriber::offerHeartbeat);
+        byCategory.values().forEach(subscribers -> subscribers.forEach(Subscriber::offerHeartbeat));
+    }
+
+    @Scheduled(fixedDelayString = "${urbaneyes.issues.stream.write-timeout:PT10S}")
+    public void expireStalledWrites() {
+        long now = System.nanoTime();
+        allCategories.forEach(subscriber -> subscriber.expireIfStalled(now));
+        byCategory.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.expireIfStalled(now)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void offerToCategory(Long categoryId, Long issueId, Frame frame) {
+        if (categoryId == null) {
+            return;
+        }
+        Set<Subscriber> subscribers = byCategory.get(categoryId);
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(issueId, frame));
+        }
+    }
+
+    // Uma thread presa numa escrita não conta para o pool: sem isso, dispatch-threads clientes parados bastam para
+    // travar o stream de todos
+    private void resizeDispatcher(int delta) {
+        if (!(dispatcher instanceof ThreadPoolExecutor pool)) {
+            return;
+        }
+        synchronized (pool) {
+            if (delta > 0) {
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+            } else {
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    private static Long categoryOf(IssueSnapshot snapshot) {
+        return snapshot != null ? snapshot.categoryId() : null;
+    }
+
+    private final class Subscriber implements Subscription {
+
+        private final Long categoryId;
+        private final Sink sink;
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+        // Eventos pendentes por issue, na ordem de chegada; guardado por this
+        private final LinkedHashMap<Long, Frame> pending = new LinkedHashMap<>();
+        private boolean scheduled;
+        private boolean closed;
+        private boolean stalled;
+        // Início do envio em andamento pelo nanoTime, ou IDLE
+        private volatile long sendStartedAt = IDLE;
+
+        private Subscriber(Long categoryId, Sink sink) {
+            this.categoryId = categoryId;
+            this.sink = sink;
+        }
+
+        void offer(Long issueId, Frame frame) {
+            boolean schedule;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.containsKey(issueId)) {
+                    pending.put(issueId, frame);
+                    coalesced.increment();
+                    return;
+                }
+                if (pending.size() >= bufferSize) {
+                    // Fechar o emitter pode esperar uma escrita em andamento: fica para a thread do despacho
+                    closed = true;
+                    pending.clear();
+                    dropped.increment();
+                    unregister();
+                } else {
+                    pending.put(issueId, frame);
+                }
+                schedule = !scheduled;
+                scheduled = true;
+            }
+            if (schedule) {
+                schedule();
+            }
+        }
+
+        void offerHeartbeat() {
+            synchronized (this) {
+                if (closed || !pending.isEmpty()) {
+                    return;
+                }
+            }
+            offer(HEARTBEAT_KEY, HEARTBEAT);
+        }
+
+        void expireIfStalled(long now) {
+            synchronized (this) {
+                long startedAt = sendStartedAt;
+                if (stalled || startedAt == IDLE || now - startedAt < writeTimeoutNanos) {
+                    return;
+                }
+                stalled = true;
+                closed = true;
+                pending.clear();
+                resizeDispatcher(1);
+            }
+            log.debug("Dropping issue stream subscriber stuck in a send for more than {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+            dropped.increment();
+            unregister();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            unregister();
+        }
+
+        // Envia um lote e, se chegou mais coisa, volta para o fim da fila do pool em vez de monopolizar a thread
+        private void drain() {
+            List<Frame> batch;
+            synchronized (this) {
+                if (closed) {
+                    batch = null;
+                } else if (pending.isEmpty()) {
+                    scheduled = false;
+                    return;
+                } else {
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                }
+            }
+            if (batch == null) {
+                sink.close();
+                return;
+            }
+            for (Frame frame : batch) {
+                boolean expired;
+                try {
+                    sendStartedAt = System.nanoTime();
+                    sink.send(frame);
+                    delivered.increment();
+                } catch (Exception e) {
+                    // Conexão encerrada pelo cliente: o próprio container completa o emitter
+                    log.debug("Dropping issue stream subscriber after a failed send", e);
+                    cancel();
+                    return;
+                } finally {
+                    synchronized (this) {
+                        sendStartedAt = IDLE;
+                        expired = stalled;
+                    }
+                    if (expired) {
+                        resizeDispatcher(-1);
+                    }
+                }
+                if (expired) {
+                    sink.close();
+                    return;
+                }
+            }
+            synchronized (this) {
+                if (!closed && pending.isEmpty()) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Aplicação desligando
+                cancel();
+            }
+        }
+
+        private void unregister() {
+            if (!registered.compareAndSet(true, false)) {
+                return;
+            }
+            if (categoryId == null) {
+                allCategories.remove(this);
+            } else {
+                byCategory.computeIfPresent(categoryId, (id, subscribers) -> {
+                    subscribers.remove(this);
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+            }
+            subscriberCount.decrementAndGet();
+        }
+    }
+}
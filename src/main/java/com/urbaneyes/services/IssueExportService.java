@@ -0,0 +1,55 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.repository.IssueRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class IssueExportService {
+
+    private final IssueRepository issueRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public IssueExportService(IssueRepository issueRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.issueRepository = issueRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escreve todas as issues em NDJSON (um objeto JSON por linha) à medida que as linhas chegam do banco.
+     * O contexto de persistência é limpo a cada bloco lido, então o uso de memória não cresce com a tabela.
+     */
+    @Transactional(readOnly = true)
+    public long exportIssues(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (Stream<Issue> issues = issueRepository.streamAllForExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<Issue> iterator = issues.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++count % IssueRepository.EXPORT_FETCH_SIZE == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
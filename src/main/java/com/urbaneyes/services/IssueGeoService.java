@@ -0,0 +1,92 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.NearbyIssue;
+import com.urbaneyes.geo.GeoBox;
+import com.urbaneyes.geo.GeoGrid;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consultas "perto de mim" e por área. Sem filtro de status, ou filtrando só status abertos, a resposta vem do
+ * IssueSpatialIndex; pedidos que incluem status terminais vão ao banco pela coluna indexada geo_cell.
+ */
+@Service
+public class IssueGeoService {
+
+    private final IssueSpatialIndex spatialIndex;
+    private final IssueRepository issueRepository;
+    private final double maxRadiusMeters;
+    private final double maxBoxDegrees;
+    private final int maxResults;
+
+    public IssueGeoService(IssueSpatialIndex spatialIndex,
+                           IssueRepository issueRepository,
+                           @Value("${urbaneyes.issues.geo.max-radius-meters:5000}") double maxRadiusMeters,
+                           @Value("${urbaneyes.issues.geo.max-box-degrees:0.5}") double maxBoxDegrees,
+                           @Value("${urbaneyes.issues.geo.max-results:500}") int maxResults) {
+        this.spatialIndex = spatialIndex;
+        this.issueRepository = issueRepository;
+        this.maxRadiusMeters = maxRadiusMeters;
+        this.maxBoxDegrees = maxBoxDegrees;
+        this.maxResults = maxResults;
+    }
+
+    public List<NearbyIssue> findNearby(double latitude, double longitude, double radiusMeters,
+                                        Set<IssueStatus> statuses, Long categoryId, int limit) {
+        if (!(radiusMeters > 0 && radiusMeters <= maxRadiusMeters)) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + maxRadiusMeters + " meters");
+        }
+        int size = checkLimit(limit);
+        GeoBox box = GeoBox.around(latitude, longitude, radiusMeters);
+        if (servedFromIndex(statuses)) {
+            return spatialIndex.findNearby(latitude, longitude, radiusMeters, statuses, categoryId, size);
+        }
+        return queryDatabase(box, statuses, categoryId).stream()
+                .map(location -> NearbyIssue.of(location,
+                        GeoGrid.distanceMeters(latitude, longitude, location.latitude(), location.longitude())))
+                .filter(nearby -> nearby.distanceMeters() <= radiusMeters)
+                .sorted(Comparator.comparingDouble(NearbyIssue::distanceMeters))
+                .limit(size)
+                .toList();
+    }
+
+    public List<IssueLocation> findWithin(GeoBox box, Set<IssueStatus> statuses, Long categoryId, int limit) {
+        if (box.latitudeSpan() > maxBoxDegrees || box.longitudeSpan() > maxBoxDegrees) {
+            throw new IllegalArgumentException("Bounding box cannot span more than " + maxBoxDegrees + " degrees");
+        }
+        int size = checkLimit(limit);
+        if (servedFromIndex(statuses)) {
+            return spatialIndex.findWithin(box, statuses, categoryId, size);
+        }
+        return queryDatabase(box, statuses, categoryId).stream()
+                .sorted(Comparator.comparing(IssueLocation::id))
+                .limit(size)
+                .toList();
+    }
+
+    private boolean servedFromIndex(Set<IssueStatus> statuses) {
+        return IssueSpatialIndex.INDEXED_STATUSES.containsAll(statuses);
+    }
+
+    private List<IssueLocation> queryDatabase(GeoBox box, Set<IssueStatus> statuses, Long categoryId) {
+        Set<IssueStatus> filter = statuses.isEmpty() ? EnumSet.allOf(IssueStatus.class) : statuses;
+        return issueRepository.findLocationsInCells(Issue.GEO_CELLS.cellsCovering(box),
+                box.minLatitude(), box.minLongitude(), box.maxLatitude(), box.maxLongitude(), filter, categoryId);
+    }
+
+    private int checkLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Math.min(limit, maxResults);
+    }
+}
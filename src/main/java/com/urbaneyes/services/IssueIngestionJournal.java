@@ -0,0 +1,149 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.model.Issue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Journal local, só de acréscimo, da fila de ingestão. Cada issue aceita vira uma linha {@code A} antes do 202;
+ * depois de gravada no banco, uma linha {@code D} a marca como concluída. Ao abrir, as aceitas sem conclusão são
+ * devolvidas para reprocessar e o arquivo é reescrito só com elas. Quando não sobra nenhuma pendente, o arquivo é
+ * truncado.
+ *
+ * <p>A entrega é pelo menos uma vez: uma queda entre o commit no banco e a linha {@code D} reinsere a issue.
+ */
+class IssueIngestionJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueIngestionJournal.class);
+
+    private static final char ACCEPTED = 'A';
+    private static final char DONE = 'D';
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final Map<UUID, Issue> recovered;
+    private final FileChannel channel;
+    private int outstanding;
+
+    IssueIngestionJournal(Path path, ObjectMapper objectMapper, boolean fsync) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.recovered = replay();
+        rewrite(recovered);
+        this.channel = open();
+        this.outstanding = recovered.size();
+    }
+
+    /** As issues aceitas e não concluídas na execução anterior, na ordem de chegada. */
+    Map<UUID, Issue> recovered() {
+        return recovered;
+    }
+
+    synchronized void append(UUID trackingId, Issue issue) throws IOException {
+        write(ACCEPTED + "\t" + trackingId + "\t" + objectMapper.writeValueAsString(issue) + "\n");
+        outstanding++;
+    }
+
+    synchronized void markDone(Collection<UUID> trackingIds) throws IOException {
+        if (trackingIds.isEmpty()) {
+            return;
+        }
+        outstanding -= trackingIds.size();
+        if (outstanding == 0) {
+            channel.truncate(0);
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        trackingIds.forEach(trackingId -> lines.append(DONE).append('\t').append(trackingId).append('\n'));
+        write(lines.toString());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void write(String lines) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    private Map<UUID, Issue> replay() throws IOException {
+        Map<UUID, Issue> pending = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return pending;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                try {
+                    String[] fields = line.split("\t", 3);
+                    UUID trackingId = UUID.fromString(fields[1]);
+                    if (fields[0].charAt(0) == ACCEPTED) {
+                        pending.put(trackingId, objectMapper.readValue(fields[2], Issue.class));
+                    } else {
+                        pending.remove(trackingId);
+                    }
+                } catch (RuntimeException | IOException e) {
+                    // Normalmente a última linha, cortada por uma queda no meio da escrita: o 202 não chegou a sair
+                    log.warn("Skipping unreadable line {} of the ingestion journal {}", number, path);
+                }
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Recovered {} pending issues from the ingestion journal {}", pending.size(), path);
+        }
+        return pending;
+    }
+
+    // Compacta o journal deixando só as pendentes; a troca por rename garante que uma queda aqui não perca nada
+    private void rewrite(Map<UUID, Issue> pending) throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        StringBuilder lines = new StringBuilder();
+        for (Map.Entry<UUID, Issue> entry : pending.entrySet()) {
+            lines.append(ACCEPTED).append('\t').append(entry.getKey()).append('\t')
+                    .append(objectMapper.writeValueAsString(entry.getValue())).append('\n');
+        }
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
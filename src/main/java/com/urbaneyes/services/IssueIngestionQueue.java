@@ -0,0 +1,273 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.urbaneyes.dto.IssueBatchResponse;
+import com.urbaneyes.dto.IssueBatchResult;
+import com.urbaneyes.dto.IssueIngestionStatus;
+import com.urbaneyes.model.Issue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestão assíncrona de issues para picos de criação: a issue é validada, registrada no journal e respondida com
+ * 202 e um id de acompanhamento; uma única thread grava a fila no banco em lotes pelo {@link IssueBatchService}.
+ *
+ * <p>A capacidade conta as issues aceitas e ainda não concluídas (na fila ou no lote em gravação): cheia, novas
+ * criações recebem 429. Uma issue que o banco recusou é repetida depois de {@code retryDelay}, até
+ * {@code maxAttempts} vezes. Com o banco fora do ar não há limite: o lote é repetido com espera dobrando até
+ * {@code maxRetryDelay} e só sai do journal quando gravado, enquanto o 429 segura novas criações. No desligamento, o
+ * que ficou na fila continua no journal e é reprocessado na próxima subida.
+ */
+@Service
+@ConditionalOnProperty(name = "urbaneyes.issues.ingestion.enabled", havingValue = "true")
+public class IssueIngestionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueIngestionQueue.class);
+
+    private record Pending(UUID trackingId, Issue issue, int attempts) {
+
+        Pending retried() {
+            return new Pending(trackingId, issue, attempts + 1);
+        }
+    }
+
+    private record Flush(List<Pending> retry, boolean outage) {
+    }
+
+    private final IssueBatchService issueBatchService;
+    private final IssueIngestionJournal journal;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration retryDelay;
+    private final Duration maxRetryDelay;
+    private final int maxAttempts;
+    private final Cache<UUID, IssueIngestionStatus> tracking;
+    private final Timer flushTimer;
+    private final Counter created;
+    private final Counter failed;
+    private final Counter rejected;
+    private volatile boolean running;
+    private Thread drainer;
+
+    public IssueIngestionQueue(IssueBatchService issueBatchService,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${urbaneyes.issues.ingestion.journal:data/ingestion.journal}") Path journalPath,
+                               @Value("${urbaneyes.issues.ingestion.fsync:true}") boolean fsync,
+                               @Value("${urbaneyes.issues.ingestion.queue-capacity:10000}") int queueCapacity,
+                               @Value("${urbaneyes.issues.ingestion.batch-size:500}") int batchSize,
+                               @Value("${urbaneyes.issues.ingestion.retry-delay:PT1S}") Duration retryDelay,
+                               @Value("${urbaneyes.issues.ingestion.max-retry-delay:PT1M}") Duration maxRetryDelay,
+                               @Value("${urbaneyes.issues.ingestion.max-attempts:5}") int maxAttempts,
+                               @Value("${urbaneyes.issues.ingestion.tracking-retention:PT1H}") Duration trackingRetention)
+            throws IOException {
+        this.issueBatchService = issueBatchService;
+        this.journal = new IssueIngestionJournal(journalPath, objectMapper, fsync);
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+        this.maxAttempts = maxAttempts;
+        this.tracking = Caffeine.newBuilder()
+                .maximumSize(Math.max(queueCapacity * 10L, 100_000))
+                .expireAfterWrite(trackingRetention)
+                .build();
+
+        // As recuperadas do journal ocupam capacidade como qualquer outra; podem até exceder a configurada
+        this.capacity = new Semaphore(queueCapacity - journal.recovered().size());
+        journal.recovered().forEach((trackingId, issue) -> {
+            queue.add(new Pending(trackingId, issue, 0));
+            tracking.put(trackingId, IssueIngestionStatus.queued(trackingId));
+        });
+
+        Gauge.builder("urbaneyes.ingestion.queue.depth", this, IssueIngestionQueue::depth)
+                .description("Issues aceitas e ainda não gravadas")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("urbaneyes.ingestion.flush")
+                .description("Gravação de um lote da fila de ingestão")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.created = meterRegistry.counter("urbaneyes.ingestion.issues", "outcome", "created");
+        this.failed = meterRegistry.counter("urbaneyes.ingestion.issues", "outcome", "failed");
+        this.rejected = meterRegistry.counter("urbaneyes.ingestion.issues", "outcome", "rejected");
+    }
+
+    /** Valida, registra no journal e enfileira; ao retornar, a issue sobrevive a uma queda do processo. */
+    public UUID submit(Issue issue) {
+        List<String> errors = issueBatchService.validate(issue);
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw new IngestionQueueFullException(queueCapacity);
+        }
+        UUID trackingId = UUID.randomUUID();
+        try {
+            journal.append(trackingId, issue);
+        } catch (IOException e) {
+            capacity.release();
+            throw new UncheckedIOException("Could not write the issue to the ingestion journal", e);
+        }
+        tracking.put(trackingId, IssueIngestionStatus.queued(trackingId));
+        queue.add(new Pending(trackingId, issue, 0));
+        return trackingId;
+    }
+
+    public Optional<IssueIngestionStatus> getStatus(UUID trackingId) {
+        return Optional.ofNullable(tracking.getIfPresent(trackingId));
+    }
+
+    public int depth() {
+        return queueCapacity - capacity.availablePermits();
+    }
+
+    // Só depois da subida completa: as issues recuperadas do journal dependem do banco e dos índices prontos
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (drainer != null) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::drain, "issue-ingestion");
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        running = false;
+        Thread thread;
+        synchronized (this) {
+            thread = drainer;
+        }
+        // Sem interromper: o lote em gravação termina e a thread sai no próximo poll
+        if (thread != null) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        journal.close();
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                Flush flush = flush(batch);
+                int outages = 0;
+                while (!flush.retry().isEmpty() && running) {
+                    outages = flush.outage() ? outages + 1 : 0;
+                    Thread.sleep(backoff(outages).toMillis());
+                    flush = flush(flush.retry());
+                }
+            } catch (InterruptedException e) {
+                // O que não foi concluído continua no journal
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ingestion batch of {} issues failed, they stay in the journal until the next start",
+                        batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    // Cada tentativa grava uma cópia refeita do JSON, como no journal: uma tentativa que falhou deixa id e versão
+    // na instância que recebeu, e com versão a seguinte faria merge em vez de insert
+    private Issue attempt(Pending pending) {
+        return objectMapper.convertValue(pending.issue(), Issue.class);
+    }
+
+    private Duration backoff(int outages) {
+        if (outages == 0) {
+            return retryDelay;
+        }
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(outages - 1, 20));
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+
+    // Devolve as issues a tentar de novo. As que o banco não aceitou por estar fora do ar voltam sempre, sem contar
+    // tentativa e sem sair do journal; as que ele recusou voltam até maxAttempts
+    private Flush flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        IssueBatchResponse response;
+        try {
+            response = issueBatchService.createIssues(batch.stream().map(this::attempt).toList());
+        } catch (RuntimeException e) {
+            if (!IssueBatchService.isUnavailable(e)) {
+                throw e;
+            }
+            log.warn("Ingestion batch of {} issues failed, the database is unavailable", batch.size(), e);
+            return new Flush(batch, true);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        boolean outage = false;
+        List<Pending> retry = new ArrayList<>();
+        List<UUID> done = new ArrayList<>(batch.size());
+        for (IssueBatchResult result : response.results()) {
+            Pending pending = batch.get(result.index());
+            if (result.status() == IssueBatchResult.Status.CREATED) {
+                tracking.put(pending.trackingId(), IssueIngestionStatus.created(pending.trackingId(), result.id()));
+                created.increment();
+            } else if (result.status() == IssueBatchResult.Status.UNAVAILABLE) {
+                outage = true;
+                retry.add(pending);
+                continue;
+            } else if (result.status() == IssueBatchResult.Status.FAILED && pending.attempts() + 1 < maxAttempts) {
+                retry.add(pending.retried());
+                continue;
+            } else {
+                tracking.put(pending.trackingId(), IssueIngestionStatus.failed(pending.trackingId(), result.errors()));
+                failed.increment();
+            }
+            done.add(pending.trackingId());
+        }
+        try {
+            journal.markDone(done);
+        } catch (IOException e) {
+            // As linhas A continuam valendo: numa nova subida essas issues seriam gravadas outra vez
+            log.error("Could not mark {} ingested issues as done in the journal", done.size(), e);
+        }
+        capacity.release(done.size());
+        if (!retry.isEmpty()) {
+            log.warn("{} issues of an ingestion batch failed{}, retrying", retry.size(),
+                    outage ? ", the database is unavailable" : "");
+        }
+        return new Flush(retry, outage);
+    }
+}
@@ -0,0 +1,82 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueLookupResult;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.repository.IssueRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Multi-get de issues: os ids pedidos são lidos com um {@code IN} por bloco de {@code chunkSize} (categoria no
+ * mesmo SELECT), em vez de um {@code findById} por id. Os que não estão na tabela ainda são procurados no arquivo
+ * frio, como no GET por id.
+ */
+@Service
+public class IssueLookupService {
+
+    private final IssueRepository issueRepository;
+    private final IssueArchive issueArchive;
+    private final int maxIds;
+    private final int chunkSize;
+
+    public IssueLookupService(IssueRepository issueRepository,
+                              IssueArchive issueArchive,
+                              @Value("${urbaneyes.issues.lookup.max-ids:500}") int maxIds,
+                              @Value("${urbaneyes.issues.lookup.chunk-size:100}") int chunkSize) {
+        this.issueRepository = issueRepository;
+        this.issueArchive = issueArchive;
+        this.maxIds = maxIds;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Devolve as issues na ordem de {@code ids}, sem repetições. As que têm em {@code versions} a versão atual vão
+     * para {@code notModified}, sem corpo; as que não existem, para {@code missing}.
+     */
+    public IssueLookupResult lookup(List<Long> ids, Map<Long, Long> versions) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Inform at least one issue id");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Issue ids must not be null");
+        }
+        List<Long> requested = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (requested.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " issue ids per request");
+        }
+
+        Map<Long, Issue> found = new HashMap<>(requested.size() * 2);
+        for (int from = 0; from < requested.size(); from += chunkSize) {
+            List<Long> chunk = requested.subList(from, Math.min(from + chunkSize, requested.size()));
+            for (Issue issue : issueRepository.findAllWithCategoryByIdIn(chunk)) {
+                found.put(issue.getId(), issue);
+            }
+        }
+
+        Map<Long, Long> known = versions == null ? Map.of() : versions;
+        List<Issue> issues = new ArrayList<>(requested.size());
+        List<Long> notModified = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Issue issue = found.get(id);
+            if (issue == null) {
+                issue = issueArchive.findIssue(id).orElse(null);
+            }
+            if (issue == null) {
+                missing.add(id);
+            } else if (issue.getVersion() != null && issue.getVersion().equals(known.get(id))) {
+                notModified.add(id);
+            } else {
+                issues.add(issue);
+            }
+        }
+        return new IssueLookupResult(issues, notModified, missing);
+    }
+}
@@ -0,0 +1,53 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueEventHandler;
+import com.urbaneyes.model.IssueOutboxEntry;
+import com.urbaneyes.repository.IssueOutboxRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Grava cada {@link IssueChangedEvent} na tabela issue_outbox dentro da transação que o publicou: se ela sofrer
+ * rollback, o evento some junto. O insert só vai ao banco no flush do commit, então uma transação com muitas
+ * mudanças (lotes, transições em massa) gera um único lote JDBC.
+ *
+ * <p>Sem nenhum {@link IssueEventHandler} registrado não há quem consuma o outbox e nada é gravado.
+ */
+@Service
+public class IssueOutbox {
+
+    private final IssueOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public IssueOutbox(IssueOutboxRepository outboxRepository,
+                       ObjectMapper objectMapper,
+                       ObjectProvider<IssueEventHandler> handlers) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = handlers.stream().findAny().isPresent();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onIssueChanged(IssueChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            // Falhar aqui desfaz a escrita: melhor que perder o evento em silêncio
+            throw new UncheckedIOException("Could not serialize the change of issue " + event.issueId(), e);
+        }
+        outboxRepository.save(new IssueOutboxEntry(event.type(), event.issueId(), payload, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,141 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueEventHandler;
+import com.urbaneyes.event.IssueOutboxMessage;
+import com.urbaneyes.model.IssueOutboxEntry;
+import com.urbaneyes.repository.IssueOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entrega o outbox aos {@link IssueEventHandler}s fora do caminho das requisições. Lê em páginas de
+ * {@code batchSize} por keyset no id, entrega em ordem e apaga as entregues com um único DELETE por página.
+ *
+ * <p>Quando um evento falha, a rodada para nele (os seguintes esperam, preservando a ordem) e ele volta depois de um
+ * backoff exponencial a partir de {@code initialBackoff}, limitado a {@code maxBackoff}. Depois de
+ * {@code maxAttempts} tentativas é marcado como falho e deixa de bloquear a fila.
+ */
+@Service
+public class IssueOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueOutboxRelay.class);
+
+    private final IssueOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final List<IssueEventHandler> handlers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Counter dispatched;
+    private final Counter retried;
+    private final Counter failed;
+
+    public IssueOutboxRelay(IssueOutboxRepository outboxRepository,
+                            ObjectMapper objectMapper,
+                            ObjectProvider<IssueEventHandler> handlers,
+                            MeterRegistry meterRegistry,
+                            @Value("${urbaneyes.issues.outbox.batch-size:200}") int batchSize,
+                            @Value("${urbaneyes.issues.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${urbaneyes.issues.outbox.initial-backoff:PT1S}") Duration initialBackoff,
+                            @Value("${urbaneyes.issues.outbox.max-backoff:PT5M}") Duration maxBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.handlers = handlers.orderedStream().toList();
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.dispatched = meterRegistry.counter("urbaneyes.outbox.events", "outcome", "dispatched");
+        this.retried = meterRegistry.counter("urbaneyes.outbox.events", "outcome", "retried");
+        this.failed = meterRegistry.counter("urbaneyes.outbox.events", "outcome", "failed");
+    }
+
+    /** Uma rodada: entrega tudo o que está pronto e devolve quantos eventos foram entregues. */
+    @Scheduled(fixedDelayString = "${urbaneyes.issues.outbox.poll-interval:PT1S}",
+            initialDelayString = "${urbaneyes.issues.outbox.poll-interval:PT1S}")
+    public int relay() {
+        if (handlers.isEmpty()) {
+            return 0;
+        }
+        int total = 0;
+        long after = 0;
+        boolean blocked = false;
+        while (!blocked) {
+            List<IssueOutboxEntry> page = outboxRepository.findPendingAfter(after, PageRequest.of(0, batchSize));
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> delivered = new ArrayList<>(page.size());
+            for (IssueOutboxEntry entry : page) {
+                if (entry.getNextAttemptAt() != null && entry.getNextAttemptAt().isAfter(now)) {
+                    blocked = true;
+                    break;
+                }
+                if (dispatch(entry)) {
+                    delivered.add(entry.getId());
+                } else if (!giveUpOrReschedule(entry, now)) {
+                    blocked = true;
+                    break;
+                }
+                after = entry.getId();
+            }
+            if (!delivered.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(delivered);
+                dispatched.increment(delivered.size());
+                total += delivered.size();
+            }
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private boolean dispatch(IssueOutboxEntry entry) {
+        try {
+            IssueOutboxMessage message = new IssueOutboxMessage(entry.getId(), entry.getCreatedAt(),
+                    entry.getAttempts() + 1, objectMapper.readValue(entry.getPayload(), IssueChangedEvent.class));
+            for (IssueEventHandler handler : handlers) {
+                handler.handle(message);
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Dispatch of outbox event {} (issue {}, attempt {}) failed", entry.getId(), entry.getIssueId(),
+                    entry.getAttempts() + 1, e);
+            return false;
+        }
+    }
+
+    // true quando o evento foi descartado e a rodada pode seguir; false quando ele foi reagendado e bloqueia a fila
+    private boolean giveUpOrReschedule(IssueOutboxEntry entry, LocalDateTime now) {
+        int attempts = entry.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            log.error("Outbox event {} (issue {}) failed {} times and will not be retried",
+                    entry.getId(), entry.getIssueId(), attempts);
+            outboxRepository.recordFailure(entry.getId(), attempts, null, now);
+            failed.increment();
+            return true;
+        }
+        outboxRepository.recordFailure(entry.getId(), attempts, now.plus(backoff(attempts)), null);
+        retried.increment();
+        return false;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
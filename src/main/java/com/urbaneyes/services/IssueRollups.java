@@ -0,0 +1,457 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueTrend;
+import com.urbaneyes.dto.IssueTrend.Resolution;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.IssueStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Contadores de issues por bucket de criação (hora e dia) × categoria × status, mantidos em memória para os
+ * gráficos de tendência. Como em {@link IssueStatistics}, cada commit move a issue entre contadores e uma
+ * reconciliação periódica recalcula tudo a partir do banco; a carga é dividida em faixas de id agregadas em paralelo.
+ * Os commits que chegam durante a carga são guardados e, na troca, reaplicados nos buckets novos quando a leitura da
+ * faixa da issue não os viu: cada faixa é lida num snapshot, que também dá o {@code updated_at} das issues da faixa
+ * com commits guardados ou em andamento ({@link IssueCommitTracker#isReflected}).
+ *
+ * <p>Issues arquivadas continuam contando: a carga soma também as colunas dos segmentos de {@link IssueArchive}, e
+ * o evento {@code ARCHIVED} não mexe nos buckets, porque a issue só mudou de lugar. Buckets diários cobrem todo o
+ * histórico; os horários só os últimos {@code hourlyRetention}. As consultas percorrem apenas os buckets do intervalo
+ * pedido, sem tocar no banco.
+ */
+@Component
+public class IssueRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueRollups.class);
+    private static final IssueStatus[] STATUSES = IssueStatus.values();
+
+    private static final String BACKFILL_SLICE =
+            "SELECT DATE_TRUNC('HOUR', created_at) AS bucket, category_id, status, COUNT(*) AS total FROM issue "
+                    + "WHERE id BETWEEN ? AND ? AND created_at IS NOT NULL AND category_id IS NOT NULL "
+                    + "AND status IS NOT NULL GROUP BY DATE_TRUNC('HOUR', created_at), category_id, status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate sliceTemplate;
+    private final IssueArchive issueArchive;
+    private final IssueCommitTracker commitTracker;
+    private final Duration hourlyRetention;
+    private final Duration hourlyMaxRange;
+    private final Duration defaultRange;
+    private final int maxPoints;
+    private final int backfillParallelism;
+    private final Clock clock;
+
+    private volatile Rollup rollup;
+    // Leitura: aplicar um commit; escrita: reaplicar os guardados e trocar os buckets, sem commit no meio
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final AtomicLong commits = new AtomicLong();
+    private volatile Queue<Commit> duringBackfill;
+    // Commits em andamento na troca que a leitura já viu: quando o listener deles rodar, não mexem nos buckets
+    private volatile Set<IssueChangedEvent> reflected = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public IssueRollups(JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        IssueArchive issueArchive,
+                        IssueCommitTracker commitTracker,
+                        @Value("${urbaneyes.issues.trends.hourly-retention:P14D}") Duration hourlyRetention,
+                        @Value("${urbaneyes.issues.trends.hourly-max-range:P2D}") Duration hourlyMaxRange,
+                        @Value("${urbaneyes.issues.trends.default-range:P30D}") Duration defaultRange,
+                        @Value("${urbaneyes.issues.trends.max-points:2000}") int maxPoints,
+                        @Value("${urbaneyes.issues.trends.backfill-parallelism:4}") int backfillParallelism) {
+        this(jdbcTemplate, transactionManager, issueArchive, commitTracker, hourlyRetention, hourlyMaxRange,
+                defaultRange, maxPoints, backfillParallelism, Clock.systemDefaultZone());
+    }
+
+    IssueRollups(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, IssueArchive issueArchive,
+                 IssueCommitTracker commitTracker, Duration hourlyRetention, Duration hourlyMaxRange,
+                 Duration defaultRange, int maxPoints, int backfillParallelism, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sliceTemplate = new TransactionTemplate(transactionManager);
+        this.sliceTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.sliceTemplate.setReadOnly(true);
+        this.issueArchive = issueArchive;
+        this.commitTracker = commitTracker;
+        this.hourlyRetention = hourlyRetention;
+        this.hourlyMaxRange = hourlyMaxRange;
+        this.defaultRange = defaultRange;
+        this.maxPoints = maxPoints;
+        this.backfillParallelism = Math.max(1, backfillParallelism);
+        this.clock = clock;
+        this.rollup = new Rollup(hourlyCutoff());
+    }
+
+    /**
+     * Série por categoria entre {@code from} (inclusive) e {@code to} (exclusive). Sem resolução, usa hora para
+     * intervalos de até {@code hourlyMaxRange} dentro da retenção horária e dia para o resto. Sem {@code statuses},
+     * soma todos.
+     */
+    public IssueTrend query(LocalDateTime from, LocalDateTime to, Long categoryId, Collection<IssueStatus> statuses,
+                            Resolution resolution) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now(clock);
+        LocalDateTime start = from != null ? from : end.minus(defaultRange);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("The start of the range must be before its end");
+        }
+        Rollup current = rollup;
+        if (resolution == null) {
+            boolean hourlyAvailable = !start.isBefore(current.hourlyCutoff);
+            resolution = hourlyAvailable && Duration.between(start, end).compareTo(hourlyMaxRange) <= 0
+                    ? Resolution.HOUR : Resolution.DAY;
+        } else if (resolution == Resolution.HOUR && start.isBefore(current.hourlyCutoff)) {
+            throw new IllegalArgumentException("Hourly buckets are only kept since " + current.hourlyCutoff);
+        }
+
+        LocalDateTime first = resolution.bucketOf(start);
+        List<LocalDateTime> buckets = new ArrayList<>();
+        for (LocalDateTime bucket = first; bucket.isBefore(end); bucket = resolution.next(bucket)) {
+            if (buckets.size() == maxPoints) {
+                throw new IllegalArgumentException("The range has more than " + maxPoints + " " + resolution
+                        + " buckets, use a shorter range or a coarser resolution");
+            }
+            buckets.add(bucket);
+        }
+
+        Set<IssueStatus> selected = statuses == null || statuses.isEmpty()
+                ? EnumSet.allOf(IssueStatus.class) : EnumSet.copyOf(statuses);
+        Map<Long, long[]> counts = new TreeMap<>();
+        if (categoryId != null) {
+            counts.put(categoryId, new long[buckets.size()]);
+        }
+        NavigableMap<LocalDateTime, Map<Long, AtomicLongArray>> range =
+                current.of(resolution).subMap(first, true, end, false);
+        for (Map.Entry<LocalDateTime, Map<Long, AtomicLongArray>> bucket : range.entrySet()) {
+            int index = (int) resolution.between(first, bucket.getKey());
+            if (categoryId != null) {
+                AtomicLongArray row = bucket.getValue().get(categoryId);
+                if (row != null) {
+                    counts.get(categoryId)[index] += sum(row, selected);
+                }
+                continue;
+            }
+            bucket.getValue().forEach((category, row) -> {
+                long value = sum(row, selected);
+                if (value != 0) {
+                    counts.computeIfAbsent(category, id -> new long[buckets.size()])[index] += value;
+                }
+            });
+        }
+
+        List<IssueTrend.Series> series = new ArrayList<>(counts.size());
+        counts.forEach((category, values) -> {
+            long total = 0;
+            for (long value : values) {
+                total += value;
+            }
+            series.add(new IssueTrend.Series(category, total, values));
+        });
+        return new IssueTrend(resolution, start, end, buckets, series);
+    }
+
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            if (reflected.remove(event)) {
+                // A leitura já não tinha a linha, e o percurso do arquivo veio antes do arquivamento
+                if (event.type() == IssueChangedEvent.Type.ARCHIVED) {
+                    rollup.add(event.before(), 1);
+                }
+            } else if (event.type() != IssueChangedEvent.Type.ARCHIVED) {
+                rollup.apply(event);
+            }
+            Queue<Commit> buffer = duringBackfill;
+            if (buffer != null) {
+                buffer.add(new Commit(commits.incrementAndGet(), event));
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        rebuild();
+    }
+
+    // Recalcula do banco (corrigindo escritas feitas fora dos services) e descarta os buckets horários vencidos
+    @Scheduled(fixedDelayString = "${urbaneyes.issues.trends.reconcile-interval:PT1H}",
+            initialDelayString = "${urbaneyes.issues.trends.reconcile-interval:PT1H}")
+    public void reconcile() {
+        long drift = rebuild();
+        if (drift > 0) {
+            log.warn("Issue rollups drifted by {} from the database, buckets were rebuilt", drift);
+        }
+    }
+
+    // Devolve a diferença entre os buckets novos (já com os commits da janela) e os que foram substituídos
+    private synchronized long rebuild() {
+        Queue<Commit> buffer = new ConcurrentLinkedQueue<>();
+        NavigableMap<Long, Slice> slices = new ConcurrentSkipListMap<>();
+        duringBackfill = buffer;
+        Rollup fresh;
+        long archiveScanned;
+        try {
+            fresh = backfill(slices, buffer);
+            archiveScanned = backfillArchive(fresh);
+        } catch (RuntimeException e) {
+            duringBackfill = null;
+            throw e;
+        }
+        swapLock.writeLock().lock();
+        try {
+            Set<IssueChangedEvent> buffered = new HashSet<>();
+            buffer.forEach(commit -> buffered.add(commit.event()));
+            List<IssueChangedEvent> inFlight = commitTracker.inFlight().stream()
+                    .filter(event -> !buffered.contains(event))
+                    .toList();
+            List<IssueChangedEvent> window = new ArrayList<>(buffered);
+            window.addAll(inFlight);
+            Set<Long> created = IssueCommitTracker.createdIn(window);
+            for (Commit commit : buffer) {
+                boolean seen = reflectedBy(slices, commit.event(), created);
+                if (commit.event().type() == IssueChangedEvent.Type.ARCHIVED) {
+                    // Deve contar uma vez: sai da tabela se a faixa foi lida antes do DELETE e entra no arquivo se o
+                    // percurso dos segmentos veio antes do arquivamento
+                    if (!seen) {
+                        fresh.add(commit.event().before(), -1);
+                    }
+                    if (commit.sequence() > archiveScanned) {
+                        fresh.add(commit.event().before(), 1);
+                    }
+                } else if (!seen) {
+                    fresh.apply(commit.event());
+                }
+            }
+            Set<IssueChangedEvent> skip = ConcurrentHashMap.newKeySet();
+            inFlight.stream().filter(event -> reflectedBy(slices, event, created)).forEach(skip::add);
+
+            long drift = fresh.drift(rollup);
+            rollup = fresh;
+            reflected = skip;
+            duringBackfill = null;
+            return drift;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    // Fora de qualquer faixa a issue foi criada depois do MIN/MAX, e nenhum commit dela está na leitura
+    private static boolean reflectedBy(NavigableMap<Long, Slice> slices, IssueChangedEvent event, Set<Long> created) {
+        long id = event.issueId();
+        Map.Entry<Long, Slice> slice = slices.floorEntry(id);
+        return slice != null && id <= slice.getValue().last() && slice.getValue().reflects(event, created);
+    }
+
+    // Devolve quantos commits já tinham sido guardados quando o percurso começou: os ARCHIVED até ali estão nele
+    private long backfillArchive(Rollup fresh) {
+        long[] scanned = new long[1];
+        issueArchive.forEachArchivedKey(() -> scanned[0] = commits.get(), (createdAt, categoryId, status) -> {
+            if (createdAt != null && categoryId != null && status != null) {
+                fresh.add(createdAt, categoryId, status, 1);
+            }
+        });
+        return scanned[0];
+    }
+
+    private Rollup backfill(NavigableMap<Long, Slice> read, Queue<Commit> buffer) {
+        Rollup fresh = new Rollup(hourlyCutoff());
+        long[] bounds = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM issue",
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)});
+        if (bounds == null) {
+            return fresh;
+        }
+
+        // Mais faixas que threads: uma faixa densa não deixa as outras threads paradas
+        int slices = backfillParallelism * 4;
+        long width = Math.max(1, (bounds[1] - bounds[0]) / slices + 1);
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(backfillParallelism, task -> {
+            Thread thread = new Thread(task, "issue-rollup-backfill-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(slices);
+            for (long low = bounds[0]; low <= bounds[1]; low += width) {
+                long sliceStart = low;
+                long sliceEnd = Math.min(bounds[1], low + width - 1);
+                futures.add(pool.submit(() -> sliceTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.query(BACKFILL_SLICE, (RowCallbackHandler) rs ->
+                            fresh.add(rs.getObject("bucket", LocalDateTime.class), rs.getLong("category_id"),
+                                    IssueStatus.valueOf(rs.getString("status")), rs.getLong("total")),
+                            sliceStart, sliceEnd);
+                    read.put(sliceStart, readSlice(sliceStart, sliceEnd, buffer));
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not backfill the issue rollups", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backfilling the issue rollups", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        log.debug("Backfilled issue rollups for ids {}..{} in {} ms", bounds[0], bounds[1],
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return fresh;
+    }
+
+    // Depois da agregação, no mesmo snapshot: um commit que ainda não estava em andamento aqui é commitado depois dele
+    private Slice readSlice(long first, long last, Queue<Commit> buffer) {
+        Set<Long> touched = new HashSet<>();
+        buffer.forEach(commit -> touched.add(commit.event().issueId()));
+        commitTracker.inFlight().forEach(event -> touched.add(event.issueId()));
+        touched.removeIf(id -> id < first || id > last);
+        Map<Long, LocalDateTime> loaded = new HashMap<>();
+        if (!touched.isEmpty()) {
+            String placeholders = String.join(", ", Collections.nCopies(touched.size(), "?"));
+            jdbcTemplate.query("SELECT id, updated_at FROM issue WHERE id IN (" + placeholders + ")",
+                    (RowCallbackHandler) rs -> {
+                        LocalDateTime updatedAt = rs.getObject("updated_at", LocalDateTime.class);
+                        loaded.put(rs.getLong("id"), updatedAt != null ? updatedAt : LocalDateTime.MIN);
+                    }, touched.toArray());
+        }
+        return new Slice(last, touched, loaded);
+    }
+
+    private LocalDateTime hourlyCutoff() {
+        return Resolution.HOUR.bucketOf(LocalDateTime.now(clock).minus(hourlyRetention));
+    }
+
+    private static long sum(AtomicLongArray row, Set<IssueStatus> statuses) {
+        long total = 0;
+        for (IssueStatus status : statuses) {
+            total += row.get(status.ordinal());
+        }
+        return total;
+    }
+
+    private record Commit(long sequence, IssueChangedEvent event) {
+    }
+
+    // Faixa de ids [chave, last] e, das issues dela com commits na janela, o updated_at lido (sem entrada: ausente)
+    private record Slice(long last, Set<Long> touched, Map<Long, LocalDateTime> loaded) {
+
+        boolean reflects(IssueChangedEvent event, Set<Long> created) {
+            return touched.contains(event.issueId()) && IssueCommitTracker.isReflected(event,
+                    loaded.get(event.issueId()), created.contains(event.issueId()));
+        }
+    }
+
+    /** Os dois níveis de buckets, trocados juntos a cada reconciliação. */
+    private static final class Rollup {
+
+        private final LocalDateTime hourlyCutoff;
+        private final ConcurrentSkipListMap<LocalDateTime, Map<Long, AtomicLongArray>> hourly =
+                new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<LocalDateTime, Map<Long, AtomicLongArray>> daily =
+                new ConcurrentSkipListMap<>();
+
+        private Rollup(LocalDateTime hourlyCutoff) {
+            this.hourlyCutoff = hourlyCutoff;
+        }
+
+        NavigableMap<LocalDateTime, Map<Long, AtomicLongArray>> of(Resolution resolution) {
+            return resolution == Resolution.HOUR ? hourly : daily;
+        }
+
+        void apply(IssueChangedEvent event) {
+            add(event.before(), -1);
+            add(event.after(), 1);
+        }
+
+        void add(IssueSnapshot snapshot, long delta) {
+            if (snapshot == null || snapshot.createdAt() == null || snapshot.categoryId() == null
+                    || snapshot.status() == null) {
+                return;
+            }
+            add(snapshot.createdAt(), snapshot.categoryId(), snapshot.status(), delta);
+        }
+
+        void add(LocalDateTime createdAt, Long categoryId, IssueStatus status, long delta) {
+            increment(daily, Resolution.DAY.bucketOf(createdAt), categoryId, status, delta);
+            LocalDateTime hour = Resolution.HOUR.bucketOf(createdAt);
+            if (!hour.isBefore(hourlyCutoff)) {
+                increment(hourly, hour, categoryId, status, delta);
+            }
+        }
+
+        // Diferença absoluta nos buckets diários, que cobrem todas as issues
+        long drift(Rollup other) {
+            long drift = 0;
+            Set<LocalDateTime> days = new HashSet<>(daily.keySet());
+            days.addAll(other.daily.keySet());
+            for (LocalDateTime day : days) {
+                Map<Long, AtomicLongArray> mine = daily.getOrDefault(day, Map.of());
+                Map<Long, AtomicLongArray> theirs = other.daily.getOrDefault(day, Map.of());
+                Set<Long> categories = new HashSet<>(mine.keySet());
+                categories.addAll(theirs.keySet());
+                for (Long category : categories) {
+                    for (IssueStatus status : STATUSES) {
+                        drift += Math.abs(valueOf(mine, category, status) - valueOf(theirs, category, status));
+                    }
+                }
+            }
+            return drift;
+        }
+
+        private static void increment(ConcurrentSkipListMap<LocalDateTime, Map<Long, AtomicLongArray>> buckets,
+                                      LocalDateTime bucket, Long categoryId, IssueStatus status, long delta) {
+            buckets.computeIfAbsent(bucket, key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(categoryId, id -> new AtomicLongArray(STATUSES.length))
+                    .addAndGet(status.ordinal(), delta);
+        }
+
+        private static long valueOf(Map<Long, AtomicLongArray> buckets, Long categoryId, IssueStatus status) {
+            AtomicLongArray row = buckets.get(categoryId);
+            return row == null ? 0 : row.get(status.ordinal());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueSearchHit;
+import com.urbaneyes.dto.IssueText;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.search.PortugueseAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice invertido em memória sobre título e descrição das issues, com ranking BM25. Termos do título contam
+ * em dobro. Leituras não usam locks; escritas de uma mesma issue são serializadas pelo compute do mapa de
+ * documentos, o que também permite reconstruir o índice em paralelo na subida.
+ */
+@Component
+public class IssueSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+
+    private final IssueRepository issueRepository;
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final AtomicLong totalLength = new AtomicLong();
+
+    public IssueSearchIndex(IssueRepository issueRepository) {
+        this.issueRepository = issueRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<IssueText> texts = issueRepository.findAllTexts();
+        // A análise do texto é a parte cara; o parallel stream usa todos os núcleos do pool comum
+        texts.parallelStream().forEach(this::put);
+        log.info("Indexed {} issues for search in {} ms", texts.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        IssueSnapshot after = event.after();
+        if (after == null) {
+            remove(event.issueId());
+        } else {
+            put(new IssueText(after.id(), after.title(), after.description(), after.status(), after.categoryId()));
+        }
+    }
+
+    public void put(IssueText text) {
+        Document document = Document.of(text);
+        documents.compute(text.id(), (id, previous) -> {
+            if (previous != null) {
+                unlink(id, previous);
+            }
+            document.termFrequencies().forEach((term, frequency) -> postings.compute(term, (key, posting) -> {
+                Map<Long, Integer> updated = posting == null ? new ConcurrentHashMap<>() : posting;
+                updated.put(id, frequency);
+                return updated;
+            }));
+            totalLength.addAndGet(document.length());
+            return document;
+        });
+    }
+
+    public void remove(Long id) {
+        documents.computeIfPresent(id, (key, previous) -> {
+            unlink(key, previous);
+            return null;
+        });
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public List<IssueSearchHit> search(String query, Set<IssueStatus> statuses, Long categoryId, int limit) {
+        Set<String> terms = new LinkedHashSet<>(PortugueseAnalyzer.analyze(query));
+        int documentCount = documents.size();
+        if (terms.isEmpty() || documentCount == 0) {
+            return List.of();
+        }
+        double averageLength = Math.max(1, (double) totalLength.get() / documentCount);
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+            posting.forEach((id, frequency) -> {
+                Document document = documents.get(id);
+                if (document == null || !document.matches(statuses, categoryId)) {
+                    return;
+                }
+                double norm = K1 * (1 - B + B * document.length() / averageLength);
+                scores.merge(id, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+            });
+        }
+
+        // Heap de tamanho limit: mantém só os melhores sem ordenar todos os candidatos
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(ranking);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<IssueSearchHit> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Map.Entry<Long, Double> entry = top.poll();
+            Document document = documents.get(entry.getKey());
+            if (document != null) {
+                hits.add(new IssueSearchHit(entry.getKey(), document.title(), document.status(),
+                        document.categoryId(), entry.getValue()));
+            }
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    private void unlink(Long id, Document document) {
+        document.termFrequencies().keySet().forEach(term -> postings.computeIfPresent(term, (key, posting) -> {
+            posting.remove(id);
+            return posting.isEmpty() ? null : posting;
+        }));
+        totalLength.addAndGet(-document.length());
+    }
+
+    private record Document(String title, IssueStatus status, Long categoryId,
+                            Map<String, Integer> termFrequencies, int length) {
+
+        static Document of(IssueText text) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            int length = 0;
+            for (String term : PortugueseAnalyzer.analyze(text.title())) {
+                frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+                length += TITLE_WEIGHT;
+            }
+            for (String term : PortugueseAnalyzer.analyze(text.description())) {
+                frequencies.merge(term, 1, Integer::sum);
+                length++;
+            }
+            return new Document(text.title(), text.status(), text.categoryId(), Map.copyOf(frequencies), length);
+        }
+
+        boolean matches(Set<IssueStatus> statuses, Long categoryId) {
+            return (statuses.isEmpty() || statuses.contains(status))
+                    && (categoryId == null || categoryId.equals(this.categoryId));
+        }
+    }
+}
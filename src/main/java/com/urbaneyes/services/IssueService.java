@@ -1,59 +1,136 @@
 package com.urbaneyes.service;
 
+import com.urbaneyes.dto.IssuePage;
+import com.urbaneyes.dto.IssueSummary;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.metrics.MetricsConfig;
 import com.urbaneyes.model.Issue;
 import com.urbaneyes.model.IssueStatus;
 import com.urbaneyes.repository.IssueRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class IssueService {
 
     private final IssueRepository issueRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IssueDuplicateIndex issueDuplicateIndex;
 
-    public IssueService(IssueRepository issueRepository) {
+    public IssueService(IssueRepository issueRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        IssueDuplicateIndex issueDuplicateIndex) {
         this.issueRepository = issueRepository;
+        this.eventPublisher = eventPublisher;
+        this.issueDuplicateIndex = issueDuplicateIndex;
     }
 
     public List<Issue> getAllIssues() {
         return issueRepository.findAll();
     }
 
+    public IssuePage getIssuesPage(String cursor, int size) {
+        // Busca um item a mais para saber se existe próxima página sem precisar de count
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Issue> issues;
+        if (cursor == null || cursor.isBlank()) {
+            issues = issueRepository.findFirstPage(limit);
+        } else {
+            IssueCursor position = IssueCursor.decode(cursor);
+            issues = issueRepository.findPageAfter(position.createdAt(), position.id(), limit);
+        }
+        if (issues.size() <= size) {
+            return new IssuePage(issues, null);
+        }
+        List<Issue> items = issues.subList(0, size);
+        return new IssuePage(items, IssueCursor.of(items.get(size - 1)).encode());
+    }
+
     public Optional<Issue> getIssueById(Long id) {
         return issueRepository.findById(id);
     }
 
+    public Optional<Long> getIssueVersion(Long id) {
+        return issueRepository.findVersionById(id);
+    }
+
+    // Um relato quase idêntico a uma issue aberta da mesma categoria não gera nova linha: incrementa reportCount
+    // com um UPDATE atômico, para que duplicatas simultâneas não terminem em conflito de versão
+    @Transactional(timeoutString = IssueChangeService.WRITE_TIMEOUT_SECONDS)
     public Issue createIssue(Issue issue) {
-        return issueRepository.save(issue);
+        Optional<Issue> duplicate = issueDuplicateIndex.findDuplicate(issue)
+                .flatMap(issueRepository::findById)
+                .filter(existing -> !existing.getStatus().isTerminal());
+        if (duplicate.isPresent()) {
+            Long id = duplicate.get().getId();
+            IssueSnapshot before = IssueSnapshot.of(duplicate.get());
+            if (issueRepository.incrementReportCount(id, IssueSpatialIndex.INDEXED_STATUSES, LocalDateTime.now()) > 0) {
+                Issue savedIssue = issueRepository.findById(id).orElseThrow();
+                eventPublisher.publishEvent(IssueChangedEvent.updated(before, IssueSnapshot.of(savedIssue)));
+                return savedIssue;
+            }
+            // Encerrada entre a leitura e o UPDATE: o relato vira uma issue nova
+        }
+        Issue savedIssue = issueRepository.save(issue);
+        eventPublisher.publishEvent(IssueChangedEvent.created(IssueSnapshot.of(savedIssue)));
+        return savedIssue;
     }
 
     public Issue updateIssue(Long id, Issue updatedIssue) {
+        return updateIssue(id, updatedIssue, null);
+    }
+
+    // Com expectedVersion, recusa a escrita se a issue mudou desde que o cliente a leu; uma edição concorrente entre
+    // a leitura e o flush é barrada pelo @Version (ObjectOptimisticLockingFailureException)
+    @Transactional(timeoutString = IssueChangeService.WRITE_TIMEOUT_SECONDS)
+    public Issue updateIssue(Long id, Issue updatedIssue, Long expectedVersion) {
         Issue existingIssue = issueRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Issue not found"));
+        if (expectedVersion != null && !expectedVersion.equals(existingIssue.getVersion())) {
+            throw new StaleIssueException(id, expectedVersion, existingIssue.getVersion());
+        }
+        IssueStatus status = updatedIssue.getStatus();
+        if (status != null && existingIssue.getStatus() != null && status != existingIssue.getStatus()
+                && !existingIssue.getStatus().canTransitionTo(status)) {
+            throw new InvalidStatusTransitionException(existingIssue.getStatus(), status);
+        }
+        IssueSnapshot before = IssueSnapshot.of(existingIssue);
         existingIssue.setTitle(updatedIssue.getTitle());
         existingIssue.setDescription(updatedIssue.getDescription());
         existingIssue.setCategory(updatedIssue.getCategory());
         existingIssue.setStatus(updatedIssue.getStatus());
-        return issueRepository.save(existingIssue);
+        existingIssue.setLatitude(updatedIssue.getLatitude());
+        existingIssue.setLongitude(updatedIssue.getLongitude());
+        Issue savedIssue = issueRepository.save(existingIssue);
+        // O flush dispara o @PreUpdate, então o evento já leva o updatedAt final
+        issueRepository.flush();
+        eventPublisher.publishEvent(IssueChangedEvent.updated(before, IssueSnapshot.of(savedIssue)));
+        return savedIssue;
     }
 
+    @Transactional(timeoutString = IssueChangeService.WRITE_TIMEOUT_SECONDS)
     public void deleteIssue(Long id) {
-        if (!issueRepository.existsById(id)) {
-            throw new RuntimeException("Issue not found");
-        }
-        issueRepository.deleteById(id);
+        Issue existingIssue = issueRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Issue not found"));
+        issueRepository.delete(existingIssue);
+        eventPublisher.publishEvent(IssueChangedEvent.deleted(IssueSnapshot.of(existingIssue)));
     }
 
     public List<Issue> getIssuesByCategory(Long categoryId) {
         return issueRepository.findByCategoryId(categoryId);
     }
 
-    public Issue updateIssueStatus(Long id, IssueStatus status) {
-        Issue existingIssue = issueRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Issue not found"));
-        existingIssue.setStatus(status);
-        return issueRepository.save(existingIssue);
+    public List<IssueSummary> getIssueSummariesByCategory(Long categoryId) {
+        return issueRepository.findSummariesByCategoryId(categoryId);
     }
 }
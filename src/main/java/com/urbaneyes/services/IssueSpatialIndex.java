@@ -0,0 +1,140 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.NearbyIssue;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.geo.GeoBox;
+import com.urbaneyes.geo.GeoGrid;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Grade uniforme em memória com as issues abertas (status não terminal) que têm coordenadas. As consultas
+ * percorrem só as células que cobrem a área pedida e não fazem I/O; o índice é semeado na subida e mantido
+ * pelos eventos de commit do IssueService.
+ */
+@Component
+public class IssueSpatialIndex {
+
+    public static final Set<IssueStatus> INDEXED_STATUSES = openStatuses();
+
+    private final IssueRepository issueRepository;
+    private final GeoGrid grid;
+    private final Map<Long, Map<Long, IssueLocation>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Long> cellById = new ConcurrentHashMap<>();
+
+    public IssueSpatialIndex(IssueRepository issueRepository,
+                             @Value("${urbaneyes.issues.geo.index-cell-degrees:0.002}") double cellDegrees) {
+        this.issueRepository = issueRepository;
+        this.grid = new GeoGrid(cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        issueRepository.findLocationsByStatusIn(INDEXED_STATUSES).forEach(this::put);
+    }
+
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        IssueSnapshot after = event.after();
+        if (after != null && after.hasLocation() && INDEXED_STATUSES.contains(after.status())) {
+            put(new IssueLocation(after.id(), after.latitude(), after.longitude(), after.status(), after.categoryId()));
+        } else {
+            remove(event.issueId());
+        }
+    }
+
+    public void put(IssueLocation location) {
+        long cell = grid.cellOf(location.latitude(), location.longitude());
+        Long previous = cellById.put(location.id(), cell);
+        if (previous != null && previous != cell) {
+            removeFromCell(previous, location.id());
+        }
+        cells.computeIfAbsent(cell, key -> new ConcurrentHashMap<>()).put(location.id(), location);
+    }
+
+    public void remove(Long id) {
+        Long cell = cellById.remove(id);
+        if (cell != null) {
+            removeFromCell(cell, id);
+        }
+    }
+
+    public int size() {
+        return cellById.size();
+    }
+
+    public List<NearbyIssue> findNearby(double latitude, double longitude, double radiusMeters,
+                                        Set<IssueStatus> statuses, Long categoryId, int limit) {
+        List<NearbyIssue> found = new ArrayList<>();
+        visit(GeoBox.around(latitude, longitude, radiusMeters), statuses, categoryId, location -> {
+            double distance = GeoGrid.distanceMeters(latitude, longitude, location.latitude(), location.longitude());
+            if (distance <= radiusMeters) {
+                found.add(NearbyIssue.of(location, distance));
+            }
+        });
+        found.sort(Comparator.comparingDouble(NearbyIssue::distanceMeters));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    public List<IssueLocation> findWithin(GeoBox box, Set<IssueStatus> statuses, Long categoryId, int limit) {
+        List<IssueLocation> found = new ArrayList<>();
+        visit(box, statuses, categoryId, found::add);
+        found.sort(Comparator.comparing(IssueLocation::id));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    private void visit(GeoBox box, Set<IssueStatus> statuses, Long categoryId, Consumer<IssueLocation> action) {
+        Consumer<Map<Long, IssueLocation>> scan = cell -> {
+            for (IssueLocation location : cell.values()) {
+                if (box.contains(location.latitude(), location.longitude()) && location.matches(statuses, categoryId)) {
+                    action.accept(location);
+                }
+            }
+        };
+        // Caixas muito grandes cobrem mais células do que existem ocupadas: nesse caso percorre as ocupadas
+        if (grid.cellCount(box) > cells.size()) {
+            cells.values().forEach(scan);
+        } else {
+            grid.forEachCell(box, key -> {
+                Map<Long, IssueLocation> cell = cells.get(key);
+                if (cell != null) {
+                    scan.accept(cell);
+                }
+            });
+        }
+    }
+
+    private void removeFromCell(long cell, Long id) {
+        Map<Long, IssueLocation> locations = cells.get(cell);
+        if (locations != null) {
+            locations.remove(id);
+        }
+    }
+
+    private static Set<IssueStatus> openStatuses() {
+        EnumSet<IssueStatus> statuses = EnumSet.noneOf(IssueStatus.class);
+        for (IssueStatus status : IssueStatus.values()) {
+            if (!status.isTerminal()) {
+                statuses.add(status);
+            }
+        }
+        return Collections.unmodifiableSet(statuses);
+    }
+}
@@ -0,0 +1,228 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueStats;
+import com.urbaneyes.dto.IssueStatusCount;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Matriz de contadores categoria × status mantida em memória. É semeada com uma única consulta agregada na
+ * subida, atualizada a cada commit de escrita em issues e reconciliada periodicamente com o banco. Leituras são O(1)
+ * e não usam locks.
+ *
+ * <p>Os commits que chegam enquanto a consulta roda são reaplicados na matriz nova antes da troca, menos os que ela já
+ * viu: no mesmo snapshot da consulta é lido o {@code updated_at} dessas issues, e um commit que a leitura já reflete
+ * ({@link IssueCommitTracker#isReflected}) fica de fora, inclusive se o listener dele só rodar depois da troca.
+ */
+@Component
+public class IssueStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(IssueStatistics.class);
+    private static final IssueStatus[] STATUSES = IssueStatus.values();
+
+    private final IssueRepository issueRepository;
+    private final IssueCommitTracker commitTracker;
+    private final TransactionTemplate loadTemplate;
+
+    private volatile Map<Long, AtomicLongArray> counters = new ConcurrentHashMap<>();
+    // Leitura: aplicar um commit; escrita: reaplicar os guardados e trocar a matriz, sem commit no meio
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Queue<IssueChangedEvent> duringLoad;
+    // Commits em andamento na troca que a consulta já viu: quando o listener deles rodar, não mexem na matriz
+    private volatile Set<IssueChangedEvent> reflected = ConcurrentHashMap.newKeySet();
+
+    public IssueStatistics(IssueRepository issueRepository, PlatformTransactionManager transactionManager,
+                           IssueCommitTracker commitTracker) {
+        this.issueRepository = issueRepository;
+        this.commitTracker = commitTracker;
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.loadTemplate.setReadOnly(true);
+    }
+
+    public long count(Long categoryId, IssueStatus status) {
+        AtomicLongArray row = counters.get(categoryId);
+        return row == null ? 0 : row.get(status.ordinal());
+    }
+
+    public IssueStats snapshot() {
+        Map<IssueStatus, Long> totals = emptyCounts();
+        List<IssueStats.CategoryStats> categories = new ArrayList<>();
+        counters.forEach((categoryId, row) -> {
+            Map<IssueStatus, Long> counts = emptyCounts();
+            long total = 0;
+            for (IssueStatus status : STATUSES) {
+                long value = row.get(status.ordinal());
+                counts.put(status, value);
+                totals.merge(status, value, Long::sum);
+                total += value;
+            }
+            categories.add(new IssueStats.CategoryStats(categoryId, counts, total));
+        });
+        return new IssueStats(totals, categories);
+    }
+
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            if (!reflected.remove(event)) {
+                apply(counters, event);
+            }
+            Queue<IssueChangedEvent> buffer = duringLoad;
+            if (buffer != null) {
+                buffer.add(event);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        rebuild();
+    }
+
+    // Corrige desvios (ex.: escritas feitas fora do IssueService) substituindo a matriz pela contagem do banco
+    @Scheduled(fixedDelayString = "${urbaneyes.issues.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${urbaneyes.issues.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long drift = rebuild();
+        if (drift > 0) {
+            log.warn("Issue statistics drifted by {} from the database, counters were reset", drift);
+        }
+    }
+
+    // A consulta agregada lê o banco como estava quando começou: o que foi commitado depois entra pelo buffer
+    private synchronized long rebuild() {
+        Queue<IssueChangedEvent> buffer = new ConcurrentLinkedQueue<>();
+        duringLoad = buffer;
+        Load load;
+        try {
+            load = loadTemplate.execute(status -> load(buffer));
+        } catch (RuntimeException e) {
+            duringLoad = null;
+            throw e;
+        }
+        swapLock.writeLock().lock();
+        try {
+            Map<Long, AtomicLongArray> fresh = load.counters();
+            Set<IssueChangedEvent> buffered = new HashSet<>(buffer);
+            List<IssueChangedEvent> inFlight = commitTracker.inFlight().stream()
+                    .filter(event -> !buffered.contains(event))
+                    .toList();
+            List<IssueChangedEvent> window = new ArrayList<>(buffer);
+            window.addAll(inFlight);
+            Set<Long> created = IssueCommitTracker.createdIn(window);
+            for (IssueChangedEvent event : buffer) {
+                if (!load.reflects(event, created)) {
+                    apply(fresh, event);
+                }
+            }
+            Set<IssueChangedEvent> skip = ConcurrentHashMap.newKeySet();
+            inFlight.stream().filter(event -> load.reflects(event, created)).forEach(skip::add);
+
+            long drift = 0;
+            for (Long categoryId : union(fresh, counters)) {
+                for (IssueStatus status : STATUSES) {
+                    drift += Math.abs(valueOf(fresh, categoryId, status) - count(categoryId, status));
+                }
+            }
+            counters = fresh;
+            reflected = skip;
+            duringLoad = null;
+            return drift;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Map<Long, AtomicLongArray> matrix, IssueChangedEvent event) {
+        apply(matrix, event.before(), -1);
+        apply(matrix, event.after(), 1);
+    }
+
+    private static void apply(Map<Long, AtomicLongArray> matrix, IssueSnapshot snapshot, int delta) {
+        if (snapshot == null || snapshot.categoryId() == null || snapshot.status() == null) {
+            return;
+        }
+        matrix.computeIfAbsent(snapshot.categoryId(), id -> new AtomicLongArray(STATUSES.length))
+                .addAndGet(snapshot.status().ordinal(), delta);
+    }
+
+    private Load load(Queue<IssueChangedEvent> buffer) {
+        Map<Long, AtomicLongArray> fresh = new ConcurrentHashMap<>();
+        for (IssueStatusCount count : issueRepository.countByCategoryAndStatus()) {
+            if (count.categoryId() != null && count.status() != null) {
+                fresh.computeIfAbsent(count.categoryId(), id -> new AtomicLongArray(STATUSES.length))
+                        .addAndGet(count.status().ordinal(), count.total());
+            }
+        }
+        // Depois da agregação: um commit que ainda não estava em andamento aqui é commitado depois do snapshot
+        Set<Long> touched = new HashSet<>();
+        buffer.forEach(event -> touched.add(event.issueId()));
+        commitTracker.inFlight().forEach(event -> touched.add(event.issueId()));
+        Map<Long, LocalDateTime> loaded = new HashMap<>();
+        if (!touched.isEmpty()) {
+            for (IssueSnapshot issue : issueRepository.findSnapshotsByIdIn(touched)) {
+                loaded.put(issue.id(), issue.updatedAt() != null ? issue.updatedAt() : LocalDateTime.MIN);
+            }
+        }
+        return new Load(fresh, touched, loaded);
+    }
+
+    private static long valueOf(Map<Long, AtomicLongArray> matrix, Long categoryId, IssueStatus status) {
+        AtomicLongArray row = matrix.get(categoryId);
+        return row == null ? 0 : row.get(status.ordinal());
+    }
+
+    private static List<Long> union(Map<Long, ?> first, Map<Long, ?> second) {
+        List<Long> keys = new ArrayList<>(first.keySet());
+        second.keySet().stream().filter(key -> !first.containsKey(key)).forEach(keys::add);
+        return keys;
+    }
+
+    // Matriz lida e, das issues com commits na janela, o updated_at que a leitura viu (sem entrada: ausente)
+    private record Load(Map<Long, AtomicLongArray> counters, Set<Long> touched, Map<Long, LocalDateTime> loaded) {
+
+        boolean reflects(IssueChangedEvent event, Set<Long> created) {
+            return touched.contains(event.issueId()) && IssueCommitTracker.isReflected(event,
+                    loaded.get(event.issueId()), created.contains(event.issueId()));
+        }
+    }
+
+    private static Map<IssueStatus, Long> emptyCounts() {
+        Map<IssueStatus, Long> counts = new EnumMap<>(IssueStatus.class);
+        for (IssueStatus status : STATUSES) {
+            counts.put(status, 0L);
+        }
+        return counts;
+    }
+}
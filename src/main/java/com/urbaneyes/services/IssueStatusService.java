@@ -0,0 +1,189 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueStatusBulkResult;
+import com.urbaneyes.dto.IssueStatusChange;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.IssueStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Transições de status feitas direto no banco, sem carregar a entidade: um único UPDATE condicionado aos status de
+ * origem permitidos pela máquina de estados de {@link IssueStatus}.
+ *
+ * <p>O UPDATE é lido através de {@code OLD TABLE (...)} (delta query do H2), que devolve as linhas alteradas como
+ * estavam antes da escrita, no mesmo statement. Com elas os eventos de {@code STATUS_CHANGED} saem sem nenhuma
+ * leitura extra. Lotes grandes andam em blocos de {@code chunkSize}, cada um em sua própria transação, para não
+ * segurar locks sobre milhares de linhas.
+ */
+@Service
+public class IssueStatusService {
+
+    private static final String SNAPSHOT_COLUMNS =
+            "id, title, description, status, category_id, latitude, longitude, created_at, updated_at";
+
+    private static final String UPDATE_STATUS =
+            "UPDATE issue SET status = :to, updated_at = :now, version = version + 1 WHERE ";
+
+    private static final RowMapper<IssueSnapshot> SNAPSHOT_MAPPER = (rs, rowNum) -> new IssueSnapshot(
+            rs.getLong("id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            IssueStatus.valueOf(rs.getString("status")),
+            rs.getObject("category_id", Long.class),
+            rs.getObject("latitude", Double.class),
+            rs.getObject("longitude", Double.class),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxIds;
+    private final Clock clock;
+
+    @Autowired
+    public IssueStatusService(NamedParameterJdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${urbaneyes.issues.status.chunk-size:500}") int chunkSize,
+                              @Value("${urbaneyes.issues.status.max-ids:10000}") int maxIds,
+                              @Value(IssueChangeService.WRITE_TIMEOUT_SECONDS) int writeTimeoutSeconds) {
+        this(jdbcTemplate, transactionManager, eventPublisher, chunkSize, maxIds, writeTimeoutSeconds,
+                Clock.systemDefaultZone());
+    }
+
+    IssueStatusService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       ApplicationEventPublisher eventPublisher, int chunkSize, int maxIds, int writeTimeoutSeconds,
+                       Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(writeTimeoutSeconds);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+        this.clock = clock;
+    }
+
+    /**
+     * Vazio se a issue não existe. Pedir o status atual não é erro: devolve a mudança com {@code from == to} sem
+     * escrever nada. Um destino que a máquina de estados não permite a partir do status atual lança
+     * {@link InvalidStatusTransitionException}.
+     */
+    public Optional<IssueStatusChange> transition(Long id, IssueStatus to) {
+        requireStatus(to);
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<IssueSnapshot> changed = update(
+                "id = :id AND status IN (:from)", new MapSqlParameterSource("id", id), to, now);
+        if (!changed.isEmpty()) {
+            return Optional.of(new IssueStatusChange(id, changed.get(0).status(), to, now));
+        }
+
+        // Nada mudou: só então uma leitura leve para distinguir inexistente, já no destino e transição inválida
+        List<IssueSnapshot> current = jdbcTemplate.query(
+                "SELECT " + SNAPSHOT_COLUMNS + " FROM issue WHERE id = :id",
+                new MapSqlParameterSource("id", id), SNAPSHOT_MAPPER);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        IssueSnapshot issue = current.get(0);
+        if (issue.status() != to) {
+            throw new InvalidStatusTransitionException(issue.status(), to);
+        }
+        return Optional.of(new IssueStatusChange(id, to, to, issue.updatedAt()));
+    }
+
+    /** Ids repetidos contam uma vez; os que não puderam mudar voltam em {@code skipped}, na ordem pedida. */
+    public IssueStatusBulkResult transitionAll(List<Long> ids, IssueStatus to) {
+        requireStatus(to);
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.contains(null)) {
+            throw new IllegalArgumentException("Issue ids cannot be null");
+        }
+        if (requested.size() > maxIds) {
+            throw new IllegalArgumentException("A bulk status change cannot contain more than " + maxIds + " ids");
+        }
+        List<Long> pending = new ArrayList<>(requested);
+        Set<Long> updated = new HashSet<>();
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<Long> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            update("id IN (:ids) AND status IN (:from)", new MapSqlParameterSource("ids", chunk),
+                    to, LocalDateTime.now(clock))
+                    .forEach(before -> updated.add(before.id()));
+        }
+        List<Long> skipped = pending.stream().filter(id -> !updated.contains(id)).toList();
+        return new IssueStatusBulkResult(to, updated.size(), skipped);
+    }
+
+    /**
+     * Muda todas as issues da categoria e/ou criadas há mais de {@code olderThan} que estejam num status de origem
+     * válido. Cada bloco pega as próximas {@code chunkSize} por id; as já alteradas deixam de casar com o filtro.
+     */
+    public IssueStatusBulkResult transitionMatching(Long categoryId, Duration olderThan, IssueStatus to) {
+        requireStatus(to);
+        if (categoryId == null && olderThan == null) {
+            throw new IllegalArgumentException("A category or an age is required to select the issues");
+        }
+        if (olderThan != null && olderThan.isNegative()) {
+            throw new IllegalArgumentException("The age cannot be negative");
+        }
+        StringBuilder filter = new StringBuilder("id IN (SELECT id FROM issue WHERE status IN (:from)");
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", chunkSize);
+        if (categoryId != null) {
+            filter.append(" AND category_id = :categoryId");
+            params.addValue("categoryId", categoryId);
+        }
+        if (olderThan != null) {
+            filter.append(" AND created_at < :createdBefore");
+            params.addValue("createdBefore", LocalDateTime.now(clock).minus(olderThan));
+        }
+        filter.append(" ORDER BY id LIMIT :limit)");
+
+        int total = 0;
+        int changed;
+        do {
+            changed = update(filter.toString(), params, to, LocalDateTime.now(clock)).size();
+            total += changed;
+        } while (changed == chunkSize);
+        return new IssueStatusBulkResult(to, total, List.of());
+    }
+
+    // Um statement por bloco: altera e devolve as imagens anteriores, publicando um evento por linha na mesma transação
+    private List<IssueSnapshot> update(String where, MapSqlParameterSource params, IssueStatus to, LocalDateTime now) {
+        params.addValue("to", to.name())
+                .addValue("now", now)
+                .addValue("from", IssueStatus.sourcesOf(to).stream().map(Enum::name).toList());
+        String sql = "SELECT " + SNAPSHOT_COLUMNS + " FROM OLD TABLE (" + UPDATE_STATUS + where + ")";
+        return transactionTemplate.execute(status -> {
+            List<IssueSnapshot> before = jdbcTemplate.query(sql, params, SNAPSHOT_MAPPER);
+            before.forEach(snapshot -> eventPublisher.publishEvent(
+                    IssueChangedEvent.statusChanged(snapshot, snapshot.withStatus(to, now))));
+            return before;
+        });
+    }
+
+    private static void requireStatus(IssueStatus to) {
+        if (to == null) {
+            throw new IllegalArgumentException("The status cannot be null");
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.IssueTile;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.geo.WebMercator;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Quadtree de contadores para os tiles do mapa: para cada nível de zoom até {@code clusterMaxZoom + cellBits},
+ * cada tile ocupado guarda a contagem de issues com coordenadas por categoria × status. Um tile de zoom z até
+ * {@code clusterMaxZoom} é respondido com as 2^cellBits × 2^cellBits células do nível z + cellBits, sem percorrer
+ * issues; acima disso, com os pontos guardados por tile do nível {@code clusterMaxZoom + 1}.
+ *
+ * <p>Cada escrita atualiza um nó por nível e carimba todos com um número de sequência crescente; o carimbo do nó
+ * de um tile é a sua versão, que só muda quando alguma issue dentro dele muda. Como o {@link IssueSpatialIndex},
+ * é semeado na subida e mantido pelos eventos de commit.
+ */
+@Component
+public class IssueTileIndex {
+
+    private static final IssueStatus[] STATUSES = IssueStatus.values();
+
+    private final IssueRepository issueRepository;
+    private final int clusterMaxZoom;
+    private final int cellBits;
+    private final int maxPoints;
+    private final int deepestLevel;
+    private final int pointLevel;
+    // Distingue as versões desta execução das de antes de um restart, quando a sequência recomeça
+    private final long generation = ThreadLocalRandom.current().nextLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Map<Long, Node>> levels;
+    private final Map<Long, Map<Long, IssueLocation>> points = new ConcurrentHashMap<>();
+
+    public IssueTileIndex(IssueRepository issueRepository,
+                          @Value("${urbaneyes.issues.tiles.cluster-max-zoom:14}") int clusterMaxZoom,
+                          @Value("${urbaneyes.issues.tiles.cell-bits:3}") int cellBits,
+                          @Value("${urbaneyes.issues.tiles.max-points:2000}") int maxPoints) {
+        if (cellBits < 1 || clusterMaxZoom < 0 || clusterMaxZoom + cellBits > WebMercator.MAX_ZOOM) {
+            throw new IllegalArgumentException("Tile levels must satisfy 0 <= cluster-max-zoom, 1 <= cell-bits and "
+                    + "cluster-max-zoom + cell-bits <= " + WebMercator.MAX_ZOOM);
+        }
+        this.issueRepository = issueRepository;
+        this.clusterMaxZoom = clusterMaxZoom;
+        this.cellBits = cellBits;
+        this.maxPoints = maxPoints;
+        this.deepestLevel = clusterMaxZoom + cellBits;
+        this.pointLevel = clusterMaxZoom + 1;
+        this.levels = new ArrayList<>(deepestLevel + 1);
+        for (int level = 0; level <= deepestLevel; level++) {
+            levels.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        issueRepository.findLocationsByStatusIn(EnumSet.allOf(IssueStatus.class)).forEach(location -> {
+            if (location.categoryId() != null && location.status() != null) {
+                apply(location, 1);
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onIssueChanged(IssueChangedEvent event) {
+        apply(event.before(), -1);
+        apply(event.after(), 1);
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    /** Versão do tile: muda a cada escrita de uma issue dentro dele e é 0 enquanto ele nunca teve issues. */
+    public long version(int z, long x, long y) {
+        WebMercator.checkTile(z, x, y);
+        int level = Math.min(z, deepestLevel);
+        Node node = levels.get(level).get(key(x >> (z - level), y >> (z - level)));
+        return node == null ? 0 : node.stamp.get();
+    }
+
+    /** Sem {@code statuses} (conjunto vazio), considera todos; sem {@code categoryId}, todas as categorias. */
+    public IssueTile tile(int z, long x, long y, Long categoryId, Set<IssueStatus> statuses) {
+        WebMercator.checkTile(z, x, y);
+        return z <= clusterMaxZoom ? clusters(z, x, y, categoryId, statuses) : points(z, x, y, categoryId, statuses);
+    }
+
+    private IssueTile clusters(int z, long x, long y, Long categoryId, Set<IssueStatus> statuses) {
+        int level = z + cellBits;
+        Map<Long, Node> nodes = levels.get(level);
+        int side = 1 << cellBits;
+        List<IssueTile.Cell> cells = new ArrayList<>();
+        for (long cellY = y << cellBits, lastY = cellY + side; cellY < lastY; cellY++) {
+            for (long cellX = x << cellBits, lastX = cellX + side; cellX < lastX; cellX++) {
+                Node node = nodes.get(key(cellX, cellY));
+                if (node == null) {
+                    continue;
+                }
+                Map<Long, Map<IssueStatus, Long>> counts = new TreeMap<>();
+                long total = 0;
+                for (Map.Entry<Long, AtomicLongArray> row : node.counts.entrySet()) {
+                    if (categoryId != null && !categoryId.equals(row.getKey())) {
+                        continue;
+                    }
+                    for (IssueStatus status : STATUSES) {
+                        long value = row.getValue().get(status.ordinal());
+                        if (value > 0 && (statuses.isEmpty() || statuses.contains(status))) {
+                            counts.computeIfAbsent(row.getKey(), id -> new EnumMap<>(IssueStatus.class))
+                                    .put(status, value);
+                            total += value;
+                        }
+                    }
+                }
+                if (total > 0) {
+                    cells.add(new IssueTile.Cell(WebMercator.quadkey(cellX, cellY, level),
+                            WebMercator.latitude(cellY + 0.5, level), WebMercator.longitude(cellX + 0.5, level),
+                            total, counts));
+                }
+            }
+        }
+        return new IssueTile(z, x, y, IssueTile.Mode.CLUSTERS, cells, List.of(), false);
+    }
+
+    // O tile pedido está inteiro dentro de um tile do nível dos pontos; os de fora dele são descartados pela posição
+    private IssueTile points(int z, long x, long y, Long categoryId, Set<IssueStatus> statuses) {
+        int shift = z - pointLevel;
+        Map<Long, IssueLocation> candidates = points.getOrDefault(key(x >> shift, y >> shift), Map.of());
+        List<IssueLocation> found = new ArrayList<>();
+        for (IssueLocation location : candidates.values()) {
+            if (location.matches(statuses, categoryId)
+                    && WebMercator.tileX(location.longitude(), z) == x
+                    && WebMercator.tileY(location.latitude(), z) == y) {
+                found.add(location);
+            }
+        }
+        found.sort(Comparator.comparing(IssueLocation::id));
+        boolean truncated = found.size() > maxPoints;
+        return new IssueTile(z, x, y, IssueTile.Mode.POINTS, List.of(),
+                truncated ? new ArrayList<>(found.subList(0, maxPoints)) : found, truncated);
+    }
+
+    private void apply(IssueSnapshot snapshot, int delta) {
+        if (snapshot == null || !snapshot.hasLocation() || snapshot.categoryId() == null
+                || snapshot.status() == null) {
+            return;
+        }
+        apply(new IssueLocation(snapshot.id(), snapshot.latitude(), snapshot.longitude(), snapshot.status(),
+                snapshot.categoryId()), delta);
+    }
+
+    private void apply(IssueLocation location, int delta) {
+        long x = WebMercator.tileX(location.longitude(), deepestLevel);
+        long y = WebMercator.tileY(location.latitude(), deepestLevel);
+        long stamp = sequence.incrementAndGet();
+        for (int level = deepestLevel; level >= 0; level--) {
+            int shift = deepestLevel - level;
+            Node node = levels.get(level).computeIfAbsent(key(x >> shift, y >> shift), key -> new Node());
+            node.counts.computeIfAbsent(location.categoryId(), id -> new AtomicLongArray(STATUSES.length))
+                    .addAndGet(location.status().ordinal(), delta);
+            node.stamp.accumulateAndGet(stamp, Math::max);
+        }
+
+        long leaf = key(x >> (deepestLevel - pointLevel), y >> (deepestLevel - pointLevel));
+        if (delta > 0) {
+            points.computeIfAbsent(leaf, key -> new ConcurrentHashMap<>()).put(location.id(), location);
+        } else {
+            Map<Long, IssueLocation> bucket = points.get(leaf);
+            if (bucket != null) {
+                bucket.remove(location.id());
+            }
+        }
+    }
+
+    // x e y cabem em 32 bits até o zoom máximo
+    private static long key(long x, long y) {
+        return x << 32 | y;
+    }
+
+    private static final class Node {
+
+        private final Map<Long, AtomicLongArray> counts = new ConcurrentHashMap<>();
+        // Só cresce, mesmo com escritas concorrentes terminando fora de ordem
+        private final AtomicLong stamp = new AtomicLong();
+    }
+}
@@ -0,0 +1,12 @@
+package com.urbaneyes.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class StaleIssueException extends RuntimeException {
+
+    public StaleIssueException(Long id, Long expectedVersion, Long currentVersion) {
+        super("Issue " + id + " is at version " + currentVersion + ", not " + expectedVersion);
+    }
+}
@@ -0,0 +1,12 @@
+package com.urbaneyes.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StreamCapacityExceededException extends RuntimeException {
+
+    public StreamCapacityExceededException(int maxSubscribers) {
+        super("The issue stream already has " + maxSubscribers + " subscribers");
+    }
+}
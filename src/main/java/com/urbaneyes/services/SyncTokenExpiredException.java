@@ -0,0 +1,13 @@
+package com.urbaneyes.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// O token é anterior às remoções ainda guardadas; o cliente precisa refazer a sincronização completa
+@ResponseStatus(HttpStatus.GONE)
+public class SyncTokenExpiredException extends RuntimeException {
+
+    public SyncTokenExpiredException() {
+        super("The sync token has expired, a full sync is required");
+    }
+}
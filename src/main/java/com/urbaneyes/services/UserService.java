@@ -1,32 +1,57 @@
 package com.urbaneyes.service;
 
+import com.urbaneyes.dto.TokenResponse;
+import com.urbaneyes.metrics.MetricsConfig;
 import com.urbaneyes.model.User;
 import com.urbaneyes.repository.UserRepository;
+import com.urbaneyes.security.PasswordHasher;
+import com.urbaneyes.security.TokenService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class UserService {
 
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final TokenService tokenService;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PasswordHasher passwordHasher, TokenService tokenService) {
         this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.tokenService = tokenService;
     }
 
-    public User registerUser(User user) {
-        return userRepository.save(user);
+    // O BCrypt roda no pool do PasswordHasher; a thread da requisição fica livre enquanto isso
+    public CompletableFuture<User> registerUser(User user) {
+        return passwordHasher.hash(user.getPassword()).thenApply(hash -> {
+            user.setPassword(hash);
+            return userRepository.save(user);
+        });
     }
 
-    public String loginUser(User user) {
-        User existingUser = userRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        if (!existingUser.getPassword().equals(user.getPassword())) {
-            throw new RuntimeException("Invalid credentials");
+    public CompletableFuture<TokenResponse> loginUser(User user) {
+        Optional<User> existingUser = userRepository.findByEmail(user.getEmail());
+        if (user.getPassword() == null) {
+            return CompletableFuture.failedFuture(new InvalidCredentialsException());
         }
-        return "Login successful";
+        // E-mail sem conta também paga um BCrypt: o tempo de resposta não diz quais e-mails estão cadastrados
+        CompletableFuture<Boolean> matches = existingUser
+                .map(account -> passwordHasher.matches(user.getPassword(), account.getPassword()))
+                .orElseGet(() -> passwordHasher.matchesNothing(user.getPassword()));
+        return matches.thenApply(matched -> {
+            if (!matched) {
+                throw new InvalidCredentialsException();
+            }
+            User account = existingUser.get();
+            return TokenResponse.bearer(tokenService.issue(account.getId(), account.getEmail()),
+                    tokenService.timeToLive().toSeconds());
+        });
     }
 
     public List<User> getAllUsers() {
@@ -37,13 +62,16 @@ public class UserService {
         return userRepository.findById(id);
     }
 
-    public User updateUser(Long id, User userDetails) {
+    // Como no cadastro, o novo hash é calculado no pool do PasswordHasher sem bloquear a requisição
+    public CompletableFuture<User> updateUser(Long id, User userDetails) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        existingUser.setUsername(userDetails.getUsername());
-        existingUser.setEmail(userDetails.getEmail());
-        existingUser.setPassword(userDetails.getPassword());
-        return userRepository.save(existingUser);
+        return passwordHasher.hash(userDetails.getPassword()).thenApply(hash -> {
+            existingUser.setUsername(userDetails.getUsername());
+            existingUser.setEmail(userDetails.getEmail());
+            existingUser.setPassword(hash);
+            return userRepository.save(existingUser);
+        });
     }
 
     public void deleteUser(Long id) {
@@ -0,0 +1,116 @@
+package com.urbaneyes.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.controller.IssueController;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Campos esparsos nas respostas de /api/issues: com {@code ?fields=id,status,updatedAt}, cada objeto da resposta
+ * (a issue, ou cada item da lista) mantém só os campos pedidos. Campos aninhados usam ponto
+ * ({@code category.name}); nomes desconhecidos são ignorados.
+ *
+ * <p>O corpo é convertido em árvore pelo mesmo {@link ObjectMapper} do conversor escolhido pelo {@code Accept},
+ * para que as datas sigam o formato daquele conversor.
+ */
+@ControllerAdvice(assignableTypes = IssueController.class)
+public class SparseFieldsetAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String FIELDS_PARAM = "fields";
+
+    private final List<AbstractJackson2HttpMessageConverter> converters;
+    private final ObjectMapper objectMapper;
+
+    public SparseFieldsetAdvice(List<AbstractJackson2HttpMessageConverter> converters, ObjectMapper objectMapper) {
+        this.converters = converters;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(FIELDS_PARAM);
+        if (fields == null || fields.isBlank()) {
+            return body;
+        }
+        Fieldset fieldset = Fieldset.parse(fields);
+        if (fieldset.isEmpty()) {
+            return body;
+        }
+        JsonNode tree = mapperFor(body, selectedContentType).valueToTree(body);
+        fieldset.retain(tree);
+        return tree;
+    }
+
+    private ObjectMapper mapperFor(Object body, MediaType contentType) {
+        for (AbstractJackson2HttpMessageConverter converter : converters) {
+            if (converter.canWrite(body.getClass(), contentType)) {
+                return converter.getObjectMapper();
+            }
+        }
+        return objectMapper;
+    }
+
+    /** Árvore dos campos pedidos; um campo sem filhos é mantido inteiro. */
+    public static final class Fieldset {
+
+        private final Map<String, Fieldset> children = new LinkedHashMap<>();
+
+        public static Fieldset parse(String fields) {
+            Fieldset root = new Fieldset();
+            for (String field : fields.split(",")) {
+                Fieldset node = root;
+                for (String name : field.trim().split("\\.")) {
+                    if (name.isEmpty()) {
+                        break;
+                    }
+                    node = node.children.computeIfAbsent(name, key -> new Fieldset());
+                }
+            }
+            return root;
+        }
+
+        public boolean isEmpty() {
+            return children.isEmpty();
+        }
+
+        public void retain(JsonNode node) {
+            if (node.isArray()) {
+                node.forEach(this::retain);
+            } else if (node.isObject() && !children.isEmpty()) {
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    Fieldset child = children.get(field.getKey());
+                    if (child == null) {
+                        fields.remove();
+                    } else {
+                        child.retain(field.getValue());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.urbaneyes.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * {@code Vary: Accept} em todas as respostas da API, inclusive nos 304 e nos erros: o formato (JSON, CBOR ou
+ * Smile) depende do {@code Accept}, e sem isso um cache compartilhado poderia entregar CBOR a um cliente JSON.
+ * O cabeçalho vai antes da cadeia, enquanto a resposta ainda não foi enviada.
+ */
+public class VaryAcceptFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        chain.doFilter(request, response);
+    }
+}
@@ -3,13 +3,47 @@ CREATE TABLE category (
     name VARCHAR(255) NOT NULL
 );
 
+CREATE SEQUENCE issue_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE issue (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT DEFAULT NEXT VALUE FOR issue_seq PRIMARY KEY,
     title VARCHAR(255) NOT NULL,
     description VARCHAR(1000),
     status VARCHAR(50),
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION,
+    geo_cell BIGINT,
+    report_count INT DEFAULT 1 NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     created_at TIMESTAMP,
     updated_at TIMESTAMP,
     category_id BIGINT,
     CONSTRAINT fk_category FOREIGN KEY (category_id) REFERENCES category (id)
 );
+
+CREATE INDEX idx_issue_created_at_id ON issue (created_at DESC, id DESC);
+
+CREATE INDEX idx_issue_geo_cell ON issue (geo_cell);
+
+CREATE INDEX idx_issue_updated_at_id ON issue (updated_at, id);
+
+CREATE TABLE issue_tombstone (
+    id BIGINT PRIMARY KEY,
+    category_id BIGINT,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_issue_tombstone_deleted_at_id ON issue_tombstone (deleted_at, id);
+
+CREATE SEQUENCE issue_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE issue_outbox (
+    id BIGINT PRIMARY KEY,
+    event_type VARCHAR(32) NOT NULL,
+    issue_id BIGINT NOT NULL,
+    payload VARCHAR(8000) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    attempts INT DEFAULT 0 NOT NULL,
+    next_attempt_at TIMESTAMP,
+    failed_at TIMESTAMP
+);
@@ -0,0 +1,97 @@
+package com.urbaneyes.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldRejectAboveLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 2, TARGET, clock::get);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        limit.release(TARGET / 2);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void shouldBackOffOnSlowResponsesDownToMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 20, TARGET, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire());
+            slowRelease(limit);
+        }
+        assertTrue(limit.limit() < 20);
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            slowRelease(limit);
+        }
+        assertEquals(4, limit.limit());
+    }
+
+    @Test
+    void shouldBackOffOncePerWindow() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 20, TARGET, clock::get);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+
+        // As 20 começaram juntas e terminam juntas, todas lentas: é um único sinal de sobrecarga
+        clock.addAndGet(TARGET * 2);
+        Thread[] threads = new Thread[20];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> limit.release(TARGET * 2));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(18, limit.limit());
+
+        // A próxima resposta lenta que começou depois da redução abre outra janela
+        assertTrue(limit.tryAcquire());
+        slowRelease(limit);
+        assertEquals(16, limit.limit());
+    }
+
+    @Test
+    void shouldGrowBackOnlyWhileBusy() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 20, TARGET, clock::get);
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            slowRelease(limit);
+        }
+
+        // Uma requisição por vez não mostra que o limite faz falta
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+            limit.release(TARGET / 2);
+        }
+        assertEquals(4, limit.limit());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        limit.release(TARGET / 2);
+        assertEquals(5, limit.limit());
+        assertEquals(2, limit.inFlight());
+    }
+
+    private void slowRelease(AdaptiveConcurrencyLimit limit) {
+        clock.addAndGet(TARGET * 2);
+        limit.release(TARGET * 2);
+    }
+}
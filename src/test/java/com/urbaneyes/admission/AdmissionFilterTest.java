@@ -0,0 +1,115 @@
+package com.urbaneyes.admission;
+
+import com.urbaneyes.security.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    private AdmissionFilter filter(Map<String, AdmissionProperties.Group> groups) {
+        return new AdmissionFilter(new AdmissionProperties(true, 64, 4, Duration.ofMinutes(1), groups),
+                meterRegistry, clock::get);
+    }
+
+    private static AdmissionProperties.Group group(List<String> methods, String path, double rate, int burst,
+                                                   int maxConcurrency) {
+        return new AdmissionProperties.Group(List.of(path), methods, rate, burst, 1, maxConcurrency,
+                Duration.ofSeconds(1));
+    }
+
+    private static MockHttpServletResponse perform(AdmissionFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private double decisions(String group, String outcome) {
+        return meterRegistry.counter(AdmissionFilter.DECISIONS, "group", group, "outcome", outcome).count();
+    }
+
+    @Test
+    void shouldRateLimitPerClientWithinFirstMatchingGroup() throws Exception {
+        Map<String, AdmissionProperties.Group> groups = new LinkedHashMap<>();
+        groups.put("auth", group(List.of("POST"), "/api/users/login", 1, 1, 0));
+        groups.put("reads", group(List.of(), "/api/**", 100, 100, 0));
+        AdmissionFilter filter = filter(groups);
+
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/api/users/login");
+        assertEquals(200, perform(filter, login).getStatus());
+        MockHttpServletResponse limited = perform(filter, login);
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+
+        // Outro IP e outro grupo não são afetados
+        MockHttpServletRequest otherClient = new MockHttpServletRequest("POST", "/api/users/login");
+        otherClient.setRemoteAddr("10.0.0.2");
+        assertEquals(200, perform(filter, otherClient).getStatus());
+        assertEquals(200, perform(filter, new MockHttpServletRequest("GET", "/api/users/login")).getStatus());
+
+        assertEquals(2, decisions("auth", "admitted"));
+        assertEquals(1, decisions("auth", "rate_limited"));
+        assertEquals(1, decisions("reads", "admitted"));
+    }
+
+    @Test
+    void shouldKeyAuthenticatedRequestsByUser() throws Exception {
+        AdmissionFilter filter = filter(Map.of("reads", group(List.of(), "/api/**", 1, 1, 0)));
+
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/api/issues");
+        first.setAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE, new AuthenticatedUser(1L, "a@example.com"));
+        MockHttpServletRequest second = new MockHttpServletRequest("GET", "/api/issues");
+        second.setAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE, new AuthenticatedUser(2L, "b@example.com"));
+
+        assertEquals(200, perform(filter, first).getStatus());
+        assertEquals(200, perform(filter, second).getStatus());
+        assertEquals(429, perform(filter, first).getStatus());
+    }
+
+    @Test
+    void shouldShedWhenConcurrencyLimitIsReached() throws Exception {
+        AdmissionFilter filter = filter(Map.of("reads", group(List.of(), "/api/**", 0, 1, 1)));
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/issues"), outer, (request, response) -> {
+            try {
+                nested[0] = perform(filter, new MockHttpServletRequest("GET", "/api/categories"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, nested[0].getStatus());
+        assertEquals(1, decisions("reads", "overloaded"));
+        // A vaga volta ao terminar
+        assertEquals(200, perform(filter, new MockHttpServletRequest("GET", "/api/issues")).getStatus());
+        assertEquals(0, meterRegistry.get("urbaneyes.admission.concurrency.in-flight").gauge().value());
+    }
+
+    @Test
+    void shouldPassRequestsOutsideAnyGroup() throws Exception {
+        AdmissionFilter filter = filter(Map.of("auth", group(List.of("POST"), "/api/users/login", 1, 1, 1)));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform(filter, new MockHttpServletRequest("GET", "/api/issues")).getStatus());
+        }
+        assertEquals(0, decisions("auth", "admitted"));
+    }
+}
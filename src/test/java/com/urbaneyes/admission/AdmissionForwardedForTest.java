@@ -0,0 +1,44 @@
+package com.urbaneyes.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Com o servidor de verdade (o MockMvc não passa pela válvula do Tomcat): atrás de um proxy local, cada cliente
+ * anônimo tem o balde do IP de X-Forwarded-For, não o do proxy.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "urbaneyes.admission.groups.auth.rate=0.001", "urbaneyes.admission.groups.auth.burst=1"})
+@AutoConfigureTestDatabase
+class AdmissionForwardedForTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldRateLimitEachForwardedClientSeparately() throws Exception {
+        assertEquals(401, login("203.0.113.10"));
+        assertEquals(429, login("203.0.113.10"));
+        assertEquals(401, login("203.0.113.11"));
+    }
+
+    private int login(String forwardedFor) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/login"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"nobody@example.com\",\"password\":\"secret\"}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,89 @@
+package com.urbaneyes.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    void shouldAllowBurstThenRefillAtRate() {
+        ClientRateLimiter limiter = new ClientRateLimiter(2, 3, 16, 4, SECOND, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(SECOND / 2, limiter.tryAcquire("a"));
+        // Outro cliente tem balde próprio
+        assertEquals(0, limiter.tryAcquire("b"));
+
+        clock.addAndGet(SECOND / 2);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void shouldNotAccumulateMoreThanBurstWhileIdle() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 2, 16, 4, SECOND, clock::get);
+
+        clock.addAndGet(60 * SECOND);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void shouldShareOverflowBucketWhenStripeIsFullAndEvictIdleClients() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 2, 1, SECOND, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+        // Sem espaço: c e d dividem o balde de transbordo
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertTrue(limiter.tryAcquire("d") > 0);
+        assertEquals(2, limiter.clients());
+
+        // Depois de ociosos, a e b estão cheios e são descartados na próxima varredura
+        clock.addAndGet(2 * SECOND);
+        assertEquals(0, limiter.tryAcquire("d"));
+        assertEquals(1, limiter.clients());
+    }
+
+    @Test
+    void shouldNeverAdmitMoreThanBurstUnderContention() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 100, 16, 4, SECOND, clock::get);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                pool.execute(() -> {
+                    if (limiter.tryAcquire("shared") == 0) {
+                        admitted.incrementAndGet();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(100, admitted.get());
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientRateLimiter(0, 1, 16, 4, SECOND, clock::get));
+        assertThrows(IllegalArgumentException.class, () -> new ClientRateLimiter(1, 1, 16, 3, SECOND, clock::get));
+    }
+}
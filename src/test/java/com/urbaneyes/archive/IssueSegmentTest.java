@@ -0,0 +1,99 @@
+package com.urbaneyes.archive;
+
+import com.urbaneyes.model.IssueStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueSegmentTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2021, 6, 1, 8, 30, 15, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRoundTripEveryColumnAcrossRowGroups() throws IOException {
+        List<ArchivedIssue> issues = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            issues.add(issue(100L + i * 3, (long) (i % 3) + 1, i % 2 == 0 ? IssueStatus.CLOSED : IssueStatus.RESOLVED,
+                    BASE.plusHours(i).minusMinutes(i * 7L)));
+        }
+        // Colunas opcionais vazias e uma data de criação anterior à da linha de cima
+        issues.add(new ArchivedIssue(500L, "Sem descrição nem local", null, IssueStatus.CLOSED, 9L, null, null,
+                1, 0, BASE.minusYears(1), BASE));
+        Path path = directory.resolve("issues-00000000.seg");
+
+        IssueSegment.write(path, issues, 8);
+        IssueSegment segment = IssueSegment.open(path);
+
+        assertEquals(issues.size(), segment.rowCount());
+        for (ArchivedIssue issue : issues) {
+            assertEquals(issue, segment.find(issue.id()).orElseThrow());
+        }
+        assertTrue(segment.find(101L).isEmpty());
+        assertTrue(segment.find(99L).isEmpty());
+        assertFalse(segment.mayContain(501L));
+
+        List<String> keys = new ArrayList<>();
+        segment.forEachKey((createdAt, categoryId, status) -> keys.add(createdAt + " " + categoryId + " " + status));
+        assertEquals(issues.stream().map(issue -> issue.createdAt() + " " + issue.categoryId() + " " + issue.status())
+                .toList(), keys);
+    }
+
+    @Test
+    void shouldScanOnlyRequestedCategoryInIdOrder() throws IOException {
+        List<ArchivedIssue> issues = new ArrayList<>();
+        for (int i = 20; i > 0; i--) {
+            issues.add(issue(i, i <= 10 ? 1L : 2L, IssueStatus.CLOSED, BASE.plusDays(i)));
+        }
+        Path path = directory.resolve("issues-00000001.seg");
+        IssueSegment.write(path, issues, 5);
+        IssueSegment segment = IssueSegment.open(path);
+
+        List<Long> ids = new ArrayList<>();
+        segment.scan(2L, issue -> ids.add(issue.id()));
+
+        assertEquals(List.of(11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L), ids);
+
+        List<Long> allIds = new ArrayList<>();
+        segment.forEachId(allIds::add);
+        assertEquals(20, allIds.size());
+        assertEquals(1L, allIds.get(0));
+        assertEquals(20L, allIds.get(19));
+    }
+
+    @Test
+    void shouldCompressRepetitiveColumns() throws IOException {
+        List<ArchivedIssue> issues = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            issues.add(issue(i + 1, 1L, IssueStatus.CLOSED, BASE.plusMinutes(i)));
+        }
+        Path path = directory.resolve("issues-00000002.seg");
+        IssueSegment.write(path, issues, 4096);
+
+        // Cada issue ocupa bem menos que uma linha da tabela com os mesmos textos
+        assertTrue(Files.size(path) < issues.size() * 20L, "segment has " + Files.size(path) + " bytes");
+    }
+
+    @Test
+    void shouldRejectFilesThatAreNotSegments() throws IOException {
+        Path path = directory.resolve("garbage.seg");
+        Files.writeString(path, "not a segment at all");
+
+        assertThrows(IOException.class, () -> IssueSegment.open(path));
+    }
+
+    private static ArchivedIssue issue(long id, Long categoryId, IssueStatus status, LocalDateTime createdAt) {
+        return new ArchivedIssue(id, "Buraco na rua " + id, "Descrição com acentuação: ção " + id, status, categoryId,
+                -23.55 + id * 1e-4, -46.63 - id * 1e-4, (int) (id % 4) + 1, id % 5, createdAt, createdAt.plusDays(3));
+    }
+}
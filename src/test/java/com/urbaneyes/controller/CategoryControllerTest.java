@@ -1,6 +1,7 @@
 package com.urbaneyes.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.dto.CategorySnapshot;
 import com.urbaneyes.model.Category;
 import com.urbaneyes.service.CategoryService;
 import org.junit.jupiter.api.Test;
@@ -35,10 +36,14 @@ class CategoryControllerTest {
         Category category1 = new Category(1L, "Infrastructure");
         Category category2 = new Category(2L, "Environment");
 
-        Mockito.when(categoryService.getAllCategories()).thenReturn(List.of(category1, category2));
+        List<Category> categories = List.of(category1, category2);
+
+        Mockito.when(categoryService.getCategorySnapshot())
+                .thenReturn(new CategorySnapshot(categories, objectMapper.writeValueAsBytes(categories)));
 
         mockMvc.perform(get("/api/categories"))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.size()").value(2))
                 .andExpect(jsonPath("$[0].name").value("Infrastructure"))
                 .andExpect(jsonPath("$[1].name").value("Environment"));
@@ -0,0 +1,265 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueTrend.Resolution;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.repository.IssueTombstoneRepository;
+import com.urbaneyes.service.IssueArchive;
+import com.urbaneyes.service.IssueRollups;
+import com.urbaneyes.service.IssueSearchIndex;
+import com.urbaneyes.service.IssueService;
+import com.urbaneyes.service.IssueStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Arquivamento das issues encerradas antigas e leitura transparente a partir dos segmentos.
+ */
+@SpringBootTest(properties = {"urbaneyes.issues.archive.after=P30D", "urbaneyes.issues.archive.row-group-size=2",
+        "urbaneyes.issues.archive.delete-chunk-size=1"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class IssueArchiveTest {
+
+    @TempDir
+    static Path archiveDirectory;
+
+    // Roda dentro da transação do DELETE de cada issue arquivada, antes do DELETE das seguintes
+    private static volatile Consumer<IssueChangedEvent> onArchived = event -> { };
+
+    @TestConfiguration
+    static class ArchiveHook {
+
+        @EventListener
+        void onIssueChanged(IssueChangedEvent event) {
+            if (event.type() == IssueChangedEvent.Type.ARCHIVED) {
+                onArchived.accept(event);
+            }
+        }
+    }
+
+    @DynamicPropertySource
+    static void archive(DynamicPropertyRegistry registry) {
+        registry.add("urbaneyes.issues.archive.directory", () -> archiveDirectory.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private IssueArchive issueArchive;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IssueSearchIndex issueSearchIndex;
+
+    @Autowired
+    private IssueStatistics issueStatistics;
+
+    @Autowired
+    private IssueRollups issueRollups;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private IssueTombstoneRepository tombstoneRepository;
+
+    private final List<Issue> issues = new ArrayList<>();
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Archive"));
+        issues.add(new Issue(null, "Old closed issue", "Closed long ago", IssueStatus.CLOSED, category));
+        issues.add(new Issue(null, "Old resolved issue", "Resolved long ago", IssueStatus.RESOLVED, category));
+        issues.add(new Issue(null, "Old but still open", "Nobody fixed it", IssueStatus.OPEN, category));
+        issues.add(new Issue(null, "Recently closed issue", "Closed yesterday", IssueStatus.CLOSED, category));
+        issues.get(0).setLatitude(-23.5505);
+        issues.get(0).setLongitude(-46.6333);
+        issueRepository.saveAll(issues);
+        LocalDateTime old = LocalDateTime.now().minusDays(90);
+        for (Issue issue : issues.subList(0, 3)) {
+            jdbcTemplate.update("UPDATE issue SET created_at = ?, updated_at = ? WHERE id = ?",
+                    old.minusDays(10), old, issue.getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        onArchived = event -> { };
+        issueRepository.deleteAll(issueRepository.findByCategoryId(category.getId()));
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void shouldMoveOldClosedIssuesOutOfTheTable() throws Exception {
+        assertEquals(2, issueArchive.archive());
+
+        assertFalse(issueRepository.existsById(issues.get(0).getId()));
+        assertFalse(issueRepository.existsById(issues.get(1).getId()));
+        assertTrue(issueRepository.existsById(issues.get(2).getId()));
+        assertTrue(issueRepository.existsById(issues.get(3).getId()));
+
+        mockMvc.perform(get("/api/issues/{id}", issues.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Old closed issue"))
+                .andExpect(jsonPath("$.status").value("CLOSED"))
+                .andExpect(jsonPath("$.latitude").value(-23.5505))
+                .andExpect(jsonPath("$.category.name").value("Archive"));
+
+        mockMvc.perform(get("/api/issues/category/{id}", category.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/issues/category/{id}", category.getId()).param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[2].id").value(Math.min(issues.get(0).getId(), issues.get(1).getId())))
+                .andExpect(jsonPath("$[3].categoryName").value("Archive"));
+
+        // Nada mais passou da idade: a próxima execução não grava segmento
+        int segments = issueArchive.segmentCount();
+        assertEquals(0, issueArchive.archive());
+        assertEquals(segments, issueArchive.segmentCount());
+    }
+
+    @Test
+    void shouldPreferTheTableOverAnArchivedCopy() throws Exception {
+        Long id = issues.get(1).getId();
+        assertTrue(issueArchive.archive() >= 2);
+
+        // Reaberta: volta à tabela (como numa queda entre o segmento e o DELETE) e a tabela vale mais que o arquivo
+        jdbcTemplate.update("INSERT INTO issue (id, title, description, status, report_count, version, created_at, "
+                + "updated_at, category_id) VALUES (?, 'Reopened issue', 'Back again', 'OPEN', 1, 7, ?, ?, ?)",
+                id, LocalDateTime.now(), LocalDateTime.now(), category.getId());
+
+        mockMvc.perform(get("/api/issues/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Reopened issue"));
+        mockMvc.perform(get("/api/issues/category/{id}", category.getId()).param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + id + ")].title").value("Reopened issue"));
+    }
+
+    @Test
+    void shouldNotServeTheArchivedCopyOfAnIssueThatChangedDuringArchiving() throws Exception {
+        Long first = issues.get(0).getId();
+        Long changed = issues.get(1).getId();
+        onArchived = event -> {
+            if (event.issueId().equals(first)) {
+                jdbcTemplate.update("UPDATE issue SET title = 'Edited meanwhile', version = version + 1 WHERE id = ?",
+                        changed);
+            }
+        };
+
+        assertEquals(1, issueArchive.archive());
+        assertTrue(issueRepository.existsById(changed));
+        issueService.deleteIssue(changed);
+
+        mockMvc.perform(get("/api/issues/{id}", changed))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/issues/{id}", first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Old closed issue"));
+    }
+
+    @Test
+    void shouldListAnIssueArchivedTwiceOnlyInItsLatestCategory() throws Exception {
+        Long id = issues.get(0).getId();
+        assertTrue(issueArchive.archive() >= 2);
+        Category moved = categoryRepository.save(new Category(null, "Archive moved"));
+        try {
+            // Reaberta, trocada de categoria, encerrada e arquivada de novo num segmento mais novo
+            LocalDateTime old = LocalDateTime.now().minusDays(60);
+            jdbcTemplate.update("INSERT INTO issue (id, title, description, status, report_count, version, "
+                    + "created_at, updated_at, category_id) VALUES (?, 'Moved issue', 'Other category', 'CLOSED', 1, "
+                    + "3, ?, ?, ?)", id, old, old, moved.getId());
+            assertEquals(1, issueArchive.archive());
+
+            mockMvc.perform(get("/api/issues/category/{id}", category.getId()).param("includeArchived", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[?(@.id == " + id + ")]").isEmpty());
+            mockMvc.perform(get("/api/issues/category/{id}", moved.getId()).param("includeArchived", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].title").value("Moved issue"));
+        } finally {
+            categoryRepository.delete(moved);
+        }
+    }
+
+    @Test
+    void shouldKeepArchivedIssuesInTheTrends() {
+        // As issues do setUp foram gravadas direto no repositório, sem eventos
+        issueRollups.reconcile();
+        LocalDateTime from = LocalDateTime.now().minusDays(120);
+        assertEquals(4, dailyTotal(from));
+
+        assertEquals(2, issueArchive.archive());
+        assertEquals(4, dailyTotal(from));
+
+        // A reconciliação lê as arquivadas dos segmentos
+        issueRollups.reconcile();
+        assertEquals(4, dailyTotal(from));
+    }
+
+    @Test
+    void shouldDropArchivedIssuesFromInMemoryViews() {
+        // As issues do setUp foram gravadas direto no repositório, sem eventos: alinha os índices com a tabela antes
+        issueSearchIndex.rebuild();
+        issueStatistics.reconcile();
+        Long closed = issues.get(0).getId();
+        assertTrue(issueSearchIndex.search("closed long ago", Set.of(), category.getId(), 10).stream()
+                .anyMatch(hit -> hit.id().equals(closed)));
+        assertEquals(2, issueStatistics.count(category.getId(), IssueStatus.CLOSED));
+
+        assertEquals(2, issueArchive.archive());
+
+        assertTrue(issueSearchIndex.search("closed long ago", Set.of(), category.getId(), 10).stream()
+                .noneMatch(hit -> hit.id().equals(closed)));
+        assertEquals(1, issueStatistics.count(category.getId(), IssueStatus.CLOSED));
+        assertEquals(0, issueStatistics.count(category.getId(), IssueStatus.RESOLVED));
+        // Arquivar não é remover: o sync incremental não deve mandar o cliente apagar a issue
+        assertFalse(tombstoneRepository.existsById(closed));
+    }
+
+    private long dailyTotal(LocalDateTime from) {
+        return issueRollups.query(from, LocalDateTime.now().plusDays(1), category.getId(), null, Resolution.DAY)
+                .series().get(0).total();
+    }
+}
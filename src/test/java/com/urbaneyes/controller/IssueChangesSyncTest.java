@@ -0,0 +1,125 @@
+package com.urbaneyes.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.repository.IssueTombstoneRepository;
+import com.urbaneyes.service.IssueService;
+import com.urbaneyes.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ciclo completo da sincronização incremental: carga inicial paginada e, depois, só o que mudou ou foi removido.
+ */
+@SpringBootTest(properties = {SqlStatementCounter.PROPERTY, "urbaneyes.issues.changes.settle-window=PT0S"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class IssueChangesSyncTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private IssueTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Issue> issues = new ArrayList<>();
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Sync"));
+        for (int i = 0; i < 5; i++) {
+            issues.add(new Issue(null, "Synced issue " + i, "Description " + i, IssueStatus.OPEN, category));
+        }
+        issueRepository.saveAll(issues);
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issueRepository.findByCategoryId(category.getId()));
+        tombstoneRepository.deleteAll();
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void shouldSyncOnlyChangesAndDeletionsAfterToken() throws Exception {
+        Set<Long> seen = new HashSet<>();
+        String since = null;
+        boolean hasMore = true;
+        while (hasMore) {
+            JsonNode page = changes(since, 2);
+            page.get("issues").forEach(issue -> seen.add(issue.get("id").asLong()));
+            assertEquals(0, page.get("deleted").size());
+            since = page.get("cursor").asText();
+            hasMore = page.get("hasMore").asBoolean();
+        }
+        issues.forEach(issue -> assertTrue(seen.contains(issue.getId())));
+
+        JsonNode unchanged = changes(since, 10);
+        assertEquals(0, unchanged.get("issues").size());
+
+        Issue edited = new Issue(null, "Synced issue edited", "Edited", IssueStatus.IN_PROGRESS, category);
+        issueService.updateIssue(issues.get(1).getId(), edited);
+        issueService.deleteIssue(issues.get(3).getId());
+
+        SqlStatementCounter.reset();
+        JsonNode delta = changes(since, 10);
+        SqlStatementCounter.assertAtMost(2);
+
+        assertEquals(1, delta.get("issues").size());
+        assertEquals(issues.get(1).getId(), delta.get("issues").get(0).get("id").asLong());
+        assertEquals("IN_PROGRESS", delta.get("issues").get(0).get("status").asText());
+        assertEquals(1, delta.get("deleted").size());
+        assertEquals(issues.get(3).getId(), delta.get("deleted").get(0).get("id").asLong());
+        assertFalse(delta.get("hasMore").asBoolean());
+
+        assertEquals(0, changes(delta.get("cursor").asText(), 10).get("issues").size());
+    }
+
+    @Test
+    void shouldRejectMalformedToken() throws Exception {
+        mockMvc.perform(get("/api/issues/changes").param("since", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode changes(String since, int size) throws Exception {
+        var request = get("/api/issues/changes").param("size", String.valueOf(size));
+        if (since != null) {
+            request.param("since", since);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -2,9 +2,17 @@ package com.urbaneyes.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule; 
+import com.urbaneyes.dto.IssueBatchResponse;
+import com.urbaneyes.dto.IssueBatchResult;
+import com.urbaneyes.dto.IssuePage;
+import com.urbaneyes.dto.IssueSummary;
 import com.urbaneyes.model.Issue;
 import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueArchive;
+import com.urbaneyes.service.IssueBatchService;
+import com.urbaneyes.service.IssueExportService;
 import com.urbaneyes.service.IssueService;
+import com.urbaneyes.service.StaleIssueException;
 import org.junit.jupiter.api.BeforeEach; 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -13,12 +21,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -31,6 +49,15 @@ class IssueControllerTest {
     @MockBean
     private IssueService issueService;
 
+    @MockBean
+    private IssueExportService issueExportService;
+
+    @MockBean
+    private IssueBatchService issueBatchService;
+
+    @MockBean
+    private IssueArchive issueArchive;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
@@ -43,13 +70,46 @@ class IssueControllerTest {
         Issue issue1 = new Issue(1L, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN);
         Issue issue2 = new Issue(2L, "Pothole", "A large pothole on Main Street.", IssueStatus.OPEN);
 
-        Mockito.when(issueService.getAllIssues()).thenReturn(List.of(issue1, issue2));
+        Mockito.when(issueService.getIssuesPage(null, 20)).thenReturn(new IssuePage(List.of(issue1, issue2), null));
 
         mockMvc.perform(get("/api/issues"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()").value(2))
                 .andExpect(jsonPath("$[0].title").value("Broken Streetlight"))
-                .andExpect(jsonPath("$[1].title").value("Pothole"));
+                .andExpect(jsonPath("$[1].title").value("Pothole"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldExposeNextCursorWhenMoreIssuesExist() throws Exception {
+        Issue issue = new Issue(3L, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN);
+
+        Mockito.when(issueService.getIssuesPage(eq("abc"), eq(1))).thenReturn(new IssuePage(List.of(issue), "def"));
+
+        mockMvc.perform(get("/api/issues?cursor=abc&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(header().string("X-Next-Cursor", "def"))
+                .andExpect(header().string("Link", "<http://localhost/api/issues?size=1&cursor=def>; rel=\"next\""));
+    }
+
+    @Test
+    void shouldCapPageSizeAtConfiguredMaximum() throws Exception {
+        Mockito.when(issueService.getIssuesPage(null, 100)).thenReturn(new IssuePage(List.of(), null));
+
+        mockMvc.perform(get("/api/issues").param("size", "5000"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(issueService).getIssuesPage(null, 100);
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() throws Exception {
+        Mockito.when(issueService.getIssuesPage(eq("???"), any(Integer.class)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/issues").param("cursor", "???"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -73,6 +133,138 @@ class IssueControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldFallBackToArchiveForIssueMissingFromTable() throws Exception {
+        Issue archived = new Issue(7L, "Old pothole", "Fixed long ago.", IssueStatus.CLOSED);
+        archived.setVersion(4L);
+        Mockito.when(issueService.getIssueById(eq(7L))).thenReturn(Optional.empty());
+        Mockito.when(issueArchive.findIssue(eq(7L))).thenReturn(Optional.of(archived));
+        Mockito.when(issueArchive.findVersion(eq(7L))).thenReturn(Optional.of(4L));
+
+        mockMvc.perform(get("/api/issues/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.status").value("CLOSED"));
+        mockMvc.perform(get("/api/issues/7").header("If-None-Match", "\"4\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldReturnStrongETagDerivedFromVersion() throws Exception {
+        Issue issue = new Issue(1L, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN);
+        issue.setVersion(3L);
+
+        Mockito.when(issueService.getIssueById(eq(1L))).thenReturn(Optional.of(issue));
+
+        mockMvc.perform(get("/api/issues/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void shouldReturnNotModifiedWithoutLoadingIssueWhenETagMatches() throws Exception {
+        Mockito.when(issueService.getIssueVersion(eq(1L))).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/issues/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        Mockito.verify(issueService, Mockito.never()).getIssueById(any());
+    }
+
+    @Test
+    void shouldReturnIssueWhenETagIsOutdated() throws Exception {
+        Issue issue = new Issue(1L, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN);
+        issue.setVersion(4L);
+
+        Mockito.when(issueService.getIssueVersion(eq(1L))).thenReturn(Optional.of(4L));
+        Mockito.when(issueService.getIssueById(eq(1L))).thenReturn(Optional.of(issue));
+
+        mockMvc.perform(get("/api/issues/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.title").value("Broken Streetlight"));
+    }
+
+    @Test
+    void shouldReturnNotModifiedForUnchangedPage() throws Exception {
+        Issue issue = new Issue(1L, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN);
+        issue.setVersion(0L);
+        Mockito.when(issueService.getIssuesPage(null, 20)).thenReturn(new IssuePage(List.of(issue), null));
+
+        String etag = mockMvc.perform(get("/api/issues"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertTrue(etag.startsWith("W/\""));
+
+        mockMvc.perform(get("/api/issues").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        issue.setVersion(1L);
+        mockMvc.perform(get("/api/issues").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void shouldPassIfMatchVersionToUpdate() throws Exception {
+        Issue updatedIssue = new Issue(1L, "Fixed Pothole", "The pothole has been fixed.", IssueStatus.CLOSED);
+        updatedIssue.setVersion(4L);
+
+        Mockito.when(issueService.updateIssue(eq(1L), any(Issue.class), eq(3L))).thenReturn(updatedIssue);
+
+        mockMvc.perform(put("/api/issues/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedIssue)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void shouldRejectStaleUpdateWithPreconditionFailed() throws Exception {
+        Issue updatedIssue = new Issue(1L, "Fixed Pothole", "The pothole has been fixed.", IssueStatus.CLOSED);
+
+        Mockito.when(issueService.updateIssue(eq(1L), any(Issue.class), eq(3L)))
+                .thenThrow(new StaleIssueException(1L, 3L, 4L));
+
+        mockMvc.perform(put("/api/issues/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedIssue)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void shouldRejectWeakIfMatch() throws Exception {
+        Issue updatedIssue = new Issue(1L, "Fixed Pothole", "The pothole has been fixed.", IssueStatus.CLOSED);
+
+        mockMvc.perform(put("/api/issues/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedIssue)))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(issueService, Mockito.never()).updateIssue(any(), any(), any());
+    }
+
+    @Test
+    void shouldGetIssueSummariesByCategory() throws Exception {
+        IssueSummary summary = new IssueSummary(1L, "Broken Streetlight", IssueStatus.OPEN, 3L, "Infrastructure",
+                null, null);
+
+        Mockito.when(issueService.getIssueSummariesByCategory(3L)).thenReturn(List.of(summary));
+
+        mockMvc.perform(get("/api/issues/category/3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Broken Streetlight"))
+                .andExpect(jsonPath("$[0].categoryName").value("Infrastructure"));
+    }
+
     @Test
     void shouldCreateIssue() throws Exception {
         Issue issue = new Issue(null, "Pothole", "A large pothole on Main Street.", IssueStatus.OPEN);
@@ -89,11 +281,61 @@ class IssueControllerTest {
                 .andExpect(jsonPath("$.status").value("OPEN"));
     }
 
+    @Test
+    void shouldPointToExistingIssueWhenReportIsDuplicate() throws Exception {
+        Issue issue = new Issue(null, "Pothole", "A large pothole on Main Street.", IssueStatus.OPEN);
+        Issue existingIssue = new Issue(7L, "Pothole", "A large pothole on Main Street.", IssueStatus.OPEN);
+        existingIssue.setReportCount(3);
+
+        Mockito.when(issueService.createIssue(any(Issue.class))).thenReturn(existingIssue);
+
+        mockMvc.perform(post("/api/issues")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(issue)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Duplicate-Of", "7"))
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.reportCount").value(3));
+    }
+
+    @Test
+    void shouldCreateIssuesInBatch() throws Exception {
+        List<Issue> issues = List.of(
+                new Issue(null, "Pothole", "A large pothole on Main Street.", IssueStatus.OPEN),
+                new Issue(null, "Bad", null, IssueStatus.OPEN));
+        IssueBatchResponse response = IssueBatchResponse.of(List.of(
+                IssueBatchResult.created(0, 10L),
+                IssueBatchResult.invalid(1, List.of("The title must be between 5 and 255 characters"))));
+
+        Mockito.when(issueBatchService.createIssues(any())).thenReturn(response);
+
+        mockMvc.perform(post("/api/issues/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(issues)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].id").value(10))
+                .andExpect(jsonPath("$.results[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.results[1].errors[0]").value("The title must be between 5 and 255 characters"));
+    }
+
+    @Test
+    void shouldRejectOversizedBatch() throws Exception {
+        Mockito.when(issueBatchService.createIssues(any()))
+                .thenThrow(new IllegalArgumentException("A batch cannot contain more than 1000 issues"));
+
+        mockMvc.perform(post("/api/issues/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldUpdateIssue() throws Exception {
         Issue updatedIssue = new Issue(1L, "Fixed Pothole", "The pothole has been fixed.", IssueStatus.CLOSED);
 
-        Mockito.when(issueService.updateIssue(eq(1L), any(Issue.class))).thenReturn(updatedIssue);
+        Mockito.when(issueService.updateIssue(eq(1L), any(Issue.class), isNull())).thenReturn(updatedIssue);
 
         mockMvc.perform(put("/api/issues/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -111,4 +353,45 @@ class IssueControllerTest {
 
         Mockito.verify(issueService).deleteIssue(1L);
     }
+
+    @Test
+    void shouldExportIssuesAsNdjson() throws Exception {
+        Mockito.when(issueExportService.exportIssues(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/issues/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void shouldGzipExportWhenClientAcceptsIt() throws Exception {
+        Mockito.when(issueExportService.exportIssues(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/issues/export").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("{\"id\":1}\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.NearbyIssue;
+import com.urbaneyes.geo.GeoBox;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueGeoService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(IssueGeoController.class)
+class IssueGeoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IssueGeoService issueGeoService;
+
+    @Test
+    void shouldReturnNearbyIssues() throws Exception {
+        NearbyIssue nearby = new NearbyIssue(1L, -23.5505, -46.6339, IssueStatus.OPEN, 1L, 22.2);
+        Mockito.when(issueGeoService.findNearby(-23.5503, -46.6339, 200, EnumSet.of(IssueStatus.OPEN), 1L, 100))
+                .thenReturn(List.of(nearby));
+
+        mockMvc.perform(get("/api/issues/nearby")
+                        .param("lat", "-23.5503")
+                        .param("lon", "-46.6339")
+                        .param("status", "OPEN")
+                        .param("categoryId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].distanceMeters").value(22.2));
+    }
+
+    @Test
+    void shouldReturnIssuesWithinBox() throws Exception {
+        GeoBox box = new GeoBox(-23.56, -46.64, -23.54, -46.62);
+        Mockito.when(issueGeoService.findWithin(eq(box), eq(EnumSet.noneOf(IssueStatus.class)), isNull(), eq(10)))
+                .thenReturn(List.of(new IssueLocation(1L, -23.55, -46.63, IssueStatus.OPEN, 1L)));
+
+        mockMvc.perform(get("/api/issues/within")
+                        .param("minLat", "-23.56")
+                        .param("minLon", "-46.64")
+                        .param("maxLat", "-23.54")
+                        .param("maxLon", "-46.62")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].latitude").value(-23.55));
+    }
+
+    @Test
+    void shouldRejectInvalidCoordinates() throws Exception {
+        mockMvc.perform(get("/api/issues/within")
+                        .param("minLat", "-91")
+                        .param("minLon", "-46.64")
+                        .param("maxLat", "-23.54")
+                        .param("maxLon", "-46.62"))
+                .andExpect(status().isBadRequest());
+    }
+}
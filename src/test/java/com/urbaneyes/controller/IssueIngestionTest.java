@@ -0,0 +1,111 @@
+package com.urbaneyes.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "urbaneyes.issues.ingestion.enabled=true")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class IssueIngestionTest {
+
+    @TempDir
+    static Path journalDirectory;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("urbaneyes.issues.ingestion.journal", () -> journalDirectory.resolve("ingestion.journal").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Storm"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issueRepository.findByCategoryId(category.getId()));
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void shouldAcceptIssueAsynchronouslyAndTrackIt() throws Exception {
+        String location = mockMvc.perform(post("/api/issues")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(issueJson("Fallen tree blocking the avenue")))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.state").value("QUEUED"))
+                .andReturn().getResponse().getHeader("Location");
+
+        JsonNode status = objectMapper.readTree("{}");
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!"CREATED".equals(status.path("state").asText()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = objectMapper.readTree(mockMvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+        }
+
+        assertEquals("CREATED", status.path("state").asText());
+        assertEquals("Fallen tree blocking the avenue",
+                issueRepository.findById(status.get("issueId").asLong()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void shouldRejectInvalidIssueSynchronously() throws Exception {
+        mockMvc.perform(post("/api/issues")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Tree\",\"status\":\"OPEN\",\"category\":{\"id\":" + category.getId() + "}}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldKeepSynchronousCreationWithoutPreference() throws Exception {
+        mockMvc.perform(post("/api/issues")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(issueJson("Flooded underpass downtown")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").isNumber());
+    }
+
+    private String issueJson(String title) {
+        return "{\"title\":\"" + title + "\",\"description\":\"Reported after the storm\",\"status\":\"OPEN\","
+                + "\"category\":{\"id\":" + category.getId() + "}}";
+    }
+}
@@ -0,0 +1,95 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Multi-get contra o banco: um SELECT por bloco de ids, com a categoria junto.
+ */
+@SpringBootTest(properties = {SqlStatementCounter.PROPERTY, "urbaneyes.issues.lookup.chunk-size=4",
+        "urbaneyes.issues.lookup.max-ids=10"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class IssueLookupTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+    private final List<Issue> issues = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Lookup"));
+        for (int i = 0; i < 6; i++) {
+            issues.add(new Issue(null, "Lookup issue " + i, "Description " + i, IssueStatus.OPEN, category));
+        }
+        issueRepository.saveAll(issues);
+        SqlStatementCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issues);
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void shouldResolveIdsWithOneStatementPerChunk() throws Exception {
+        Issue last = issues.get(5);
+        Issue first = issues.get(0);
+        long missing = last.getId() + 1000;
+        String ids = IntStream.of(5, 4, 3, 2, 1, 0).mapToObj(i -> issues.get(i).getId().toString())
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(post("/api/issues/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + ids + "," + missing + "],"
+                                + "\"versions\":{\"" + first.getId() + "\":" + first.getVersion() + "}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.issues.size()").value(5))
+                .andExpect(jsonPath("$.issues[0].id").value(last.getId()))
+                .andExpect(jsonPath("$.issues[0].category.name").value("Lookup"))
+                .andExpect(jsonPath("$.issues[4].id").value(issues.get(1).getId()))
+                .andExpect(jsonPath("$.notModified[0]").value(first.getId()))
+                .andExpect(jsonPath("$.missing[0]").value(missing));
+
+        // 7 ids em blocos de 4; o id inexistente ainda é procurado no arquivo frio, que está vazio
+        SqlStatementCounter.assertAtMost(2);
+    }
+
+    @Test
+    void shouldRejectTooManyIds() throws Exception {
+        mockMvc.perform(post("/api/issues/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2,3,4,5,6,7,8,9,10,11]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,135 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Orçamento de SQL por endpoint de leitura: falha o build se alguma listagem voltar a disparar N+1.
+ */
+@SpringBootTest(properties = SqlStatementCounter.PROPERTY)
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class IssueQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final List<Category> categories = new ArrayList<>();
+    private final List<Issue> issues = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String name : List.of("Infrastructure", "Environment", "Transport", "Safety")) {
+            categories.add(categoryRepository.save(new Category(null, name)));
+        }
+        for (int i = 0; i < 12; i++) {
+            Issue issue = new Issue(null, "Reported issue " + i, "Description " + i,
+                    i % 2 == 0 ? IssueStatus.OPEN : IssueStatus.CLOSED, categories.get(i % categories.size()));
+            issue.setLatitude(-23.5503 + i * 0.0001);
+            issue.setLongitude(-46.6339);
+            issues.add(issue);
+        }
+        issueRepository.saveAll(issues);
+        SqlStatementCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issues);
+        categoryRepository.deleteAll(categories);
+    }
+
+    @Test
+    void listingIssuesUsesOneStatementPerPage() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/issues").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(5))
+                .andReturn();
+        SqlStatementCounter.assertAtMost(1);
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/issues").param("size", "5")
+                        .param("cursor", first.getResponse().getHeader("X-Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(5));
+        SqlStatementCounter.assertAtMost(1);
+    }
+
+    @Test
+    void readingIssueByIdUsesOneStatement() throws Exception {
+        mockMvc.perform(get("/api/issues/{id}", issues.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category.name").value("Infrastructure"));
+        SqlStatementCounter.assertAtMost(1);
+    }
+
+    @Test
+    void conditionalReadOfUnchangedIssueUsesOneStatement() throws Exception {
+        String etag = mockMvc.perform(get("/api/issues/{id}", issues.get(0).getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/issues/{id}", issues.get(0).getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        SqlStatementCounter.assertAtMost(1);
+    }
+
+    @Test
+    void listingIssuesByCategoryUsesOneStatement() throws Exception {
+        mockMvc.perform(get("/api/issues/category/{categoryId}", categories.get(1).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(3))
+                .andExpect(jsonPath("$[0].categoryName").value("Environment"));
+        SqlStatementCounter.assertAtMost(1);
+    }
+
+    @Test
+    void searchingClosedIssuesNearbyUsesOneStatement() throws Exception {
+        mockMvc.perform(get("/api/issues/nearby")
+                        .param("lat", "-23.5503")
+                        .param("lon", "-46.6339")
+                        .param("radius", "150")
+                        .param("status", "CLOSED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(6))
+                .andExpect(jsonPath("$[0].status").value("CLOSED"));
+        SqlStatementCounter.assertAtMost(1);
+    }
+
+    @Test
+    void exportingIssuesUsesOneStatement() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/issues/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        SqlStatementCounter.assertAtMost(1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueSearchHit;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(IssueSearchController.class)
+class IssueSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IssueSearchIndex issueSearchIndex;
+
+    @Test
+    void shouldReturnRankedHits() throws Exception {
+        IssueSearchHit hit = new IssueSearchHit(1L, "Semáforo quebrado", IssueStatus.OPEN, 1L, 2.5);
+        Mockito.when(issueSearchIndex.search("semáforo quebrado", EnumSet.of(IssueStatus.OPEN), 1L, 20))
+                .thenReturn(List.of(hit));
+
+        mockMvc.perform(get("/api/issues/search")
+                        .param("q", "semáforo quebrado")
+                        .param("status", "OPEN")
+                        .param("categoryId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].score").value(2.5));
+    }
+
+    @Test
+    void shouldCapLimit() throws Exception {
+        mockMvc.perform(get("/api/issues/search").param("q", "buraco").param("limit", "1000"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(issueSearchIndex).search(eq("buraco"), eq(EnumSet.noneOf(IssueStatus.class)), isNull(),
+                eq(100));
+    }
+
+    @Test
+    void shouldRejectBlankQuery() throws Exception {
+        mockMvc.perform(get("/api/issues/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+}
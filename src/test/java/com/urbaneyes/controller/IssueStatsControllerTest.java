@@ -0,0 +1,40 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.dto.IssueStats;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueStatistics;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(IssueStatsController.class)
+class IssueStatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IssueStatistics issueStatistics;
+
+    @Test
+    void shouldReturnStatsFromCounters() throws Exception {
+        IssueStats stats = new IssueStats(Map.of(IssueStatus.OPEN, 2L),
+                List.of(new IssueStats.CategoryStats(1L, Map.of(IssueStatus.OPEN, 2L), 2)));
+        Mockito.when(issueStatistics.snapshot()).thenReturn(stats);
+
+        mockMvc.perform(get("/api/issues/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totals.OPEN").value(2))
+                .andExpect(jsonPath("$.categories[0].categoryId").value(1))
+                .andExpect(jsonPath("$.categories[0].total").value(2));
+    }
+}
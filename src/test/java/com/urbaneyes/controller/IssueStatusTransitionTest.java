@@ -0,0 +1,173 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.service.IssueStatistics;
+import com.urbaneyes.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Transições de status direto no banco: um statement por issue, blocos pequenos para exercitar a divisão dos lotes.
+ */
+@SpringBootTest(properties = {SqlStatementCounter.PROPERTY, "urbaneyes.issues.status.chunk-size=2"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class IssueStatusTransitionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private IssueStatistics issueStatistics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Issue> issues = new ArrayList<>();
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Transitions"));
+        for (int i = 0; i < 5; i++) {
+            issues.add(new Issue(null, "Status issue " + i, "Description " + i,
+                    i < 4 ? IssueStatus.OPEN : IssueStatus.CLOSED, category));
+        }
+        issueRepository.saveAll(issues);
+        // As issues entram pelo repositório, sem eventos; os contadores partem da contagem do banco
+        issueStatistics.reconcile();
+        SqlStatementCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issueRepository.findByCategoryId(category.getId()));
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void shouldChangeStatusWithSingleStatement() throws Exception {
+        Long id = issues.get(0).getId();
+
+        mockMvc.perform(patch("/api/issues/{id}/status", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value("OPEN"))
+                .andExpect(jsonPath("$.to").value("IN_PROGRESS"));
+        SqlStatementCounter.assertAtMost(1);
+
+        Issue reloaded = issueRepository.findById(id).orElseThrow();
+        assertEquals(IssueStatus.IN_PROGRESS, reloaded.getStatus());
+        assertEquals(issues.get(0).getVersion() + 1, reloaded.getVersion());
+        assertEquals(1, issueStatistics.count(category.getId(), IssueStatus.IN_PROGRESS));
+        assertEquals(3, issueStatistics.count(category.getId(), IssueStatus.OPEN));
+    }
+
+    @Test
+    void shouldTreatCurrentStatusAsNoOp() throws Exception {
+        mockMvc.perform(patch("/api/issues/{id}/status", issues.get(0).getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"OPEN\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value("OPEN"))
+                .andExpect(jsonPath("$.to").value("OPEN"));
+
+        assertEquals(issues.get(0).getVersion(), issueRepository.findById(issues.get(0).getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void shouldRejectTransitionNotAllowedFromCurrentStatus() throws Exception {
+        mockMvc.perform(patch("/api/issues/{id}/status", issues.get(4).getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Cannot change status from CLOSED to IN_PROGRESS"));
+
+        assertEquals(IssueStatus.CLOSED, issueRepository.findById(issues.get(4).getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownIssue() throws Exception {
+        mockMvc.perform(patch("/api/issues/{id}/status", 999_999L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CLOSED\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldChangeListedIssuesInChunksAndReportSkipped() throws Exception {
+        String ids = issues.stream().map(issue -> String.valueOf(issue.getId())).reduce((a, b) -> a + "," + b)
+                .orElseThrow();
+
+        mockMvc.perform(post("/api/issues/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"RESOLVED\",\"ids\":[" + ids + ",999999]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(4))
+                .andExpect(jsonPath("$.skipped.size()").value(2))
+                .andExpect(jsonPath("$.skipped[0]").value(issues.get(4).getId()))
+                .andExpect(jsonPath("$.skipped[1]").value(999999));
+        // 6 ids em blocos de 2
+        SqlStatementCounter.assertAtMost(3);
+
+        assertEquals(4, issueStatistics.count(category.getId(), IssueStatus.RESOLVED));
+        assertEquals(1, issueStatistics.count(category.getId(), IssueStatus.CLOSED));
+    }
+
+    @Test
+    void shouldChangeIssuesMatchingFilter() throws Exception {
+        jdbcTemplate.update("UPDATE issue SET created_at = ? WHERE id IN (?, ?, ?)",
+                LocalDateTime.now().minusDays(40),
+                issues.get(0).getId(), issues.get(1).getId(), issues.get(2).getId());
+
+        mockMvc.perform(post("/api/issues/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CLOSED\",\"categoryId\":" + category.getId()
+                                + ",\"olderThan\":\"P30D\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(3));
+
+        assertEquals(4, issueStatistics.count(category.getId(), IssueStatus.CLOSED));
+        assertEquals(IssueStatus.OPEN, issueRepository.findById(issues.get(3).getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldRequireEitherIdsOrFilter() throws Exception {
+        mockMvc.perform(post("/api/issues/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CLOSED\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/issues/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CLOSED\",\"ids\":[1],\"categoryId\":1}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,96 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.service.IssueService;
+import com.urbaneyes.service.IssueStatusService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class IssueStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private IssueStatusService issueStatusService;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category watched;
+    private Category other;
+
+    @BeforeEach
+    void setUp() {
+        watched = categoryRepository.save(new Category(null, "Watched"));
+        other = categoryRepository.save(new Category(null, "Other"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issueRepository.findByCategoryId(watched.getId()));
+        issueRepository.deleteAll(issueRepository.findByCategoryId(other.getId()));
+        categoryRepository.delete(watched);
+        categoryRepository.delete(other);
+    }
+
+    @Test
+    void shouldPushCommittedChangesOfSubscribedCategory() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/issues/stream")
+                        .param("categoryId", String.valueOf(watched.getId())))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        issueService.createIssue(new Issue(null, "Ignored streetlight report", "Elsewhere", IssueStatus.OPEN, other));
+        Issue created = issueService.createIssue(
+                new Issue(null, "Streamed pothole report", "Main street", IssueStatus.OPEN, watched));
+        // Espera a entrega antes da próxima mudança: pendentes, os dois eventos da mesma issue se fundiriam
+        assertTrue(awaitContent(response, content -> content.contains("event:CREATED"))
+                .contains("\"title\":\"Streamed pothole report\""));
+        issueStatusService.transition(created.getId(), IssueStatus.IN_PROGRESS);
+
+        String body = awaitContent(response, content -> content.contains("event:STATUS_CHANGED"));
+        assertTrue(body.contains("\"status\":\"IN_PROGRESS\""));
+        assertFalse(body.contains("Ignored streetlight report"));
+        assertTrue(body.indexOf("event:CREATED") < body.indexOf("event:STATUS_CHANGED"));
+    }
+
+    // A entrega é feita pelas threads do despacho, depois do commit
+    private static String awaitContent(MockHttpServletResponse response, Predicate<String> condition)
+            throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String content = response.getContentAsString();
+        while (!condition.test(content) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertTrue(condition.test(content), content);
+        return content;
+    }
+}
@@ -0,0 +1,137 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.geo.WebMercator;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tiles servidos do índice em memória, atualizados pelas escritas do IssueService e revalidados por ETag.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class IssueTileTest {
+
+    private static final double LAT = -15.7939;
+    private static final double LON = -47.8828;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Tiles"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issueRepository.findByCategoryId(category.getId()));
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void shouldRevalidateTileUntilAnIssueInsideChanges() throws Exception {
+        int z = 10;
+        String path = "/api/issues/tiles/" + z + "/" + WebMercator.tileX(LON, z) + "/" + WebMercator.tileY(LAT, z);
+        create(LAT, LON);
+
+        String eTag = mockMvc.perform(get(path).param("categoryId", category.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("public")))
+                .andExpect(jsonPath("$.mode").value("CLUSTERS"))
+                .andExpect(jsonPath("$.cells[0].total").value(1))
+                .andExpect(jsonPath("$.cells[0].counts." + category.getId() + ".OPEN").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        // Uma issue do outro lado do mundo não invalida o tile
+        create(48.8566, 2.3522);
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        create(LAT + 0.001, LON + 0.001);
+        mockMvc.perform(get(path).param("categoryId", category.getId().toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cells[0].total").value(2));
+    }
+
+    @Test
+    void shouldKeepJsonAndCborTileRepresentationsApartInCaches() throws Exception {
+        int z = 10;
+        String path = "/api/issues/tiles/" + z + "/" + WebMercator.tileX(LON, z) + "/" + WebMercator.tileY(LAT, z);
+
+        String json = mockMvc.perform(get(path).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String cbor = mockMvc.perform(get(path).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(json, cbor);
+        mockMvc.perform(get(path).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(path).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cbor))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    void shouldReturnIndividualIssuesAtHighZoom() throws Exception {
+        int z = 17;
+        create(LAT, LON);
+
+        mockMvc.perform(get("/api/issues/tiles/{z}/{x}/{y}", z, WebMercator.tileX(LON, z), WebMercator.tileY(LAT, z))
+                        .param("categoryId", category.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("POINTS"))
+                .andExpect(jsonPath("$.points.length()").value(1))
+                .andExpect(jsonPath("$.points[0].latitude").value(LAT));
+    }
+
+    @Test
+    void shouldRejectTileOutsideTheGrid() throws Exception {
+        mockMvc.perform(get("/api/issues/tiles/1/2/0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void create(double latitude, double longitude) throws Exception {
+        mockMvc.perform(post("/api/issues")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Poste apagado " + latitude + "\",\"description\":\"Sem luz\","
+                                + "\"status\":\"OPEN\",\"latitude\":" + latitude + ",\"longitude\":" + longitude
+                                + ",\"category\":{\"id\":" + category.getId() + "}}"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,137 @@
+package com.urbaneyes.controller;
+
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.service.IssueRollups;
+import com.urbaneyes.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tendências servidas dos buckets: carga paralela a partir do banco e nenhuma query ao consultar.
+ */
+@SpringBootTest(properties = {SqlStatementCounter.PROPERTY, "urbaneyes.issues.trends.backfill-parallelism=3"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class IssueTrendsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2023, 5, 10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private IssueRollups issueRollups;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Issue> issues = new ArrayList<>();
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Trends"));
+        for (int i = 0; i < 30; i++) {
+            issues.add(new Issue(null, "Trend issue " + i, "Description " + i,
+                    i % 3 == 0 ? IssueStatus.CLOSED : IssueStatus.OPEN, category));
+        }
+        issueRepository.saveAll(issues);
+        // Dez problemas por dia, em três dias seguidos a partir de DAY
+        for (int i = 0; i < issues.size(); i++) {
+            jdbcTemplate.update("UPDATE issue SET created_at = ? WHERE id = ?",
+                    DAY.plusDays(i / 10).atTime(i % 24, 15), issues.get(i).getId());
+        }
+        issueRollups.reconcile();
+        SqlStatementCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issueRepository.findByCategoryId(category.getId()));
+        categoryRepository.delete(category);
+        issueRollups.reconcile();
+    }
+
+    @Test
+    void shouldServeDailyTrendFromBuckets() throws Exception {
+        mockMvc.perform(get("/api/issues/trends")
+                        .param("from", DAY.atStartOfDay().toString())
+                        .param("to", DAY.plusDays(7).atStartOfDay().toString())
+                        .param("categoryId", category.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolution").value("DAY"))
+                .andExpect(jsonPath("$.buckets.length()").value(7))
+                .andExpect(jsonPath("$.series[0].categoryId").value(category.getId()))
+                .andExpect(jsonPath("$.series[0].total").value(30))
+                .andExpect(jsonPath("$.series[0].counts[0]").value(10))
+                .andExpect(jsonPath("$.series[0].counts[2]").value(10))
+                .andExpect(jsonPath("$.series[0].counts[3]").value(0));
+
+        assertEquals(0, SqlStatementCounter.count());
+    }
+
+    @Test
+    void shouldFilterByStatus() throws Exception {
+        mockMvc.perform(get("/api/issues/trends")
+                        .param("from", DAY.atStartOfDay().toString())
+                        .param("to", DAY.plusDays(3).atStartOfDay().toString())
+                        .param("categoryId", category.getId().toString())
+                        .param("status", "CLOSED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.series[0].total").value(10));
+    }
+
+    @Test
+    void shouldFollowWritesThroughTheService() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        mockMvc.perform(post("/api/issues")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Semáforo quebrado na avenida\",\"description\":\"Não acende\","
+                                + "\"status\":\"OPEN\",\"category\":{\"id\":" + category.getId() + "}}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/issues/trends")
+                        .param("from", now.minusHours(1).toString())
+                        .param("to", now.plusHours(1).toString())
+                        .param("categoryId", category.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolution").value("HOUR"))
+                .andExpect(jsonPath("$.series[0].total").value(1));
+    }
+
+    @Test
+    void shouldRejectInvertedRange() throws Exception {
+        mockMvc.perform(get("/api/issues/trends")
+                        .param("from", DAY.plusDays(1).atStartOfDay().toString())
+                        .param("to", DAY.atStartOfDay().toString()))
+                .andExpect(status().isBadRequest());
+    }
+}
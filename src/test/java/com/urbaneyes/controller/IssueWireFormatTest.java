@@ -0,0 +1,185 @@
+package com.urbaneyes.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.urbaneyes.dto.IssuePage;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.service.IssueArchive;
+import com.urbaneyes.service.IssueBatchService;
+import com.urbaneyes.service.IssueExportService;
+import com.urbaneyes.service.IssueService;
+import com.urbaneyes.web.WireFormatConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * CBOR e Smile negociados pelo Accept e campos esparsos com ?fields.
+ */
+@WebMvcTest(IssueController.class)
+@Import(WireFormatConfig.class)
+class IssueWireFormatTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IssueService issueService;
+
+    @MockBean
+    private IssueExportService issueExportService;
+
+    @MockBean
+    private IssueBatchService issueBatchService;
+
+    @MockBean
+    private IssueArchive issueArchive;
+
+    private Issue issue;
+
+    @BeforeEach
+    void setUp() {
+        issue = new Issue(1L, "Semáforo quebrado", "Não funciona", IssueStatus.OPEN,
+                new Category(7L, "Iluminação pública"));
+        issue.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+        issue.setUpdatedAt(LocalDateTime.of(2024, 5, 2, 8, 30));
+        Mockito.when(issueService.getIssueById(eq(1L))).thenReturn(Optional.of(issue));
+        Mockito.when(issueService.getIssuesPage(null, 20)).thenReturn(new IssuePage(List.of(issue), null));
+    }
+
+    @Test
+    void shouldServeCborWithNumericDates() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/issues/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode tree = new CBORMapper().readTree(body);
+        assertEquals("Semáforo quebrado", tree.get("title").asText());
+        assertEquals("Iluminação pública", tree.get("category").get("name").asText());
+        assertTrue(tree.get("createdAt").isArray());
+        assertEquals(2024, tree.get("createdAt").get(0).asInt());
+    }
+
+    @Test
+    void shouldTagETagWithNegotiatedFormat() throws Exception {
+        issue.setVersion(3L);
+        Mockito.when(issueService.getIssueVersion(eq(1L))).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/issues/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        mockMvc.perform(get("/api/issues/1").accept(SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3+smile\""));
+        mockMvc.perform(get("/api/issues/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3+cbor\""));
+
+        mockMvc.perform(get("/api/issues/1").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/issues/1").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3+cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    void shouldAcceptFormatTaggedETagInIfMatch() throws Exception {
+        Mockito.when(issueService.updateIssue(eq(1L), Mockito.any(), eq(3L))).thenReturn(issue);
+
+        mockMvc.perform(put("/api/issues/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"3+cbor\"")
+                        .content("{\"title\":\"Semáforo quebrado\",\"description\":\"Não funciona\"}"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(issueService).updateIssue(eq(1L), Mockito.any(), eq(3L));
+    }
+
+    @Test
+    void shouldServeSmileSmallerThanJson() throws Exception {
+        Issue second = new Issue(2L, "Semáforo quebrado", "Não funciona", IssueStatus.OPEN, issue.getCategory());
+        Mockito.when(issueService.getIssuesPage(null, 20)).thenReturn(new IssuePage(List.of(issue, second), null));
+
+        byte[] smile = mockMvc.perform(get("/api/issues").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] json = mockMvc.perform(get("/api/issues").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode tree = new SmileMapper().readTree(smile);
+        assertEquals(2, tree.size());
+        assertEquals("Iluminação pública", tree.get(1).get("category").get("name").asText());
+        assertTrue(smile.length < json.length);
+    }
+
+    @Test
+    void shouldKeepJsonAsDefault() throws Exception {
+        mockMvc.perform(get("/api/issues/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.createdAt").value("2024-05-01T10:00:00"));
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedFields() throws Exception {
+        mockMvc.perform(get("/api/issues").param("fields", "id, status,updatedAt,category.name,unknown"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].size()").value(4))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].status").value("OPEN"))
+                .andExpect(jsonPath("$[0].updatedAt").value("2024-05-02T08:30:00"))
+                .andExpect(jsonPath("$[0].category.size()").value(1))
+                .andExpect(jsonPath("$[0].category.name").value("Iluminação pública"));
+    }
+
+    @Test
+    void shouldApplyFieldsToBinaryFormats() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/issues/1").param("fields", "id,updatedAt")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode tree = new CBORMapper().readTree(body);
+        assertEquals(2, tree.size());
+        assertEquals(1, tree.get("id").asLong());
+        assertTrue(tree.get("updatedAt").isArray());
+        assertFalse(tree.has("title"));
+    }
+
+    @Test
+    void shouldIgnoreBlankFields() throws Exception {
+        mockMvc.perform(get("/api/issues/1").param("fields", " , "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Semáforo quebrado"))
+                .andExpect(jsonPath("$.description").value("Não funciona"));
+    }
+}
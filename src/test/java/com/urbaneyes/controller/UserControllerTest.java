@@ -1,7 +1,10 @@
 package com.urbaneyes.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.dto.TokenResponse;
 import com.urbaneyes.model.User;
+import com.urbaneyes.security.AuthenticatedUser;
+import com.urbaneyes.service.InvalidCredentialsException;
 import com.urbaneyes.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -10,9 +13,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -34,28 +40,73 @@ class UserControllerTest {
     void shouldRegisterUser() throws Exception {
         User user = new User(1L, "testuser", "test@example.com", "password123");
 
-        Mockito.when(userService.registerUser(any(User.class))).thenReturn(user);
+        Mockito.when(userService.registerUser(any(User.class))).thenReturn(CompletableFuture.completedFuture(user));
 
-        mockMvc.perform(post("/api/users/register")
+        MvcResult result = mockMvc.perform(post("/api/users/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.username").value("testuser"))
-                .andExpect(jsonPath("$.email").value("test@example.com"));
+                .andExpect(jsonPath("$.email").value("test@example.com"))
+                .andExpect(jsonPath("$.password").doesNotExist());
     }
 
     @Test
     void shouldLoginUser() throws Exception {
         User user = new User(null, "testuser", "test@example.com", "password123");
 
-        Mockito.when(userService.loginUser(any(User.class))).thenReturn("Login successful");
+        Mockito.when(userService.loginUser(any(User.class)))
+                .thenReturn(CompletableFuture.completedFuture(TokenResponse.bearer("signed.token.value", 3600)));
 
-        mockMvc.perform(post("/api/users/login")
+        MvcResult result = mockMvc.perform(post("/api/users/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("signed.token.value"))
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(3600));
+    }
+
+    @Test
+    void shouldRejectInvalidCredentials() throws Exception {
+        Mockito.when(userService.loginUser(any(User.class)))
+                .thenReturn(CompletableFuture.failedFuture(new InvalidCredentialsException()));
+
+        MvcResult result = mockMvc.perform(post("/api/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"test@example.com\",\"password\":\"wrong\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenHashingPoolIsFull() throws Exception {
+        Mockito.when(userService.loginUser(any(User.class))).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(post("/api/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"test@example.com\",\"password\":\"secret\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void shouldReturnAuthenticatedUserFromToken() throws Exception {
+        mockMvc.perform(get("/api/users/me")
+                        .requestAttr(AuthenticatedUser.REQUEST_ATTRIBUTE, new AuthenticatedUser(5L, "me@example.com")))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Login successful"));
+                .andExpect(jsonPath("$.id").value(5))
+                .andExpect(jsonPath("$.email").value("me@example.com"));
+        Mockito.verifyNoInteractions(userService);
     }
 
     @Test
@@ -97,11 +148,15 @@ class UserControllerTest {
     void shouldUpdateUser() throws Exception {
         User updatedUser = new User(1L, "updateduser", "updated@example.com", "newpassword");
 
-        Mockito.when(userService.updateUser(eq(1L), any(User.class))).thenReturn(updatedUser);
+        Mockito.when(userService.updateUser(eq(1L), any(User.class)))
+                .thenReturn(CompletableFuture.completedFuture(updatedUser));
 
-        mockMvc.perform(put("/api/users/1")
+        MvcResult result = mockMvc.perform(put("/api/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updatedUser)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.username").value("updateduser"))
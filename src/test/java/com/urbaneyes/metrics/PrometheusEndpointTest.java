@@ -0,0 +1,46 @@
+package com.urbaneyes.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Banco próprio em vez de @AutoConfigureTestDatabase, que trocaria o pool do Hikari por um DataSource embarcado
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:prometheus-endpoint-test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldExposeRequestServicePoolAndHibernateMetrics() throws Exception {
+        mockMvc.perform(get("/api/categories")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/issues").param("size", "5")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "http_server_requests_seconds_bucket{application=\"urbaneyes\",error=\"none\",exception=\"none\","
+                                + "method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/categories\"")))
+                .andExpect(content().string(containsString(
+                        "urbaneyes_service_seconds_bucket{application=\"urbaneyes\","
+                                + "class=\"com.urbaneyes.service.IssueService\",exception=\"none\",method=\"getIssuesPage\"")))
+                .andExpect(content().string(containsString(
+                        "class=\"com.urbaneyes.service.CategoryService\",exception=\"none\",method=\"getCategorySnapshot\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active{")))
+                .andExpect(content().string(containsString("hibernate_statements_total{")))
+                .andExpect(content().string(containsString(
+                        "urbaneyes_admission_decisions_total{application=\"urbaneyes\",group=\"reads\","
+                                + "outcome=\"admitted\",}")))
+                .andExpect(content().string(containsString("urbaneyes_admission_concurrency_limit{")));
+    }
+}
@@ -0,0 +1,36 @@
+package com.urbaneyes.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueStatusTest {
+
+    @Test
+    void closedAndResolvedIssuesCanOnlyBeReopenedOrClosed() {
+        assertEquals(EnumSet.of(IssueStatus.OPEN), IssueStatus.CLOSED.allowedTransitions());
+        assertEquals(EnumSet.of(IssueStatus.OPEN, IssueStatus.CLOSED), IssueStatus.RESOLVED.allowedTransitions());
+        assertFalse(IssueStatus.CLOSED.canTransitionTo(IssueStatus.IN_PROGRESS));
+        assertTrue(IssueStatus.OPEN.canTransitionTo(IssueStatus.IN_PROGRESS));
+    }
+
+    @Test
+    void noStatusTransitionsToItself() {
+        for (IssueStatus status : IssueStatus.values()) {
+            assertFalse(status.canTransitionTo(status));
+            assertFalse(IssueStatus.sourcesOf(status).contains(status));
+        }
+    }
+
+    @Test
+    void sourcesAreTheInverseOfTransitions() {
+        for (IssueStatus target : IssueStatus.values()) {
+            for (IssueStatus source : IssueStatus.values()) {
+                assertEquals(source.canTransitionTo(target), IssueStatus.sourcesOf(target).contains(source));
+            }
+        }
+        assertEquals(EnumSet.of(IssueStatus.OPEN, IssueStatus.IN_PROGRESS), IssueStatus.sourcesOf(IssueStatus.RESOLVED));
+    }
+}
@@ -0,0 +1,37 @@
+package com.urbaneyes.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortugueseAnalyzerTest {
+
+    @Test
+    void shouldFoldAccentsAndCase() {
+        assertEquals(List.of("semaforo", "quebrado"), PortugueseAnalyzer.analyze("Semáforo QUEBRADO"));
+    }
+
+    @Test
+    void shouldDropStopwordsButKeepNegation() {
+        assertEquals(List.of("rua", "sem", "iluminacao"), PortugueseAnalyzer.analyze("Rua sem iluminação"));
+        assertEquals(List.of("nao", "funciona", "cruzamento"),
+                PortugueseAnalyzer.analyze("Não funciona no cruzamento"));
+    }
+
+    @Test
+    void shouldReducePluralAndFeminineForms() {
+        assertEquals(PortugueseAnalyzer.analyze("semáforo quebrado"), PortugueseAnalyzer.analyze("semáforos quebrados"));
+        assertEquals(PortugueseAnalyzer.analyze("lâmpada queimado"), PortugueseAnalyzer.analyze("lâmpadas queimadas"));
+        assertEquals(List.of("buraco", "calcado"), PortugueseAnalyzer.analyze("Buracos na calçada"));
+        assertEquals(List.of("ligacao", "luz"), PortugueseAnalyzer.analyze("ligações de luzes"));
+        assertEquals(List.of("animal"), PortugueseAnalyzer.analyze("animais"));
+    }
+
+    @Test
+    void shouldSplitOnPunctuationAndKeepNumbers() {
+        assertEquals(List.of("poste", "123", "caido"), PortugueseAnalyzer.analyze("Poste #123, caído!"));
+        assertTrue(PortugueseAnalyzer.analyze(null).isEmpty());
+    }
+}
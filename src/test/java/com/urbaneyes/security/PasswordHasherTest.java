@@ -0,0 +1,46 @@
+package com.urbaneyes.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void shouldHashWithBcryptAndMatch() {
+        passwordHasher = new PasswordHasher(4, 1, 10);
+
+        String hash = passwordHasher.hash("password123").join();
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(passwordHasher.matches("password123", hash).join());
+        assertFalse(passwordHasher.matches("wrong", hash).join());
+        assertFalse(passwordHasher.matchesNothing("password123").join());
+    }
+
+    @Test
+    void shouldRejectWorkBeyondQueueCapacity() {
+        passwordHasher = new PasswordHasher(12, 1, 1);
+        List<CompletableFuture<String>> accepted = new ArrayList<>();
+
+        assertThrows(RejectedExecutionException.class, () -> {
+            for (int i = 0; i < 3; i++) {
+                accepted.add(passwordHasher.hash("password" + i));
+            }
+        });
+        assertEquals(2, accepted.size());
+    }
+}
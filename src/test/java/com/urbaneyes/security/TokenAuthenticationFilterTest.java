@@ -0,0 +1,62 @@
+package com.urbaneyes.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenAuthenticationFilterTest {
+
+    private final TokenService tokenService = new TokenService("0123456789abcdef0123456789abcdef",
+            Duration.ofHours(1), new ObjectMapper());
+    private final TokenAuthenticationFilter filter =
+            new TokenAuthenticationFilter(tokenService, List.of("/api/users/me"));
+
+    @Test
+    void shouldExposeUserFromValidToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + tokenService.issue(7L, "maria@example.com"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(new AuthenticatedUser(7L, "maria@example.com"),
+                request.getAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE));
+    }
+
+    @Test
+    void shouldRejectInvalidToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/issues");
+        request.addHeader("Authorization", "Bearer garbage");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer", response.getHeader("WWW-Authenticate"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void shouldRequireTokenOnlyOnProtectedPaths() throws Exception {
+        MockHttpServletResponse anonymous = new MockHttpServletResponse();
+        MockFilterChain publicChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/issues"), anonymous, publicChain);
+        assertNotNull(publicChain.getRequest());
+
+        MockHttpServletResponse denied = new MockHttpServletResponse();
+        MockFilterChain protectedChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/me"), denied, protectedChain);
+        assertEquals(401, denied.getStatus());
+        assertNull(protectedChain.getRequest());
+    }
+}
@@ -0,0 +1,75 @@
+package com.urbaneyes.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final TokenService tokenService = tokenServiceAt(NOW, SECRET);
+
+    @Test
+    void shouldIssueTokenThatVerifies() {
+        String token = tokenService.issue(42L, "john@example.com");
+
+        AuthenticatedUser user = tokenService.verify(token);
+
+        assertEquals(42L, user.id());
+        assertEquals("john@example.com", user.email());
+        assertEquals(3, token.split("\\.").length);
+    }
+
+    @Test
+    void shouldRejectTamperedPayload() {
+        String token = tokenService.issue(42L, "john@example.com");
+        String forged = tokenService.issue(1L, "admin@example.com");
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + forged.split("\\.")[1] + "." + parts[2];
+
+        InvalidTokenException exception = assertThrows(InvalidTokenException.class,
+                () -> tokenService.verify(tampered));
+        assertEquals("Invalid token signature", exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherKey() {
+        String token = tokenServiceAt(NOW, "another-secret-another-secret-123").issue(42L, "john@example.com");
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(token));
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String token = tokenService.issue(42L, "john@example.com");
+        TokenService later = tokenServiceAt(NOW.plus(Duration.ofHours(2)), SECRET);
+
+        InvalidTokenException exception = assertThrows(InvalidTokenException.class, () -> later.verify(token));
+        assertEquals("Token expired", exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectMalformedTokens() {
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify("not-a-token"));
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify("a.b.c"));
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify("a.b.!!!"));
+    }
+
+    @Test
+    void shouldRequireLongEnoughSecret() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenService("short", Duration.ofHours(1), new ObjectMapper()));
+    }
+
+    private static TokenService tokenServiceAt(Instant instant, String secret) {
+        return new TokenService(secret, Duration.ofHours(1), new ObjectMapper(), Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
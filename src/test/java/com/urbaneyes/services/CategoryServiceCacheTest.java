@@ -0,0 +1,122 @@
+package com.urbaneyes.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CategoryService.class, CategoryServiceCacheTest.CachingConfig.class})
+class CategoryServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @ImportAutoConfiguration({CacheAutoConfiguration.class, JacksonAutoConfiguration.class})
+    static class CachingConfig {
+    }
+
+    @MockBean
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final Category category = new Category(1L, "Infrastructure");
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        categoryService.getAllCategories();
+        categoryService.getAllCategories();
+        categoryService.getCategorySnapshot();
+        categoryService.getCategorySnapshot();
+        categoryService.getCategoryById(1L);
+        categoryService.getCategoryById(1L);
+
+        verify(categoryRepository, times(2)).findAll();
+        verify(categoryRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void shouldNotCacheMissingCategories() {
+        when(categoryRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertTrue(categoryService.getCategoryById(2L).isEmpty());
+        assertTrue(categoryService.getCategoryById(2L).isEmpty());
+
+        verify(categoryRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void shouldInvalidateListAndRefreshEntryOnUpdate() {
+        categoryService.getAllCategories();
+        categoryService.getCategoryById(1L);
+        when(categoryRepository.save(category)).thenReturn(category);
+
+        categoryService.updateCategory(1L, new Category(null, "Environment"));
+        categoryService.getAllCategories();
+
+        assertEquals("Environment", categoryService.getCategoryById(1L).orElseThrow().getName());
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    void shouldInvalidateListOnCreateAndDelete() {
+        Category created = new Category(2L, "Environment");
+        when(categoryRepository.save(any(Category.class))).thenReturn(created);
+        when(categoryRepository.existsById(2L)).thenReturn(true);
+
+        categoryService.getCategorySnapshot();
+        categoryService.createCategory(new Category(null, "Environment"));
+        categoryService.getCategorySnapshot();
+        assertEquals(Optional.of(created), categoryService.getCategoryById(2L));
+
+        categoryService.deleteCategory(2L);
+        categoryService.getCategorySnapshot();
+        when(categoryRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertTrue(categoryService.getCategoryById(2L).isEmpty());
+        verify(categoryRepository, times(3)).findAll();
+    }
+
+    @Test
+    void shouldRecordHitAndMissCounters() {
+        Cache<Object, Object> cache =
+                ((CaffeineCache) cacheManager.getCache(CategoryService.CATEGORY_CACHE)).getNativeCache();
+        CacheStats before = cache.stats();
+
+        categoryService.getCategoryById(1L);
+        categoryService.getCategoryById(1L);
+        categoryService.getCategoryById(1L);
+
+        CacheStats stats = cache.stats().minus(before);
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+}
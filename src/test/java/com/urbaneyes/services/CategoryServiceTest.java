@@ -1,5 +1,7 @@
 package com.urbaneyes.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.dto.CategorySnapshot;
 import com.urbaneyes.model.Category;
 import com.urbaneyes.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +22,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -44,6 +50,18 @@ class CategoryServiceTest {
         verify(categoryRepository, times(1)).findAll();
     }
 
+    @Test
+    void shouldBuildImmutableSnapshotOfAllCategories() throws Exception {
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+
+        CategorySnapshot snapshot = categoryService.getCategorySnapshot();
+
+        assertEquals(List.of(category), snapshot.categories());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.categories().add(new Category()));
+        assertEquals("Infrastructure", objectMapper.readTree(snapshot.json()).get(0).get("name").asText());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
     @Test
     void shouldGetCategoryById() {
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
@@ -0,0 +1,72 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueBatchResponse;
+import com.urbaneyes.dto.IssueBatchResult;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fallback item a item contra o banco: um item que viola a FK derruba o bloco, e os demais precisam voltar a ser
+ * inseridos (não mesclados) com ids reais.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase
+class IssueBatchFallbackTest {
+
+    @Autowired
+    private IssueBatchService issueBatchService;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Batch fallback"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issueRepository.findByCategoryId(category.getId()));
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void shouldInsertGoodItemsWithRealIdsWhenOneItemBreaksTheChunk() {
+        List<Issue> issues = List.of(
+                new Issue(null, "Fallback pothole", "First", IssueStatus.OPEN, category),
+                new Issue(null, "Fallback orphan", "Unknown category", IssueStatus.OPEN,
+                        new Category(Long.MAX_VALUE, "Missing")),
+                new Issue(null, "Fallback streetlight", "Third", IssueStatus.OPEN, category));
+
+        IssueBatchResponse response = issueBatchService.createIssues(issues);
+
+        IssueBatchResult first = response.results().get(0);
+        IssueBatchResult third = response.results().get(2);
+        assertEquals(IssueBatchResult.Status.CREATED, first.status());
+        assertEquals(IssueBatchResult.Status.FAILED, response.results().get(1).status());
+        assertEquals(IssueBatchResult.Status.CREATED, third.status());
+        assertNotNull(first.id());
+        assertNotNull(third.id());
+        assertEquals("Fallback pothole", issueRepository.findById(first.id()).orElseThrow().getTitle());
+        assertEquals("Fallback streetlight", issueRepository.findById(third.id()).orElseThrow().getTitle());
+        assertEquals(2, issueRepository.findByCategoryId(category.getId()).size());
+    }
+}
@@ -0,0 +1,154 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueBatchResponse;
+import com.urbaneyes.dto.IssueBatchResult;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class IssueBatchServiceTest {
+
+    @Mock
+    private IssueRepository issueRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private IssueBatchService issueBatchService;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        issueBatchService = new IssueBatchService(issueRepository, entityManager, transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher, 10, 2, 3);
+        when(issueRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Issue> chunk = invocation.getArgument(0);
+            chunk.forEach(issue -> issue.setId(sequence.incrementAndGet()));
+            return chunk;
+        });
+    }
+
+    private Issue issue(String title, Long categoryId) {
+        return new Issue(null, title, "Reported by a field crew.", IssueStatus.OPEN, new Category(categoryId, null));
+    }
+
+    @Test
+    void shouldPersistValidIssuesInChunks() {
+        List<Issue> issues = List.of(issue("Broken Streetlight", 1L), issue("Pothole on Main Street", 1L),
+                issue("Fallen tree on 5th Ave", 2L));
+
+        IssueBatchResponse response = issueBatchService.createIssues(issues);
+
+        assertEquals(3, response.created());
+        assertEquals(0, response.rejected());
+        assertEquals(List.of(1L, 2L, 3L), response.results().stream().map(IssueBatchResult::id).toList());
+        verify(issueRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(eventPublisher, times(3)).publishEvent(any(IssueChangedEvent.class));
+    }
+
+    @Test
+    void shouldWriteChunksWithinTheWriteTimeout() {
+        issueBatchService.createIssues(List.of(issue("Broken Streetlight", 1L)));
+
+        // Abaixo da settle-window da sincronização incremental
+        verify(transactionManager).getTransaction(argThat(definition -> definition.getTimeout() == 3));
+    }
+
+    @Test
+    void shouldReportInvalidItemsWithoutPersistingThem() {
+        Issue untitled = issue("Bad", 1L);
+        Issue withoutCategory = issue("Broken Streetlight", null);
+        Issue valid = issue("Pothole on Main Street", 1L);
+        List<Issue> issues = new ArrayList<>(List.of(untitled, withoutCategory, valid));
+        issues.add(null);
+
+        IssueBatchResponse response = issueBatchService.createIssues(issues);
+
+        assertEquals(1, response.created());
+        assertEquals(3, response.rejected());
+        assertEquals(IssueBatchResult.Status.INVALID, response.results().get(0).status());
+        assertEquals(List.of("The title must be between 5 and 255 characters"), response.results().get(0).errors());
+        assertEquals(List.of("The category cannot be null"), response.results().get(1).errors());
+        assertEquals(IssueBatchResult.Status.CREATED, response.results().get(2).status());
+        assertEquals(IssueBatchResult.Status.INVALID, response.results().get(3).status());
+        verify(issueRepository, times(1)).saveAll(List.of(valid));
+    }
+
+    @Test
+    void shouldIsolateFailingItemWhenChunkIsRejectedByDatabase() {
+        Issue good = issue("Broken Streetlight", 1L);
+        Issue unknownCategory = issue("Pothole on Main Street", 99L);
+        when(issueRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Issue> chunk = invocation.getArgument(0);
+            chunk.forEach(issue -> issue.setId(sequence.incrementAndGet()));
+            if (chunk.contains(unknownCategory)) {
+                throw new DataIntegrityViolationException("fk_category");
+            }
+            return chunk;
+        });
+
+        IssueBatchResponse response = issueBatchService.createIssues(List.of(good, unknownCategory));
+
+        assertEquals(1, response.created());
+        assertEquals(IssueBatchResult.Status.CREATED, response.results().get(0).status());
+        assertEquals(IssueBatchResult.Status.FAILED, response.results().get(1).status());
+        assertNull(response.results().get(1).id());
+        verify(issueRepository, times(3)).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(IssueChangedEvent.created(IssueSnapshot.of(good)));
+    }
+
+    @Test
+    void shouldReportUnavailableWhenTheDatabaseIsDown() {
+        when(issueRepository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        IssueBatchResponse response = issueBatchService.createIssues(List.of(issue("Broken Streetlight", 1L)));
+
+        assertEquals(0, response.created());
+        assertEquals(IssueBatchResult.Status.UNAVAILABLE, response.results().get(0).status());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldRejectBatchesAboveConfiguredLimit() {
+        List<Issue> issues = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            issues.add(issue("Broken Streetlight " + i, 1L));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> issueBatchService.createIssues(issues));
+        verifyNoInteractions(issueRepository);
+    }
+}
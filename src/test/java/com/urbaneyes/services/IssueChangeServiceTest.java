@@ -0,0 +1,144 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueChanges;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.model.IssueTombstone;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.repository.IssueTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IssueChangeServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 10, 0);
+    private static final LocalDateTime UNTIL = NOW.minusSeconds(2);
+
+    private IssueRepository issueRepository;
+    private IssueTombstoneRepository tombstoneRepository;
+    private IssueChangeService service;
+
+    @BeforeEach
+    void setUp() {
+        issueRepository = mock(IssueRepository.class);
+        tombstoneRepository = mock(IssueTombstoneRepository.class);
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        service = new IssueChangeService(issueRepository, tombstoneRepository, Duration.ofSeconds(2),
+                Duration.ofDays(30), clock);
+    }
+
+    @Test
+    void firstSyncReturnsSettledIssuesWithoutTombstones() {
+        Issue issue = issue(1L, NOW.minusMinutes(5));
+        when(issueRepository.findChangedBefore(eq(UNTIL), any())).thenReturn(List.of(issue));
+
+        IssueChanges changes = service.getChanges(null, 10);
+
+        assertEquals(List.of(issue), changes.issues());
+        assertTrue(changes.deleted().isEmpty());
+        assertFalse(changes.hasMore());
+        assertEquals(new IssueChangeCursor(UNTIL, 0L), IssueChangeCursor.decode(changes.cursor()));
+        verifyNoInteractions(tombstoneRepository);
+    }
+
+    @Test
+    void mergesUpdatesAndDeletionsInOrderAndStopsAtPageSize() {
+        LocalDateTime since = NOW.minusHours(1);
+        Issue first = issue(7L, since.plusMinutes(1));
+        Issue third = issue(3L, since.plusMinutes(3));
+        IssueTombstone second = new IssueTombstone(5L, 1L, since.plusMinutes(2));
+        IssueTombstone fourth = new IssueTombstone(9L, 1L, since.plusMinutes(4));
+        when(issueRepository.findChangedAfter(eq(since), eq(4L), eq(UNTIL), any())).thenReturn(List.of(first, third));
+        when(tombstoneRepository.findDeletedAfter(eq(since), eq(4L), eq(UNTIL), any()))
+                .thenReturn(List.of(second, fourth));
+
+        IssueChanges changes = service.getChanges(new IssueChangeCursor(since, 4L).encode(), 3);
+
+        assertEquals(List.of(first, third), changes.issues());
+        assertEquals(List.of(second), changes.deleted());
+        assertTrue(changes.hasMore());
+        assertEquals(new IssueChangeCursor(third.getUpdatedAt(), 3L), IssueChangeCursor.decode(changes.cursor()));
+    }
+
+    @Test
+    void breaksTimestampTiesById() {
+        LocalDateTime since = NOW.minusHours(1);
+        LocalDateTime at = since.plusMinutes(1);
+        Issue issue = issue(8L, at);
+        IssueTombstone tombstone = new IssueTombstone(6L, 1L, at);
+        when(issueRepository.findChangedAfter(any(), any(), any(), any())).thenReturn(List.of(issue));
+        when(tombstoneRepository.findDeletedAfter(any(), any(), any(), any())).thenReturn(List.of(tombstone));
+
+        IssueChanges changes = service.getChanges(new IssueChangeCursor(since, 0L).encode(), 1);
+
+        assertEquals(List.of(tombstone), changes.deleted());
+        assertTrue(changes.issues().isEmpty());
+        assertEquals(new IssueChangeCursor(at, 6L), IssueChangeCursor.decode(changes.cursor()));
+    }
+
+    @Test
+    void returnsSameTokenWhenItIsAlreadyAtTheSettledLimit() {
+        String since = new IssueChangeCursor(UNTIL, 0L).encode();
+
+        IssueChanges changes = service.getChanges(since, 10);
+
+        assertEquals(since, changes.cursor());
+        assertTrue(changes.issues().isEmpty());
+        verifyNoInteractions(issueRepository, tombstoneRepository);
+    }
+
+    @Test
+    void rejectsTokensOlderThanTombstoneRetention() {
+        String since = new IssueChangeCursor(NOW.minusDays(31), 1L).encode();
+
+        assertThrows(SyncTokenExpiredException.class, () -> service.getChanges(since, 10));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> service.getChanges("not-a-token", 10));
+    }
+
+    @Test
+    void recordsTombstoneOnlyForDeletions() {
+        IssueSnapshot snapshot = IssueSnapshot.of(issue(4L, NOW.minusDays(1)));
+
+        service.onIssueChanged(IssueChangedEvent.updated(snapshot, snapshot));
+        verifyNoInteractions(tombstoneRepository);
+
+        service.onIssueChanged(IssueChangedEvent.deleted(snapshot));
+        ArgumentCaptor<IssueTombstone> tombstone = ArgumentCaptor.forClass(IssueTombstone.class);
+        verify(tombstoneRepository).save(tombstone.capture());
+        assertEquals(4L, tombstone.getValue().getId());
+        assertEquals(2L, tombstone.getValue().getCategoryId());
+        assertEquals(NOW, tombstone.getValue().getDeletedAt());
+    }
+
+    @Test
+    void purgesTombstonesPastRetention() {
+        service.purgeTombstones();
+
+        verify(tombstoneRepository).deleteOlderThan(NOW.minusDays(30));
+    }
+
+    private static Issue issue(Long id, LocalDateTime updatedAt) {
+        Issue issue = new Issue(id, "Issue " + id, null, IssueStatus.OPEN, new Category(2L, "Transport"));
+        issue.setUpdatedAt(updatedAt);
+        return issue;
+    }
+}
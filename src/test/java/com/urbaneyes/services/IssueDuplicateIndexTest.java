@@ -0,0 +1,102 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IssueDuplicateIndexTest {
+
+    private IssueRepository issueRepository;
+    private IssueDuplicateIndex duplicateIndex;
+
+    @BeforeEach
+    void setUp() {
+        issueRepository = mock(IssueRepository.class);
+        duplicateIndex = new IssueDuplicateIndex(issueRepository, 8, 5, 0.7, 150);
+        when(issueRepository.findSnapshotsByStatusIn(IssueSpatialIndex.INDEXED_STATUSES)).thenReturn(List.of(
+                snapshot(1L, "Buraco enorme na Rua Augusta", "Buraco enorme na pista perto do número 300",
+                        IssueStatus.OPEN, 1L, -23.5540, -46.6580),
+                snapshot(2L, "Poste de luz apagado", "Poste apagado na esquina da padaria",
+                        IssueStatus.OPEN, 2L, -23.5610, -46.6560),
+                snapshot(3L, "Semáforo quebrado no cruzamento", "Semáforo piscando amarelo o dia todo",
+                        IssueStatus.OPEN, 3L, null, null)));
+        duplicateIndex.seed();
+    }
+
+    @Test
+    void shouldFindNearIdenticalReportInSameCategory() {
+        Issue report = report("Buraco enorme na rua Augusta!", "buracos enormes na pista perto do numero 300", 1L);
+        report.setLatitude(-23.5541);
+        report.setLongitude(-46.6581);
+
+        assertEquals(Optional.of(1L), duplicateIndex.findDuplicate(report));
+    }
+
+    @Test
+    void shouldIgnoreDifferentReportsAndOtherCategories() {
+        assertTrue(duplicateIndex.findDuplicate(report("Árvore caída", "Árvore bloqueando a calçada", 1L)).isEmpty());
+        assertTrue(duplicateIndex.findDuplicate(report("Buraco enorme na Rua Augusta",
+                "Buraco enorme na pista perto do número 300", 2L)).isEmpty());
+    }
+
+    @Test
+    void shouldIgnoreSimilarReportFarAway() {
+        Issue report = report("Buraco enorme na Rua Augusta", "Buraco enorme na pista perto do número 300", 1L);
+        report.setLatitude(-23.5700);
+        report.setLongitude(-46.6580);
+
+        assertTrue(duplicateIndex.findDuplicate(report).isEmpty());
+    }
+
+    @Test
+    void shouldNotMergeReportsWithoutLocation() {
+        Issue withoutLocation = report("Buraco enorme na Rua Augusta", "Buraco enorme na pista perto do número 300",
+                1L);
+        assertTrue(duplicateIndex.findDuplicate(withoutLocation).isEmpty());
+
+        Issue located = report("Semáforo quebrado no cruzamento", "Semáforo piscando amarelo o dia todo", 3L);
+        located.setLatitude(-23.5610);
+        located.setLongitude(-46.6560);
+        assertTrue(duplicateIndex.findDuplicate(located).isEmpty());
+        assertEquals(2, duplicateIndex.size());
+    }
+
+    @Test
+    void shouldForgetIssuesThatAreClosedOrDeleted() {
+        IssueSnapshot open = snapshot(2L, "Poste de luz apagado", "Poste apagado na esquina da padaria",
+                IssueStatus.OPEN, 2L, -23.5610, -46.6560);
+        IssueSnapshot closed = snapshot(2L, "Poste de luz apagado", "Poste apagado na esquina da padaria",
+                IssueStatus.CLOSED, 2L, -23.5610, -46.6560);
+        Issue report = report("Poste de luz apagado", "Poste apagado na esquina da padaria", 2L);
+        report.setLatitude(-23.5611);
+        report.setLongitude(-46.6561);
+        assertEquals(Optional.of(2L), duplicateIndex.findDuplicate(report));
+
+        duplicateIndex.onIssueChanged(IssueChangedEvent.statusChanged(open, closed));
+        assertTrue(duplicateIndex.findDuplicate(report).isEmpty());
+
+        duplicateIndex.onIssueChanged(IssueChangedEvent.deleted(
+                snapshot(1L, "Buraco enorme na Rua Augusta", null, IssueStatus.OPEN, 1L, null, null)));
+        assertEquals(0, duplicateIndex.size());
+    }
+
+    private static Issue report(String title, String description, Long categoryId) {
+        return new Issue(null, title, description, IssueStatus.OPEN, new Category(categoryId, null));
+    }
+
+    private static IssueSnapshot snapshot(Long id, String title, String description, IssueStatus status,
+                                          Long categoryId, Double latitude, Double longitude) {
+        return new IssueSnapshot(id, title, description, status, categoryId, latitude, longitude, null, null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Relatos duplicados simultâneos contra o banco: todos precisam cair no mesmo problema, sem conflito de versão.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase
+class IssueDuplicateMergeTest {
+
+    private static final int REPORTS = 8;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Duplicate merge"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issueRepository.findByCategoryId(category.getId()));
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void shouldCountConcurrentDuplicatesWithoutVersionConflicts() throws Exception {
+        Issue original = issueService.createIssue(report());
+        long version = issueRepository.findVersionById(original.getId()).orElseThrow();
+
+        ExecutorService executor = Executors.newFixedThreadPool(REPORTS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Issue>> results = new ArrayList<>();
+            for (int i = 0; i < REPORTS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return issueService.createIssue(report());
+                }));
+            }
+            start.countDown();
+            for (Future<Issue> result : results) {
+                assertEquals(original.getId(), result.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Issue merged = issueRepository.findById(original.getId()).orElseThrow();
+        assertEquals(REPORTS + 1, merged.getReportCount());
+        assertEquals(version + REPORTS, merged.getVersion());
+        assertEquals(1, issueRepository.findByCategoryId(category.getId()).size());
+    }
+
+    private Issue report() {
+        Issue issue = new Issue(null, "Vazamento de água na calçada", "Cano estourado jorrando água na calçada",
+                IssueStatus.OPEN, category);
+        issue.setLatitude(-23.5489);
+        issue.setLongitude(-46.6388);
+        return issue;
+    }
+}
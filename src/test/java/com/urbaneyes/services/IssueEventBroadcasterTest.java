@@ -0,0 +1,229 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.IssueStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueEventBroadcasterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    // O despacho só roda quando o teste manda, para simular assinantes atrasados
+    private final Queue<Runnable> dispatches = new ArrayDeque<>();
+    private SimpleMeterRegistry meterRegistry;
+    private IssueEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new IssueEventBroadcaster(objectMapper, meterRegistry, 3, 2, Duration.ofSeconds(10),
+                dispatches::add);
+    }
+
+    @Test
+    void shouldDeliverSerializedEventsFilteredByCategory() throws Exception {
+        RecordingSink all = new RecordingSink();
+        RecordingSink category1 = new RecordingSink();
+        RecordingSink category2 = new RecordingSink();
+        broadcaster.subscribe(null, all);
+        broadcaster.subscribe(1L, category1);
+        assertThrows(StreamCapacityExceededException.class, () -> broadcaster.subscribe(2L, category2));
+
+        broadcaster.onIssueChanged(IssueChangedEvent.created(snapshot(10L, IssueStatus.OPEN, 1L)));
+        broadcaster.onIssueChanged(IssueChangedEvent.created(snapshot(11L, IssueStatus.OPEN, 2L)));
+        runDispatches();
+
+        assertEquals(List.of("CREATED", "CREATED"), all.names());
+        assertEquals(List.of("CREATED"), category1.names());
+        var data = objectMapper.readTree(category1.frames.get(0).data());
+        assertEquals(10L, data.get("id").asLong());
+        assertEquals("OPEN", data.get("issue").get("status").asText());
+    }
+
+    @Test
+    void shouldNotifyCategoryThatIssueMovedOutOf() {
+        RecordingSink category1 = new RecordingSink();
+        broadcaster.subscribe(1L, category1);
+
+        broadcaster.onIssueChanged(IssueChangedEvent.updated(snapshot(10L, IssueStatus.OPEN, 1L),
+                snapshot(10L, IssueStatus.OPEN, 2L)));
+        runDispatches();
+
+        assertEquals(List.of("UPDATED"), category1.names());
+    }
+
+    @Test
+    void shouldCoalescePendingEventsOfSameIssue() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        broadcaster.subscribe(null, sink);
+
+        broadcaster.onIssueChanged(IssueChangedEvent.created(snapshot(10L, IssueStatus.OPEN, 1L)));
+        broadcaster.onIssueChanged(IssueChangedEvent.statusChanged(snapshot(10L, IssueStatus.OPEN, 1L),
+                snapshot(10L, IssueStatus.IN_PROGRESS, 1L)));
+        broadcaster.onIssueChanged(IssueChangedEvent.created(snapshot(11L, IssueStatus.OPEN, 1L)));
+        runDispatches();
+
+        assertEquals(List.of("STATUS_CHANGED", "CREATED"), sink.names());
+        assertEquals("IN_PROGRESS", objectMapper.readTree(sink.frames.get(0).data()).get("issue").get("status").asText());
+        assertEquals(1.0, meterRegistry.counter("urbaneyes.stream.events", "outcome", "coalesced").count());
+    }
+
+    @Test
+    void shouldDropSubscriberThatFallsBehind() {
+        RecordingSink slow = new RecordingSink();
+        broadcaster.subscribe(null, slow);
+
+        for (long id = 1; id <= 4; id++) {
+            broadcaster.onIssueChanged(IssueChangedEvent.created(snapshot(id, IssueStatus.OPEN, 1L)));
+        }
+        runDispatches();
+
+        assertTrue(slow.frames.isEmpty());
+        assertTrue(slow.closed);
+        assertEquals(0, broadcaster.subscriberCount());
+        assertEquals(1.0, meterRegistry.counter("urbaneyes.stream.subscribers.dropped").count());
+    }
+
+    @Test
+    void shouldRemoveSubscriberWhenSendFails() {
+        broadcaster.subscribe(null, frame -> {
+            throw new IOException("Broken pipe");
+        });
+        RecordingSink healthy = new RecordingSink();
+        broadcaster.subscribe(null, healthy);
+
+        broadcaster.onIssueChanged(IssueChangedEvent.created(snapshot(10L, IssueStatus.OPEN, 1L)));
+        runDispatches();
+
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(List.of("CREATED"), healthy.names());
+    }
+
+    @Test
+    void shouldSendHeartbeatsOnlyToIdleSubscribers() {
+        RecordingSink sink = new RecordingSink();
+        IssueEventBroadcaster.Subscription subscription = broadcaster.subscribe(null, sink);
+
+        broadcaster.heartbeat();
+        broadcaster.heartbeat();
+        runDispatches();
+        assertEquals(1, sink.frames.size());
+        assertTrue(sink.frames.get(0).isHeartbeat());
+
+        subscription.cancel();
+        broadcaster.heartbeat();
+        runDispatches();
+        assertEquals(1, sink.frames.size());
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void shouldKeepDeliveringWhileASubscriberIsStuckInASend() throws Exception {
+        // Uma única thread de despacho: sem o watchdog, o envio preso bloquearia todos os outros assinantes
+        ExecutorService pool = Executors.newFixedThreadPool(1);
+        IssueEventBroadcaster streaming = new IssueEventBroadcaster(objectMapper, meterRegistry, 16, 10,
+                Duration.ofMillis(50), pool);
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean stuckClosed = new AtomicBoolean();
+        streaming.subscribe(null, new IssueEventBroadcaster.Sink() {
+            @Override
+            public void send(IssueEventBroadcaster.Frame frame) throws IOException {
+                stuck.countDown();
+                try {
+                    // Cliente que parou de ler: a escrita só volta quando o teste solta
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void close() {
+                stuckClosed.set(true);
+            }
+        });
+        List<IssueEventBroadcaster.Frame> healthy = new CopyOnWriteArrayList<>();
+        streaming.subscribe(null, healthy::add);
+        try {
+            streaming.onIssueChanged(IssueChangedEvent.created(snapshot(10L, IssueStatus.OPEN, 1L)));
+            assertTrue(stuck.await(5, TimeUnit.SECONDS));
+            streaming.onIssueChanged(IssueChangedEvent.created(snapshot(11L, IssueStatus.OPEN, 1L)));
+
+            Thread.sleep(100);
+            streaming.expireStalledWrites();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (healthy.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, healthy.size());
+            assertEquals(1, streaming.subscriberCount());
+            assertEquals(1.0, meterRegistry.counter("urbaneyes.stream.subscribers.dropped").count());
+
+            release.countDown();
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!stuckClosed.get() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(stuckClosed.get());
+            assertEquals(1, ((ThreadPoolExecutor) pool).getCorePoolSize());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private void runDispatches() {
+        while (!dispatches.isEmpty()) {
+            dispatches.poll().run();
+        }
+    }
+
+    private static IssueSnapshot snapshot(Long id, IssueStatus status, Long categoryId) {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 10, 0);
+        return new IssueSnapshot(id, "Issue " + id, "Description", status, categoryId, null, null, now, now);
+    }
+
+    private static class RecordingSink implements IssueEventBroadcaster.Sink {
+
+        private final List<IssueEventBroadcaster.Frame> frames = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void send(IssueEventBroadcaster.Frame frame) {
+            frames.add(frame);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        List<String> names() {
+            return frames.stream().map(IssueEventBroadcaster.Frame::name).toList();
+        }
+    }
+}
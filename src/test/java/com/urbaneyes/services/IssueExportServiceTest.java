@@ -0,0 +1,85 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IssueExportServiceTest {
+
+    @Mock
+    private IssueRepository issueRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private IssueExportService issueExportService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        issueExportService = new IssueExportService(issueRepository, entityManager, objectMapper);
+        category = new Category(1L, "Infrastructure");
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLine() throws Exception {
+        Issue first = new Issue(1L, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN, category);
+        Issue second = new Issue(2L, "Pothole", "A large pothole on Main Street.", IssueStatus.CLOSED, category);
+        when(issueRepository.streamAllForExport()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = issueExportService.exportIssues(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exported);
+        assertEquals(2, lines.length);
+        assertEquals("Broken Streetlight", objectMapper.readTree(lines[0]).get("title").asText());
+        assertEquals("CLOSED", objectMapper.readTree(lines[1]).get("status").asText());
+        assertEquals("Infrastructure", objectMapper.readTree(lines[1]).get("category").get("name").asText());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    }
+
+    @Test
+    void shouldClearPersistenceContextAfterEachFetchBlock() throws Exception {
+        int rows = IssueRepository.EXPORT_FETCH_SIZE * 2 + 1;
+        when(issueRepository.streamAllForExport()).thenReturn(IntStream.range(0, rows)
+                .mapToObj(i -> new Issue((long) i, "Issue " + i, null, IssueStatus.OPEN, category)));
+
+        long exported = issueExportService.exportIssues(new ByteArrayOutputStream());
+
+        assertEquals(rows, exported);
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void shouldWriteNothingWhenThereAreNoIssues() throws Exception {
+        when(issueRepository.streamAllForExport()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, issueExportService.exportIssues(out));
+        assertEquals(0, out.size());
+    }
+}
@@ -0,0 +1,68 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.NearbyIssue;
+import com.urbaneyes.geo.GeoBox;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IssueGeoServiceTest {
+
+    private static final Set<IssueStatus> ANY = EnumSet.noneOf(IssueStatus.class);
+
+    private IssueSpatialIndex spatialIndex;
+    private IssueRepository issueRepository;
+    private IssueGeoService issueGeoService;
+
+    @BeforeEach
+    void setUp() {
+        spatialIndex = mock(IssueSpatialIndex.class);
+        issueRepository = mock(IssueRepository.class);
+        issueGeoService = new IssueGeoService(spatialIndex, issueRepository, 5000, 0.5, 500);
+    }
+
+    @Test
+    void shouldServeOpenStatusesFromIndex() {
+        issueGeoService.findNearby(-23.55, -46.63, 200, EnumSet.of(IssueStatus.OPEN), null, 1000);
+
+        verify(spatialIndex).findNearby(-23.55, -46.63, 200, EnumSet.of(IssueStatus.OPEN), null, 500);
+        verifyNoInteractions(issueRepository);
+    }
+
+    @Test
+    void shouldQueryDatabaseForTerminalStatuses() {
+        IssueLocation near = new IssueLocation(1L, -23.5501, -46.63, IssueStatus.CLOSED, 1L);
+        IssueLocation corner = new IssueLocation(2L, -23.5518, -46.6318, IssueStatus.CLOSED, 1L);
+        when(issueRepository.findLocationsInCells(anyCollection(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), eq(EnumSet.of(IssueStatus.CLOSED)), isNull())).thenReturn(List.of(corner, near));
+
+        List<NearbyIssue> nearby = issueGeoService.findNearby(-23.55, -46.63, 200,
+                EnumSet.of(IssueStatus.CLOSED), null, 10);
+
+        assertEquals(List.of(1L), nearby.stream().map(NearbyIssue::id).toList());
+        verifyNoInteractions(spatialIndex);
+    }
+
+    @Test
+    void shouldRejectRadiusAboveLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> issueGeoService.findNearby(-23.55, -46.63, 10_000, ANY, null, 10));
+    }
+
+    @Test
+    void shouldRejectBoxWiderThanLimit() {
+        GeoBox box = new GeoBox(-24, -47, -23, -46);
+
+        assertThrows(IllegalArgumentException.class, () -> issueGeoService.findWithin(box, ANY, null, 10));
+    }
+}
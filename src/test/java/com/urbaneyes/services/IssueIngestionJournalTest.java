@@ -0,0 +1,70 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssueIngestionJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRecoverAcceptedIssuesThatWereNotDone() throws Exception {
+        Path path = directory.resolve("ingestion.journal");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        try (IssueIngestionJournal journal = new IssueIngestionJournal(path, objectMapper, true)) {
+            journal.append(first, issue("Fallen tree on avenue"));
+            journal.append(second, issue("Flooded underpass"));
+            journal.append(third, issue("Broken traffic light"));
+            journal.markDone(List.of(second));
+        }
+        // Queda no meio de uma escrita: a última linha fica cortada
+        Files.writeString(path, "A\t" + UUID.randomUUID() + "\t{\"title\":\"Cut", StandardOpenOption.APPEND);
+
+        try (IssueIngestionJournal journal = new IssueIngestionJournal(path, objectMapper, true)) {
+            assertEquals(List.of(first, third), List.copyOf(journal.recovered().keySet()));
+            assertEquals("Fallen tree on avenue", journal.recovered().get(first).getTitle());
+            assertEquals(7L, journal.recovered().get(third).getCategory().getId());
+        }
+        // Ao abrir, o arquivo é compactado só com as pendentes
+        assertEquals(2, Files.readAllLines(path, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    void shouldTruncateWhenNothingIsPending() throws Exception {
+        Path path = directory.resolve("ingestion.journal");
+        UUID trackingId = UUID.randomUUID();
+        try (IssueIngestionJournal journal = new IssueIngestionJournal(path, objectMapper, false)) {
+            journal.append(trackingId, issue("Fallen tree on avenue"));
+            assertTrue(Files.size(path) > 0);
+            journal.markDone(List.of(trackingId));
+            assertEquals(0, Files.size(path));
+        }
+
+        try (IssueIngestionJournal journal = new IssueIngestionJournal(path, objectMapper, false)) {
+            assertTrue(journal.recovered().isEmpty());
+        }
+    }
+
+    private static Issue issue(String title) {
+        return new Issue(null, title, "Reported after the storm", IssueStatus.OPEN, new Category(7L, null));
+    }
+}
@@ -0,0 +1,240 @@
+package com.urbaneyes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.urbaneyes.dto.IssueBatchResponse;
+import com.urbaneyes.dto.IssueBatchResult;
+import com.urbaneyes.dto.IssueIngestionStatus;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IssueIngestionQueueTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<IssueIngestionQueue> queues = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    private IssueBatchService issueBatchService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        issueBatchService = mock(IssueBatchService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        AtomicLong ids = new AtomicLong(100);
+        when(issueBatchService.createIssues(any())).thenAnswer(invocation -> {
+            List<Issue> issues = invocation.getArgument(0);
+            List<IssueBatchResult> results = new ArrayList<>();
+            for (int i = 0; i < issues.size(); i++) {
+                results.add(IssueBatchResult.created(i, ids.incrementAndGet()));
+            }
+            return IssueBatchResponse.of(results);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (IssueIngestionQueue queue : queues) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRejectWhenFullAndReplayJournalAfterRestart() throws Exception {
+        IssueIngestionQueue queue = queue(2);
+        UUID first = queue.submit(issue("Fallen tree on avenue"));
+        queue.submit(issue("Flooded underpass"));
+
+        assertThrows(IngestionQueueFullException.class, () -> queue.submit(issue("Broken traffic light")));
+        assertEquals(2, queue.depth());
+        assertEquals(IssueIngestionStatus.State.QUEUED, queue.getStatus(first).orElseThrow().state());
+        assertEquals(1.0, meterRegistry.counter("urbaneyes.ingestion.issues", "outcome", "rejected").count());
+        // Simula a queda: o drainer nunca rodou
+        queue.shutdown();
+        queues.remove(queue);
+
+        IssueIngestionQueue restarted = queue(2);
+        assertEquals(2, restarted.depth());
+        restarted.start();
+
+        await(() -> restarted.depth() == 0);
+        assertEquals(IssueIngestionStatus.State.CREATED, restarted.getStatus(first).orElseThrow().state());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Issue>> batch = ArgumentCaptor.forClass(List.class);
+        verify(issueBatchService).createIssues(batch.capture());
+        assertEquals(List.of("Fallen tree on avenue", "Flooded underpass"),
+                batch.getValue().stream().map(Issue::getTitle).toList());
+    }
+
+    @Test
+    void shouldRejectInvalidIssueBeforeQueueing() throws Exception {
+        when(issueBatchService.validate(any())).thenReturn(List.of("The title cannot be null"));
+        IssueIngestionQueue queue = queue(2);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> queue.submit(new Issue()));
+
+        assertEquals("The title cannot be null", error.getMessage());
+        assertEquals(0, queue.depth());
+    }
+
+    @Test
+    void shouldRetryBatchThatFailedEntirely() throws Exception {
+        AtomicReference<Boolean> databaseDown = new AtomicReference<>(true);
+        doAnswer(invocation -> {
+            List<Issue> issues = invocation.getArgument(0);
+            List<IssueBatchResult> results = new ArrayList<>();
+            for (int i = 0; i < issues.size(); i++) {
+                results.add(databaseDown.getAndSet(false)
+                        ? IssueBatchResult.failed(i, "The issue could not be persisted")
+                        : IssueBatchResult.created(i, 42L));
+            }
+            return IssueBatchResponse.of(results);
+        }).when(issueBatchService).createIssues(any());
+        IssueIngestionQueue queue = queue(2);
+        queue.start();
+
+        UUID trackingId = queue.submit(issue("Fallen tree on avenue"));
+
+        await(() -> queue.depth() == 0);
+        IssueIngestionStatus status = queue.getStatus(trackingId).orElseThrow();
+        assertEquals(IssueIngestionStatus.State.CREATED, status.state());
+        assertEquals(42L, status.issueId());
+        verify(issueBatchService, times(2)).createIssues(any());
+        assertEquals(2, meterRegistry.timer("urbaneyes.ingestion.flush").count());
+    }
+
+    @Test
+    void shouldRetryWithFreshIssuesAfterDatabaseFailure() throws Exception {
+        List<Issue> attempts = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            List<Issue> issues = invocation.getArgument(0);
+            Issue issue = issues.get(0);
+            attempts.add(issue);
+            if (attempts.size() == 1) {
+                // Como o saveAll de um lote que falhou no commit: a instância fica com id e versão
+                issue.setId(99L);
+                issue.setVersion(0L);
+                return IssueBatchResponse.of(List.of(IssueBatchResult.failed(0, "The issue could not be persisted")));
+            }
+            if (issue.getVersion() != null) {
+                // O que o merge faria: nada inserido, issue sem id
+                return IssueBatchResponse.of(List.of(IssueBatchResult.created(0, null)));
+            }
+            return IssueBatchResponse.of(List.of(IssueBatchResult.created(0, 43L)));
+        }).when(issueBatchService).createIssues(any());
+        IssueIngestionQueue queue = queue(2);
+        queue.start();
+
+        UUID trackingId = queue.submit(issue("Fallen tree on avenue"));
+
+        await(() -> queue.depth() == 0);
+        assertEquals(2, attempts.size());
+        assertNotSame(attempts.get(0), attempts.get(1));
+        assertEquals("Fallen tree on avenue", attempts.get(1).getTitle());
+        assertEquals(7L, attempts.get(1).getCategory().getId());
+        assertEquals(43L, queue.getStatus(trackingId).orElseThrow().issueId());
+    }
+
+    @Test
+    void shouldKeepRetryingWhileTheDatabaseIsDown() throws Exception {
+        AtomicBoolean databaseDown = new AtomicBoolean(true);
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            List<Issue> issues = invocation.getArgument(0);
+            if (databaseDown.get()) {
+                // Alterna as duas formas de falha: sem conexão para abrir a transação e item a item sem resposta
+                if (calls.incrementAndGet() % 2 == 1) {
+                    throw new CannotCreateTransactionException("Could not open JDBC Connection for transaction");
+                }
+                return IssueBatchResponse.of(List.of(
+                        IssueBatchResult.unavailable(0, "The database is unavailable, try again later")));
+            }
+            return IssueBatchResponse.of(List.of(IssueBatchResult.created(0, 44L)));
+        }).when(issueBatchService).createIssues(any());
+        IssueIngestionQueue queue = queue(2);
+        queue.start();
+
+        UUID trackingId = queue.submit(issue("Fallen tree on avenue"));
+
+        // Bem além das 3 tentativas de max-attempts
+        await(() -> calls.get() > 6);
+        assertEquals(IssueIngestionStatus.State.QUEUED, queue.getStatus(trackingId).orElseThrow().state());
+        assertEquals(1, queue.depth());
+        String journal = Files.readString(directory.resolve("ingestion.journal"));
+        assertTrue(journal.contains("A\t" + trackingId));
+        assertFalse(journal.contains("D\t" + trackingId));
+
+        databaseDown.set(false);
+
+        await(() -> queue.depth() == 0);
+        IssueIngestionStatus status = queue.getStatus(trackingId).orElseThrow();
+        assertEquals(IssueIngestionStatus.State.CREATED, status.state());
+        assertEquals(44L, status.issueId());
+        assertEquals(0.0, meterRegistry.counter("urbaneyes.ingestion.issues", "outcome", "failed").count());
+        assertEquals("", Files.readString(directory.resolve("ingestion.journal")));
+    }
+
+    @Test
+    void shouldGiveUpOnIssueTheDatabaseRejects() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            calls.incrementAndGet();
+            return IssueBatchResponse.of(List.of(IssueBatchResult.failed(0, "The issue could not be persisted")));
+        }).when(issueBatchService).createIssues(any());
+        IssueIngestionQueue queue = queue(2);
+        queue.start();
+
+        UUID trackingId = queue.submit(issue("Fallen tree on avenue"));
+
+        await(() -> queue.depth() == 0);
+        assertEquals(IssueIngestionStatus.State.FAILED, queue.getStatus(trackingId).orElseThrow().state());
+        assertEquals(3, calls.get());
+    }
+
+    private IssueIngestionQueue queue(int capacity) throws Exception {
+        IssueIngestionQueue queue = new IssueIngestionQueue(issueBatchService, objectMapper, meterRegistry,
+                directory.resolve("ingestion.journal"), false, capacity, 10, Duration.ofMillis(10),
+                Duration.ofMillis(40), 3, Duration.ofMinutes(5));
+        queues.add(queue);
+        return queue;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static Issue issue(String title) {
+        return new Issue(null, title, "Reported after the storm", IssueStatus.OPEN, new Category(7L, null));
+    }
+}
@@ -0,0 +1,104 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueLookupResult;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IssueLookupServiceTest {
+
+    @Mock
+    private IssueRepository issueRepository;
+
+    @Mock
+    private IssueArchive issueArchive;
+
+    private IssueLookupService issueLookupService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        issueLookupService = new IssueLookupService(issueRepository, issueArchive, 5, 2);
+        // Simula a tabela com as issues 1 a 10, devolvidas fora de ordem
+        when(issueRepository.findAllWithCategoryByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id <= 10).sorted((a, b) -> Long.compare(b, a)).map(id -> issue(id)).toList();
+        });
+        when(issueArchive.findIssue(anyLong())).thenReturn(Optional.empty());
+    }
+
+    private static Issue issue(long id) {
+        Issue issue = new Issue(id, "Issue " + id, "Description", IssueStatus.OPEN);
+        issue.setVersion(id * 10);
+        return issue;
+    }
+
+    @Test
+    void shouldKeepRequestOrderAndReportMissingIds() {
+        IssueLookupResult result = issueLookupService.lookup(List.of(7L, 42L, 3L, 7L, 1L), null);
+
+        assertEquals(List.of(7L, 3L, 1L), result.issues().stream().map(Issue::getId).toList());
+        assertEquals(List.of(42L), result.missing());
+        assertTrue(result.notModified().isEmpty());
+    }
+
+    @Test
+    void shouldQueryInChunks() {
+        issueLookupService.lookup(List.of(1L, 2L, 3L, 4L, 5L), null);
+
+        verify(issueRepository).findAllWithCategoryByIdIn(List.of(1L, 2L));
+        verify(issueRepository).findAllWithCategoryByIdIn(List.of(3L, 4L));
+        verify(issueRepository).findAllWithCategoryByIdIn(List.of(5L));
+        verifyNoMoreInteractions(issueRepository);
+    }
+
+    @Test
+    void shouldSkipItemsWhoseVersionIsUnchanged() {
+        IssueLookupResult result = issueLookupService.lookup(List.of(1L, 2L, 3L), Map.of(1L, 10L, 2L, 5L));
+
+        assertEquals(List.of(2L, 3L), result.issues().stream().map(Issue::getId).toList());
+        assertEquals(List.of(1L), result.notModified());
+    }
+
+    @Test
+    void shouldFallBackToArchive() {
+        Issue archived = issue(99);
+        when(issueArchive.findIssue(eq(99L))).thenReturn(Optional.of(archived));
+
+        IssueLookupResult result = issueLookupService.lookup(List.of(99L, 1L), Map.of());
+
+        assertEquals(List.of(99L, 1L), result.issues().stream().map(Issue::getId).toList());
+        verify(issueArchive, never()).findIssue(1L);
+    }
+
+    @Test
+    void shouldRejectInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () -> issueLookupService.lookup(List.of(), null));
+        assertThrows(IllegalArgumentException.class, () -> issueLookupService.lookup(null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> issueLookupService.lookup(List.of(1L, 2L, 3L, 4L, 5L, 6L), null));
+        verifyNoInteractions(issueRepository);
+    }
+
+    @Test
+    void shouldCountDistinctIdsAgainstLimit() {
+        IssueLookupResult result = issueLookupService.lookup(List.of(1L, 2L, 3L, 4L, 5L, 5L, 1L), null);
+
+        assertEquals(5, result.issues().size());
+    }
+}
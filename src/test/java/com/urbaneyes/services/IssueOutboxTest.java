@@ -0,0 +1,183 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueEventHandler;
+import com.urbaneyes.event.IssueOutboxMessage;
+import com.urbaneyes.model.Category;
+import com.urbaneyes.model.Issue;
+import com.urbaneyes.model.IssueOutboxEntry;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.CategoryRepository;
+import com.urbaneyes.repository.IssueOutboxRepository;
+import com.urbaneyes.repository.IssueRepository;
+import com.urbaneyes.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox de ponta a ponta: gravação na transação da escrita e entrega pelo relay, que aqui é acionado pelo teste.
+ */
+@SpringBootTest(properties = {SqlStatementCounter.PROPERTY,
+        "urbaneyes.issues.outbox.poll-interval=PT1H",
+        "urbaneyes.issues.outbox.initial-backoff=PT0S",
+        "urbaneyes.issues.outbox.max-attempts=3"})
+@AutoConfigureTestDatabase
+@Import(IssueOutboxTest.HandlerConfig.class)
+class IssueOutboxTest {
+
+    @TestConfiguration
+    static class HandlerConfig {
+
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+    }
+
+    static class RecordingHandler implements IssueEventHandler {
+
+        private final List<IssueOutboxMessage> messages = new CopyOnWriteArrayList<>();
+        private final Set<Long> failingIssues = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void handle(IssueOutboxMessage message) {
+            if (failingIssues.contains(message.change().issueId())) {
+                throw new IllegalStateException("Downstream unavailable");
+            }
+            messages.add(message);
+        }
+
+        List<Long> issueIds() {
+            return messages.stream().map(message -> message.change().issueId()).toList();
+        }
+    }
+
+    @Autowired
+    private RecordingHandler handler;
+
+    @Autowired
+    private IssueOutboxRelay relay;
+
+    @Autowired
+    private IssueOutboxRepository outboxRepository;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private IssueBatchService issueBatchService;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Outbox"));
+        outboxRepository.deleteAll();
+        handler.messages.clear();
+        handler.failingIssues.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        issueRepository.deleteAll(issueRepository.findByCategoryId(category.getId()));
+        outboxRepository.deleteAll();
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void shouldWriteOneOutboxInsertPerTransactionAndDispatchInOrder() {
+        SqlStatementCounter.reset();
+        Issue created = issueService.createIssue(issue("Fallen tree on avenue"));
+        assertEquals(1, SqlStatementCounter.count("insert into issue_outbox"));
+
+        SqlStatementCounter.reset();
+        issueBatchService.createIssues(List.of(issue("Flooded underpass"), issue("Broken traffic light"),
+                issue("Blocked storm drain")));
+        assertEquals(1, SqlStatementCounter.count("insert into issue_outbox"));
+        assertEquals(4, outboxRepository.count());
+
+        assertEquals(4, relay.relay());
+
+        assertEquals(created.getId(), handler.issueIds().get(0));
+        assertEquals(IssueChangedEvent.Type.CREATED, handler.messages.get(0).change().type());
+        assertEquals("Fallen tree on avenue", handler.messages.get(0).change().after().title());
+        List<Long> outboxIds = handler.messages.stream().map(IssueOutboxMessage::id).toList();
+        assertEquals(outboxIds.stream().sorted().toList(), outboxIds);
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void shouldNotWriteEventsOfRolledBackTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            issueService.createIssue(issue("Fallen tree on avenue"));
+            throw new IllegalStateException("Rollback");
+        }));
+
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void shouldRetryFailedEventBeforeDeliveringLaterOnes() {
+        Issue first = issueService.createIssue(issue("Fallen tree on avenue"));
+        Issue second = issueService.createIssue(issue("Flooded underpass"));
+        handler.failingIssues.add(first.getId());
+
+        assertEquals(0, relay.relay());
+        assertTrue(handler.messages.isEmpty());
+        assertEquals(1, outboxRepository.findAll().stream().mapToInt(IssueOutboxEntry::getAttempts).max().orElse(0));
+
+        handler.failingIssues.clear();
+        assertEquals(2, relay.relay());
+        assertEquals(List.of(first.getId(), second.getId()), handler.issueIds());
+        assertEquals(2, handler.messages.get(0).attempt());
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttemptsAndMoveOn() {
+        Issue poison = issueService.createIssue(issue("Fallen tree on avenue"));
+        Issue next = issueService.createIssue(issue("Flooded underpass"));
+        handler.failingIssues.add(poison.getId());
+
+        relay.relay();
+        relay.relay();
+        assertEquals(1, relay.relay());
+
+        assertEquals(List.of(next.getId()), handler.issueIds());
+        List<IssueOutboxEntry> remaining = outboxRepository.findAll();
+        assertEquals(1, remaining.size());
+        assertEquals(poison.getId(), remaining.get(0).getIssueId());
+        assertNotNull(remaining.get(0).getFailedAt());
+        assertEquals(3, remaining.get(0).getAttempts());
+    }
+
+    private Issue issue(String title) {
+        return new Issue(null, title, "Reported by a resident", IssueStatus.OPEN, category);
+    }
+}
@@ -0,0 +1,289 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.archive.IssueSegment;
+import com.urbaneyes.dto.IssueTrend;
+import com.urbaneyes.dto.IssueTrend.Resolution;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.IssueStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IssueRollupsTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 20, 12, 30);
+
+    private JdbcTemplate jdbcTemplate;
+    private IssueArchive issueArchive;
+    private IssueCommitTracker commitTracker;
+    private IssueRollups issueRollups;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.atZone(ZONE).toInstant(), ZONE);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        // Uma thread: as 4 faixas de id são lidas em ordem
+        issueArchive = mock(IssueArchive.class);
+        commitTracker = mock(IssueCommitTracker.class);
+        issueRollups = new IssueRollups(jdbcTemplate, mock(PlatformTransactionManager.class), issueArchive,
+                commitTracker, Duration.ofDays(14), Duration.ofDays(2), Duration.ofDays(30), 100, 1, clock);
+    }
+
+    @Test
+    void shouldPickHourlyBucketsForShortRanges() {
+        created(1L, 1L, IssueStatus.OPEN, NOW.minusHours(3));
+        created(2L, 1L, IssueStatus.OPEN, NOW.minusHours(3).plusMinutes(10));
+        created(3L, 2L, IssueStatus.OPEN, NOW.minusHours(1));
+
+        IssueTrend trend = issueRollups.query(NOW.minusHours(6), NOW, null, null, null);
+
+        assertEquals(Resolution.HOUR, trend.resolution());
+        assertEquals(7, trend.buckets().size());
+        assertEquals(NOW.minusHours(6).withMinute(0), trend.buckets().get(0));
+        assertEquals(2, trend.series().size());
+        assertEquals(1L, trend.series().get(0).categoryId());
+        assertEquals(2, trend.series().get(0).counts()[3]);
+        assertEquals(1, trend.series().get(1).counts()[5]);
+    }
+
+    @Test
+    void shouldPickDailyBucketsForLongRanges() {
+        created(1L, 1L, IssueStatus.OPEN, NOW.minusDays(40));
+        created(2L, 1L, IssueStatus.CLOSED, NOW.minusDays(40).plusHours(1));
+        created(3L, 1L, IssueStatus.OPEN, NOW.minusDays(2));
+
+        IssueTrend trend = issueRollups.query(NOW.minusDays(60), NOW, 1L, null, null);
+
+        assertEquals(Resolution.DAY, trend.resolution());
+        assertEquals(61, trend.buckets().size());
+        assertEquals(3, trend.series().get(0).total());
+        assertEquals(2, trend.series().get(0).counts()[20]);
+    }
+
+    @Test
+    void shouldMoveIssueBetweenStatusesInItsCreationBucket() {
+        IssueSnapshot open = snapshot(1L, 1L, IssueStatus.OPEN, NOW.minusDays(5));
+        issueRollups.onIssueChanged(IssueChangedEvent.created(open));
+        issueRollups.onIssueChanged(IssueChangedEvent.statusChanged(open,
+                open.withStatus(IssueStatus.RESOLVED, NOW)));
+
+        IssueTrend stillOpen = issueRollups.query(NOW.minusDays(7), NOW, 1L, List.of(IssueStatus.OPEN), null);
+        IssueTrend resolved = issueRollups.query(NOW.minusDays(7), NOW, 1L, List.of(IssueStatus.RESOLVED), null);
+
+        assertEquals(0, stillOpen.series().get(0).total());
+        assertEquals(1, resolved.series().get(0).total());
+    }
+
+    @Test
+    void shouldForgetDeletedIssues() {
+        IssueSnapshot issue = snapshot(1L, 1L, IssueStatus.OPEN, NOW.minusDays(1));
+        issueRollups.onIssueChanged(IssueChangedEvent.created(issue));
+        issueRollups.onIssueChanged(IssueChangedEvent.deleted(issue));
+
+        assertTrue(issueRollups.query(null, null, null, null, null).series().isEmpty());
+    }
+
+    @Test
+    void shouldKeepArchivedIssuesInTheirCreationBucket() {
+        IssueSnapshot issue = snapshot(1L, 1L, IssueStatus.CLOSED, NOW.minusDays(20));
+        issueRollups.onIssueChanged(IssueChangedEvent.created(issue));
+        issueRollups.onIssueChanged(IssueChangedEvent.archived(issue));
+        assertEquals(1, issueRollups.query(NOW.minusDays(30), NOW, 1L, null, null).series().get(0).total());
+
+        // Fora da tabela, a carga a encontra nos segmentos
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            invocation.<IssueSegment.KeyConsumer>getArgument(1)
+                    .accept(issue.createdAt(), issue.categoryId(), issue.status());
+            return null;
+        }).when(issueArchive).forEachArchivedKey(any(), any());
+        issueRollups.reconcile();
+
+        IssueTrend trend = issueRollups.query(NOW.minusDays(30), NOW, 1L, null, Resolution.DAY);
+        assertEquals(1, trend.series().get(0).total());
+        assertEquals(1, trend.series().get(0).counts()[10]);
+    }
+
+    @Test
+    void shouldRejectHourlyBucketsOutsideRetention() {
+        assertThrows(IllegalArgumentException.class,
+                () -> issueRollups.query(NOW.minusDays(20), NOW.minusDays(19), null, null, Resolution.HOUR));
+        assertEquals(Resolution.DAY,
+                issueRollups.query(NOW.minusDays(20), NOW.minusDays(19), null, null, null).resolution());
+    }
+
+    @Test
+    void shouldRejectTooManyBucketsAndInvertedRanges() {
+        assertThrows(IllegalArgumentException.class,
+                () -> issueRollups.query(NOW.minusDays(13), NOW, null, null, Resolution.HOUR));
+        assertThrows(IllegalArgumentException.class,
+                () -> issueRollups.query(NOW, NOW.minusDays(1), null, null, null));
+    }
+
+    @Test
+    void shouldKeepCommitsThatLandWhileReconciling() throws Exception {
+        Map<Long, IssueSnapshot> table = table();
+        boolean[] commitDuringBackfill = {false};
+        backfillFrom(table, (low, high) -> {
+            if (commitDuringBackfill[0] && low == 1) {
+                // Depois da leitura da faixa 1..2: a 2 muda (a faixa já lida não vê), a 7 muda (a faixa 7..8 ainda
+                // vai ver) e a 9 nasce depois do MIN/MAX
+                commit(table, IssueChangedEvent.statusChanged(table.get(2L),
+                        table.get(2L).withStatus(IssueStatus.RESOLVED, NOW)));
+                commit(table, IssueChangedEvent.statusChanged(table.get(7L),
+                        table.get(7L).withStatus(IssueStatus.RESOLVED, NOW)));
+                commit(table, IssueChangedEvent.created(snapshot(9L, 1L, IssueStatus.OPEN, NOW.minusDays(3))));
+            }
+        });
+        issueRollups.seed();
+
+        commitDuringBackfill[0] = true;
+        issueRollups.reconcile();
+
+        IssueTrend open = issueRollups.query(NOW.minusDays(7), NOW, 1L, List.of(IssueStatus.OPEN), null);
+        IssueTrend resolved = issueRollups.query(NOW.minusDays(7), NOW, 1L, List.of(IssueStatus.RESOLVED), null);
+        assertEquals(7, open.series().get(0).total());
+        assertEquals(2, resolved.series().get(0).total());
+    }
+
+    @Test
+    void shouldNotReplayCommitsTheSliceAlreadySaw() throws Exception {
+        Map<Long, IssueSnapshot> table = table();
+        boolean[] commitDuringBackfill = {false};
+        IssueChangedEvent[] late = new IssueChangedEvent[2];
+        backfillFrom(table, (low, high) -> {
+            if (commitDuringBackfill[0] && low == 3) {
+                // A 3 e a 5 foram commitadas antes das suas faixas serem lidas, mas os listeners só rodam agora
+                issueRollups.onIssueChanged(late[0]);
+                issueRollups.onIssueChanged(late[1]);
+            }
+        });
+        issueRollups.seed();
+
+        late[0] = IssueChangedEvent.statusChanged(table.get(3L), table.get(3L).withStatus(IssueStatus.RESOLVED, NOW));
+        late[1] = IssueChangedEvent.statusChanged(table.get(5L), table.get(5L).withStatus(IssueStatus.RESOLVED, NOW));
+        table.put(3L, late[0].after());
+        table.put(5L, late[1].after());
+        commitDuringBackfill[0] = true;
+        issueRollups.reconcile();
+
+        IssueTrend open = issueRollups.query(NOW.minusDays(7), NOW, 1L, List.of(IssueStatus.OPEN), null);
+        IssueTrend resolved = issueRollups.query(NOW.minusDays(7), NOW, 1L, List.of(IssueStatus.RESOLVED), null);
+        assertEquals(6, open.series().get(0).total());
+        assertEquals(2, resolved.series().get(0).total());
+    }
+
+    @Test
+    void shouldIgnoreTheLateListenerOfACommitTheSliceSaw() throws Exception {
+        Map<Long, IssueSnapshot> table = table();
+        backfillFrom(table, (low, high) -> {
+        });
+        issueRollups.seed();
+
+        // Commitada no banco antes da carga; o listener só roda depois da troca
+        IssueChangedEvent resolved = IssueChangedEvent.statusChanged(table.get(4L),
+                table.get(4L).withStatus(IssueStatus.RESOLVED, NOW));
+        table.put(4L, resolved.after());
+        when(commitTracker.inFlight()).thenReturn(List.of(resolved));
+        issueRollups.reconcile();
+        issueRollups.onIssueChanged(resolved);
+
+        assertEquals(7, issueRollups.query(NOW.minusDays(7), NOW, 1L, List.of(IssueStatus.OPEN), null)
+                .series().get(0).total());
+        assertEquals(1, issueRollups.query(NOW.minusDays(7), NOW, 1L, List.of(IssueStatus.RESOLVED), null)
+                .series().get(0).total());
+    }
+
+    // O "banco": issues 1..8, todas abertas na categoria 1
+    private static Map<Long, IssueSnapshot> table() {
+        Map<Long, IssueSnapshot> table = new ConcurrentSkipListMap<>();
+        for (long id = 1; id <= 8; id++) {
+            table.put(id, snapshot(id, 1L, IssueStatus.OPEN, NOW.minusDays(3)));
+        }
+        return table;
+    }
+
+    // Cada faixa lê uma cópia da tabela tirada no início da sua agregação, e o updated_at vem da mesma cópia;
+    // afterRead roda entre as duas leituras, com a faixa já agregada
+    private void backfillFrom(Map<Long, IssueSnapshot> table, SliceHook afterRead) {
+        doReturn(new long[]{1, 8}).when(jdbcTemplate).queryForObject(anyString(), any(RowMapper.class));
+        Map<Long, IssueSnapshot> snapshot = new HashMap<>();
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            if (sql.startsWith("SELECT id, updated_at")) {
+                for (int i = 2; i < invocation.getArguments().length; i++) {
+                    IssueSnapshot issue = snapshot.get((Long) invocation.getArgument(i));
+                    if (issue != null) {
+                        ResultSet row = mock(ResultSet.class);
+                        doReturn(issue.id()).when(row).getLong("id");
+                        doReturn(issue.updatedAt()).when(row).getObject("updated_at", LocalDateTime.class);
+                        handler.processRow(row);
+                    }
+                }
+                return null;
+            }
+            long low = invocation.getArgument(2);
+            long high = invocation.getArgument(3);
+            snapshot.clear();
+            snapshot.putAll(table);
+            for (IssueSnapshot issue : snapshot.values()) {
+                if (issue.id() >= low && issue.id() <= high) {
+                    handler.processRow(row(issue));
+                }
+            }
+            afterRead.run(low, high);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private interface SliceHook {
+
+        void run(long low, long high) throws Exception;
+    }
+
+    private void commit(Map<Long, IssueSnapshot> table, IssueChangedEvent event) {
+        table.put(event.issueId(), event.after());
+        issueRollups.onIssueChanged(event);
+    }
+
+    private static ResultSet row(IssueSnapshot issue) throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        doReturn(Resolution.HOUR.bucketOf(issue.createdAt())).when(row).getObject("bucket", LocalDateTime.class);
+        doReturn(issue.categoryId()).when(row).getLong("category_id");
+        doReturn(issue.status().name()).when(row).getString("status");
+        doReturn(1L).when(row).getLong("total");
+        return row;
+    }
+
+    private void created(Long id, Long categoryId, IssueStatus status, LocalDateTime createdAt) {
+        issueRollups.onIssueChanged(IssueChangedEvent.created(snapshot(id, categoryId, status, createdAt)));
+    }
+
+    private static IssueSnapshot snapshot(Long id, Long categoryId, IssueStatus status, LocalDateTime createdAt) {
+        return new IssueSnapshot(id, "Issue " + id, null, status, categoryId, null, null, createdAt, createdAt);
+    }
+}
@@ -0,0 +1,91 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueSearchHit;
+import com.urbaneyes.dto.IssueText;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IssueSearchIndexTest {
+
+    private static final Set<IssueStatus> ANY = EnumSet.noneOf(IssueStatus.class);
+
+    @Mock
+    private IssueRepository issueRepository;
+
+    @InjectMocks
+    private IssueSearchIndex issueSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(issueRepository.findAllTexts()).thenReturn(List.of(
+                new IssueText(1L, "Semáforo quebrado", "Semáforo não funciona no cruzamento", IssueStatus.OPEN, 1L),
+                new IssueText(2L, "Buraco na rua", "Buraco grande perto do semáforo", IssueStatus.OPEN, 2L),
+                new IssueText(3L, "Lâmpadas queimadas", "Rua sem iluminação", IssueStatus.CLOSED, 1L)));
+        issueSearchIndex.rebuild();
+    }
+
+    @Test
+    void shouldRankTitleMatchesFirst() {
+        List<IssueSearchHit> hits = issueSearchIndex.search("semaforos", ANY, null, 10);
+
+        assertEquals(List.of(1L, 2L), ids(hits));
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void shouldMatchAccentAndInflectionVariants() {
+        assertEquals(List.of(3L), ids(issueSearchIndex.search("lampada queimada", ANY, null, 10)));
+        assertEquals(List.of(3L), ids(issueSearchIndex.search("ILUMINACAO", ANY, null, 10)));
+    }
+
+    @Test
+    void shouldFilterByStatusAndCategory() {
+        assertEquals(List.of(2L), ids(issueSearchIndex.search("rua", EnumSet.of(IssueStatus.OPEN), null, 10)));
+        assertEquals(List.of(1L), ids(issueSearchIndex.search("semaforo", ANY, 1L, 10)));
+    }
+
+    @Test
+    void shouldFollowCommittedChanges() {
+        IssueSnapshot before = new IssueSnapshot(2L, "Buraco na rua", "Buraco grande perto do semáforo",
+                IssueStatus.OPEN, 2L, null, null, null, null);
+        IssueSnapshot after = new IssueSnapshot(2L, "Calçada afundada", "Calçada cedeu", IssueStatus.OPEN, 2L,
+                null, null, null, null);
+
+        issueSearchIndex.onIssueChanged(IssueChangedEvent.updated(before, after));
+        assertTrue(issueSearchIndex.search("buraco", ANY, null, 10).isEmpty());
+        assertEquals(List.of(2L), ids(issueSearchIndex.search("calcada", ANY, null, 10)));
+
+        issueSearchIndex.onIssueChanged(IssueChangedEvent.deleted(after));
+        assertTrue(issueSearchIndex.search("calcada", ANY, null, 10).isEmpty());
+        assertEquals(2, issueSearchIndex.size());
+    }
+
+    @Test
+    void shouldKeepOnlyTopResults() {
+        IntStream.rangeClosed(10, 40).forEach(id -> issueSearchIndex.put(
+                new IssueText((long) id, "Poste caído " + id, null, IssueStatus.OPEN, 1L)));
+
+        assertEquals(5, issueSearchIndex.search("poste", ANY, null, 5).size());
+        assertTrue(issueSearchIndex.search("de para", ANY, null, 5).isEmpty());
+    }
+
+    private static List<Long> ids(List<IssueSearchHit> hits) {
+        return hits.stream().map(IssueSearchHit::id).toList();
+    }
+}
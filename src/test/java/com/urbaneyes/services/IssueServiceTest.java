@@ -1,15 +1,22 @@
 package com.urbaneyes.service;
 
+import com.urbaneyes.dto.IssuePage;
+import com.urbaneyes.dto.IssueSummary;
+import com.urbaneyes.event.IssueChangedEvent;
 import com.urbaneyes.model.Category;
 import com.urbaneyes.model.Issue;
 import com.urbaneyes.model.IssueStatus;
 import com.urbaneyes.repository.IssueRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +28,12 @@ class IssueServiceTest {
     @Mock
     private IssueRepository issueRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IssueDuplicateIndex issueDuplicateIndex;
+
     @InjectMocks
     private IssueService issueService;
 
@@ -54,6 +67,48 @@ class IssueServiceTest {
         verify(issueRepository, times(1)).findAll();
     }
 
+    @Test
+    void shouldGetFirstPageWithoutNextCursor() {
+        when(issueRepository.findFirstPage(PageRequest.of(0, 3))).thenReturn(List.of(issue));
+
+        IssuePage page = issueService.getIssuesPage(null, 2);
+
+        assertEquals(1, page.items().size());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void shouldReturnCursorOfLastItemWhenMoreIssuesExist() {
+        Issue newer = new Issue(2L, "Pothole on Main Street", null, IssueStatus.OPEN);
+        newer.setCreatedAt(LocalDateTime.of(2024, 5, 2, 10, 0));
+        issue.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+        Issue older = new Issue(0L, "Fallen tree", null, IssueStatus.OPEN);
+        when(issueRepository.findFirstPage(PageRequest.of(0, 3))).thenReturn(List.of(newer, issue, older));
+
+        IssuePage page = issueService.getIssuesPage(null, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(new IssueCursor(issue.getCreatedAt(), 1L), IssueCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void shouldSeekAfterCursorPosition() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        String cursor = new IssueCursor(createdAt, 7L).encode();
+        when(issueRepository.findPageAfter(createdAt, 7L, PageRequest.of(0, 11))).thenReturn(List.of(issue));
+
+        IssuePage page = issueService.getIssuesPage(cursor, 10);
+
+        assertEquals(1, page.items().size());
+        verify(issueRepository, times(1)).findPageAfter(createdAt, 7L, PageRequest.of(0, 11));
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> issueService.getIssuesPage("not-a-cursor", 10));
+        verifyNoInteractions(issueRepository);
+    }
+
     @Test
     void shouldGetIssueById() {
         when(issueRepository.findById(1L)).thenReturn(Optional.of(issue));
@@ -84,6 +139,54 @@ class IssueServiceTest {
         assertNotNull(savedIssue);
         assertEquals("Broken Streetlight", savedIssue.getTitle());
         verify(issueRepository, times(1)).save(issue);
+        verify(eventPublisher, times(1)).publishEvent(any(IssueChangedEvent.class));
+    }
+
+    @Test
+    void shouldMergeDuplicateIntoExistingIssue() {
+        Issue report = new Issue(null, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN, category);
+        Issue merged = new Issue(null, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN, category);
+        merged.setId(1L);
+        merged.setReportCount(2);
+        when(issueDuplicateIndex.findDuplicate(report)).thenReturn(Optional.of(1L));
+        when(issueRepository.findById(1L)).thenReturn(Optional.of(issue), Optional.of(merged));
+        when(issueRepository.incrementReportCount(eq(1L), eq(IssueSpatialIndex.INDEXED_STATUSES), any()))
+                .thenReturn(1);
+
+        Issue result = issueService.createIssue(report);
+
+        assertSame(merged, result);
+        assertEquals(2, result.getReportCount());
+        verify(issueRepository, never()).save(any());
+        verify(eventPublisher, times(1)).publishEvent(any(IssueChangedEvent.class));
+    }
+
+    @Test
+    void shouldCreateIssueWhenDuplicateClosesBeforeTheIncrement() {
+        Issue report = new Issue(null, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN, category);
+        when(issueDuplicateIndex.findDuplicate(report)).thenReturn(Optional.of(1L));
+        when(issueRepository.findById(1L)).thenReturn(Optional.of(issue));
+        when(issueRepository.incrementReportCount(eq(1L), any(), any())).thenReturn(0);
+        when(issueRepository.save(report)).thenReturn(report);
+
+        Issue result = issueService.createIssue(report);
+
+        assertSame(report, result);
+        verify(issueRepository).save(report);
+    }
+
+    @Test
+    void shouldCreateIssueWhenDuplicateIsAlreadyClosed() {
+        Issue report = new Issue(null, "Broken Streetlight", "A streetlight is broken.", IssueStatus.OPEN, category);
+        issue.setStatus(IssueStatus.CLOSED);
+        when(issueDuplicateIndex.findDuplicate(report)).thenReturn(Optional.of(1L));
+        when(issueRepository.findById(1L)).thenReturn(Optional.of(issue));
+        when(issueRepository.save(report)).thenReturn(report);
+
+        Issue result = issueService.createIssue(report);
+
+        assertSame(report, result);
+        assertEquals(1, issue.getReportCount());
     }
 
     @Test
@@ -106,6 +209,18 @@ class IssueServiceTest {
         verify(issueRepository, times(1)).save(issue);
     }
 
+    @Test
+    void shouldRejectStatusChangeNotAllowedByStateMachine() {
+        issue.setStatus(IssueStatus.CLOSED);
+        Issue updatedIssue = new Issue(null, "Fixed Streetlight", "Back in progress", IssueStatus.IN_PROGRESS, category);
+        when(issueRepository.findById(1L)).thenReturn(Optional.of(issue));
+
+        assertThrows(InvalidStatusTransitionException.class, () -> issueService.updateIssue(1L, updatedIssue));
+
+        verify(issueRepository, never()).save(any(Issue.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void shouldThrowExceptionWhenUpdatingNonExistentIssue() {
         when(issueRepository.findById(2L)).thenReturn(Optional.empty());
@@ -121,25 +236,53 @@ class IssueServiceTest {
         verify(issueRepository, times(1)).findById(2L);
     }
 
+    @Test
+    void shouldRejectUpdateWhenExpectedVersionIsStale() {
+        issue.setVersion(4L);
+        when(issueRepository.findById(1L)).thenReturn(Optional.of(issue));
+
+        Issue updatedIssue = new Issue(null, "Fixed Streetlight", "Fixed", IssueStatus.CLOSED);
+
+        assertThrows(StaleIssueException.class, () -> issueService.updateIssue(1L, updatedIssue, 3L));
+        assertEquals(IssueStatus.OPEN, issue.getStatus());
+        verify(issueRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldUpdateWhenExpectedVersionMatches() {
+        issue.setVersion(4L);
+        when(issueRepository.findById(1L)).thenReturn(Optional.of(issue));
+        when(issueRepository.save(issue)).thenReturn(issue);
+
+        Issue updatedIssue = new Issue(null, "Fixed Streetlight", "Fixed", IssueStatus.CLOSED);
+
+        assertEquals(IssueStatus.CLOSED, issueService.updateIssue(1L, updatedIssue, 4L).getStatus());
+        verify(issueRepository, times(1)).save(issue);
+    }
+
     @Test
     void shouldDeleteIssue() {
-        when(issueRepository.existsById(1L)).thenReturn(true);
+        when(issueRepository.findById(1L)).thenReturn(Optional.of(issue));
 
         assertDoesNotThrow(() -> issueService.deleteIssue(1L));
-        verify(issueRepository, times(1)).existsById(1L);
-        verify(issueRepository, times(1)).deleteById(1L);
+        verify(issueRepository, times(1)).findById(1L);
+        verify(issueRepository, times(1)).delete(issue);
+        verify(eventPublisher, times(1)).publishEvent(any(IssueChangedEvent.class));
     }
 
     @Test
     void shouldThrowExceptionWhenDeletingNonExistentIssue() {
-        when(issueRepository.existsById(2L)).thenReturn(false);
+        when(issueRepository.findById(2L)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             issueService.deleteIssue(2L);
         });
 
         assertEquals("Issue not found", exception.getMessage());
-        verify(issueRepository, times(1)).existsById(2L);
+        verify(issueRepository, times(1)).findById(2L);
+        verify(issueRepository, never()).delete(any(Issue.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -155,27 +298,14 @@ class IssueServiceTest {
     }
 
     @Test
-    void shouldUpdateIssueStatus() {
-        when(issueRepository.findById(1L)).thenReturn(Optional.of(issue));
-        when(issueRepository.save(issue)).thenReturn(issue);
+    void shouldGetIssueSummariesByCategory() {
+        IssueSummary summary = new IssueSummary(1L, "Broken Streetlight", IssueStatus.OPEN, 1L, "Infrastructure",
+                null, null);
+        when(issueRepository.findSummariesByCategoryId(1L)).thenReturn(List.of(summary));
 
-        Issue result = issueService.updateIssueStatus(1L, IssueStatus.CLOSED);
+        List<IssueSummary> summaries = issueService.getIssueSummariesByCategory(1L);
 
-        assertNotNull(result);
-        assertEquals(IssueStatus.CLOSED, result.getStatus());
-        verify(issueRepository, times(1)).findById(1L);
-        verify(issueRepository, times(1)).save(issue);
-    }
-
-    @Test
-    void shouldThrowExceptionWhenUpdatingStatusForNonExistentIssue() {
-        when(issueRepository.findById(2L)).thenReturn(Optional.empty());
-
-        Exception exception = assertThrows(RuntimeException.class, () -> {
-            issueService.updateIssueStatus(2L, IssueStatus.CLOSED);
-        });
-
-        assertEquals("Issue not found", exception.getMessage());
-        verify(issueRepository, times(1)).findById(2L);
+        assertEquals(List.of(summary), summaries);
+        verify(issueRepository, times(1)).findSummariesByCategoryId(1L);
     }
 }
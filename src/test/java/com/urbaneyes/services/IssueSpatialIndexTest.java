@@ -0,0 +1,108 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.NearbyIssue;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.geo.GeoBox;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IssueSpatialIndexTest {
+
+    private static final Set<IssueStatus> ANY = EnumSet.noneOf(IssueStatus.class);
+
+    // Praça da Sé, São Paulo
+    private static final double LATITUDE = -23.5503;
+    private static final double LONGITUDE = -46.6339;
+
+    private IssueRepository issueRepository;
+    private IssueSpatialIndex spatialIndex;
+
+    @BeforeEach
+    void setUp() {
+        issueRepository = mock(IssueRepository.class);
+        spatialIndex = new IssueSpatialIndex(issueRepository, 0.002);
+    }
+
+    @Test
+    void shouldSeedOpenIssuesFromRepository() {
+        when(issueRepository.findLocationsByStatusIn(IssueSpatialIndex.INDEXED_STATUSES))
+                .thenReturn(List.of(location(1L, LATITUDE, LONGITUDE, IssueStatus.OPEN, 1L)));
+
+        spatialIndex.seed();
+
+        assertEquals(1, spatialIndex.size());
+        assertFalse(IssueSpatialIndex.INDEXED_STATUSES.contains(IssueStatus.CLOSED));
+    }
+
+    @Test
+    void shouldReturnIssuesInsideRadiusOrderedByDistance() {
+        spatialIndex.put(location(1L, LATITUDE + 0.0010, LONGITUDE, IssueStatus.OPEN, 1L));
+        spatialIndex.put(location(2L, LATITUDE + 0.0005, LONGITUDE, IssueStatus.OPEN, 1L));
+        spatialIndex.put(location(3L, LATITUDE + 0.0050, LONGITUDE, IssueStatus.OPEN, 1L));
+
+        List<NearbyIssue> nearby = spatialIndex.findNearby(LATITUDE, LONGITUDE, 200, ANY, null, 10);
+
+        assertEquals(List.of(2L, 1L), nearby.stream().map(NearbyIssue::id).toList());
+        assertEquals(55.6, nearby.get(0).distanceMeters(), 0.5);
+    }
+
+    @Test
+    void shouldFilterByStatusAndCategory() {
+        spatialIndex.put(location(1L, LATITUDE, LONGITUDE, IssueStatus.OPEN, 1L));
+        spatialIndex.put(location(2L, LATITUDE, LONGITUDE, IssueStatus.IN_PROGRESS, 1L));
+        spatialIndex.put(location(3L, LATITUDE, LONGITUDE, IssueStatus.OPEN, 2L));
+
+        List<NearbyIssue> nearby = spatialIndex.findNearby(LATITUDE, LONGITUDE, 100,
+                EnumSet.of(IssueStatus.OPEN), 1L, 10);
+
+        assertEquals(List.of(1L), nearby.stream().map(NearbyIssue::id).toList());
+    }
+
+    @Test
+    void shouldFindIssuesWithinBoundingBox() {
+        spatialIndex.put(location(1L, LATITUDE, LONGITUDE, IssueStatus.OPEN, 1L));
+        spatialIndex.put(location(2L, LATITUDE + 0.02, LONGITUDE + 0.02, IssueStatus.OPEN, 1L));
+
+        GeoBox box = new GeoBox(LATITUDE - 0.01, LONGITUDE - 0.01, LATITUDE + 0.01, LONGITUDE + 0.01);
+
+        assertEquals(List.of(1L), spatialIndex.findWithin(box, ANY, null, 10).stream().map(IssueLocation::id).toList());
+        GeoBox world = new GeoBox(-90, -180, 90, 180);
+        assertEquals(2, spatialIndex.findWithin(world, ANY, null, 10).size());
+    }
+
+    @Test
+    void shouldFollowCommittedChanges() {
+        IssueSnapshot created = snapshot(IssueStatus.OPEN, LATITUDE, LONGITUDE);
+        spatialIndex.onIssueChanged(IssueChangedEvent.created(created));
+        assertEquals(1, spatialIndex.findNearby(LATITUDE, LONGITUDE, 50, ANY, null, 10).size());
+
+        IssueSnapshot moved = snapshot(IssueStatus.OPEN, LATITUDE + 0.01, LONGITUDE);
+        spatialIndex.onIssueChanged(IssueChangedEvent.updated(created, moved));
+        assertTrue(spatialIndex.findNearby(LATITUDE, LONGITUDE, 50, ANY, null, 10).isEmpty());
+        assertEquals(1, spatialIndex.findNearby(LATITUDE + 0.01, LONGITUDE, 50, ANY, null, 10).size());
+
+        IssueSnapshot closed = snapshot(IssueStatus.CLOSED, LATITUDE + 0.01, LONGITUDE);
+        spatialIndex.onIssueChanged(IssueChangedEvent.statusChanged(moved, closed));
+        assertEquals(0, spatialIndex.size());
+    }
+
+    private static IssueLocation location(Long id, double latitude, double longitude, IssueStatus status,
+                                          Long categoryId) {
+        return new IssueLocation(id, latitude, longitude, status, categoryId);
+    }
+
+    private static IssueSnapshot snapshot(IssueStatus status, double latitude, double longitude) {
+        return new IssueSnapshot(7L, "Broken Streetlight", null, status, 1L, latitude, longitude, null, null);
+    }
+}
@@ -0,0 +1,175 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueStats;
+import com.urbaneyes.dto.IssueStatusCount;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IssueStatisticsTest {
+
+    @Mock
+    private IssueRepository issueRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IssueCommitTracker commitTracker;
+
+    @InjectMocks
+    private IssueStatistics issueStatistics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(issueRepository.countByCategoryAndStatus()).thenReturn(List.of(
+                new IssueStatusCount(1L, IssueStatus.OPEN, 3),
+                new IssueStatusCount(1L, IssueStatus.CLOSED, 1),
+                new IssueStatusCount(2L, IssueStatus.OPEN, 2)));
+        issueStatistics.seed();
+    }
+
+    @Test
+    void shouldSeedCountersFromAggregateQuery() {
+        assertEquals(3, issueStatistics.count(1L, IssueStatus.OPEN));
+        assertEquals(1, issueStatistics.count(1L, IssueStatus.CLOSED));
+        assertEquals(2, issueStatistics.count(2L, IssueStatus.OPEN));
+        assertEquals(0, issueStatistics.count(3L, IssueStatus.OPEN));
+        verify(issueRepository, times(1)).countByCategoryAndStatus();
+    }
+
+    @Test
+    void shouldMoveCountersOnStatusChange() {
+        issueStatistics.onIssueChanged(IssueChangedEvent.statusChanged(
+                snapshot(1L, IssueStatus.OPEN), snapshot(1L, IssueStatus.CLOSED)));
+
+        assertEquals(2, issueStatistics.count(1L, IssueStatus.OPEN));
+        assertEquals(2, issueStatistics.count(1L, IssueStatus.CLOSED));
+    }
+
+    @Test
+    void shouldApplyCreateAndDelete() {
+        issueStatistics.onIssueChanged(IssueChangedEvent.created(snapshot(3L, IssueStatus.OPEN)));
+        issueStatistics.onIssueChanged(IssueChangedEvent.deleted(snapshot(2L, IssueStatus.OPEN)));
+
+        assertEquals(1, issueStatistics.count(3L, IssueStatus.OPEN));
+        assertEquals(1, issueStatistics.count(2L, IssueStatus.OPEN));
+    }
+
+    @Test
+    void shouldAggregateTotalsInSnapshot() {
+        IssueStats stats = issueStatistics.snapshot();
+
+        assertEquals(5L, stats.totals().get(IssueStatus.OPEN));
+        assertEquals(1L, stats.totals().get(IssueStatus.CLOSED));
+        assertEquals(2, stats.categories().size());
+    }
+
+    @Test
+    void shouldReplaceCountersOnReconcile() {
+        issueStatistics.onIssueChanged(IssueChangedEvent.created(snapshot(1L, IssueStatus.OPEN)));
+        assertEquals(4, issueStatistics.count(1L, IssueStatus.OPEN));
+
+        issueStatistics.reconcile();
+
+        assertEquals(3, issueStatistics.count(1L, IssueStatus.OPEN));
+    }
+
+    @Test
+    void shouldKeepCommitsThatLandWhileReconciling() {
+        // A consulta devolve o banco como estava quando começou; a issue nova é commitada enquanto ela roda
+        when(issueRepository.countByCategoryAndStatus()).thenAnswer(invocation -> {
+            issueStatistics.onIssueChanged(IssueChangedEvent.created(snapshot(2L, IssueStatus.OPEN)));
+            return List.of(
+                    new IssueStatusCount(1L, IssueStatus.OPEN, 3),
+                    new IssueStatusCount(1L, IssueStatus.CLOSED, 1),
+                    new IssueStatusCount(2L, IssueStatus.OPEN, 2));
+        });
+
+        issueStatistics.reconcile();
+
+        assertEquals(3, issueStatistics.count(2L, IssueStatus.OPEN));
+    }
+
+    @Test
+    void shouldNotReplayCommitsTheReconcileQueryAlreadySaw() {
+        LocalDateTime closedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        IssueChangedEvent closed = IssueChangedEvent.statusChanged(
+                snapshot(1L, IssueStatus.OPEN, null), snapshot(1L, IssueStatus.CLOSED, closedAt));
+        // O fechamento é commitado antes da consulta começar, mas o listener dele só roda enquanto ela está em curso
+        when(issueRepository.countByCategoryAndStatus()).thenAnswer(invocation -> {
+            issueStatistics.onIssueChanged(closed);
+            return List.of(
+                    new IssueStatusCount(1L, IssueStatus.OPEN, 2),
+                    new IssueStatusCount(1L, IssueStatus.CLOSED, 2));
+        });
+        when(issueRepository.findSnapshotsByIdIn(anyCollection()))
+                .thenReturn(List.of(snapshot(1L, IssueStatus.CLOSED, closedAt)));
+
+        issueStatistics.reconcile();
+
+        assertEquals(2, issueStatistics.count(1L, IssueStatus.OPEN));
+        assertEquals(2, issueStatistics.count(1L, IssueStatus.CLOSED));
+    }
+
+    @Test
+    void shouldReplayCommitsNewerThanTheReconcileQuery() {
+        LocalDateTime closedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(issueRepository.countByCategoryAndStatus()).thenAnswer(invocation -> {
+            issueStatistics.onIssueChanged(IssueChangedEvent.statusChanged(snapshot(1L, IssueStatus.OPEN,
+                    closedAt.minusHours(1)), snapshot(1L, IssueStatus.CLOSED, closedAt)));
+            return List.of(
+                    new IssueStatusCount(1L, IssueStatus.OPEN, 3),
+                    new IssueStatusCount(1L, IssueStatus.CLOSED, 1));
+        });
+        when(issueRepository.findSnapshotsByIdIn(anyCollection()))
+                .thenReturn(List.of(snapshot(1L, IssueStatus.OPEN, closedAt.minusHours(1))));
+
+        issueStatistics.reconcile();
+
+        assertEquals(2, issueStatistics.count(1L, IssueStatus.OPEN));
+        assertEquals(2, issueStatistics.count(1L, IssueStatus.CLOSED));
+    }
+
+    @Test
+    void shouldIgnoreTheLateListenerOfACommitTheReconcileQuerySaw() {
+        LocalDateTime closedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        IssueChangedEvent closed = IssueChangedEvent.statusChanged(
+                snapshot(1L, IssueStatus.OPEN, null), snapshot(1L, IssueStatus.CLOSED, closedAt));
+        // Commitado no banco antes da consulta; o listener só roda depois da troca
+        when(commitTracker.inFlight()).thenReturn(List.of(closed));
+        when(issueRepository.countByCategoryAndStatus()).thenReturn(List.of(
+                new IssueStatusCount(1L, IssueStatus.OPEN, 2),
+                new IssueStatusCount(1L, IssueStatus.CLOSED, 2)));
+        when(issueRepository.findSnapshotsByIdIn(anyCollection()))
+                .thenReturn(List.of(snapshot(1L, IssueStatus.CLOSED, closedAt)));
+
+        issueStatistics.reconcile();
+        issueStatistics.onIssueChanged(closed);
+
+        assertEquals(2, issueStatistics.count(1L, IssueStatus.OPEN));
+        assertEquals(2, issueStatistics.count(1L, IssueStatus.CLOSED));
+    }
+
+    private static IssueSnapshot snapshot(Long categoryId, IssueStatus status) {
+        return snapshot(categoryId, status, null);
+    }
+
+    private static IssueSnapshot snapshot(Long categoryId, IssueStatus status, LocalDateTime updatedAt) {
+        return new IssueSnapshot(10L, "Broken Streetlight", null, status, categoryId, null, null, null, updatedAt);
+    }
+}
@@ -0,0 +1,95 @@
+package com.urbaneyes.service;
+
+import com.urbaneyes.dto.IssueLocation;
+import com.urbaneyes.dto.IssueTile;
+import com.urbaneyes.event.IssueChangedEvent;
+import com.urbaneyes.event.IssueSnapshot;
+import com.urbaneyes.geo.WebMercator;
+import com.urbaneyes.model.IssueStatus;
+import com.urbaneyes.repository.IssueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IssueTileIndexTest {
+
+    private static final double LAT = -23.5505;
+    private static final double LON = -46.6333;
+    private static final Set<IssueStatus> ANY = EnumSet.noneOf(IssueStatus.class);
+
+    private IssueTileIndex index;
+
+    @BeforeEach
+    void setUp() {
+        IssueRepository issueRepository = mock(IssueRepository.class);
+        when(issueRepository.findLocationsByStatusIn(any())).thenReturn(List.of(
+                new IssueLocation(1L, LAT, LON, IssueStatus.OPEN, 1L),
+                new IssueLocation(2L, LAT + 0.0001, LON + 0.0001, IssueStatus.CLOSED, 1L),
+                new IssueLocation(3L, LAT, LON, IssueStatus.OPEN, 2L),
+                new IssueLocation(4L, 40.7128, -74.0060, IssueStatus.OPEN, 1L)));
+        index = new IssueTileIndex(issueRepository, 10, 2, 2);
+        index.seed();
+    }
+
+    @Test
+    void shouldAggregateCellsByCategoryAndStatusAtLowZoom() {
+        IssueTile world = index.tile(0, 0, 0, null, ANY);
+
+        assertEquals(IssueTile.Mode.CLUSTERS, world.mode());
+        assertEquals(2, world.cells().size());
+        IssueTile.Cell saoPaulo = world.cells().stream().filter(cell -> cell.total() == 3).findFirst().orElseThrow();
+        assertEquals(1L, saoPaulo.counts().get(1L).get(IssueStatus.OPEN));
+        assertEquals(1L, saoPaulo.counts().get(1L).get(IssueStatus.CLOSED));
+        assertEquals(1L, saoPaulo.counts().get(2L).get(IssueStatus.OPEN));
+        assertEquals(2, saoPaulo.quadkey().length());
+    }
+
+    @Test
+    void shouldFilterCellsByCategoryAndStatus() {
+        IssueTile tile = index.tile(0, 0, 0, 1L, EnumSet.of(IssueStatus.OPEN));
+
+        assertEquals(2, tile.cells().size());
+        assertTrue(tile.cells().stream().allMatch(cell -> cell.total() == 1 && cell.counts().keySet().equals(Set.of(1L))));
+    }
+
+    @Test
+    void shouldReturnPointsAboveClusterZoom() {
+        int z = 16;
+        IssueTile tile = index.tile(z, WebMercator.tileX(LON, z), WebMercator.tileY(LAT, z), null, ANY);
+
+        assertEquals(IssueTile.Mode.POINTS, tile.mode());
+        assertEquals(List.of(1L, 2L), tile.points().stream().map(IssueLocation::id).toList());
+        assertTrue(tile.truncated());
+    }
+
+    @Test
+    void shouldMoveIssueAndBumpOnlyTouchedTiles() {
+        int z = 12;
+        long x = WebMercator.tileX(LON, z);
+        long y = WebMercator.tileY(LAT, z);
+        long newYork = index.version(z, WebMercator.tileX(-74.0060, z), WebMercator.tileY(40.7128, z));
+        long before = index.version(z, x, y);
+
+        IssueSnapshot open = new IssueSnapshot(3L, "Buraco", null, IssueStatus.OPEN, 2L, LAT, LON, null, null);
+        index.onIssueChanged(IssueChangedEvent.deleted(open));
+
+        assertNotEquals(before, index.version(z, x, y));
+        assertEquals(newYork, index.version(z, WebMercator.tileX(-74.0060, z), WebMercator.tileY(40.7128, z)));
+        assertNull(index.tile(0, 0, 0, 2L, ANY).cells().stream().findFirst().orElse(null));
+        assertEquals(0, index.version(z, 0, 0));
+    }
+
+    @Test
+    void shouldRejectTilesOutsideTheGrid() {
+        assertThrows(IllegalArgumentException.class, () -> index.tile(2, 4, 0, null, ANY));
+        assertThrows(IllegalArgumentException.class, () -> index.version(25, 0, 0));
+    }
+}
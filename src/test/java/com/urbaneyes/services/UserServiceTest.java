@@ -1,15 +1,22 @@
 package com.urbaneyes.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urbaneyes.dto.TokenResponse;
 import com.urbaneyes.model.User;
 import com.urbaneyes.repository.UserRepository;
+import com.urbaneyes.security.PasswordHasher;
+import com.urbaneyes.security.TokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,6 +26,13 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(4, 1, 10);
+
+    @Spy
+    private TokenService tokenService = new TokenService("0123456789abcdef0123456789abcdef", Duration.ofHours(1),
+            new ObjectMapper());
+
     @InjectMocks
     private UserService userService;
 
@@ -34,37 +48,57 @@ class UserServiceTest {
     void shouldRegisterUser() {
         when(userRepository.save(user)).thenReturn(user);
 
-        User savedUser = userService.registerUser(user);
+        User savedUser = userService.registerUser(user).join();
 
         assertNotNull(savedUser);
         assertEquals("John Doe", savedUser.getUsername());
+        assertTrue(passwordHasher.matches("password123", savedUser.getPassword()).join());
         verify(userRepository, times(1)).save(user);
     }
 
     @Test
     void shouldLoginUserSuccessfully() {
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        User storedUser = new User(1L, "John Doe", "johndoe@example.com",
+                passwordHasher.hash("password123").join());
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(storedUser));
 
-        String loginResponse = userService.loginUser(user);
+        TokenResponse loginResponse = userService.loginUser(user).join();
 
-        assertEquals("Login successful", loginResponse);
+        assertEquals("Bearer", loginResponse.tokenType());
+        assertEquals(3600, loginResponse.expiresIn());
+        assertEquals(1L, tokenService.verify(loginResponse.accessToken()).id());
         verify(userRepository, times(1)).findByEmail(user.getEmail());
     }
 
     @Test
     void shouldThrowExceptionForInvalidLogin() {
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        User storedUser = new User(1L, "John Doe", "johndoe@example.com",
+                passwordHasher.hash("password123").join());
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(storedUser));
 
         User invalidUser = new User(null, null, "johndoe@example.com", "wrongpassword");
 
-        Exception exception = assertThrows(RuntimeException.class, () -> {
-            userService.loginUser(invalidUser);
+        Exception exception = assertThrows(CompletionException.class, () -> {
+            userService.loginUser(invalidUser).join();
         });
 
-        assertEquals("Invalid credentials", exception.getMessage());
+        assertInstanceOf(InvalidCredentialsException.class, exception.getCause());
+        assertEquals("Invalid credentials", exception.getCause().getMessage());
         verify(userRepository, times(1)).findByEmail(user.getEmail());
     }
 
+    @Test
+    void shouldRejectLoginForUnknownEmail() {
+        when(userRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        User unknownUser = new User(null, null, "nobody@example.com", "password123");
+
+        Exception exception = assertThrows(CompletionException.class, () -> userService.loginUser(unknownUser).join());
+        assertInstanceOf(InvalidCredentialsException.class, exception.getCause());
+        // Paga o mesmo BCrypt de uma senha errada
+        verify(passwordHasher, times(1)).matchesNothing("password123");
+    }
+
     @Test
     void shouldGetAllUsers() {
         when(userRepository.findAll()).thenReturn(List.of(user));
@@ -103,11 +137,11 @@ class UserServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(userRepository.save(user)).thenReturn(user);
 
-        User updatedUser = userService.updateUser(1L, updatedUserDetails);
+        User updatedUser = userService.updateUser(1L, updatedUserDetails).join();
 
         assertEquals("Jane Doe", updatedUser.getUsername());
         assertEquals("janedoe@example.com", updatedUser.getEmail());
-        assertEquals("newpassword", updatedUser.getPassword());
+        assertTrue(passwordHasher.matches("newpassword", updatedUser.getPassword()).join());
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).save(user);
     }
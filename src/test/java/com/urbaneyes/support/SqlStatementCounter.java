@@ -0,0 +1,43 @@
+package com.urbaneyes.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Registra todo SQL preparado pelo Hibernate. Ative nos testes de integração com
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector=com.urbaneyes.support.SqlStatementCounter}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.urbaneyes.support.SqlStatementCounter";
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        statements.clear();
+    }
+
+    public static int count() {
+        return statements.size();
+    }
+
+    public static long count(String fragment) {
+        return statements.stream().filter(sql -> sql.contains(fragment)).count();
+    }
+
+    public static void assertAtMost(int budget) {
+        assertTrue(statements.size() <= budget, () -> "Expected at most " + budget + " SQL statements but "
+                + statements.size() + " were executed:\n" + String.join("\n", statements));
+    }
+}